@@ -4,6 +4,7 @@ package top.chickenshout.townypolitical;
 
 import org.bukkit.Bukkit;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.plugin.java.JavaPluginLoader;
@@ -18,9 +19,23 @@ import top.chickenshout.townypolitical.managers.ElectionManager;
 import top.chickenshout.townypolitical.managers.NationManager;
 import top.chickenshout.townypolitical.managers.PartyManager;
 import top.chickenshout.townypolitical.managers.BillManager;
+import top.chickenshout.townypolitical.persistence.SqliteStorageProvider;
+import top.chickenshout.townypolitical.persistence.StartupDataLoader;
+import top.chickenshout.townypolitical.persistence.StorageCategory;
+import top.chickenshout.townypolitical.persistence.StorageProvider;
+import top.chickenshout.townypolitical.persistence.YamlStorageProvider;
+import top.chickenshout.townypolitical.scheduling.BukkitTaskScheduler;
+import top.chickenshout.townypolitical.scheduling.DeadlineScheduler;
+import top.chickenshout.townypolitical.scheduling.FoliaTaskScheduler;
+import top.chickenshout.townypolitical.scheduling.TaskScheduler;
+import top.chickenshout.townypolitical.utils.BroadcastService;
 import top.chickenshout.townypolitical.utils.MessageManager;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 public class TownyPolitical extends JavaPlugin {
@@ -28,8 +43,12 @@ public class TownyPolitical extends JavaPlugin {
     private static TownyPolitical instance;
 
     // Managers and Services
+    private TaskScheduler taskScheduler;
     private MessageManager messageManager;
+    private BroadcastService broadcastService;
     private EconomyService economyService;
+    private StorageProvider storageProvider;
+    private DeadlineScheduler deadlineScheduler;
     private PartyManager partyManager;
     private NationManager nationManager;
     private ElectionManager electionManager;
@@ -75,6 +94,10 @@ public class TownyPolitical extends JavaPlugin {
         getConfig().options().copyDefaults(true); // Copies defaults from JAR's config to user's config for missing keys
         // saveConfig(); // Usually called after making changes to the config in memory, not needed here typically
 
+        // 1.5 Select the task scheduler (Folia region schedulers when available, otherwise Bukkit)
+        this.taskScheduler = createTaskScheduler();
+        getLogger().info("Using " + this.taskScheduler.getName() + " task scheduler.");
+
         // 2. Initialize Message Manager (must be first for other components to use messages)
         getLogger().info("Initializing Message Manager...");
         this.messageManager = new MessageManager(this);
@@ -84,6 +107,7 @@ public class TownyPolitical extends JavaPlugin {
             getServer().getPluginManager().disablePlugin(this);
             return;
         }
+        this.broadcastService = new BroadcastService(this, this.messageManager, this.taskScheduler);
 
         // 3. Initialize Economy Service
         getLogger().info("Initializing Economy Service (Vault)...");
@@ -96,6 +120,16 @@ public class TownyPolitical extends JavaPlugin {
             getLogger().info("Economy Service initialized successfully using: " + this.economyService.getProviderName());
         }
 
+        // 3.5 Initialize Storage Backend (must be ready before any manager loads data)
+        getLogger().info("Initializing Storage Backend...");
+        this.storageProvider = createStorageProvider();
+        if (this.storageProvider == null) { disableCritical("Storage Backend"); return; }
+        getLogger().info("Storage backend initialized: " + this.storageProvider.getName());
+
+        // 3.6 Deadline scheduler: load persisted due times before managers register their deadlines
+        this.deadlineScheduler = new DeadlineScheduler(this, this.taskScheduler, new File(getDataFolder(), "deadlines.yml"));
+        this.deadlineScheduler.load();
+
         // 4. Initialize Core Managers (order can be important due to dependencies)
         // PartyManager, NationManager, then ElectionManager (as ElectionManager uses the other two)
 
@@ -108,13 +142,19 @@ public class TownyPolitical extends JavaPlugin {
         if (this.nationManager == null) { disableCritical("Nation Manager"); return; }
 
         getLogger().info("Initializing Election Manager...");
-        this.electionManager = new ElectionManager(this); // ElectionManager's constructor now calls load and schedule
+        this.electionManager = new ElectionManager(this);
         if (this.electionManager == null) { disableCritical("Election Manager"); return; }
 
         getLogger().info("Initializing Bill Manager..."); // <--- 新增
         this.billManager = new BillManager(this);          // <--- 新增
         if (this.billManager == null) { disableCritical("Bill Manager"); return; } // <--- 新增
 
+        // 4.5 Load all political data: parse in parallel, then install into the managers on the main thread
+        loadStartupData();
+        this.nationManager.getCitizenshipIndex().rebuild(); // Towny 已加载完成，建立公民身份索引
+        this.electionManager.scheduleNextElectionsForAllValidContexts(); // 需要政党、国家和进行中的选举都已安装
+        this.deadlineScheduler.start(); // 所有截止时间都已登记，开始统一检查
+
 
         // 5. Register Event Listeners
         getLogger().info("Registering event listeners...");
@@ -139,6 +179,84 @@ public class TownyPolitical extends JavaPlugin {
         getLogger().info("==================================================");
     }
 
+    /**
+     * 在 Folia 上使用区域调度器，否则使用 BukkitScheduler。Folia 调度器 API 无法解析时回退到 Bukkit。
+     */
+    private TaskScheduler createTaskScheduler() {
+        if (FoliaTaskScheduler.isSupported()) {
+            try {
+                return new FoliaTaskScheduler(this);
+            } catch (ReflectiveOperationException e) {
+                getLogger().log(Level.WARNING, "Folia detected but its scheduler API could not be resolved. Falling back to the Bukkit scheduler.", e);
+            }
+        }
+        return new BukkitTaskScheduler(this);
+    }
+
+    /**
+     * 根据 config.yml 中的 storage.type 创建存储后端。
+     * SQLite 不可用时回退到 YAML。首次启用 SQLite 且数据库为空时，会自动导入现有的 YAML 数据。
+     */
+    private StorageProvider createStorageProvider() {
+        YamlStorageProvider yamlProvider = new YamlStorageProvider(this);
+        String type = getConfig().getString("storage.type", "YAML");
+        if ("SQLITE".equalsIgnoreCase(type)) {
+            File databaseFile = new File(getDataFolder(), getConfig().getString("storage.sqlite.file", "townypolitical.db"));
+            SqliteStorageProvider sqliteProvider = new SqliteStorageProvider(this, databaseFile);
+            if (sqliteProvider.initialize()) {
+                if (sqliteProvider.isEmpty() && getConfig().getBoolean("storage.sqlite.import_yaml_on_first_run", true) && yamlProvider.initialize()) {
+                    importYamlData(yamlProvider, sqliteProvider);
+                }
+                return sqliteProvider;
+            }
+            getLogger().warning("SQLite storage could not be initialized. Falling back to YAML storage.");
+        } else if (!"YAML".equalsIgnoreCase(type)) {
+            getLogger().warning("Unknown storage.type '" + type + "' in config.yml. Using YAML storage.");
+        }
+        return yamlProvider.initialize() ? yamlProvider : null;
+    }
+
+    private void importYamlData(StorageProvider source, StorageProvider target) {
+        getLogger().info("SQLite database is empty. Importing existing YAML data...");
+        for (StorageCategory category : StorageCategory.values()) {
+            try {
+                Map<String, YamlConfiguration> documents = source.loadAll(category);
+                target.saveAll(category, documents);
+                if (!documents.isEmpty()) {
+                    getLogger().info("Imported " + documents.size() + " " + category.name() + " documents.");
+                }
+            } catch (IOException e) {
+                getLogger().log(Level.SEVERE, "Failed to import " + category.name() + " data into SQLite.", e);
+            }
+        }
+    }
+
+    /**
+     * 在有界的 ForkJoinPool 上并行读取和解析全部数据，然后在主线程上按依赖顺序
+     * (政党 → 国家 → 选举 → 法案) 一次性安装到各管理器中，并输出各阶段耗时。
+     */
+    private void loadStartupData() {
+        getLogger().info("Loading political data...");
+        long start = System.nanoTime();
+        StartupDataLoader loader = new StartupDataLoader(this, storageProvider, getConfig().getInt("storage.startup_load_threads", 0));
+        Map<StorageCategory, StartupDataLoader.CategoryResult> results = loader.loadAll(
+                StorageCategory.PARTIES, StorageCategory.NATION_POLITICS, StorageCategory.ELECTIONS_ACTIVE, StorageCategory.ELECTION_RESULTS, StorageCategory.BILLS);
+
+        installStartupData(results.get(StorageCategory.PARTIES), partyManager::installParties);
+        installStartupData(results.get(StorageCategory.NATION_POLITICS), nationManager::installNationPoliticsData);
+        installStartupData(results.get(StorageCategory.ELECTIONS_ACTIVE), electionManager::installActiveElections);
+        installStartupData(results.get(StorageCategory.ELECTION_RESULTS), electionManager::installLatestResults); // 在选举之后，安装选举时会重建索引
+        installStartupData(results.get(StorageCategory.BILLS), billManager::installBills);
+
+        loader.logSummary(results, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void installStartupData(StartupDataLoader.CategoryResult result, Consumer<Map<String, YamlConfiguration>> installer) {
+        long start = System.nanoTime();
+        installer.accept(result.getDocuments());
+        result.setInstallMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
     private void disableCritical(String componentName) {
         getLogger().severe(componentName + " failed to initialize! Plugin cannot enable.");
         getServer().getPluginManager().disablePlugin(this);
@@ -197,7 +315,18 @@ public class TownyPolitical extends JavaPlugin {
             getLogger().info("Shutting down Nation Manager...");
             nationManager.shutdown();
         }
+        if (deadlineScheduler != null) {
+            getLogger().info("Saving " + deadlineScheduler.size() + " scheduled deadlines...");
+            deadlineScheduler.shutdown(); // 管理器关闭后才保存，保留它们登记的全部截止时间
+        }
+        if (taskScheduler != null) {
+            taskScheduler.cancelAll(); // 包括尚未发送完的分批广播
+        }
         // EconomyService and MessageManager don't typically need a shutdown method for saving data.
+        if (storageProvider != null) {
+            getLogger().info("Closing storage backend...");
+            storageProvider.close(); // 所有管理器的数据都已保存后才关闭
+        }
 
         // 2. Unregister listeners (Bukkit does this automatically, but explicit can be clearer)
         // HandlerList.unregisterAll(this); // If main class itself was a listener (not our case)
@@ -205,7 +334,11 @@ public class TownyPolitical extends JavaPlugin {
 
         // 3. Clear resources and references
         this.messageManager = null;
+        this.broadcastService = null;
         this.economyService = null;
+        this.storageProvider = null;
+        this.deadlineScheduler = null;
+        this.taskScheduler = null;
         this.partyManager = null;
         this.nationManager = null;
         this.electionManager = null;
@@ -247,6 +380,21 @@ public class TownyPolitical extends JavaPlugin {
         return messageManager;
     }
 
+    public TaskScheduler getTaskScheduler() {
+        if (taskScheduler == null) throw new IllegalStateException("TaskScheduler is not initialized.");
+        return taskScheduler;
+    }
+
+    public DeadlineScheduler getDeadlineScheduler() {
+        if (deadlineScheduler == null) throw new IllegalStateException("DeadlineScheduler is not initialized.");
+        return deadlineScheduler;
+    }
+
+    public BroadcastService getBroadcastService() {
+        if (broadcastService == null) throw new IllegalStateException("BroadcastService is not initialized.");
+        return broadcastService;
+    }
+
     public EconomyService getEconomyService() {
         if (economyService == null) throw new IllegalStateException("EconomyService is not initialized.");
         // Optional: Log if accessed when !isEnabled, but don't throw, let calling code handle it.
@@ -256,6 +404,11 @@ public class TownyPolitical extends JavaPlugin {
         return economyService;
     }
 
+    public StorageProvider getStorageProvider() {
+        if (storageProvider == null) throw new IllegalStateException("StorageProvider is not initialized.");
+        return storageProvider;
+    }
+
     public PartyManager getPartyManager() {
         if (partyManager == null) throw new IllegalStateException("PartyManager is not initialized.");
         return partyManager;
@@ -308,7 +461,7 @@ public class TownyPolitical extends JavaPlugin {
             // A simple approach: re-create it or have a dedicated reload method.
             if (electionManager != null) {
                 getLogger().info("Re-initializing ElectionManager data and schedules for reload...");
-                // ElectionManager's constructor calls loadActiveElections and scheduleNextElectionsForAllValidContexts
+                // On startup TownyPolitical installs active elections and then calls scheduleNextElectionsForAllValidContexts
                 // To properly reload it, we might need to clear its internal state first if not re-instantiating.
                 // A simple but potentially disruptive way for full data reload:
                 // this.electionManager = new ElectionManager(this);
@@ -60,8 +60,8 @@ public class PoliticalTabCompleter implements TabCompleter {
             "setgov", "info", "listgov", "setmonarch", "appointpremier", "parliament" // 'parliament' for parliamentinfo
     );
     private static final List<String> ELECTION_SUBCOMMANDS = Arrays.asList(
-            "info", "candidates", "register", "vote", "results", // User commands
-            "start", "stop" // Admin commands
+            "info", "candidates", "register", "vote", "results", "history", // User commands
+            "start", "stop", "pipeline", "calendar" // Admin commands
     );
     private static final List<String> BILL_SUBCOMMANDS = Arrays.asList( // <--- 新增
             "propose", "list", "info", "vote" // "cancel", "enact" for future
@@ -372,6 +372,13 @@ public class PoliticalTabCompleter implements TabCompleter {
                         suggestTargetsForElectionVote(sender, args, actualArgIndex, currentArg, completions);
                     }
                     break;
+                case "history": // /tp e history <context> [type] [page]
+                    if (args.length == actualArgIndex + 1) {
+                        suggestContextNames(currentArg, completions);
+                    } else if (args.length == actualArgIndex + 2) {
+                        Stream.of(ElectionType.values()).map(et -> et.name().toLowerCase()).filter(name -> name.startsWith(currentArg)).forEach(completions::add);
+                    }
+                    break;
                 case "start": // /tp e start <nation_name> <type:parliament|president>
                 case "stop":  // /tp e stop <nation_name> <type:parliament|president> [reason]
                     if (args.length == actualArgIndex + 1 && TownyAPI.getInstance() != null) { // Typing nation name
@@ -15,6 +15,11 @@ import top.chickenshout.townypolitical.TownyPolitical;
 import top.chickenshout.townypolitical.data.Party;
 import top.chickenshout.townypolitical.elections.Candidate;
 import top.chickenshout.townypolitical.elections.Election;
+import top.chickenshout.townypolitical.elections.ElectionArchive;
+import top.chickenshout.townypolitical.elections.ElectionCalendarEntry;
+import top.chickenshout.townypolitical.elections.ElectionFinishPipeline;
+import top.chickenshout.townypolitical.elections.seats.SeatProjection;
+import top.chickenshout.townypolitical.enums.BallotMode;
 import top.chickenshout.townypolitical.enums.ElectionStatus;
 import top.chickenshout.townypolitical.enums.ElectionType;
 import top.chickenshout.townypolitical.managers.ElectionManager;
@@ -32,6 +37,7 @@ public class ElectionCommandsHandler {
     private final ElectionManager electionManager;
     private final PartyManager partyManager;
     private final SimpleDateFormat dateFormat;
+    private static final int CALENDAR_MAX_ENTRIES = 20; // 日程一次最多显示的条目数
     private String currentSubCommand = null; // 用于辅助 parseElectionContext
 
     public ElectionCommandsHandler(TownyPolitical plugin) {
@@ -88,6 +94,15 @@ public class ElectionCommandsHandler {
             case "cancel":
                 result = handleAdminStopCommand(sender, commandLabel, subArgs);
                 break;
+            case "pipeline":
+                result = handleAdminPipelineCommand(sender);
+                break;
+            case "calendar":
+                result = handleAdminCalendarCommand(sender, commandLabel, subArgs);
+                break;
+            case "history":
+                result = handleHistoryCommand(sender, commandLabel, subArgs);
+                break;
             case "help":
             case "?":
                 sendElectionHelp(sender, commandLabel);
@@ -233,9 +248,12 @@ public class ElectionCommandsHandler {
             messageManager.sendRawMessage(sender, "election-info-voting-ends", "time", dateFormat.format(new Date(election.getEndTime())));
         }
 
+        if (election.getType() != ElectionType.PARLIAMENTARY) {
+            messageManager.sendRawMessage(sender, "election-info-ballot-mode", "mode", election.getBallotMode().getDisplayName());
+        }
         messageManager.sendRawMessage(sender, "election-info-candidates-count", "count", String.valueOf(election.getCandidates().size()));
         if (election.getStatus() != ElectionStatus.NONE && election.getStatus() != ElectionStatus.PENDING_START && election.getStatus() != ElectionStatus.CANCELLED) {
-            messageManager.sendRawMessage(sender, "election-info-votes-cast", "count", String.valueOf(election.getVoters().size()));
+            messageManager.sendRawMessage(sender, "election-info-votes-cast", "count", String.valueOf(election.voteCount()));
         }
 
         if (election.getStatus() == ElectionStatus.FINISHED) {
@@ -425,14 +443,28 @@ public class ElectionCommandsHandler {
             }
             electionManager.castVoteForParty(voter, election, partyToVoteFor);
         } else { // 总统或党魁选举
-            Optional<Candidate> targetCandidateOpt = election.getCandidates().stream()
-                    .filter(c -> c.getResolvedPlayerName().equalsIgnoreCase(candidateNameArg))
-                    .findFirst();
-            if (targetCandidateOpt.isEmpty()) {
-                messageManager.sendMessage(voter, "election-vote-fail-candidate-not-found", "candidate_name", candidateNameArg);
+            // 排序复选制下用逗号分隔多个候选人，第一偏好在前，例如 "Alice,Bob,Carol"
+            String[] candidateNames = candidateNameArg.split(",");
+            if (candidateNames.length > 1 && election.getBallotMode() != BallotMode.RANKED) {
+                messageManager.sendMessage(voter, "election-vote-fail-ranking-not-allowed");
                 return true;
             }
-            electionManager.castVote(voter, election, targetCandidateOpt.get());
+            List<Candidate> ranking = new ArrayList<>(candidateNames.length);
+            for (String candidateName : candidateNames) {
+                Optional<Candidate> targetCandidateOpt = election.getCandidates().stream()
+                        .filter(c -> c.getResolvedPlayerName().equalsIgnoreCase(candidateName.trim()))
+                        .findFirst();
+                if (targetCandidateOpt.isEmpty()) {
+                    messageManager.sendMessage(voter, "election-vote-fail-candidate-not-found", "candidate_name", candidateName.trim());
+                    return true;
+                }
+                ranking.add(targetCandidateOpt.get());
+            }
+            if (election.getBallotMode() == BallotMode.RANKED) {
+                electionManager.castRankedVote(voter, election, ranking);
+            } else {
+                electionManager.castVote(voter, election, ranking.get(0));
+            }
         }
         return true;
     }
@@ -447,6 +479,15 @@ public class ElectionCommandsHandler {
 
         ParsedElectionContext parsed = parseElectionContext(sender, subArgs, null);
 
+        // 投票中的议会选举：显示实时席位预测
+        if (parsed != null && parsed.election != null) {
+            Optional<SeatProjection.View> projection = electionManager.getSeatProjection(parsed.election);
+            if (projection.isPresent()) {
+                displaySeatProjection(sender, parsed.election, projection.get());
+                return true;
+            }
+        }
+
         Election electionToShowResultsFor = null;
         if (parsed != null && parsed.election != null && parsed.election.getStatus() == ElectionStatus.FINISHED) {
             electionToShowResultsFor = parsed.election;
@@ -454,6 +495,17 @@ public class ElectionCommandsHandler {
             Optional<Election> latestFinishedOpt = electionManager.getLatestFinishedElection(parsed.contextId, parsed.determinedType);
             if (latestFinishedOpt.isPresent()) {
                 electionToShowResultsFor = latestFinishedOpt.get();
+            } else if (electionManager.getLatestResult(parsed.contextId, parsed.determinedType).isPresent()) {
+                // 最近一次选举已归档且不在缓存中：在异步线程上读取归档文件，读完后再显示
+                electionManager.loadLatestFinishedElection(parsed.contextId, parsed.determinedType, loaded -> {
+                    if (sender instanceof Player && !((Player) sender).isOnline()) return;
+                    if (loaded.isPresent()) {
+                        displayElectionResults(sender, loaded.get());
+                    } else {
+                        messageManager.sendMessage(sender, "election-results-none-found", "context", parsed.contextName);
+                    }
+                });
+                return true;
             }
         }
 
@@ -479,11 +531,15 @@ public class ElectionCommandsHandler {
             return true;
         }
 
+        displayElectionResults(sender, electionToShowResultsFor);
+        return true;
+    }
 
+    private void displayElectionResults(CommandSender sender, Election electionToShowResultsFor) {
         if (electionToShowResultsFor.getStatus() != ElectionStatus.FINISHED) {
             messageManager.sendMessage(sender, "election-results-not-finished", "status", electionToShowResultsFor.getStatus().getDisplayName());
             displayElectionInfo(sender, electionToShowResultsFor);
-            return true;
+            return;
         }
 
         displayElectionInfo(sender, electionToShowResultsFor);
@@ -498,7 +554,27 @@ public class ElectionCommandsHandler {
                         messageManager.sendRawMessage(sender, "election-results-parliament-seat-entry", "party_name", partyName, "seats", String.valueOf(entry.getValue()));
                     });
         }
-        return true;
+    }
+
+    private void displaySeatProjection(CommandSender sender, Election election, SeatProjection.View projection) {
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+        messageManager.sendRawMessage(sender, "election-results-projection-header",
+                "context", electionManager.getContextName(election.getContextId(), election.getType()),
+                "total_votes", String.valueOf(projection.getTotalVotes()),
+                "time", timeFormat.format(new Date(projection.getComputedAt())));
+        if (projection.getSeats().isEmpty()) {
+            messageManager.sendRawMessage(sender, "election-results-projection-none");
+            return;
+        }
+        projection.getSeats().entrySet().stream()
+                .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed())
+                .forEach(entry -> {
+                    Party party = partyManager.getParty(entry.getKey());
+                    String partyName = (party != null) ? party.getName() : "未知政党 (" + entry.getKey().toString().substring(0, 6) + ")";
+                    messageManager.sendRawMessage(sender, "election-results-projection-entry", "party_name", partyName,
+                            "seats", String.valueOf(entry.getValue()),
+                            "votes", String.valueOf(projection.getPartyVotes().getOrDefault(entry.getKey(), 0)));
+                });
     }
 
     private boolean handleAdminStartCommand(CommandSender sender, String commandLabel, String[] subArgs) { /* ... 之前的完整实现 ... */
@@ -642,6 +718,164 @@ public class ElectionCommandsHandler {
         return true;
     }
 
+    private boolean handleAdminPipelineCommand(CommandSender sender) {
+        if (!sender.hasPermission("townypolitical.election.manage")) {
+            messageManager.sendMessage(sender, "error-no-permission");
+            return true;
+        }
+        ElectionFinishPipeline<?> pipeline = electionManager.getFinishPipeline();
+        messageManager.sendRawMessage(sender, "election-pipeline-header");
+        messageManager.sendRawMessage(sender, "election-pipeline-depth",
+                "depth", String.valueOf(pipeline.getQueueDepth()),
+                "awaiting", String.valueOf(pipeline.getAwaitingApplyCount()));
+        messageManager.sendRawMessage(sender, "election-pipeline-lag",
+                "last_lag", String.valueOf(pipeline.getLastLagMillis()),
+                "max_lag", String.valueOf(pipeline.getMaxLagMillis()));
+        messageManager.sendRawMessage(sender, "election-pipeline-finished", "finished", String.valueOf(pipeline.getFinishedCount()));
+        return true;
+    }
+
+    private boolean handleAdminCalendarCommand(CommandSender sender, String commandLabel, String[] subArgs) {
+        if (!sender.hasPermission("townypolitical.election.manage")) {
+            messageManager.sendMessage(sender, "error-no-permission");
+            return true;
+        }
+        int hours = 24;
+        if (subArgs.length > 0) {
+            try {
+                hours = Integer.parseInt(subArgs[0]);
+            } catch (NumberFormatException e) {
+                hours = -1;
+            }
+            if (hours <= 0) {
+                messageManager.sendMessage(sender, "error-invalid-arguments", "usage", "/" + commandLabel + " calendar [小时数]");
+                return true;
+            }
+        }
+
+        List<ElectionCalendarEntry> calendar = electionManager.getElectionCalendar(hours * 3600_000L);
+        messageManager.sendRawMessage(sender, "election-calendar-header", "hours", String.valueOf(hours));
+        if (calendar.isEmpty()) {
+            messageManager.sendRawMessage(sender, "election-calendar-none");
+            return true;
+        }
+        int shown = Math.min(calendar.size(), CALENDAR_MAX_ENTRIES);
+        for (int i = 0; i < shown; i++) {
+            ElectionCalendarEntry entry = calendar.get(i);
+            messageManager.sendRawMessage(sender, "election-calendar-entry",
+                    "time", dateFormat.format(new Date(entry.getDueAt())),
+                    "event", entry.getEvent().getDisplayName(),
+                    "type", entry.getType().getDisplayName(),
+                    "context", electionManager.getContextName(entry.getContextId(), entry.getType()));
+        }
+        if (calendar.size() > shown) {
+            messageManager.sendRawMessage(sender, "election-calendar-more", "count", String.valueOf(calendar.size() - shown));
+        }
+        // 日程中最繁忙的一分钟 (包括不受上限约束的投票截止)
+        Map<Long, Integer> perMinute = new HashMap<>();
+        for (ElectionCalendarEntry entry : calendar) {
+            perMinute.merge(entry.getDueAt() / 60_000L, 1, Integer::sum);
+        }
+        int cap = plugin.getConfig().getInt("elections.scheduling.max_transitions_per_minute", 10);
+        messageManager.sendRawMessage(sender, "election-calendar-summary",
+                "count", String.valueOf(calendar.size()),
+                "peak", String.valueOf(Collections.max(perMinute.values())),
+                "cap", cap > 0 ? String.valueOf(cap) : "不限");
+        return true;
+    }
+
+    private boolean handleHistoryCommand(CommandSender sender, String commandLabel, String[] subArgs) {
+        if (!sender.hasPermission("townypolitical.election.info")) {
+            messageManager.sendMessage(sender, "error-no-permission");
+            return true;
+        }
+        // 参数格式: <国家|政党> [类型] [页码]，从末尾依次识别页码和类型，其余部分为上下文名称
+        List<String> args = new ArrayList<>(Arrays.asList(subArgs));
+        int page = 1;
+        if (args.size() > 1) {
+            try {
+                page = Math.max(1, Integer.parseInt(args.get(args.size() - 1)));
+                args.remove(args.size() - 1);
+            } catch (NumberFormatException ignored) {
+                // 最后一个参数不是页码
+            }
+        }
+        ElectionType type = null;
+        if (args.size() > 1) {
+            Optional<ElectionType> typeOpt = ElectionType.fromString(args.get(args.size() - 1).toUpperCase());
+            if (typeOpt.isPresent()) {
+                type = typeOpt.get();
+                args.remove(args.size() - 1);
+            }
+        }
+        if (args.isEmpty()) {
+            messageManager.sendMessage(sender, "error-invalid-arguments", "usage", "/" + commandLabel + " history <国家|政党> [类型] [页码]");
+            return true;
+        }
+
+        String nameArg = String.join(" ", args);
+        UUID contextId;
+        String contextName;
+        Nation nation = TownyAPI.getInstance().getNation(nameArg);
+        if (nation != null) {
+            contextId = nation.getUUID();
+            contextName = nation.getName();
+        } else {
+            Party party = partyManager.getParty(nameArg);
+            if (party == null) party = partyManager.getParty(nameArg.replace("_", " ")); // Tab 补全用下划线代替空格
+            if (party == null) {
+                messageManager.sendMessage(sender, "error-context-not-found", "context", nameArg);
+                return true;
+            }
+            contextId = party.getPartyId();
+            contextName = party.getName();
+        }
+
+        String typeName = type != null ? type.getDisplayName() : "全部类型";
+        int total = electionManager.countElectionHistory(contextId, type);
+        if (total == 0) {
+            messageManager.sendRawMessage(sender, "election-history-empty", "context", contextName, "type", typeName);
+            return true;
+        }
+        int itemsPerPage = Math.max(1, plugin.getConfig().getInt("elections.archive.history_items_per_page", 8));
+        int totalPages = (total + itemsPerPage - 1) / itemsPerPage;
+        if (page > totalPages) page = totalPages;
+
+        messageManager.sendRawMessage(sender, "election-history-header",
+                "context", contextName,
+                "type", typeName,
+                "current_page", String.valueOf(page),
+                "total_pages", String.valueOf(totalPages));
+        for (ElectionArchive.Entry entry : electionManager.getElectionHistory(contextId, type, (page - 1) * itemsPerPage, itemsPerPage)) {
+            messageManager.sendRawMessage(sender, "election-history-entry",
+                    "time", dateFormat.format(new Date(entry.getEndTime())),
+                    "type", entry.getType().getDisplayName(),
+                    "outcome", describeArchivedOutcome(entry),
+                    "id", entry.getElectionId().toString().substring(0, 8));
+        }
+        if (page < totalPages) {
+            messageManager.sendRawMessage(sender, "election-history-next-page", "next_page_command",
+                    "/" + commandLabel + " history " + contextName.replace(" ", "_") + (type != null ? " " + type.name().toLowerCase() : "") + " " + (page + 1));
+        }
+        return true;
+    }
+
+    private String describeArchivedOutcome(ElectionArchive.Entry entry) {
+        if (entry.getStatus() == ElectionStatus.CANCELLED) {
+            return "已取消";
+        }
+        if (entry.getWinnerPlayerUUID().isPresent()) {
+            UUID uuid = entry.getWinnerPlayerUUID().get();
+            OfflinePlayer winner = Bukkit.getOfflinePlayer(uuid);
+            return "获胜者: " + (winner.getName() != null ? winner.getName() : "ID:" + uuid.toString().substring(0, 6));
+        }
+        if (entry.getWinnerPartyUUID().isPresent()) {
+            UUID uuid = entry.getWinnerPartyUUID().get();
+            Party party = partyManager.getParty(uuid);
+            return "多数党: " + (party != null ? party.getName() : "ID:" + uuid.toString().substring(0, 6));
+        }
+        return "无获胜者";
+    }
 
     private void sendElectionHelp(CommandSender sender, String commandLabel) { /* ... 之前的完整实现 ... */
         String displayLabel = commandLabel.split(" ")[0];
@@ -654,6 +888,7 @@ public class ElectionCommandsHandler {
             messageManager.sendRawMessage(sender, "help-election-info", "label", displayLabel);
             messageManager.sendRawMessage(sender, "help-election-candidates", "label", displayLabel);
             messageManager.sendRawMessage(sender, "help-election-results", "label", displayLabel);
+            messageManager.sendRawMessage(sender, "help-election-history", "label", displayLabel);
         }
         if (sender.hasPermission("townypolitical.election.registercandidate"))
             messageManager.sendRawMessage(sender, "help-election-register", "label", displayLabel);
@@ -663,6 +898,8 @@ public class ElectionCommandsHandler {
         if (sender.hasPermission("townypolitical.election.manage")) {
             messageManager.sendRawMessage(sender, "help-election-admin-start", "label", displayLabel);
             messageManager.sendRawMessage(sender, "help-election-admin-stop", "label", displayLabel);
+            messageManager.sendRawMessage(sender, "help-election-admin-pipeline", "label", displayLabel);
+            messageManager.sendRawMessage(sender, "help-election-admin-calendar", "label", displayLabel);
         }
         messageManager.sendRawMessage(sender, "help-footer");
     }
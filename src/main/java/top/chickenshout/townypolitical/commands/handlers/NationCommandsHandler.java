@@ -6,7 +6,7 @@ import com.palmergames.bukkit.towny.TownyAPI;
 import top.chickenshout.townypolitical.data.Party; // 需要导入
 import top.chickenshout.townypolitical.managers.ElectionManager; // 需要导入
 import top.chickenshout.townypolitical.managers.PartyManager; // 需要导入
-import top.chickenshout.townypolitical.elections.Election; // 需要导入
+import top.chickenshout.townypolitical.elections.ElectionResult;
 import top.chickenshout.townypolitical.enums.ElectionType; // 需要导入
 import java.util.Map; // 需要导入
 import com.palmergames.bukkit.towny.exceptions.NotRegisteredException;
@@ -256,14 +256,14 @@ public class NationCommandsHandler {
 
         // 查找最近一次完成的议会选举
         // 这需要 ElectionManager 提供一个方法来获取特定国家特定类型的最新已完成选举
-        Optional<Election> latestParliamentElectionOpt = electionManager.getLatestFinishedElection(targetNation.getUUID(), ElectionType.PARLIAMENTARY);
+        Optional<ElectionResult> latestParliamentElectionOpt = electionManager.getLatestResult(targetNation.getUUID(), ElectionType.PARLIAMENTARY);
 
         if (!latestParliamentElectionOpt.isPresent()) {
             messageManager.sendMessage(sender, "nation-parliament-info-no-election-data", "nation_name", targetNation.getName());
             return true;
         }
 
-        Election latestElection = latestParliamentElectionOpt.get();
+        ElectionResult latestElection = latestParliamentElectionOpt.get();
         Map<UUID, Integer> seatDistribution = latestElection.getPartySeatDistribution();
 
         messageManager.sendRawMessage(sender, "nation-parliament-info-header", "nation_name", targetNation.getName());
@@ -286,8 +286,8 @@ public class NationCommandsHandler {
                                 "seats", String.valueOf(entry.getValue()));
                     });
             // 显示多数党/执政党（如果有）
-            if (latestElection.getWinnerPartyUUID() != null) {
-                Party rulingParty = partyManager.getParty(String.valueOf(latestElection.getWinnerPartyUUID()));
+            if (latestElection.getWinnerPartyUUID().isPresent()) {
+                Party rulingParty = partyManager.getParty(latestElection.getWinnerPartyUUID().get());
                 if (rulingParty != null) {
                     messageManager.sendRawMessage(sender, "nation-parliament-info-ruling-party", "party_name", rulingParty.getName());
                 }
@@ -441,16 +441,7 @@ public class NationCommandsHandler {
     // 需要在 NationCommandsHandler 中添加 broadcastToNation 方法 (如果还没有)
     private void broadcastToNation(Nation nation, String messageKey, Object... placeholders) {
         if (nation == null) return;
-        String message = messageManager.getMessage(messageKey, placeholders); // 使用带前缀的
-        for (Resident resident : nation.getResidents()) {
-            if (resident.isOnline()) {
-                Player player = Bukkit.getPlayer(resident.getUUID());
-                if (player != null) {
-                    // messageManager.sendMessage(player, messageKey, placeholders); // 如果想用 sendMessage
-                    player.sendMessage(message); // 直接发送已格式化的
-                }
-            }
-        }
-        plugin.getLogger().info("[Nation Broadcast to " + nation.getName() + "] " + messageManager.getRawMessage(messageKey, Arrays.toString(placeholders))); // 日志用原始消息
+        plugin.getBroadcastService().broadcast("Nation Broadcast to " + nation.getName(),
+                nationManager.getCitizenshipIndex().getOnlineCitizens(nation.getUUID()), messageKey, placeholders); // 只发给在线公民
     }
-}
\ No newline at end of file
+}
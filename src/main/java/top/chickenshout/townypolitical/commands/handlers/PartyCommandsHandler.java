@@ -412,7 +412,7 @@ public class PartyCommandsHandler {
         }
 
         String targetPlayerName = subArgs[0];
-        OfflinePlayer targetPlayer = Bukkit.getOfflinePlayer(targetPlayerName);
+        OfflinePlayer targetPlayer = partyManager.resolvePartyMemberByName(partyManager.getPartyByMember(kicker.getUniqueId()), targetPlayerName);
         if (!targetPlayer.hasPlayedBefore() && !targetPlayer.isOnline()) {
             messageManager.sendMessage(kicker, "error-player-not-found-or-never-played", "player", targetPlayerName);
             return true;
@@ -446,7 +446,7 @@ public class PartyCommandsHandler {
         }
 
         String targetPlayerName = subArgs[0];
-        OfflinePlayer targetPlayer = Bukkit.getOfflinePlayer(targetPlayerName);
+        OfflinePlayer targetPlayer = partyManager.resolvePartyMemberByName(partyManager.getPartyByMember(promoter.getUniqueId()), targetPlayerName);
         if (!targetPlayer.hasPlayedBefore() && !targetPlayer.isOnline()) {
             messageManager.sendMessage(promoter, "error-player-not-found-or-never-played", "player", targetPlayerName);
             return true;
@@ -480,7 +480,7 @@ public class PartyCommandsHandler {
         }
 
         String targetPlayerName = subArgs[0];
-        OfflinePlayer targetPlayer = Bukkit.getOfflinePlayer(targetPlayerName);
+        OfflinePlayer targetPlayer = partyManager.resolvePartyMemberByName(partyManager.getPartyByMember(demoter.getUniqueId()), targetPlayerName);
         if (!targetPlayer.hasPlayedBefore() && !targetPlayer.isOnline()) {
             messageManager.sendMessage(demoter, "error-player-not-found-or-never-played", "player", targetPlayerName);
             return true;
@@ -542,7 +542,7 @@ public class PartyCommandsHandler {
         }
 
         String targetPlayerName = subArgs[0];
-        OfflinePlayer newLeaderPlayer = Bukkit.getOfflinePlayer(targetPlayerName);
+        OfflinePlayer newLeaderPlayer = partyManager.resolvePartyMemberByName(partyManager.getPartyByMember(currentLeader.getUniqueId()), targetPlayerName);
         if (!newLeaderPlayer.hasPlayedBefore() && !newLeaderPlayer.isOnline()) {
             messageManager.sendMessage(currentLeader, "error-player-not-found-or-never-played", "player", targetPlayerName);
             return true;
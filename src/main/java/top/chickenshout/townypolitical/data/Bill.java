@@ -4,6 +4,7 @@ package top.chickenshout.townypolitical.data;
 
 import top.chickenshout.townypolitical.enums.BillStatus;
 import top.chickenshout.townypolitical.enums.VoteChoice; // 需要导入
+import top.chickenshout.townypolitical.persistence.DirtyTracker;
 
 import java.util.Map;
 import java.util.UUID;
@@ -20,14 +21,15 @@ public class Bill {
     private String proposerNameCache;      // 提案人名称缓存
     private String title;                  // 法案标题
     private String content;                // 法案内容 (纯文本)
-    private BillStatus status;             // 法案当前状态
+    private volatile BillStatus status;             // 法案当前状态 (投票截止在全局线程上修改，玩家命令读取)
     private long proposalTimestamp;        // 提案时间戳
-    private long votingEndTimestamp;       // (如果需要议会投票) 投票截止时间戳
-    private long enactmentTimestamp;       // (如果已颁布) 颁布时间戳
+    private volatile long votingEndTimestamp;       // (如果需要议会投票) 投票截止时间戳
+    private volatile long enactmentTimestamp;       // (如果已颁布) 颁布时间戳
 
     // 存储议员投票记录 <议员PlayerUUID, VoteChoice>
     // 仅在需要议会投票的政体下使用
     private final Map<UUID, VoteChoice> votes;
+    private final transient DirtyTracker dirtyTracker = new DirtyTracker(); // 持久化版本号
 
     public Bill(UUID billId, UUID nationId, UUID proposerId, String title, String content) {
         if (billId == null || nationId == null || proposerId == null || title == null || title.trim().isEmpty() || content == null || content.trim().isEmpty()) {
@@ -91,29 +93,35 @@ public class Bill {
     // Setters
     public void setProposerNameCache(String proposerNameCache) {
         this.proposerNameCache = proposerNameCache;
+        dirtyTracker.markDirty();
     }
 
     public void setTitle(String title) {
         if (title == null || title.trim().isEmpty()) throw new IllegalArgumentException("Title cannot be null or empty.");
         this.title = title.trim();
+        dirtyTracker.markDirty();
     }
 
     public void setContent(String content) {
         if (content == null || content.trim().isEmpty()) throw new IllegalArgumentException("Content cannot be null or empty.");
         this.content = content.trim();
+        dirtyTracker.markDirty();
     }
 
     public void setStatus(BillStatus status) {
         if (status == null) throw new IllegalArgumentException("Bill status cannot be null.");
         this.status = status;
+        dirtyTracker.markDirty();
     }
 
     public void setVotingEndTimestamp(long votingEndTimestamp) {
         this.votingEndTimestamp = votingEndTimestamp;
+        dirtyTracker.markDirty();
     }
 
     public void setEnactmentTimestamp(long enactmentTimestamp) {
         this.enactmentTimestamp = enactmentTimestamp;
+        dirtyTracker.markDirty();
     }
 
     // Vote management
@@ -121,11 +129,13 @@ public class Bill {
         if (voterId == null || choice == null) return;
         if (this.status == BillStatus.VOTING) { // 只能在投票阶段投票
             this.votes.put(voterId, choice);
+            dirtyTracker.markDirty();
         }
     }
 
     public void clearVotes() {
         this.votes.clear();
+        dirtyTracker.markDirty();
     }
 
     public int getYeaVotes() {
@@ -140,6 +150,34 @@ public class Bill {
         return (int) votes.values().stream().filter(v -> v == VoteChoice.ABSTAIN).count();
     }
 
+    // --- Dirty Tracking (管理器据此只保存自上次保存以来有变化的实体) ---
+    public long getVersion() {
+        return dirtyTracker.getVersion();
+    }
+
+    public boolean isDirty() {
+        return dirtyTracker.isDirty();
+    }
+
+    public void markDirty() {
+        dirtyTracker.markDirty();
+    }
+
+    /**
+     * 记录序列化时的版本已成功写入存储。
+     * @param persistedVersion 序列化前通过 {@link #getVersion()} 取得的版本号
+     */
+    public void markSaved(long persistedVersion) {
+        dirtyTracker.markSaved(persistedVersion);
+    }
+
+    /**
+     * 将当前状态视为已保存 (从存储加载完成后调用)。
+     */
+    public void markClean() {
+        dirtyTracker.markClean();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -165,5 +203,6 @@ public class Bill {
 
     public void setProposalTimestamp(long proposalTimestamp) {
         this.proposalTimestamp = proposalTimestamp;
+        dirtyTracker.markDirty();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
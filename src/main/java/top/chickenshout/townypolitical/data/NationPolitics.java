@@ -4,6 +4,7 @@ package top.chickenshout.townypolitical.data;
 
 import top.chickenshout.townypolitical.enums.ElectionType;
 import top.chickenshout.townypolitical.enums.GovernmentType;
+import top.chickenshout.townypolitical.persistence.DirtyTracker;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -15,15 +16,16 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class NationPolitics {
     private final UUID nationUUID; // 对应 Towny Nation 的 UUID，这是主要的关联键
-    private GovernmentType governmentType;
+    private volatile GovernmentType governmentType;
     // 存储国家级选举的上次完成时间 <ElectionType (PARLIAMENTARY/PRESIDENTIAL), Timestamp>
     private final Map<ElectionType, Long> lastElectionCompletionTimes;
-    private UUID titularMonarchUUID = null; // 虚位君主的UUID (主要用于君主立宪制)
-    private UUID primeMinisterUUID = null;  // 总理的UUID (主要用于半总统制、议会制、君主立宪制)
+    private volatile UUID titularMonarchUUID = null; // 虚位君主的UUID (主要用于君主立宪制)
+    private volatile UUID primeMinisterUUID = null;  // 总理的UUID (主要用于半总统制、议会制、君主立宪制)
     // 存储议会构成 <PartyUUID, List<PlayerUUID_of_MP>>
     private final Map<UUID, List<UUID>> parliamentaryMembersByParty;
     // 存储议会选举后各党应有的席位数 <PartyUUID, Integer (seats won)>
     private final Map<UUID, Integer> parliamentarySeatsWonByParty;
+    private final transient DirtyTracker dirtyTracker = new DirtyTracker(); // 持久化版本号
 
     /**
      * 构造一个新的国家政治信息对象。
@@ -38,7 +40,7 @@ public class NationPolitics {
         }
         this.nationUUID = nationUUID;
         this.governmentType = GovernmentType.PARLIAMENTARY_REPUBLIC; // 默认政体
-        this.lastElectionCompletionTimes = new EnumMap<>(ElectionType.class);
+        this.lastElectionCompletionTimes = Collections.synchronizedMap(new EnumMap<>(ElectionType.class)); // 选举结算线程写入，调度/保存时读取
         this.titularMonarchUUID = null;
         this.primeMinisterUUID = null;
         this.parliamentaryMembersByParty = new ConcurrentHashMap<>(); // 初始化
@@ -61,7 +63,7 @@ public class NationPolitics {
         }
         this.nationUUID = nationUUID;
         this.governmentType = initialGovernmentType;
-        this.lastElectionCompletionTimes = new EnumMap<>(ElectionType.class);
+        this.lastElectionCompletionTimes = Collections.synchronizedMap(new EnumMap<>(ElectionType.class));
         this.titularMonarchUUID = null;
         this.primeMinisterUUID = null;
         this.parliamentaryMembersByParty = new ConcurrentHashMap<>(); // 初始化
@@ -93,10 +95,12 @@ public class NationPolitics {
             throw new IllegalArgumentException("Timestamp cannot be negative.");
         }
         lastElectionCompletionTimes.put(type, timestamp);
+        dirtyTracker.markDirty();
     }
 
     public void clearAllElectionCompletionTimes() {
         lastElectionCompletionTimes.clear();
+        dirtyTracker.markDirty();
     }
 
     // Getter for the raw map, e.g., for serialization by NationManager
@@ -114,6 +118,7 @@ public class NationPolitics {
 
     public void setTitularMonarchUUID(UUID titularMonarchUUID) {
         this.titularMonarchUUID = titularMonarchUUID; // Nullable, allows removal
+        dirtyTracker.markDirty();
     }
 
     public Optional<UUID> getPrimeMinisterUUID() {
@@ -122,6 +127,7 @@ public class NationPolitics {
 
     public void setPrimeMinisterUUID(UUID primeMinisterUUID) {
         this.primeMinisterUUID = primeMinisterUUID; // Nullable, allows removal
+        dirtyTracker.markDirty();
     }
 
     @Override
@@ -138,11 +144,13 @@ public class NationPolitics {
     }
 
     /**
-     * 获取上次选举完成时间的条目集视图，供持久化等内部操作使用。
-     * @return 上次选举完成时间的条目集
+     * 获取上次选举完成时间的条目集，供持久化等内部操作使用。
+     * @return 上次选举完成时间的条目集 (快照，可在其他线程修改时安全遍历)
      */
     public Set<Map.Entry<ElectionType, Long>> getLastElectionCompletionTimesEntries() {
-        return lastElectionCompletionTimes.entrySet();
+        synchronized (lastElectionCompletionTimes) {
+            return new EnumMap<>(lastElectionCompletionTimes).entrySet();
+        }
     }
 
     // --- 新增 Getters and Setters for Parliament Composition ---
@@ -181,6 +189,7 @@ public class NationPolitics {
             // 确保没有重复
             parliamentaryMembersByParty.put(partyUUID, new ArrayList<>(new HashSet<>(memberPlayerUUIDs)));
         }
+        dirtyTracker.markDirty();
     }
 
     /**
@@ -189,6 +198,7 @@ public class NationPolitics {
      */
     public void clearAllParliamentaryMembers() {
         parliamentaryMembersByParty.clear();
+        dirtyTracker.markDirty();
     }
 
     /**
@@ -210,6 +220,7 @@ public class NationPolitics {
         if (seatDistribution != null) {
             this.parliamentarySeatsWonByParty.putAll(seatDistribution);
         }
+        dirtyTracker.markDirty();
     }
 
     // 在 setGovernmentType 方法中，如果政体不再有议会，则清除议员信息
@@ -218,6 +229,7 @@ public class NationPolitics {
             throw new IllegalArgumentException("New GovernmentType cannot be null.");
         }
         this.governmentType = newGovernmentType;
+        dirtyTracker.markDirty();
         if (!newGovernmentType.hasParliament()) { // <--- 新增检查
             clearAllParliamentaryMembers();
             this.parliamentarySeatsWonByParty.clear();
@@ -238,6 +250,34 @@ public class NationPolitics {
                 '}';
     }
 
+    // --- Dirty Tracking (管理器据此只保存自上次保存以来有变化的实体) ---
+    public long getVersion() {
+        return dirtyTracker.getVersion();
+    }
+
+    public boolean isDirty() {
+        return dirtyTracker.isDirty();
+    }
+
+    public void markDirty() {
+        dirtyTracker.markDirty();
+    }
+
+    /**
+     * 记录序列化时的版本已成功写入存储。
+     * @param persistedVersion 序列化前通过 {@link #getVersion()} 取得的版本号
+     */
+    public void markSaved(long persistedVersion) {
+        dirtyTracker.markSaved(persistedVersion);
+    }
+
+    /**
+     * 将当前状态视为已保存 (从存储加载完成后调用)。
+     */
+    public void markClean() {
+        dirtyTracker.markClean();
+    }
+
     // 供 NationManager 加载/保存数据使用
     public Map<UUID, List<UUID>> getParliamentaryMembersByPartyInternal() {
         return this.parliamentaryMembersByParty;
@@ -245,4 +285,4 @@ public class NationPolitics {
     public Map<UUID, Integer> getParliamentarySeatsWonByPartyInternal() {
         return this.parliamentarySeatsWonByParty;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
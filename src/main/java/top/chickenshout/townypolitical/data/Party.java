@@ -3,10 +3,11 @@
 package top.chickenshout.townypolitical.data;
 
 import top.chickenshout.townypolitical.enums.PartyRole;
+import top.chickenshout.townypolitical.persistence.DirtyTracker;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * 代表一个政治党派。
@@ -17,7 +18,23 @@ public class Party {
     private String name; // 政党名称，可更改
     private final long creationTimestamp; // 政党创建时的时间戳
     private final Map<UUID, PartyMember> members; // 政党所有相关人员 (包括申请者) <PlayerUUID, PartyMember>
-    private long lastLeaderElectionTime = 0L; // 上次党魁选举完成的时间戳
+    private volatile long lastLeaderElectionTime = 0L; // 上次党魁选举完成的时间戳 (由全局线程上的选举结算写入)
+    private final transient DirtyTracker dirtyTracker = new DirtyTracker(); // 持久化版本号，成员的修改也会使政党变脏
+
+    // --- 按角色分桶的成员索引 ---
+    // 所有写操作 (members 的增删和角色变更) 都在 roleLock 内同步更新 members 和索引；
+    // 查询优先读取不可变快照，快照在写操作时失效，下次查询时在锁内重建一次。
+    private final transient Object roleLock = new Object();
+    private final transient Map<PartyRole, Set<PartyMember>> roleBuckets = new EnumMap<>(PartyRole.class); // 受 roleLock 保护
+    private transient volatile Optional<PartyMember> leaderCache = Optional.empty();
+    private final transient AtomicReferenceArray<List<PartyMember>> roleSnapshots =
+            new AtomicReferenceArray<>(PartyRole.values().length); // 按 PartyRole.ordinal() 索引，null 表示需重建
+    private transient volatile Set<UUID> officialMemberIdsSnapshot; // null 表示需重建
+    private final transient Collection<PartyMember> personnelView;
+
+    // --- 成员名称索引 (小写名称 → 玩家UUID)，包括申请者 ---
+    private final transient Map<String, UUID> memberIdsByLowerName = new ConcurrentHashMap<>();
+    private final transient Map<UUID, String> indexedLowerNames = new HashMap<>(); // 受 roleLock 保护，用于在改名/移除时撤销旧条目
 
     /**
      * 构造一个新的政党。
@@ -43,11 +60,112 @@ public class Party {
         this.name = name.trim();
         this.creationTimestamp = System.currentTimeMillis();
         this.members = new ConcurrentHashMap<>(); // 使用 ConcurrentHashMap 保证基本线程安全
+        this.personnelView = Collections.unmodifiableCollection(members.values());
         this.lastLeaderElectionTime = 0L;
+        for (PartyRole role : PartyRole.values()) {
+            roleBuckets.put(role, new LinkedHashSet<>());
+        }
 
         // 添加初始领导人
         PartyMember leader = new PartyMember(initialLeaderId, PartyRole.LEADER);
-        this.members.put(initialLeaderId, leader);
+        putMember(leader);
+    }
+
+    private void putMember(PartyMember member) {
+        synchronized (roleLock) {
+            member.attachTo(this, dirtyTracker);
+            PartyMember previous = members.put(member.getPlayerId(), member);
+            if (previous != null && previous != member) {
+                previous.attachTo(null, null);
+            }
+            if (previous != null) {
+                unindexMember(previous);
+                unindexName(previous.getPlayerId());
+            }
+            indexMember(member);
+            indexName(member);
+        }
+        dirtyTracker.markDirty();
+    }
+
+    /**
+     * 变更成员角色并同步更新索引。必须由 Party 内部调用，成员的角色不应在别处直接修改。
+     */
+    private void changeRole(PartyMember member, PartyRole newRole) {
+        synchronized (roleLock) {
+            if (member.getRole() == newRole) return;
+            unindexMember(member);
+            member.setRole(newRole);
+            indexMember(member);
+        }
+    }
+
+    // 以下两个方法必须在 roleLock 内调用
+    private void indexMember(PartyMember member) {
+        PartyRole role = member.getRole();
+        roleBuckets.get(role).add(member);
+        if (role == PartyRole.LEADER) {
+            leaderCache = Optional.of(member);
+        }
+        invalidateRoleSnapshots(role);
+    }
+
+    private void unindexMember(PartyMember member) {
+        PartyRole role = member.getRole();
+        roleBuckets.get(role).remove(member);
+        if (role == PartyRole.LEADER && leaderCache.orElse(null) == member) {
+            Iterator<PartyMember> remainingLeaders = roleBuckets.get(PartyRole.LEADER).iterator();
+            leaderCache = remainingLeaders.hasNext() ? Optional.of(remainingLeaders.next()) : Optional.empty();
+        }
+        invalidateRoleSnapshots(role);
+    }
+
+    /**
+     * 只移动角色分组，不更新 leaderCache (由调用方在全部移动完成后统一发布)。必须在 roleLock 内调用。
+     */
+    private void moveRoleBucket(PartyMember member, PartyRole newRole) {
+        PartyRole oldRole = member.getRole();
+        roleBuckets.get(oldRole).remove(member);
+        member.setRole(newRole);
+        roleBuckets.get(newRole).add(member);
+        invalidateRoleSnapshots(oldRole);
+        invalidateRoleSnapshots(newRole);
+    }
+
+    private void indexName(PartyMember member) {
+        String name = member.getCachedName(); // 未缓存名称的成员在 PartyMember 首次解析出名称时再加入索引
+        if (name == null) return;
+        String lowerName = name.toLowerCase();
+        String previous = indexedLowerNames.put(member.getPlayerId(), lowerName);
+        if (previous != null && !previous.equals(lowerName)) {
+            memberIdsByLowerName.remove(previous, member.getPlayerId());
+        }
+        memberIdsByLowerName.put(lowerName, member.getPlayerId());
+    }
+
+    private void unindexName(UUID playerId) {
+        String previous = indexedLowerNames.remove(playerId);
+        if (previous != null) {
+            memberIdsByLowerName.remove(previous, playerId);
+        }
+    }
+
+    /**
+     * (供 PartyMember 使用) 成员的名称缓存变化后更新名称索引。
+     */
+    void onMemberNameChanged(PartyMember member) {
+        synchronized (roleLock) {
+            if (members.get(member.getPlayerId()) == member) { // 已离开政党的成员不再索引
+                indexName(member);
+            }
+        }
+    }
+
+    private void invalidateRoleSnapshots(PartyRole role) {
+        roleSnapshots.set(role.ordinal(), null);
+        if (role != PartyRole.APPLICANT) {
+            officialMemberIdsSnapshot = null;
+        }
     }
 
     // --- Getters ---
@@ -74,9 +192,18 @@ public class Party {
      */
     public List<PartyMember> getMembersByRole(PartyRole role) {
         if (role == null) return Collections.emptyList();
-        return members.values().stream()
-                .filter(member -> member.getRole() == role)
-                .collect(Collectors.toUnmodifiableList());
+        List<PartyMember> snapshot = roleSnapshots.get(role.ordinal());
+        if (snapshot != null) {
+            return snapshot; // 命中快照时不加锁也不分配对象
+        }
+        synchronized (roleLock) {
+            snapshot = roleSnapshots.get(role.ordinal());
+            if (snapshot == null) {
+                snapshot = List.copyOf(roleBuckets.get(role));
+                roleSnapshots.set(role.ordinal(), snapshot);
+            }
+            return snapshot;
+        }
     }
 
     /**
@@ -84,9 +211,7 @@ public class Party {
      * @return 政党领袖的 PartyMember Optional，如果不存在则为空 (理论上不应发生)
      */
     public Optional<PartyMember> getLeader() {
-        return members.values().stream()
-                .filter(member -> member.getRole() == PartyRole.LEADER)
-                .findFirst();
+        return leaderCache;
     }
 
     /**
@@ -128,7 +253,7 @@ public class Party {
      * @return 所有相关人员的不可修改集合
      */
     public Collection<PartyMember> getAllPartyPersonnel() {
-        return Collections.unmodifiableCollection(members.values());
+        return personnelView;
     }
 
     /**
@@ -136,10 +261,23 @@ public class Party {
      * @return 正式成员的UUID集合 (不可修改)
      */
     public Set<UUID> getOfficialMemberIds() {
-        return members.values().stream()
-                .filter(m -> m.getRole().hasPermissionOf(PartyRole.MEMBER) && m.getRole() != PartyRole.APPLICANT)
-                .map(PartyMember::getPlayerId)
-                .collect(Collectors.toUnmodifiableSet());
+        Set<UUID> snapshot = officialMemberIdsSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (roleLock) {
+            if (officialMemberIdsSnapshot == null) {
+                Set<UUID> ids = new LinkedHashSet<>();
+                for (PartyRole role : PartyRole.values()) {
+                    if (role == PartyRole.APPLICANT || !role.hasPermissionOf(PartyRole.MEMBER)) continue;
+                    for (PartyMember member : roleBuckets.get(role)) {
+                        ids.add(member.getPlayerId());
+                    }
+                }
+                officialMemberIdsSnapshot = Collections.unmodifiableSet(ids);
+            }
+            return officialMemberIdsSnapshot;
+        }
     }
 
     // --- Setters and Mutators ---
@@ -155,13 +293,17 @@ public class Party {
             throw new IllegalArgumentException("New party name cannot be null or empty.");
         }
         this.name = newName.trim();
+        dirtyTracker.markDirty();
     }
 
     public void setLastLeaderElectionTime(long lastLeaderElectionTime) {
         if (lastLeaderElectionTime < 0) {
             throw new IllegalArgumentException("Last leader election time cannot be negative.");
         }
-        this.lastLeaderElectionTime = lastLeaderElectionTime;
+        if (this.lastLeaderElectionTime != lastLeaderElectionTime) {
+            this.lastLeaderElectionTime = lastLeaderElectionTime;
+            dirtyTracker.markDirty();
+        }
     }
 
     /**
@@ -178,7 +320,13 @@ public class Party {
         // computeIfAbsent 如果key不存在，则执行lambda创建并放入map，然后返回新value；如果key已存在，则直接返回现有value。
         // 这里我们希望如果已存在则不操作，所以用 putIfAbsent 更合适。
         PartyMember newApplicant = new PartyMember(playerId, PartyRole.APPLICANT);
-        return members.putIfAbsent(playerId, newApplicant) == null; // putIfAbsent返回旧值，如果为null表示之前不存在
+        synchronized (roleLock) {
+            if (members.containsKey(playerId)) {
+                return false;
+            }
+            putMember(newApplicant);
+            return true;
+        }
     }
 
     /**
@@ -191,12 +339,14 @@ public class Party {
         if (applicantId == null) {
             throw new IllegalArgumentException("Applicant ID cannot be null.");
         }
-        PartyMember applicant = members.get(applicantId);
-        if (applicant != null && applicant.getRole() == PartyRole.APPLICANT) {
-            applicant.setRole(PartyRole.MEMBER);
-            return true;
+        synchronized (roleLock) {
+            PartyMember applicant = members.get(applicantId);
+            if (applicant != null && applicant.getRole() == PartyRole.APPLICANT) {
+                changeRole(applicant, PartyRole.MEMBER);
+                return true;
+            }
+            return false;
         }
-        return false;
     }
 
     /**
@@ -209,12 +359,14 @@ public class Party {
         if (memberId == null) {
             throw new IllegalArgumentException("Member ID for promotion cannot be null.");
         }
-        PartyMember member = members.get(memberId);
-        if (member != null && member.getRole() == PartyRole.MEMBER) {
-            member.setRole(PartyRole.ADMIN);
-            return true;
+        synchronized (roleLock) {
+            PartyMember member = members.get(memberId);
+            if (member != null && member.getRole() == PartyRole.MEMBER) {
+                changeRole(member, PartyRole.ADMIN);
+                return true;
+            }
+            return false;
         }
-        return false;
     }
 
     /**
@@ -227,12 +379,14 @@ public class Party {
         if (adminId == null) {
             throw new IllegalArgumentException("Admin ID for demotion cannot be null.");
         }
-        PartyMember admin = members.get(adminId);
-        if (admin != null && admin.getRole() == PartyRole.ADMIN) {
-            admin.setRole(PartyRole.MEMBER);
-            return true;
+        synchronized (roleLock) {
+            PartyMember admin = members.get(adminId);
+            if (admin != null && admin.getRole() == PartyRole.ADMIN) {
+                changeRole(admin, PartyRole.MEMBER);
+                return true;
+            }
+            return false;
         }
-        return false;
     }
 
     /**
@@ -247,11 +401,22 @@ public class Party {
         if (playerId == null) {
             throw new IllegalArgumentException("Player ID for removal cannot be null.");
         }
-        PartyMember memberToRemove = members.get(playerId);
-        if (memberToRemove != null && memberToRemove.getRole() != PartyRole.LEADER) {
-            return members.remove(playerId);
+        PartyMember removed = null;
+        synchronized (roleLock) {
+            PartyMember memberToRemove = members.get(playerId);
+            if (memberToRemove != null && memberToRemove.getRole() != PartyRole.LEADER) {
+                removed = members.remove(playerId);
+                if (removed != null) {
+                    removed.attachTo(null, null);
+                    unindexMember(removed);
+                    unindexName(playerId);
+                }
+            }
         }
-        return null; // 不能直接移除领袖，或者玩家不存在
+        if (removed != null) {
+            dirtyTracker.markDirty();
+        }
+        return removed; // 不能直接移除领袖，或者玩家不存在时为 null
     }
 
     /**
@@ -267,29 +432,31 @@ public class Party {
             throw new IllegalArgumentException("New leader ID cannot be null.");
         }
 
-        PartyMember newLeaderMember = members.get(newLeaderId);
-        if (newLeaderMember == null || newLeaderMember.getRole() == PartyRole.APPLICANT) {
-            throw new IllegalStateException("New leader must be an existing official member of the party.");
-        }
-
-        if (newLeaderMember.getRole() == PartyRole.LEADER) {
-            return true; // 已经是领袖，无需操作
-        }
-
-        Optional<PartyMember> currentLeaderOpt = getLeader();
-        if (!currentLeaderOpt.isPresent()) {
-            throw new IllegalStateException("Critical: No current leader found in party " + getName() + " (ID: " + partyId + ")");
-        }
-
-        PartyMember currentLeader = currentLeaderOpt.get();
-        // 降级原领袖 (如果原领袖不是新领袖自己)
-        if (!currentLeader.getPlayerId().equals(newLeaderId)) {
-            currentLeader.setRole(PartyRole.ADMIN); // 或者 MEMBER，取决于设计
+        synchronized (roleLock) { // 降级与提升在同一把锁内完成，其他线程不会看到两个领袖或没有领袖
+            PartyMember newLeaderMember = members.get(newLeaderId);
+            if (newLeaderMember == null || newLeaderMember.getRole() == PartyRole.APPLICANT) {
+                throw new IllegalStateException("New leader must be an existing official member of the party.");
+            }
+
+            if (newLeaderMember.getRole() == PartyRole.LEADER) {
+                return true; // 已经是领袖，无需操作
+            }
+
+            Optional<PartyMember> currentLeaderOpt = getLeader();
+            if (!currentLeaderOpt.isPresent()) {
+                throw new IllegalStateException("Critical: No current leader found in party " + getName() + " (ID: " + partyId + ")");
+            }
+
+            PartyMember currentLeader = currentLeaderOpt.get();
+            // 先移动两个成员的角色索引，最后一次性发布新领袖：
+            // getLeader() 不加锁读取 leaderCache，只会看到原领袖或新领袖，不会看到中间的“没有领袖”
+            if (!currentLeader.getPlayerId().equals(newLeaderId)) {
+                moveRoleBucket(currentLeader, PartyRole.ADMIN); // 降级原领袖 (或者 MEMBER，取决于设计)
+            }
+            moveRoleBucket(newLeaderMember, PartyRole.LEADER); // 提升新领袖
+            leaderCache = Optional.of(newLeaderMember);
+            return true;
         }
-
-        // 提升新领袖
-        newLeaderMember.setRole(PartyRole.LEADER);
-        return true;
     }
 
     /**
@@ -302,7 +469,7 @@ public class Party {
         if (playerId == null || role == null) {
             throw new IllegalArgumentException("Player ID and Role cannot be null for internal add.");
         }
-        members.put(playerId, new PartyMember(playerId, role));
+        putMember(new PartyMember(playerId, role));
     }
 
     /**
@@ -315,16 +482,47 @@ public class Party {
         if (playerId == null) {
             throw new IllegalArgumentException("Player ID cannot be null.");
         }
-        PartyMember existingMember = members.get(playerId);
-        if (existingMember == null) {
-            members.put(playerId, new PartyMember(playerId, PartyRole.MEMBER));
-            return true;
-        } else if (existingMember.getRole() == PartyRole.APPLICANT) {
-            existingMember.setRole(PartyRole.MEMBER);
-            return true;
+        synchronized (roleLock) {
+            PartyMember existingMember = members.get(playerId);
+            if (existingMember == null) {
+                putMember(new PartyMember(playerId, PartyRole.MEMBER));
+                return true;
+            } else if (existingMember.getRole() == PartyRole.APPLICANT) {
+                changeRole(existingMember, PartyRole.MEMBER);
+                return true;
+            }
+            // 如果已经是 MEMBER, ADMIN, 或 LEADER，则认为操作“成功”（因为目标已达成或更高）
+            return existingMember.getRole().hasPermissionOf(PartyRole.MEMBER);
         }
-        // 如果已经是 MEMBER, ADMIN, 或 LEADER，则认为操作“成功”（因为目标已达成或更高）
-        return existingMember.getRole().hasPermissionOf(PartyRole.MEMBER);
+    }
+
+
+    // --- Dirty Tracking (管理器据此只保存自上次保存以来有变化的实体) ---
+    public long getVersion() {
+        return dirtyTracker.getVersion();
+    }
+
+    public boolean isDirty() {
+        return dirtyTracker.isDirty();
+    }
+
+    public void markDirty() {
+        dirtyTracker.markDirty();
+    }
+
+    /**
+     * 记录序列化时的版本已成功写入存储。
+     * @param persistedVersion 序列化前通过 {@link #getVersion()} 取得的版本号
+     */
+    public void markSaved(long persistedVersion) {
+        dirtyTracker.markSaved(persistedVersion);
+    }
+
+    /**
+     * 将当前状态视为已保存 (从存储加载完成后调用)。
+     */
+    public void markClean() {
+        dirtyTracker.markClean();
     }
 
 
@@ -362,18 +560,24 @@ public class Party {
 
     /**
      * 检查政党是否有指定名称的成员（不区分大小写）。
+     * 先查名称索引；找不到时再检查尚未缓存名称的成员，按 UUID 取其 OfflinePlayer 名称 (不按名称查询 Bukkit)，
+     * 取到的名称会被缓存并加入索引，之后直接命中索引。
      * @param playerName 玩家名称
      * @return 如果存在该名称的成员，返回其PartyMember Optional
      */
     public Optional<PartyMember> getMemberByName(String playerName) {
         if (playerName == null || playerName.trim().isEmpty()) return Optional.empty();
-        String lowerPlayerName = playerName.toLowerCase();
-        return members.values().stream()
-                .filter(member -> {
-                    String memberCurrentName = member.getName(); // Uses cached name first
-                    return memberCurrentName != null && memberCurrentName.toLowerCase().equals(lowerPlayerName);
-                })
-                .findFirst();
+        UUID playerId = memberIdsByLowerName.get(playerName.toLowerCase());
+        if (playerId != null) {
+            PartyMember member = members.get(playerId);
+            if (member != null) return Optional.of(member);
+        }
+        for (PartyMember member : members.values()) {
+            if (member.getCachedName() == null && member.getName().equalsIgnoreCase(playerName)) { // getName() 会缓存名称
+                return Optional.of(member);
+            }
+        }
+        return Optional.empty();
     }
 
     @Override
@@ -399,4 +603,4 @@ public class Party {
                 ", lastLeaderElectionTime=" + lastLeaderElectionTime +
                 '}';
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -5,6 +5,7 @@ package top.chickenshout.townypolitical.data;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import top.chickenshout.townypolitical.enums.PartyRole;
+import top.chickenshout.townypolitical.persistence.DirtyTracker;
 
 import java.util.Objects;
 import java.util.UUID;
@@ -18,6 +19,8 @@ public class PartyMember {
     private PartyRole role;
     private transient OfflinePlayer offlinePlayerCache; // 缓存OfflinePlayer对象以减少查找
     private transient String playerNameCache; // 缓存玩家名称
+    private final transient DirtyTracker dirtyTracker = new DirtyTracker(); // 挂在所属 Party 的跟踪器上
+    private transient volatile Party owner; // 所属政党，名称变化时通知其更新名称索引
 
     /**
      * 构造一个新的政党成员。
@@ -53,15 +56,19 @@ public class PartyMember {
     }
 
     /**
-     * 设置成员在党内的角色。
+     * (供 Party 使用) 设置成员在党内的角色。
+     * 角色只能通过 Party 的方法修改，Party 会同时维护按角色分组的成员索引。
      * @param role 新的政党角色
      * @throws IllegalArgumentException 如果role为null
      */
-    public void setRole(PartyRole role) {
+    void setRole(PartyRole role) {
         if (role == null) {
             throw new IllegalArgumentException("New party role cannot be null.");
         }
-        this.role = role;
+        if (this.role != role) {
+            this.role = role;
+            dirtyTracker.markDirty();
+        }
     }
 
     /**
@@ -88,6 +95,8 @@ public class PartyMember {
         OfflinePlayer player = getOfflinePlayer();
         if (player != null && player.getName() != null) {
             this.playerNameCache = player.getName(); // 缓存获取到的名称
+            dirtyTracker.markDirty(); // 与 setNameCache 相同，名称缓存会被保存到政党数据中
+            notifyNameChanged();
             return this.playerNameCache;
         }
         return "Player_" + playerId.toString().substring(0, 8); // 默认名称
@@ -98,7 +107,38 @@ public class PartyMember {
      * @param name 要缓存的玩家名称
      */
     public void setNameCache(String name) {
-        this.playerNameCache = name;
+        if (!Objects.equals(this.playerNameCache, name)) {
+            this.playerNameCache = name;
+            dirtyTracker.markDirty(); // 名称缓存会被保存到政党数据中
+            notifyNameChanged();
+        }
+    }
+
+    /**
+     * (供 Party 使用) 获取已缓存的名称，不会触发 Bukkit 查询。
+     * @return 缓存的名称，尚未缓存时为 null
+     */
+    String getCachedName() {
+        return playerNameCache;
+    }
+
+    private void notifyNameChanged() {
+        Party currentOwner = owner;
+        if (currentOwner != null) {
+            currentOwner.onMemberNameChanged(this);
+        }
+    }
+
+    public long getVersion() {
+        return dirtyTracker.getVersion();
+    }
+
+    /**
+     * (供 Party 使用) 将此成员的修改传播到所属政党。传入 null 表示已离开政党。
+     */
+    void attachTo(Party party, DirtyTracker partyTracker) {
+        this.owner = party;
+        dirtyTracker.setParent(partyTracker);
     }
 
     @Override
@@ -122,4 +162,4 @@ public class PartyMember {
                 ", role=" + role +
                 '}';
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -4,10 +4,11 @@ package top.chickenshout.townypolitical.elections;
 
 import org.bukkit.Bukkit; // For fetching player name if cache is null
 import org.bukkit.OfflinePlayer;
+import top.chickenshout.townypolitical.persistence.DirtyTracker;
 
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 代表选举中的一位候选人。
@@ -15,11 +16,15 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class Candidate {
     private final UUID playerUUID; // 候选人的玩家UUID
     private final UUID partyUUID;  // 候选人所属的政党UUID (可选，独立候选人可能没有)
-    private final AtomicInteger votes;      // 获得的票数，使用AtomicInteger保证线程安全
+    private final LongAdder votes;          // 获得的票数，使用LongAdder保证线程安全且多线程同时投票时不争用
 
     // 缓存信息，由 ElectionManager 填充和管理，不直接参与 equals/hashCode
     private transient String playerNameCache;
     private transient String partyNameCache;
+    private final transient DirtyTracker dirtyTracker = new DirtyTracker(); // 挂在所属 Election 的跟踪器上，只记录结构性修改
+    // 投票不递增版本号 (避免每票都争用所属选举的同一个计数器)，只设置此标记；保存扫描时再与已保存的票数比较
+    private transient volatile boolean votesChanged;
+    private transient long savedVotes; // 最近一次成功保存的票数 (受 this 保护)
 
     /**
      * 构造一个候选人。
@@ -33,7 +38,7 @@ public class Candidate {
         }
         this.playerUUID = playerUUID;
         this.partyUUID = partyUUID; // 可以为 null
-        this.votes = new AtomicInteger(0);
+        this.votes = new LongAdder();
     }
 
     public UUID getPlayerUUID() {
@@ -45,14 +50,17 @@ public class Candidate {
     }
 
     public int getVotes() {
-        return votes.get();
+        return votes.intValue();
     }
 
     /**
-     * 为该候选人增加一票。
+     * 为该候选人增加一票。只累加计数器并设置变化标记，不传播到所属选举的版本号。
      */
     public void addVote() {
-        this.votes.incrementAndGet();
+        this.votes.increment();
+        if (!votesChanged) { // 标记已设置时不再写入，并发投票不会反复写同一个字段
+            votesChanged = true;
+        }
     }
 
     /**
@@ -60,11 +68,11 @@ public class Candidate {
      * @param count 票数
      */
     public void setVotes(int count) {
-        if (count < 0) {
-            this.votes.set(0);
-        } else {
-            this.votes.set(count);
+        this.votes.reset(); // 只在加载或修正时调用，不会与投票并发
+        if (count > 0) {
+            this.votes.add(count);
         }
+        dirtyTracker.markDirty();
     }
 
     /**
@@ -97,7 +105,10 @@ public class Candidate {
      * @param playerNameCache 要缓存的玩家名。
      */
     public void setPlayerNameCache(String playerNameCache) {
-        this.playerNameCache = playerNameCache;
+        if (!Objects.equals(this.playerNameCache, playerNameCache)) {
+            this.playerNameCache = playerNameCache;
+            dirtyTracker.markDirty(); // 名称缓存会被保存到选举数据中
+        }
     }
 
     /**
@@ -113,7 +124,40 @@ public class Candidate {
      * @param partyNameCache 要缓存的政党名。
      */
     public void setPartyNameCache(String partyNameCache) {
-        this.partyNameCache = partyNameCache;
+        if (!Objects.equals(this.partyNameCache, partyNameCache)) {
+            this.partyNameCache = partyNameCache;
+            dirtyTracker.markDirty();
+        }
+    }
+
+    public long getVersion() {
+        return dirtyTracker.getVersion();
+    }
+
+    /**
+     * (供 Election 使用) 自上次保存以来是否有尚未保存的投票。
+     */
+    synchronized boolean hasUnsavedVotes() {
+        return votesChanged && votes.sum() != savedVotes;
+    }
+
+    /**
+     * (供 Election 使用) 记录某个票数已成功写入存储。
+     * @param persistedVotes 序列化前取得的票数
+     */
+    synchronized void markVotesSaved(long persistedVotes) {
+        savedVotes = persistedVotes;
+        votesChanged = false; // 先清除标记再比较：比较之后的投票会重新设置标记
+        if (votes.sum() != savedVotes) {
+            votesChanged = true;
+        }
+    }
+
+    /**
+     * (供 Election 使用) 将此候选人的修改传播到所属选举。传入 null 表示已被移除。
+     */
+    void attachTo(DirtyTracker electionTracker) {
+        dirtyTracker.setParent(electionTracker);
     }
 
     @Override
@@ -139,7 +183,7 @@ public class Candidate {
                 (playerNameCache != null ? ", playerName='" + playerNameCache + '\'' : (", playerName='" + getResolvedPlayerName() + "'")) +
                 (partyUUID != null ? ", partyUUID=" + partyUUID : "") +
                 (partyNameCache != null ? ", partyName='" + partyNameCache + '\'' : "") +
-                ", votes=" + votes.get() +
+                ", votes=" + votes.intValue() +
                 '}';
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -2,13 +2,16 @@
 // 结构位置: top/chickenshout/townypolitical/elections/Election.java
 package top.chickenshout.townypolitical.elections;
 
+import top.chickenshout.townypolitical.enums.BallotMode;
 import top.chickenshout.townypolitical.enums.ElectionStatus;
 import top.chickenshout.townypolitical.enums.ElectionType;
 import top.chickenshout.townypolitical.enums.GovernmentType;
+import top.chickenshout.townypolitical.persistence.DirtyTracker;
+import top.chickenshout.townypolitical.utils.CompactUuidSet;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
@@ -21,26 +24,99 @@ public class Election {
     private final ElectionType type;       // 选举类型 (议会, 总统, 党内领袖)
     private GovernmentType nationGovernmentTypeCache; // 国家选举时，缓存当时的国家政体 (重要，因为选举规则依赖它)
 
-    private ElectionStatus status;
-    private long startTime;                // 选举活动开始时间 (可能是登记开始，或直接投票开始)
-    private long endTime;                  // 选举投票阶段结束时间
-    private long registrationEndTime;      // 候选人登记截止时间 (如果适用)
+    // 状态和时间由全局线程上的阶段推进修改，玩家命令 (Folia 上位于各自的区域线程) 读取，因此为 volatile
+    private volatile ElectionStatus status;
+    private volatile long startTime;                // 选举活动开始时间 (可能是登记开始，或直接投票开始)
+    private volatile long endTime;                  // 选举投票阶段结束时间
+    private volatile long registrationEndTime;      // 候选人登记截止时间 (如果适用)
 
     // 候选人列表 <PlayerUUID, Candidate>
     private final Map<UUID, Candidate> candidates;
-    // 已投票的玩家UUID集合，防止重复投票
-    private final Set<UUID> voters;
+    // 已投票的玩家UUID集合，防止重复投票 (紧凑存储，每名投票者约 16 字节)
+    private final CompactUuidSet voters;
+    // 仅用于排序复选制：按排序合并的选票 <排序 (第一偏好在前), 张数>
+    private final Map<List<UUID>, LongAdder> rankedBallots;
+    private volatile BallotMode ballotMode;
     // 仅用于议会选举：参选的政党ID集合
     private final Set<UUID> participatingParties;
-    // 仅用于议会选举：各政党获得的票数 <PartyUUID, AtomicInteger>
-    private final Map<UUID, AtomicInteger> partyVotesCount;
+    // 仅用于议会选举：各政党获得的票数 <PartyUUID, LongAdder>，高并发投票时各线程累加到不同的单元，不争用同一个计数器
+    private final Map<UUID, LongAdder> partyVotesCount;
 
 
     // 结果相关
-    private UUID winnerPlayerUUID;        // 总统选举或党魁选举的获胜者玩家UUID
-    private UUID winnerPartyUUID;         // 议会选举中的多数党UUID
+    private volatile UUID winnerPlayerUUID;        // 总统选举或党魁选举的获胜者玩家UUID
+    private volatile UUID winnerPartyUUID;         // 议会选举中的多数党UUID
     // 议会选举席位分布 <PartyUUID, SeatsCount>
     private Map<UUID, Integer> partySeatDistribution;
+    private final transient DirtyTracker dirtyTracker = new DirtyTracker(); // 持久化版本号，候选人的结构性修改也会使选举变脏
+    // 投票不递增版本号：候选人票数由各 Candidate 的变化标记记录，政党票数由此标记和已保存的总票数记录
+    private transient volatile boolean partyVotesChanged;
+    private transient long savedPartyVoteTotal; // 受 partyVotesCount 保护
+    // 最近一次构建的只读视图；版本号与 dirtyTracker 一致时直接复用
+    private transient volatile Snapshot snapshot;
+    // 最近一次复制的投票者集合 (只在调用 getVoters() 时复制)
+    private transient volatile VotersCopy votersCopy;
+
+    private static final class VotersCopy {
+        final long version;
+        final Set<UUID> voters;
+
+        VotersCopy(long version, Set<UUID> voters) {
+            this.version = version;
+            this.voters = voters;
+        }
+    }
+
+    /**
+     * 选举投票数据在某个版本上的不可变视图 (政党、政党得票和席位这些小集合)。
+     * 同一版本内的多次读取共享同一个实例，只有选举被修改 (版本号变化) 后才会重新复制一次。
+     * 投票者集合与投票人数成正比，不包含在视图中：需要时使用 {@link Election#hasVoted(UUID)}、{@link #getVoterCount()}
+     * 或 {@link Election#getVoters()}。
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final int voterCount;
+        private final long partyVoteTotal; // 与 voterCount 一起判断投票是否使视图过期 (投票不递增版本号)
+        private final Set<UUID> participatingParties;
+        private final Map<UUID, Integer> partyVotes;
+        private final Map<UUID, Integer> partySeatDistribution;
+
+        private Snapshot(long version, int voterCount, long partyVoteTotal, Set<UUID> participatingParties,
+                         Map<UUID, Integer> partyVotes, Map<UUID, Integer> partySeatDistribution) {
+            this.version = version;
+            this.voterCount = voterCount;
+            this.partyVoteTotal = partyVoteTotal;
+            this.participatingParties = participatingParties;
+            this.partyVotes = partyVotes;
+            this.partySeatDistribution = partySeatDistribution;
+        }
+
+        /**
+         * @return 构建此视图时选举的版本号 (与 {@link Election#getVersion()} 同一口径)
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return 构建此视图时已投票的人数
+         */
+        public int getVoterCount() {
+            return voterCount;
+        }
+
+        public Set<UUID> getParticipatingParties() {
+            return participatingParties;
+        }
+
+        public Map<UUID, Integer> getPartyVotes() {
+            return partyVotes;
+        }
+
+        public Map<UUID, Integer> getPartySeatDistribution() {
+            return partySeatDistribution;
+        }
+    }
 
     /**
      * 构造一个新的选举实例。
@@ -58,10 +134,12 @@ public class Election {
         this.type = type;
         this.status = ElectionStatus.NONE; // 初始状态，通常由Manager在启动时设置为 PENDING_START 或 REGISTRATION
         this.candidates = new ConcurrentHashMap<>(); // 保证候选人列表的并发安全
-        this.voters = Collections.synchronizedSet(new HashSet<>()); // 保证投票者集合的并发安全
+        this.voters = new CompactUuidSet(); // 分条带加锁，保证投票者集合的并发安全
         this.partySeatDistribution = new ConcurrentHashMap<>(); // 保证席位分布图的并发安全
         this.participatingParties = Collections.synchronizedSet(new HashSet<>()); // 初始化
         this.partyVotesCount = new ConcurrentHashMap<>(); // 初始化
+        this.rankedBallots = new ConcurrentHashMap<>();
+        this.ballotMode = BallotMode.PLURALITY;
     }
 
     // --- Getters ---
@@ -81,6 +159,10 @@ public class Election {
         return Optional.ofNullable(nationGovernmentTypeCache);
     }
 
+    public BallotMode getBallotMode() {
+        return ballotMode;
+    }
+
     public ElectionStatus getStatus() {
         return status;
     }
@@ -101,7 +183,14 @@ public class Election {
      * @return 参选政党ID集合。仅对议会选举有意义。
      */
     public Set<UUID> getParticipatingParties() {
-        return Collections.unmodifiableSet(new HashSet<>(participatingParties));
+        return getSnapshot().getParticipatingParties();
+    }
+
+    /**
+     * 判断政党是否参与本次议会选举 (O(1)，不复制集合)。
+     */
+    public boolean isParticipating(UUID partyUUID) {
+        return partyUUID != null && participatingParties.contains(partyUUID);
     }
 
     /**
@@ -110,8 +199,8 @@ public class Election {
      * @return 票数，如果政党未参选或未得票则为0。仅对议会选举有意义。
      */
     public int getVotesForParty(UUID partyUUID) {
-        AtomicInteger votes = partyVotesCount.get(partyUUID);
-        return votes != null ? votes.get() : 0;
+        LongAdder votes = partyVotesCount.get(partyUUID);
+        return votes != null ? votes.intValue() : 0;
     }
 
     /**
@@ -119,9 +208,7 @@ public class Election {
      * @return Map<PartyUUID, Integer>。仅对议会选举有意义。
      */
     public Map<UUID, Integer> getAllPartyVotes() {
-        Map<UUID, Integer> result = new HashMap<>();
-        partyVotesCount.forEach((partyId, count) -> result.put(partyId, count.get()));
-        return Collections.unmodifiableMap(result);
+        return getSnapshot().getPartyVotes();
     }
 
     /**
@@ -137,11 +224,35 @@ public class Election {
     }
 
     /**
-     * 获取所有已投票玩家的UUID的不可修改集合。
+     * 获取所有已投票玩家的UUID的不可修改集合 (当前版本的副本)。
+     * 复制的开销与投票人数成正比，同一版本内的多次调用共享同一个副本。
+     * 只需判断某个玩家是否投过票或统计人数时请使用 {@link #hasVoted(UUID)} / {@link #voteCount()}。
      * @return 已投票者UUID集合
      */
     public Set<UUID> getVoters() {
-        return Collections.unmodifiableSet(new HashSet<>(voters)); // 返回副本以保证外部不可修改原set
+        long currentVersion = dirtyTracker.getVersion(); // 先读版本再复制，与 getSnapshot() 相同
+        VotersCopy current = votersCopy;
+        // 投票不递增版本号，但投票者集合只增不减 (清空会递增版本号)，人数相同即内容相同
+        if (current != null && current.version == currentVersion && current.voters.size() == voters.size()) {
+            return current.voters;
+        }
+        VotersCopy rebuilt = new VotersCopy(currentVersion, voters.toSet());
+        votersCopy = rebuilt;
+        return rebuilt.voters;
+    }
+
+    /**
+     * 判断玩家是否已在本次选举中投票 (O(1)，不复制集合)。
+     */
+    public boolean hasVoted(UUID playerUUID) {
+        return playerUUID != null && voters.contains(playerUUID);
+    }
+
+    /**
+     * @return 已投出的选票总数 (即已投票的玩家数)
+     */
+    public int voteCount() {
+        return voters.size();
     }
 
     public Optional<UUID> getWinnerPlayerUUID() {
@@ -157,29 +268,76 @@ public class Election {
      * @return 议会席位分布Map
      */
     public Map<UUID, Integer> getPartySeatDistribution() {
-        return Collections.unmodifiableMap(new HashMap<>(partySeatDistribution)); // 返回副本
+        return getSnapshot().getPartySeatDistribution();
+    }
+
+    /**
+     * @return 指定政党在本次议会选举中分得的席位数，没有席位时为0
+     */
+    public int seatsFor(UUID partyUUID) {
+        if (partyUUID == null) return 0;
+        Integer seats = partySeatDistribution.get(partyUUID);
+        return seats != null ? seats : 0;
+    }
+
+    /**
+     * 获取当前版本的不可变视图。选举自上次构建以来没有被修改、也没有新的投票时直接返回缓存的实例，不产生任何复制；
+     * 重建时只复制与政党数量成正比的小集合，与投票人数无关。
+     */
+    public Snapshot getSnapshot() {
+        long currentVersion = dirtyTracker.getVersion(); // 先读版本再复制：复制期间的修改会让版本号前进，下次读取时重建
+        Snapshot current = snapshot;
+        if (current != null && current.getVersion() == currentVersion
+                && current.voterCount == voters.size() && current.partyVoteTotal == partyVoteTotal()) {
+            return current;
+        }
+        Set<UUID> partiesCopy;
+        synchronized (participatingParties) {
+            partiesCopy = Set.copyOf(participatingParties);
+        }
+        int voterCount = voters.size(); // 先读人数再复制票数：复制期间的投票会让票数总和与记录的不一致，下次读取时重建
+        Map<UUID, Integer> votesCopy = new HashMap<>();
+        partyVotesCount.forEach((partyId, count) -> votesCopy.put(partyId, count.intValue()));
+        long votesCopyTotal = votesCopy.values().stream().mapToLong(Integer::longValue).sum();
+        Snapshot rebuilt = new Snapshot(currentVersion, voterCount, votesCopyTotal, partiesCopy,
+                Map.copyOf(votesCopy), Map.copyOf(partySeatDistribution));
+        snapshot = rebuilt;
+        return rebuilt;
     }
 
     // --- Setters & Mutators ---
+    /**
+     * 设置投票方式。应在选举开始时 (投票阶段之前) 设置，议会选举始终按政党投票，不使用此设置。
+     */
+    public void setBallotMode(BallotMode ballotMode) {
+        this.ballotMode = ballotMode != null ? ballotMode : BallotMode.PLURALITY;
+        dirtyTracker.markDirty();
+    }
+
     public void setNationGovernmentTypeCache(GovernmentType nationGovernmentTypeCache) {
         this.nationGovernmentTypeCache = nationGovernmentTypeCache;
+        dirtyTracker.markDirty();
     }
 
     public void setStatus(ElectionStatus status) {
         if (status == null) throw new IllegalArgumentException("Election status cannot be null.");
         this.status = status;
+        dirtyTracker.markDirty();
     }
 
     public void setStartTime(long startTime) {
         this.startTime = startTime;
+        dirtyTracker.markDirty();
     }
 
     public void setEndTime(long endTime) {
         this.endTime = endTime;
+        dirtyTracker.markDirty();
     }
 
     public void setRegistrationEndTime(long registrationEndTime) {
         this.registrationEndTime = registrationEndTime;
+        dirtyTracker.markDirty();
     }
 
     /**
@@ -192,7 +350,8 @@ public class Election {
             return false;
         }
         if (participatingParties.add(partyUUID)) {
-            partyVotesCount.putIfAbsent(partyUUID, new AtomicInteger(0)); // 初始化票数
+            partyVotesCount.putIfAbsent(partyUUID, new LongAdder()); // 初始化票数
+            dirtyTracker.markDirty();
             return true;
         }
         return false;
@@ -208,6 +367,7 @@ public class Election {
         boolean removed = participatingParties.remove(partyUUID);
         if (removed) {
             partyVotesCount.remove(partyUUID);
+            dirtyTracker.markDirty();
         }
         return removed;
     }
@@ -215,6 +375,7 @@ public class Election {
 
     /**
      * (议会选举用) 记录一次对政党的投票。
+     * 不需要外部加锁，可以从任意线程调用：是否为该投票者的第一票由投票者集合的一次原子插入决定，计票使用 LongAdder。
      * @param voterUUID 投票者UUID
      * @param partyUUID 目标政党UUID
      * @return 如果投票成功记录返回true；如果投票者已投票、政党未参选或选举非投票状态，则返回false。
@@ -223,15 +384,17 @@ public class Election {
         if (voterUUID == null || partyUUID == null) return false;
         if (this.type != ElectionType.PARLIAMENTARY) return false; // 仅用于议会选举
         if (this.status != ElectionStatus.VOTING) return false;
-        if (voters.contains(voterUUID)) {
-            return false; // 已经投过票
-        }
         if (!participatingParties.contains(partyUUID)) {
             return false; // 政党未参选
         }
+        if (!voters.add(voterUUID)) {
+            return false; // 已经投过票 (检查和登记是同一个原子操作)
+        }
 
-        partyVotesCount.computeIfAbsent(partyUUID, k -> new AtomicInteger(0)).incrementAndGet();
-        voters.add(voterUUID);
+        partyVotesCount.computeIfAbsent(partyUUID, k -> new LongAdder()).increment();
+        if (!partyVotesChanged) { // 与 Candidate.addVote 相同：只设置变化标记，不递增版本号
+            partyVotesChanged = true;
+        }
         return true;
     }
 
@@ -245,7 +408,12 @@ public class Election {
         if (candidate == null) {
             return false;
         }
-        return candidates.putIfAbsent(candidate.getPlayerUUID(), candidate) == null;
+        if (candidates.putIfAbsent(candidate.getPlayerUUID(), candidate) == null) {
+            candidate.attachTo(dirtyTracker);
+            dirtyTracker.markDirty();
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -254,36 +422,76 @@ public class Election {
      * @return 如果成功移除返回true，否则返回false。
      */
     public boolean removeCandidate(UUID playerUUID) {
-        return candidates.remove(playerUUID) != null;
+        Candidate removed = candidates.remove(playerUUID);
+        if (removed == null) return false;
+        removed.attachTo(null);
+        dirtyTracker.markDirty();
+        return true;
     }
 
     /**
-     * 记录一次投票。
+     * 记录一次投票。与 {@link #recordVoteForParty(UUID, UUID)} 一样不需要外部加锁，同一投票者并发投票时只有一票会被记录。
      * @param voterUUID 投票者UUID
      * @param candidateUUID 候选人UUID
-     * @return 如果投票成功记录返回true；如果投票者已投票、候选人不存在或选举非投票状态，则返回false。
+     * @return 如果投票成功记录返回true；如果投票者已投票、候选人不存在、选举非投票状态或为排序复选制，则返回false。
      */
     public boolean recordVote(UUID voterUUID, UUID candidateUUID) {
         if (voterUUID == null || candidateUUID == null) return false;
+        if (this.ballotMode != BallotMode.PLURALITY) return false; // 排序复选制只接受 recordRankedVote
         if (this.status != ElectionStatus.VOTING) return false; // 只能在投票阶段投票
-        if (voters.contains(voterUUID)) {
-            return false; // 已经投过票
-        }
         Candidate candidate = candidates.get(candidateUUID);
         if (candidate == null) {
             return false; // 候选人不存在
         }
-        candidate.addVote();
-        voters.add(voterUUID);
+        if (!voters.add(voterUUID)) {
+            return false; // 已经投过票 (检查和登记是同一个原子操作)
+        }
+        candidate.addVote(); // 候选人的修改会传播到本选举的版本号 (在登记投票者之后，使快照能看到新的投票者)
+        return true;
+    }
+
+    /**
+     * (排序复选制用) 记录一张排序选票。排序相同的选票合并计数；第一偏好同时计入该候选人的票数，用于显示第一偏好得票。
+     * 与 {@link #recordVote(UUID, UUID)} 一样不需要外部加锁。
+     * @param voterUUID 投票者UUID
+     * @param ranking 候选人UUID，第一偏好在前；不能为空、不能重复，且都必须是本次选举的候选人
+     * @return 如果投票成功记录返回true；如果投票者已投票、排序无效或选举非投票状态，则返回false。
+     */
+    public boolean recordRankedVote(UUID voterUUID, List<UUID> ranking) {
+        if (voterUUID == null || ranking == null || ranking.isEmpty()) return false;
+        if (this.ballotMode != BallotMode.RANKED) return false;
+        if (this.status != ElectionStatus.VOTING) return false;
+        if (new HashSet<>(ranking).size() != ranking.size()) return false; // 重复的候选人
+        for (UUID candidateUUID : ranking) {
+            if (candidateUUID == null || !candidates.containsKey(candidateUUID)) return false;
+        }
+        Candidate firstChoice = candidates.get(ranking.get(0));
+        if (firstChoice == null) return false; // 候选人刚被移除
+        if (!voters.add(voterUUID)) {
+            return false; // 已经投过票
+        }
+        rankedBallots.computeIfAbsent(List.copyOf(ranking), k -> new LongAdder()).increment();
+        firstChoice.addVote(); // 候选人的变化标记同时表示本选举有未保存的投票
         return true;
     }
 
+    /**
+     * @return 按排序合并的排序选票 (不可修改的副本)，供即时决选计票使用
+     */
+    public Map<List<UUID>, Long> getRankedBallots() {
+        Map<List<UUID>, Long> copy = new HashMap<>(rankedBallots.size() * 2);
+        rankedBallots.forEach((ranking, count) -> copy.put(ranking, count.sum()));
+        return Collections.unmodifiableMap(copy);
+    }
+
     public void setWinnerPlayerUUID(UUID winnerPlayerUUID) {
         this.winnerPlayerUUID = winnerPlayerUUID; // Nullable
+        dirtyTracker.markDirty();
     }
 
     public void setWinnerPartyUUID(UUID winnerPartyUUID) {
         this.winnerPartyUUID = winnerPartyUUID; // Nullable
+        dirtyTracker.markDirty();
     }
 
     /**
@@ -295,6 +503,7 @@ public class Election {
         if (newPartySeatDistribution != null) {
             this.partySeatDistribution.putAll(newPartySeatDistribution);
         }
+        dirtyTracker.markDirty();
     }
 
     /**
@@ -304,8 +513,98 @@ public class Election {
     public void clearVotesAndVoters() {
         this.voters.clear();
         this.candidates.values().forEach(c -> c.setVotes(0));
+        this.rankedBallots.clear();
         if (this.type == ElectionType.PARLIAMENTARY) { // <--- 新增
-            this.partyVotesCount.values().forEach(atomicInt -> atomicInt.set(0)); // <--- 新增
+            this.partyVotesCount.values().forEach(LongAdder::reset); // <--- 新增
+        }
+        dirtyTracker.markDirty();
+    }
+
+    // --- Dirty Tracking (管理器据此只保存自上次保存以来有变化的实体) ---
+    public long getVersion() {
+        return dirtyTracker.getVersion();
+    }
+
+    /**
+     * @return 自上次保存以来是否有结构性修改或新的投票
+     */
+    public boolean isDirty() {
+        if (dirtyTracker.isDirty()) return true;
+        for (Candidate candidate : candidates.values()) {
+            if (candidate.hasUnsavedVotes()) return true;
+        }
+        synchronized (partyVotesCount) {
+            return partyVotesChanged && partyVoteTotal() != savedPartyVoteTotal;
+        }
+    }
+
+    public void markDirty() {
+        dirtyTracker.markDirty();
+    }
+
+    /**
+     * 记录序列化时的版本和票数已成功写入存储。
+     * @param persistedVersion 序列化前通过 {@link #getVersion()} 取得的版本号
+     * @param persistedVotes 序列化前通过 {@link #captureVoteCounts()} 取得的票数
+     */
+    public void markSaved(long persistedVersion, VoteCounts persistedVotes) {
+        dirtyTracker.markSaved(persistedVersion);
+        markSavedVotes(persistedVotes);
+    }
+
+    /**
+     * 将当前状态视为已保存 (从存储加载完成后调用)。
+     */
+    public void markClean() {
+        dirtyTracker.markClean();
+        markSavedVotes(captureVoteCounts());
+    }
+
+    private void markSavedVotes(VoteCounts counts) {
+        counts.candidateVotes.forEach(Candidate::markVotesSaved);
+        markPartyVotesSaved(counts.partyVoteTotal);
+    }
+
+    private void markPartyVotesSaved(long persistedTotal) {
+        synchronized (partyVotesCount) {
+            savedPartyVoteTotal = persistedTotal;
+            partyVotesChanged = false; // 先清除标记再比较：比较之后的投票会重新设置标记
+            if (partyVoteTotal() != savedPartyVoteTotal) {
+                partyVotesChanged = true;
+            }
+        }
+    }
+
+    /**
+     * 取得当前各候选人和各政党的票数，应在序列化之前调用 (与 {@link #getVersion()} 相同)：
+     * 之后的投票会使记录的票数小于写入的票数，选举保持为脏，下次保存时再写一次。
+     */
+    public VoteCounts captureVoteCounts() {
+        Map<Candidate, Long> candidateVotes = new HashMap<>(candidates.size() * 2);
+        for (Candidate candidate : candidates.values()) {
+            candidateVotes.put(candidate, (long) candidate.getVotes());
+        }
+        return new VoteCounts(candidateVotes, partyVoteTotal());
+    }
+
+    private long partyVoteTotal() {
+        long total = 0L;
+        for (LongAdder count : partyVotesCount.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * 某一时刻的票数，由 {@link #captureVoteCounts()} 取得，保存成功后交给 {@link #markSaved(long, VoteCounts)}。
+     */
+    public static final class VoteCounts {
+        private final Map<Candidate, Long> candidateVotes;
+        private final long partyVoteTotal;
+
+        private VoteCounts(Map<Candidate, Long> candidateVotes, long partyVoteTotal) {
+            this.candidateVotes = candidateVotes;
+            this.partyVoteTotal = partyVoteTotal;
         }
     }
 
@@ -380,7 +679,7 @@ public class Election {
      * 警告：外部不应修改此集合，除非是在受控的加载过程中。
      * @return 内部投票者 Set
      */
-    public Set<UUID> getVotersInternal() { // 改为 protected 或包可见
+    public CompactUuidSet getVotersInternal() { // 改为 protected 或包可见
         return this.voters;
     }
 
@@ -396,7 +695,10 @@ public class Election {
     public Set<UUID> getParticipatingPartiesInternal() { // 包可见或 public
         return this.participatingParties;
     }
-    public Map<UUID, AtomicInteger> getPartyVotesCountInternal() { // 包可见或 public
+    public Map<UUID, LongAdder> getPartyVotesCountInternal() { // 包可见或 public
         return this.partyVotesCount;
     }
-}
\ No newline at end of file
+    public Map<List<UUID>, LongAdder> getRankedBallotsInternal() {
+        return this.rankedBallots;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,348 @@
+// 文件名: ElectionArchive.java
+// 结构位置: top/chickenshout/townypolitical/elections/ElectionArchive.java
+package top.chickenshout.townypolitical.elections;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import top.chickenshout.townypolitical.enums.ElectionStatus;
+import top.chickenshout.townypolitical.enums.ElectionType;
+import top.chickenshout.townypolitical.persistence.StorageCategory;
+import top.chickenshout.townypolitical.persistence.StorageProvider;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 已归档选举的索引和按需加载。
+ * <p>
+ * 每个归档的选举在索引文件 (elections/archive.idx) 中追加一条紧凑的二进制记录：
+ * 选举ID、上下文ID、类型、最终状态、结束时间、获胜者/多数党，以及它在归档存储 (StorageCategory.ELECTIONS_ARCHIVED) 中的文档ID。
+ * 启动时顺序读入整个索引文件，在内存中按 (上下文ID, 类型) 建立按结束时间降序的列表，历史分页查询只访问内存中的索引。
+ * <p>
+ * 完整的选举对象只在确实需要时 (例如查看某场归档选举的详细结果) 才从归档存储读取和解析，
+ * 并放入有界的 LRU 缓存 (elections.archive.cache_size)。
+ * <p>
+ * 索引文件不存在时 (例如从旧版本升级)，可以调用 {@link #rebuild()} 扫描一次归档存储重建索引。
+ * 所有方法都是线程安全的；写文件的方法应在 I/O 线程上调用。
+ */
+public class ElectionArchive {
+
+    private static final int MAGIC = 0x54504149; // "TPAI"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 索引中的一条记录 (不可变)。
+     */
+    public static final class Entry {
+        private final UUID electionId;
+        private final UUID contextId;
+        private final ElectionType type;
+        private final ElectionStatus status;
+        private final long endTime;
+        private final UUID winnerPlayerUUID;
+        private final UUID winnerPartyUUID;
+        private final String documentId;
+
+        public Entry(UUID electionId, UUID contextId, ElectionType type, ElectionStatus status, long endTime,
+                     UUID winnerPlayerUUID, UUID winnerPartyUUID, String documentId) {
+            this.electionId = electionId;
+            this.contextId = contextId;
+            this.type = type;
+            this.status = status;
+            this.endTime = endTime;
+            this.winnerPlayerUUID = winnerPlayerUUID;
+            this.winnerPartyUUID = winnerPartyUUID;
+            this.documentId = documentId;
+        }
+
+        /**
+         * 由即将归档的选举生成索引记录。
+         */
+        public static Entry of(Election election, String documentId) {
+            return new Entry(election.getElectionId(), election.getContextId(), election.getType(), election.getStatus(),
+                    election.getEndTime(), election.getWinnerPlayerUUID().orElse(null), election.getWinnerPartyUUID().orElse(null), documentId);
+        }
+
+        public UUID getElectionId() { return electionId; }
+        public UUID getContextId() { return contextId; }
+        public ElectionType getType() { return type; }
+        public ElectionStatus getStatus() { return status; }
+        public long getEndTime() { return endTime; }
+        public Optional<UUID> getWinnerPlayerUUID() { return Optional.ofNullable(winnerPlayerUUID); }
+        public Optional<UUID> getWinnerPartyUUID() { return Optional.ofNullable(winnerPartyUUID); }
+        public String getDocumentId() { return documentId; }
+    }
+
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator
+            .comparingLong(Entry::getEndTime).reversed()
+            .thenComparing(Entry::getElectionId);
+
+    private final Logger logger;
+    private final File indexFile;
+    private final StorageProvider storage;
+    private final BiFunction<String, YamlConfiguration, Election> parser;
+    private final int cacheSize;
+
+    private final Map<UUID, Map<ElectionType, List<Entry>>> byContextAndType = new HashMap<>(); // 每个列表按结束时间降序
+    private final Map<UUID, Entry> byElectionId = new HashMap<>();
+    private final LinkedHashMap<UUID, Election> cache;
+
+    /**
+     * @param parser    把归档文档解析为选举对象 (文档ID, 文档) → 选举；无法解析时抛出 IllegalArgumentException
+     * @param cacheSize 完整选举对象的 LRU 缓存容量
+     */
+    public ElectionArchive(Logger logger, File indexFile, StorageProvider storage,
+                           BiFunction<String, YamlConfiguration, Election> parser, int cacheSize) {
+        this.logger = logger;
+        this.indexFile = indexFile;
+        this.storage = storage;
+        this.parser = parser;
+        this.cacheSize = Math.max(1, cacheSize);
+        this.cache = new LinkedHashMap<UUID, Election>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Election> eldest) {
+                return size() > ElectionArchive.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * 读入索引文件。
+     * @return 索引文件是否存在且可读；返回 false 时调用方应安排 {@link #rebuild()}
+     */
+    public synchronized boolean load() {
+        clearIndex();
+        if (!indexFile.exists()) return false;
+        try {
+            byte[] bytes = Files.readAllBytes(indexFile.toPath());
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warning("[ElectionArchive] " + indexFile.getName() + " has an unknown format. It will be rebuilt.");
+                clearIndex();
+                return false;
+            }
+            int records = 0;
+            long completeLength = bytes.length - in.available(); // 最后一条完整记录的结束位置
+            while (in.available() > 0) {
+                Entry entry;
+                try {
+                    entry = readEntry(in);
+                } catch (EOFException e) {
+                    break; // 最后一条记录只写了一半
+                }
+                completeLength = bytes.length - in.available();
+                if (entry != null) {
+                    index(entry);
+                    records++;
+                }
+            }
+            if (completeLength < bytes.length) {
+                // 截掉写了一半的尾部，否则之后追加的记录会从错位的位置开始，下次启动时全部读错
+                logger.warning("[ElectionArchive] Truncating " + (bytes.length - completeLength) + " trailing bytes of a torn record in " + indexFile.getName());
+                try (RandomAccessFile file = new RandomAccessFile(indexFile, "rw")) {
+                    file.setLength(completeLength);
+                }
+            }
+            logger.info("[ElectionArchive] Loaded " + records + " archived election index records.");
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "[ElectionArchive] Could not read " + indexFile.getName() + ". It will be rebuilt.", e);
+            clearIndex();
+            return false;
+        }
+    }
+
+    /**
+     * 扫描归档存储重建索引文件 (只在索引文件缺失或损坏时使用，耗时与归档数量成正比)。
+     * 重建期间通过 {@link #add(Entry)} 加入的记录会被保留。
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Entry> scanned = new ArrayList<>();
+        for (Map.Entry<String, YamlConfiguration> document : storage.loadAll(StorageCategory.ELECTIONS_ARCHIVED).entrySet()) {
+            try {
+                Election election = parser.apply(document.getKey(), document.getValue());
+                scanned.add(Entry.of(election, document.getKey()));
+            } catch (RuntimeException e) {
+                logger.warning("[ElectionArchive] Skipping unreadable archived election " + document.getKey() + ": " + e.getMessage());
+            }
+        }
+        synchronized (this) {
+            for (Entry entry : scanned) {
+                index(entry);
+            }
+            try {
+                rewriteIndexFile();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "[ElectionArchive] Could not write " + indexFile.getName(), e);
+            }
+            logger.info("[ElectionArchive] Rebuilt archive index with " + byElectionId.size() + " records in " + (System.currentTimeMillis() - start) + " ms.");
+        }
+    }
+
+    /**
+     * 记录一个刚归档的选举 (在归档文档移动成功之后调用)。同一选举重复加入会被忽略。
+     */
+    public synchronized void add(Entry entry) {
+        if (entry == null || byElectionId.containsKey(entry.getElectionId())) return;
+        index(entry);
+        boolean newFile = !indexFile.exists();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile, true)))) {
+            if (newFile) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+            }
+            writeEntry(out, entry);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "[ElectionArchive] Could not append to " + indexFile.getName() + " for election " + entry.getElectionId(), e);
+        }
+    }
+
+    /**
+     * 分页查询某个上下文的归档选举，按结束时间从新到旧。
+     *
+     * @param type 选举类型；为 null 表示全部类型
+     */
+    public synchronized List<Entry> query(UUID contextId, ElectionType type, int offset, int limit) {
+        List<Entry> entries = entriesFor(contextId, type);
+        if (offset >= entries.size() || limit <= 0) return Collections.emptyList();
+        return new ArrayList<>(entries.subList(Math.max(0, offset), Math.min(entries.size(), offset + limit)));
+    }
+
+    /**
+     * @param type 选举类型；为 null 表示全部类型
+     * @return 该上下文的归档选举数量
+     */
+    public synchronized int count(UUID contextId, ElectionType type) {
+        Map<ElectionType, List<Entry>> byType = byContextAndType.get(contextId);
+        if (byType == null) return 0;
+        if (type != null) return byType.getOrDefault(type, Collections.emptyList()).size();
+        int total = 0;
+        for (List<Entry> entries : byType.values()) total += entries.size();
+        return total;
+    }
+
+    public synchronized Optional<Entry> getEntry(UUID electionId) {
+        return Optional.ofNullable(byElectionId.get(electionId));
+    }
+
+    /**
+     * @return 已在 LRU 缓存中的归档选举；未缓存时为空 (不读取存储，可在主线程调用)
+     */
+    public synchronized Optional<Election> getCached(UUID electionId) {
+        return Optional.ofNullable(cache.get(electionId));
+    }
+
+    /**
+     * 加载一个归档选举的完整数据。先查 LRU 缓存，未命中时从归档存储读取并解析 (会读取文件，不应在主线程调用)。
+     * @return 选举对象；索引中没有或文档无法读取时为空
+     */
+    public Optional<Election> load(UUID electionId) {
+        Entry entry;
+        synchronized (this) {
+            Election cached = cache.get(electionId);
+            if (cached != null) return Optional.of(cached);
+            entry = byElectionId.get(electionId);
+        }
+        if (entry == null) return Optional.empty();
+        YamlConfiguration document = storage.load(StorageCategory.ELECTIONS_ARCHIVED, entry.getDocumentId()); // 在锁外读取
+        if (document == null) {
+            logger.warning("[ElectionArchive] Archived election document " + entry.getDocumentId() + " is missing.");
+            return Optional.empty();
+        }
+        Election election;
+        try {
+            election = parser.apply(entry.getDocumentId(), document);
+        } catch (RuntimeException e) {
+            logger.warning("[ElectionArchive] Could not parse archived election " + entry.getDocumentId() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+        synchronized (this) {
+            cache.put(electionId, election);
+        }
+        return Optional.of(election);
+    }
+
+    private List<Entry> entriesFor(UUID contextId, ElectionType type) {
+        Map<ElectionType, List<Entry>> byType = byContextAndType.get(contextId);
+        if (byType == null) return Collections.emptyList();
+        if (type != null) return byType.getOrDefault(type, Collections.emptyList());
+        List<Entry> merged = new ArrayList<>();
+        for (List<Entry> entries : byType.values()) merged.addAll(entries);
+        merged.sort(NEWEST_FIRST);
+        return merged;
+    }
+
+    private void index(Entry entry) {
+        if (byElectionId.putIfAbsent(entry.getElectionId(), entry) != null) return;
+        List<Entry> entries = byContextAndType.computeIfAbsent(entry.getContextId(), k -> new EnumMap<>(ElectionType.class))
+                .computeIfAbsent(entry.getType(), k -> new ArrayList<>());
+        int position = Collections.binarySearch(entries, entry, NEWEST_FIRST);
+        entries.add(position < 0 ? -position - 1 : position, entry);
+    }
+
+    private void clearIndex() {
+        byContextAndType.clear();
+        byElectionId.clear();
+        cache.clear();
+    }
+
+    private void rewriteIndexFile() throws IOException {
+        File temp = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            for (Entry entry : byElectionId.values()) {
+                writeEntry(out, entry);
+            }
+        }
+        Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 记录格式：选举ID (16) + 上下文ID (16) + 类型序号 (1) + 状态序号 (1) + 结束时间 (8) + 获胜者 (16) + 多数党 (16) + 文档ID (UTF)
+    // 没有获胜者/多数党时写入全零UUID
+    private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        writeUuid(out, entry.getElectionId());
+        writeUuid(out, entry.getContextId());
+        out.writeByte(entry.getType().ordinal());
+        out.writeByte(entry.getStatus().ordinal());
+        out.writeLong(entry.getEndTime());
+        writeUuid(out, entry.winnerPlayerUUID);
+        writeUuid(out, entry.winnerPartyUUID);
+        out.writeUTF(entry.getDocumentId());
+    }
+
+    /**
+     * @return 读到的记录；类型或状态序号无法识别时返回 null (跳过该记录)
+     * @throws EOFException 文件已结束
+     */
+    private static Entry readEntry(DataInputStream in) throws IOException {
+        UUID electionId = readUuid(in);
+        UUID contextId = readUuid(in);
+        int typeOrdinal = in.readUnsignedByte();
+        int statusOrdinal = in.readUnsignedByte();
+        long endTime = in.readLong();
+        UUID winnerPlayer = readUuid(in);
+        UUID winnerParty = readUuid(in);
+        String documentId = in.readUTF();
+        ElectionType[] types = ElectionType.values();
+        ElectionStatus[] statuses = ElectionStatus.values();
+        if (electionId == null || contextId == null || typeOrdinal >= types.length || statusOrdinal >= statuses.length) return null;
+        return new Entry(electionId, contextId, types[typeOrdinal], statuses[statusOrdinal], endTime, winnerPlayer, winnerParty, documentId);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid == null ? 0L : uuid.getMostSignificantBits());
+        out.writeLong(uuid == null ? 0L : uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        long msb = in.readLong();
+        long lsb = in.readLong();
+        return msb == 0L && lsb == 0L ? null : new UUID(msb, lsb);
+    }
+}
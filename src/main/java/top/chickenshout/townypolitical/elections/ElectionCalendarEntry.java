@@ -0,0 +1,60 @@
+// 文件名: ElectionCalendarEntry.java
+// 结构位置: top/chickenshout/townypolitical/elections/ElectionCalendarEntry.java
+package top.chickenshout.townypolitical.elections;
+
+import top.chickenshout.townypolitical.enums.ElectionType;
+
+import java.util.UUID;
+
+/**
+ * 选举日程中的一项：某个上下文的某类选举将在何时开始或进入下一阶段。
+ * 由 ElectionManager 根据已登记的截止时间生成，只用于展示。
+ */
+public final class ElectionCalendarEntry {
+
+    public enum Event {
+        CYCLE_START("周期选举开始"),
+        REGISTRATION_START("开始登记"),
+        VOTING_START("开始投票"),
+        VOTING_END("投票截止"),
+        ARCHIVE("结果归档");
+
+        private final String displayName;
+
+        Event(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final long dueAt;
+    private final Event event;
+    private final UUID contextId;
+    private final ElectionType type;
+
+    public ElectionCalendarEntry(long dueAt, Event event, UUID contextId, ElectionType type) {
+        this.dueAt = dueAt;
+        this.event = event;
+        this.contextId = contextId;
+        this.type = type;
+    }
+
+    public long getDueAt() {
+        return dueAt;
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+
+    public UUID getContextId() {
+        return contextId;
+    }
+
+    public ElectionType getType() {
+        return type;
+    }
+}
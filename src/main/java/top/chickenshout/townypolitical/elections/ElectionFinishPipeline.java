@@ -0,0 +1,205 @@
+// 文件名: ElectionFinishPipeline.java
+// 结构位置: top/chickenshout/townypolitical/elections/ElectionFinishPipeline.java
+package top.chickenshout.townypolitical.elections;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import top.chickenshout.townypolitical.scheduling.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * 选举结束处理流水线。
+ * 到期的选举不在截止时间到达的同一个 tick 内全部处理完，而是分为两个阶段：
+ * <ol>
+ *     <li>计票：在异步线程上执行 (席位分配、即时决选等纯计算，只读取选举数据)</li>
+ *     <li>应用：在全局线程上执行 (写入结果、同步 Towny、保存 NationPolitics、广播、安排归档和下一次选举)，
+ *         每个 tick 最多使用 elections.finish_pipeline.tick_budget_ms 毫秒，至少处理一个</li>
+ * </ol>
+ * 重启后大量选举同时到期时，它们的 Towny 副作用会被分摊到多个 tick。
+ * 流水线记录队列深度和延迟 (从进入队列到结果应用完成的时间)，供管理命令和日志查看。
+ * {@link #shutdown()} 之后再次调用 {@link #submit} 会重新打开流水线 (例如 /tp reload 后继续使用同一个 ElectionManager)。
+ *
+ * @param <T> 计票阶段产生的结果类型
+ */
+public class ElectionFinishPipeline<T> {
+
+    private static final class Entry<T> {
+        final Election election;
+        final long enqueuedAt;
+        final T tally;
+
+        Entry(Election election, long enqueuedAt, T tally) {
+            this.election = election;
+            this.enqueuedAt = enqueuedAt;
+            this.tally = tally;
+        }
+    }
+
+    private final JavaPlugin plugin;
+    private final TaskScheduler taskScheduler;
+    private final BiConsumer<Election, T> applyStage;
+
+    private final Queue<Entry<T>> readyToApply = new ConcurrentLinkedQueue<>();
+    private final List<Election> tallying = new ArrayList<>(); // 正在异步计票的选举 (受 this 保护)
+    private final AtomicInteger inFlight = new AtomicInteger(); // 计票中 + 等待应用
+    private final AtomicLong finishedCount = new AtomicLong();
+    private volatile long lastLagMillis;
+    private volatile long maxLagMillis;
+    private int finishedInCurrentBurst;
+    private long maxLagInCurrentBurst;
+    private TaskScheduler.Task drainTask;
+    private int generation; // 每次 shutdown 加一；关闭前提交的计票任务完成时不再进入新一轮的队列
+
+    /**
+     * @param applyStage 应用阶段，在全局线程上执行；计票结果可能为 null (计票失败)，此时应自行计算
+     */
+    public ElectionFinishPipeline(JavaPlugin plugin, TaskScheduler taskScheduler, BiConsumer<Election, T> applyStage) {
+        this.plugin = plugin;
+        this.taskScheduler = taskScheduler;
+        this.applyStage = applyStage;
+    }
+
+    /**
+     * 把一个已进入计票状态的选举加入流水线。流水线已关闭时会自动重新打开。
+     *
+     * @param tallyStage 计票阶段，在异步线程上执行。计票所需的配置等输入应在调用方线程上预先取好，
+     *                   阶段内不得访问 Bukkit/Towny 对象
+     */
+    public void submit(Election election, Supplier<T> tallyStage) {
+        long enqueuedAt = System.currentTimeMillis();
+        final int submittedGeneration;
+        synchronized (this) {
+            submittedGeneration = generation;
+            tallying.add(election);
+            inFlight.incrementAndGet();
+        }
+        taskScheduler.runAsync(() -> {
+            T tally = null;
+            try {
+                tally = tallyStage.get();
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.WARNING, "[ElectionFinishPipeline] Off-thread tally failed for election " + election.getElectionId() + "; it will be tallied while applying.", t);
+            }
+            synchronized (this) {
+                if (submittedGeneration != generation || !tallying.remove(election)) return; // 流水线已在此后关闭过
+                readyToApply.add(new Entry<>(election, enqueuedAt, tally));
+                ensureDraining();
+            }
+        });
+    }
+
+    /**
+     * @return 尚未完成的选举数量 (计票中和等待应用的)
+     */
+    public int getQueueDepth() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return 等待应用结果的选举数量 (已完成计票)
+     */
+    public int getAwaitingApplyCount() {
+        return readyToApply.size();
+    }
+
+    /**
+     * @return 最近一个完成的选举从进入队列到应用完成的时间 (毫秒)
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    /**
+     * @return 本次运行中观察到的最大延迟 (毫秒)
+     */
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public long getFinishedCount() {
+        return finishedCount.get();
+    }
+
+    /**
+     * 关闭流水线。已完成计票的选举立即在当前线程上应用 (应在全局线程/主线程调用)；
+     * 仍在计票中的选举不再处理，作为结果返回，由调用方恢复其状态，重启后重新结束。
+     * 关闭后流水线仍可通过 {@link #submit} 再次使用。
+     *
+     * @return 未能处理完的选举
+     */
+    public List<Election> shutdown() {
+        List<Election> unfinished;
+        synchronized (this) {
+            generation++;
+            if (drainTask != null) {
+                drainTask.cancel();
+                drainTask = null;
+            }
+            unfinished = new ArrayList<>(tallying);
+            tallying.clear();
+            inFlight.addAndGet(-unfinished.size());
+        }
+        Entry<T> entry;
+        while ((entry = readyToApply.poll()) != null) {
+            apply(entry);
+        }
+        return unfinished;
+    }
+
+    private void ensureDraining() { // 调用方持有 this 的锁
+        if (drainTask == null) {
+            drainTask = taskScheduler.runGlobalTimer(this::drain, 1L, 1L);
+        }
+    }
+
+    private void drain() {
+        long budgetNanos = Math.max(0L, plugin.getConfig().getLong("elections.finish_pipeline.tick_budget_ms", 5L)) * 1_000_000L;
+        long start = System.nanoTime();
+        Entry<T> entry;
+        while ((entry = readyToApply.poll()) != null) {
+            apply(entry);
+            if (System.nanoTime() - start >= budgetNanos) break; // 本 tick 预算已用完，其余留到下一 tick
+        }
+        synchronized (this) {
+            if (readyToApply.isEmpty() && tallying.isEmpty() && drainTask != null) {
+                drainTask.cancel();
+                drainTask = null;
+                if (finishedInCurrentBurst > 1) {
+                    plugin.getLogger().info("[ElectionFinishPipeline] Finished " + finishedInCurrentBurst + " elections, max lag " + maxLagInCurrentBurst + " ms.");
+                }
+                finishedInCurrentBurst = 0;
+                maxLagInCurrentBurst = 0L;
+            }
+        }
+    }
+
+    private void apply(Entry<T> entry) {
+        try {
+            applyStage.accept(entry.election, entry.tally);
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.SEVERE, "[ElectionFinishPipeline] Applying results failed for election " + entry.election.getElectionId(), t);
+        } finally {
+            inFlight.decrementAndGet();
+            finishedCount.incrementAndGet();
+            long lag = System.currentTimeMillis() - entry.enqueuedAt;
+            lastLagMillis = lag;
+            maxLagMillis = Math.max(maxLagMillis, lag);
+            synchronized (this) {
+                finishedInCurrentBurst++;
+                maxLagInCurrentBurst = Math.max(maxLagInCurrentBurst, lag);
+            }
+            long warnAfter = plugin.getConfig().getLong("elections.finish_pipeline.lag_warning_ms", 10000L);
+            if (warnAfter > 0 && lag > warnAfter) {
+                plugin.getLogger().warning("[ElectionFinishPipeline] Election " + entry.election.getElectionId() + " took " + lag + " ms from close to results (queue depth " + inFlight.get() + ").");
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+// 文件名: ElectionIndex.java
+// 结构位置: top/chickenshout/townypolitical/elections/ElectionIndex.java
+package top.chickenshout.townypolitical.elections;
+
+import top.chickenshout.townypolitical.enums.ElectionStatus;
+import top.chickenshout.townypolitical.enums.ElectionType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ElectionManager 内存中选举的二级索引。
+ * 维护以下映射，使按上下文/类型/政党的查找不再需要遍历全部选举：
+ * <ul>
+ *     <li>(上下文ID, 选举类型) → 进行中的选举 (状态不是 FINISHED / CANCELLED)</li>
+ *     <li>上下文ID → 该上下文在内存中的全部选举</li>
+ *     <li>政党ID → 该党参与的选举 (议会选举的参选政党，或候选人所属政党)</li>
+ *     <li>(上下文ID, 选举类型) → 最近一次的选举结果 {@link ElectionResult} (归档后仍保留，直到上下文被删除；重启后从存储装回)</li>
+ * </ul>
+ * 索引由 ElectionManager 在选举开始、状态变更、报名、归档、删除和加载时维护；最近结果另外由 ElectionManager 持久化，启动时装回索引。
+ * 进行中选举的查找会顺带校验状态，即使某处直接调用了 setStatus 也不会返回已结束的选举。
+ * 已完成的选举只记录小的结果记录，完整的选举对象 (候选人、投票者、排序选票) 归档后不再由索引持有。
+ */
+public class ElectionIndex {
+    private final Map<UUID, Map<ElectionType, Election>> activeByContextAndType = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Election>> byContext = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Election>> byParty = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> partiesByElection = new ConcurrentHashMap<>(); // 用于精确地撤销政党索引
+    private final Map<UUID, Map<ElectionType, ElectionResult>> latestResultByContextAndType = new ConcurrentHashMap<>();
+
+    private static boolean isActive(Election election) {
+        ElectionStatus status = election.getStatus();
+        return status != ElectionStatus.FINISHED && status != ElectionStatus.CANCELLED;
+    }
+
+    /**
+     * 将一个选举加入索引 (新建或从存储加载时)。会同时索引其参选政党和候选人所属政党。
+     */
+    public void add(Election election) {
+        if (election == null) return;
+        byContext.computeIfAbsent(election.getContextId(), k -> ConcurrentHashMap.newKeySet()).add(election);
+        for (UUID partyId : election.getParticipatingParties()) {
+            addParty(election, partyId);
+        }
+        for (Candidate candidate : election.getCandidates()) {
+            if (candidate.getPartyUUID() != null) {
+                addParty(election, candidate.getPartyUUID());
+            }
+        }
+        statusChanged(election);
+    }
+
+    /**
+     * 将选举从内存索引中移除 (归档、取消或删除时)。
+     * 如果它是该上下文最近一次完成的选举，其结果记录会保留，除非调用 {@link #forgetContext(UUID)}。
+     */
+    public void remove(Election election) {
+        if (election == null) return;
+        Map<ElectionType, Election> active = activeByContextAndType.get(election.getContextId());
+        if (active != null) {
+            active.remove(election.getType(), election);
+            if (active.isEmpty()) activeByContextAndType.remove(election.getContextId(), active);
+        }
+        removeFrom(byContext, election.getContextId(), election);
+        Set<UUID> parties = partiesByElection.remove(election.getElectionId());
+        if (parties != null) {
+            for (UUID partyId : parties) {
+                removeFrom(byParty, partyId, election);
+            }
+        }
+    }
+
+    /**
+     * 选举状态变更后调用：结束/取消的选举不再作为进行中的选举；已完成的选举记录为最近一次结果。
+     */
+    public void statusChanged(Election election) {
+        if (election == null) return;
+        if (isActive(election)) {
+            activeByContextAndType.computeIfAbsent(election.getContextId(), k -> new ConcurrentHashMap<>())
+                    .put(election.getType(), election);
+            return;
+        }
+        Map<ElectionType, Election> active = activeByContextAndType.get(election.getContextId());
+        if (active != null) {
+            active.remove(election.getType(), election);
+        }
+        if (election.getStatus() == ElectionStatus.FINISHED) {
+            recordResult(ElectionResult.of(election));
+        }
+    }
+
+    /**
+     * 记录一个结果 (选举完成时，或启动时从存储装回)。只有结束时间不早于现有记录时才会替换。
+     * @return 该结果是否成为了此 (上下文, 类型) 的最近结果
+     */
+    public boolean recordResult(ElectionResult result) {
+        if (result == null) return false;
+        ElectionResult latest = latestResultByContextAndType.computeIfAbsent(result.getContextId(), k -> new ConcurrentHashMap<>())
+                .merge(result.getType(), result, (current, incoming) -> incoming.getEndTime() >= current.getEndTime() ? incoming : current);
+        return latest == result;
+    }
+
+    /**
+     * 记录一个政党参与了某个选举 (报名议会选举或其成员登记为候选人)。
+     */
+    public void addParty(Election election, UUID partyId) {
+        if (election == null || partyId == null) return;
+        partiesByElection.computeIfAbsent(election.getElectionId(), k -> ConcurrentHashMap.newKeySet()).add(partyId);
+        byParty.computeIfAbsent(partyId, k -> ConcurrentHashMap.newKeySet()).add(election);
+    }
+
+    /**
+     * 撤销政党与选举的关联 (例如政党解散后其候选人被移除)。
+     */
+    public void removeParty(Election election, UUID partyId) {
+        if (election == null || partyId == null) return;
+        Set<UUID> parties = partiesByElection.get(election.getElectionId());
+        if (parties != null) {
+            parties.remove(partyId);
+        }
+        removeFrom(byParty, partyId, election);
+    }
+
+    /**
+     * @return 指定上下文和类型的进行中选举；没有则返回 null
+     */
+    public Election getActive(UUID contextId, ElectionType type) {
+        Map<ElectionType, Election> active = activeByContextAndType.get(contextId);
+        if (active == null) return null;
+        Election election = active.get(type);
+        if (election != null && !isActive(election)) { // 状态已在别处改变，顺带修正索引
+            statusChanged(election);
+            return null;
+        }
+        return election;
+    }
+
+    /**
+     * @return 指定上下文在内存中的全部选举 (副本)
+     */
+    public List<Election> getByContext(UUID contextId) {
+        Set<Election> elections = byContext.get(contextId);
+        return elections == null ? Collections.emptyList() : new ArrayList<>(elections);
+    }
+
+    /**
+     * @return 指定政党参与的全部选举 (副本)
+     */
+    public List<Election> getByParty(UUID partyId) {
+        Set<Election> elections = byParty.get(partyId);
+        return elections == null ? Collections.emptyList() : new ArrayList<>(elections);
+    }
+
+    /**
+     * @return 指定上下文和类型最近一次已完成选举的结果；没有则返回 null
+     */
+    public ElectionResult getLatestResult(UUID contextId, ElectionType type) {
+        Map<ElectionType, ElectionResult> results = latestResultByContextAndType.get(contextId);
+        return results == null ? null : results.get(type);
+    }
+
+    /**
+     * 上下文 (国家或政党) 被删除时，丢弃其最近结果记录和政党索引。
+     * @return 被丢弃的结果记录 (供调用方删除其持久化文档)
+     */
+    public Collection<ElectionResult> forgetContext(UUID contextId) {
+        Map<ElectionType, ElectionResult> forgotten = latestResultByContextAndType.remove(contextId);
+        activeByContextAndType.remove(contextId);
+        Set<Election> partyElections = byParty.remove(contextId);
+        if (partyElections != null) {
+            for (Election election : partyElections) {
+                Set<UUID> parties = partiesByElection.get(election.getElectionId());
+                if (parties != null) parties.remove(contextId);
+            }
+        }
+        return forgotten == null ? Collections.emptyList() : forgotten.values();
+    }
+
+    public void clear() {
+        activeByContextAndType.clear();
+        byContext.clear();
+        byParty.clear();
+        partiesByElection.clear();
+        latestResultByContextAndType.clear();
+    }
+
+    private static void removeFrom(Map<UUID, Set<Election>> index, UUID key, Election election) {
+        Set<Election> elections = index.get(key);
+        if (elections == null) return;
+        elections.remove(election);
+        if (elections.isEmpty()) {
+            index.remove(key, elections);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+// 文件名: ElectionResult.java
+// 结构位置: top/chickenshout/townypolitical/elections/ElectionResult.java
+package top.chickenshout.townypolitical.elections;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import top.chickenshout.townypolitical.enums.ElectionType;
+
+import java.util.*;
+
+/**
+ * 一场已完成选举的结果记录 (不可变)：获胜者、多数党、席位分配和结束时间。
+ * 每个 (上下文, 选举类型) 保存最近一次的结果，独立于选举文件持久化，
+ * 选举被归档移出内存或服务器重启后，议员名册等查询仍然可以直接使用，无需读取归档文件。
+ */
+public final class ElectionResult {
+
+    private final UUID electionId;
+    private final UUID contextId;
+    private final ElectionType type;
+    private final long endTime;
+    private final UUID winnerPlayerUUID;
+    private final UUID winnerPartyUUID;
+    private final Map<UUID, Integer> partySeatDistribution;
+
+    public ElectionResult(UUID electionId, UUID contextId, ElectionType type, long endTime,
+                          UUID winnerPlayerUUID, UUID winnerPartyUUID, Map<UUID, Integer> partySeatDistribution) {
+        this.electionId = Objects.requireNonNull(electionId, "electionId");
+        this.contextId = Objects.requireNonNull(contextId, "contextId");
+        this.type = Objects.requireNonNull(type, "type");
+        this.endTime = endTime;
+        this.winnerPlayerUUID = winnerPlayerUUID;
+        this.winnerPartyUUID = winnerPartyUUID;
+        this.partySeatDistribution = partySeatDistribution == null ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(partySeatDistribution));
+    }
+
+    /**
+     * 由已完成的选举生成结果记录。
+     */
+    public static ElectionResult of(Election election) {
+        return new ElectionResult(election.getElectionId(), election.getContextId(), election.getType(), election.getEndTime(),
+                election.getWinnerPlayerUUID().orElse(null), election.getWinnerPartyUUID().orElse(null),
+                election.getPartySeatDistribution());
+    }
+
+    /**
+     * @return 存储中的文档ID：上下文ID_类型
+     */
+    public static String documentId(UUID contextId, ElectionType type) {
+        return contextId + "_" + type.name();
+    }
+
+    public String getDocumentId() {
+        return documentId(contextId, type);
+    }
+
+    public UUID getElectionId() {
+        return electionId;
+    }
+
+    public UUID getContextId() {
+        return contextId;
+    }
+
+    public ElectionType getType() {
+        return type;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public Optional<UUID> getWinnerPlayerUUID() {
+        return Optional.ofNullable(winnerPlayerUUID);
+    }
+
+    public Optional<UUID> getWinnerPartyUUID() {
+        return Optional.ofNullable(winnerPartyUUID);
+    }
+
+    /**
+     * @return 各政党获得的席位 (不可修改)；非议会选举为空
+     */
+    public Map<UUID, Integer> getPartySeatDistribution() {
+        return partySeatDistribution;
+    }
+
+    public YamlConfiguration toYaml() {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("electionId", electionId.toString());
+        config.set("contextId", contextId.toString());
+        config.set("type", type.name());
+        config.set("endTime", endTime);
+        if (winnerPlayerUUID != null) config.set("winnerPlayerUUID", winnerPlayerUUID.toString());
+        if (winnerPartyUUID != null) config.set("winnerPartyUUID", winnerPartyUUID.toString());
+        partySeatDistribution.forEach((partyId, seats) -> config.set("partySeatDistribution." + partyId, seats));
+        return config;
+    }
+
+    /**
+     * @throws IllegalArgumentException 如果文档缺少必需字段或字段格式错误
+     */
+    public static ElectionResult fromYaml(YamlConfiguration config) {
+        UUID electionId = UUID.fromString(Objects.requireNonNull(config.getString("electionId"), "electionId"));
+        UUID contextId = UUID.fromString(Objects.requireNonNull(config.getString("contextId"), "contextId"));
+        ElectionType type = ElectionType.fromString(config.getString("type"))
+                .orElseThrow(() -> new IllegalArgumentException("Invalid ElectionType '" + config.getString("type") + "'."));
+        String winnerPlayer = config.getString("winnerPlayerUUID");
+        String winnerParty = config.getString("winnerPartyUUID");
+        Map<UUID, Integer> seats = new HashMap<>();
+        ConfigurationSection seatSection = config.getConfigurationSection("partySeatDistribution");
+        if (seatSection != null) {
+            for (String partyId : seatSection.getKeys(false)) {
+                seats.put(UUID.fromString(partyId), seatSection.getInt(partyId));
+            }
+        }
+        return new ElectionResult(electionId, contextId, type, config.getLong("endTime"),
+                winnerPlayer != null ? UUID.fromString(winnerPlayer) : null,
+                winnerParty != null ? UUID.fromString(winnerParty) : null,
+                seats);
+    }
+}
@@ -0,0 +1,212 @@
+// 文件名: InstantRunoffTally.java
+// 结构位置: top/chickenshout/townypolitical/elections/InstantRunoffTally.java
+package top.chickenshout.townypolitical.elections;
+
+import java.util.*;
+
+/**
+ * 排序复选选票的即时决选 (instant-runoff) 计票。
+ * <p>
+ * 排序完全相同的选票事先合并为一组 (排序 → 张数)，每组的排序转换为按候选人下标的 int 数组。
+ * 每组记录当前计入的偏好位置，并挂在当前获得其选票的候选人的桶中。
+ * 淘汰候选人时只处理该候选人桶中的组，把它们推进到下一个仍在竞争的偏好，而不是每轮重新扫描全部选票。
+ * 总耗时 O(全部组的排序长度之和 + 轮数 × 候选人数)。
+ * <p>
+ * 每轮若有候选人获得本轮有效票的过半数即当选；否则淘汰得票最少者。
+ * 得票最少者有多人时，先淘汰其中第一偏好票较少的；仍然相同的同时淘汰。
+ * 只有当剩余的所有候选人得票和第一偏好票都完全相同时，才作为平票交给调用方处理。
+ */
+public final class InstantRunoffTally {
+
+    /**
+     * 计票结果。
+     */
+    public static final class Result {
+        private final UUID winner;
+        private final List<UUID> tiedCandidates;
+        private final List<Map<UUID, Long>> rounds;
+        private final long exhaustedBallots;
+
+        private Result(UUID winner, List<UUID> tiedCandidates, List<Map<UUID, Long>> rounds, long exhaustedBallots) {
+            this.winner = winner;
+            this.tiedCandidates = tiedCandidates;
+            this.rounds = rounds;
+            this.exhaustedBallots = exhaustedBallots;
+        }
+
+        /**
+         * @return 当选者；平票或没有有效选票时为空
+         */
+        public Optional<UUID> getWinner() {
+            return Optional.ofNullable(winner);
+        }
+
+        /**
+         * @return 无法区分的平票候选人 (仅在没有当选者且存在有效选票时非空)
+         */
+        public List<UUID> getTiedCandidates() {
+            return tiedCandidates;
+        }
+
+        /**
+         * @return 每轮仍在竞争的候选人及其得票 (按轮次顺序)
+         */
+        public List<Map<UUID, Long>> getRounds() {
+            return rounds;
+        }
+
+        /**
+         * @return 因所有偏好都已被淘汰而失效的选票张数
+         */
+        public long getExhaustedBallots() {
+            return exhaustedBallots;
+        }
+    }
+
+    private InstantRunoffTally() {
+    }
+
+    /**
+     * 执行即时决选计票。
+     *
+     * @param candidateIds   本次选举的全部候选人
+     * @param groupedBallots 按排序合并的选票：排序 (第一偏好在前) → 张数。排序中不属于 candidateIds 的候选人和重复项会被忽略
+     * @return 计票结果
+     */
+    public static Result tally(Collection<UUID> candidateIds, Map<List<UUID>, ? extends Number> groupedBallots) {
+        List<UUID> candidates = new ArrayList<>(new LinkedHashSet<>(candidateIds));
+        int candidateCount = candidates.size();
+        Map<UUID, Integer> indexOf = new HashMap<>(candidateCount * 2);
+        for (int i = 0; i < candidateCount; i++) {
+            indexOf.put(candidates.get(i), i);
+        }
+
+        // 把每组排序转换为候选人下标数组
+        int[][] preferences = new int[groupedBallots.size()][];
+        long[] groupSizes = new long[groupedBallots.size()];
+        int groupCount = 0;
+        for (Map.Entry<List<UUID>, ? extends Number> entry : groupedBallots.entrySet()) {
+            long size = entry.getValue().longValue();
+            if (size <= 0L) continue;
+            int[] ranking = toIndexes(entry.getKey(), indexOf, candidateCount);
+            if (ranking.length == 0) continue;
+            preferences[groupCount] = ranking;
+            groupSizes[groupCount] = size;
+            groupCount++;
+        }
+
+        long[] tallies = new long[candidateCount];
+        long[] firstPreferences = new long[candidateCount];
+        boolean[] eliminated = new boolean[candidateCount];
+        int[] position = new int[groupCount];        // 每组当前计入的偏好位置
+        int[][] buckets = new int[candidateCount][]; // 候选人 → 当前计入该候选人的组
+        int[] bucketSizes = new int[candidateCount];
+        long activeBallots = 0L;
+        for (int g = 0; g < groupCount; g++) {
+            int first = preferences[g][0];
+            tallies[first] += groupSizes[g];
+            firstPreferences[first] += groupSizes[g];
+            activeBallots += groupSizes[g];
+            bucketSizes[first] = append(buckets, bucketSizes[first], first, g);
+        }
+
+        List<Map<UUID, Long>> rounds = new ArrayList<>();
+        long exhausted = 0L;
+        int continuing = candidateCount;
+        if (activeBallots == 0L || candidateCount == 0) {
+            return new Result(null, Collections.emptyList(), rounds, 0L);
+        }
+
+        while (true) {
+            Map<UUID, Long> round = new LinkedHashMap<>();
+            int leader = -1;
+            long lowest = Long.MAX_VALUE;
+            for (int c = 0; c < candidateCount; c++) {
+                if (eliminated[c]) continue;
+                round.put(candidates.get(c), tallies[c]);
+                if (leader < 0 || tallies[c] > tallies[leader]) leader = c;
+                lowest = Math.min(lowest, tallies[c]);
+            }
+            rounds.add(Collections.unmodifiableMap(round));
+
+            if (continuing == 1 || tallies[leader] * 2 > activeBallots) {
+                return new Result(candidates.get(leader), Collections.emptyList(), rounds, exhausted);
+            }
+
+            // 得票最少者；多人时只保留其中第一偏好票最少的
+            List<Integer> toEliminate = new ArrayList<>();
+            long fewestFirstPreferences = Long.MAX_VALUE;
+            for (int c = 0; c < candidateCount; c++) {
+                if (eliminated[c] || tallies[c] != lowest) continue;
+                if (firstPreferences[c] < fewestFirstPreferences) {
+                    fewestFirstPreferences = firstPreferences[c];
+                    toEliminate.clear();
+                }
+                if (firstPreferences[c] == fewestFirstPreferences) toEliminate.add(c);
+            }
+            if (toEliminate.size() == continuing) { // 剩余候选人完全无法区分
+                List<UUID> tied = new ArrayList<>(toEliminate.size());
+                for (int c : toEliminate) tied.add(candidates.get(c));
+                return new Result(null, Collections.unmodifiableList(tied), rounds, exhausted);
+            }
+
+            for (int c : toEliminate) {
+                eliminated[c] = true;
+            }
+            continuing -= toEliminate.size();
+
+            // 只重新分配被淘汰者桶中的组
+            for (int c : toEliminate) {
+                int[] bucket = buckets[c];
+                for (int i = 0; i < bucketSizes[c]; i++) {
+                    int g = bucket[i];
+                    int[] ranking = preferences[g];
+                    int pos = position[g] + 1;
+                    while (pos < ranking.length && eliminated[ranking[pos]]) pos++;
+                    position[g] = pos;
+                    if (pos < ranking.length) {
+                        int next = ranking[pos];
+                        tallies[next] += groupSizes[g];
+                        bucketSizes[next] = append(buckets, bucketSizes[next], next, g);
+                    } else {
+                        exhausted += groupSizes[g];
+                        activeBallots -= groupSizes[g];
+                    }
+                }
+                tallies[c] = 0L;
+                buckets[c] = null;
+                bucketSizes[c] = 0;
+            }
+
+            if (activeBallots == 0L) { // 所有选票都已失效 (只可能出现在同时淘汰时)
+                return new Result(null, Collections.emptyList(), rounds, exhausted);
+            }
+        }
+    }
+
+    private static int[] toIndexes(List<UUID> ranking, Map<UUID, Integer> indexOf, int candidateCount) {
+        int[] indexes = new int[Math.min(ranking.size(), candidateCount)];
+        boolean[] seen = new boolean[candidateCount];
+        int length = 0;
+        for (UUID candidateId : ranking) {
+            Integer index = indexOf.get(candidateId);
+            if (index == null || seen[index]) continue;
+            seen[index] = true;
+            indexes[length++] = index;
+            if (length == indexes.length) break;
+        }
+        return length == indexes.length ? indexes : Arrays.copyOf(indexes, length);
+    }
+
+    private static int append(int[][] buckets, int size, int candidate, int group) {
+        int[] bucket = buckets[candidate];
+        if (bucket == null) {
+            bucket = new int[8];
+        } else if (size == bucket.length) {
+            bucket = Arrays.copyOf(bucket, size * 2);
+        }
+        bucket[size] = group;
+        buckets[candidate] = bucket;
+        return size + 1;
+    }
+}
@@ -0,0 +1,118 @@
+// 文件名: HighestAveragesMethod.java
+// 结构位置: top/chickenshout/townypolitical/elections/seats/HighestAveragesMethod.java
+package top.chickenshout.townypolitical.elections.seats;
+
+import java.util.*;
+
+/**
+ * 最高均数法 (顿特法 / 圣拉古法)。
+ * 每个席位都分给当前商 得票/除数(已得席位) 最大的政党。顿特法的除数为 1, 2, 3, ...，圣拉古法为 1, 3, 5, ...。
+ * <p>
+ * 各党的当前商放在优先队列中，每分配一席只需弹出队首并以新的除数重新入队，
+ * 总耗时 O(P + S log P) (S 为席位数，P 为政党数)。商的比较通过交叉相乘在 long 上精确进行。
+ */
+public class HighestAveragesMethod implements SeatAllocationMethod {
+    static final String D_HONDT_NAME = "D_HONDT";
+    static final String SAINTE_LAGUE_NAME = "SAINTE_LAGUE";
+
+    private final String name;
+    private final int divisorStep; // 第 n 个除数 (n 从 0 开始) 为 1 + n × divisorStep
+
+    private HighestAveragesMethod(String name, int divisorStep) {
+        this.name = name;
+        this.divisorStep = divisorStep;
+    }
+
+    public static HighestAveragesMethod dHondt() {
+        return new HighestAveragesMethod(D_HONDT_NAME, 1);
+    }
+
+    public static HighestAveragesMethod sainteLague() {
+        return new HighestAveragesMethod(SAINTE_LAGUE_NAME, 2);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 某个政党在优先队列中的当前商 votes / divisor。
+     */
+    private static final class Quotient {
+        final UUID partyId;
+        final long votes;
+        final long divisor;
+
+        Quotient(UUID partyId, long votes, long divisor) {
+            this.partyId = partyId;
+            this.votes = votes;
+            this.divisor = divisor;
+        }
+    }
+
+    // 商大者优先；商相同时总票数多者优先，再按政党UUID
+    private static final Comparator<Quotient> PRIORITY = (a, b) -> {
+        int byQuotient = Long.compare(b.votes * a.divisor, a.votes * b.divisor); // a/da 与 b/db 的交叉相乘比较
+        if (byQuotient != 0) return byQuotient;
+        int byVotes = Long.compare(b.votes, a.votes);
+        if (byVotes != 0) return byVotes;
+        return a.partyId.compareTo(b.partyId);
+    };
+
+    @Override
+    public Map<UUID, Integer> allocate(Map<UUID, Integer> partyVotes, int totalSeats) {
+        Map<UUID, Integer> seatDistribution = new HashMap<>();
+        if (partyVotes.isEmpty() || totalSeats <= 0) return seatDistribution;
+
+        PriorityQueue<Quotient> queue = new PriorityQueue<>(partyVotes.size(), PRIORITY);
+        for (Map.Entry<UUID, Integer> entry : partyVotes.entrySet()) {
+            seatDistribution.put(entry.getKey(), 0);
+            if (entry.getValue() > 0) { // 零票的政党不参与分配
+                queue.add(new Quotient(entry.getKey(), entry.getValue(), 1L));
+            }
+        }
+        if (queue.isEmpty()) {
+            seatDistribution.clear();
+            return seatDistribution; // 没有有效投票
+        }
+
+        for (int seat = 0; seat < totalSeats; seat++) {
+            Quotient top = queue.poll();
+            int seatsWon = seatDistribution.merge(top.partyId, 1, Integer::sum);
+            queue.add(new Quotient(top.partyId, top.votes, 1L + (long) seatsWon * divisorStep));
+        }
+        return seatDistribution;
+    }
+
+    /**
+     * 分配结果恰好是按 {@link #PRIORITY} 排序后最靠前的 S 个商。
+     * 因此只要已获席位中排序最靠后的商 (各党最后一席的商) 仍排在未获席位中最靠前的商 (各党下一席的商) 之前，
+     * 分配就不会改变。检查耗时 O(P)，不需要重新分配 S 个席位。
+     */
+    @Override
+    public boolean isStillValid(Map<UUID, Integer> partyVotes, int totalSeats, Map<UUID, Integer> allocation) {
+        if (allocation.size() != partyVotes.size()) return false;
+        Quotient weakestWinning = null;
+        Quotient strongestLosing = null;
+        long allocated = 0L;
+        for (Map.Entry<UUID, Integer> entry : partyVotes.entrySet()) {
+            Integer seats = allocation.get(entry.getKey());
+            if (seats == null) return false;
+            int votes = entry.getValue();
+            if (votes <= 0) {
+                if (seats > 0) return false;
+                continue;
+            }
+            allocated += seats;
+            if (seats > 0) {
+                Quotient lastSeat = new Quotient(entry.getKey(), votes, 1L + (long) (seats - 1) * divisorStep);
+                if (weakestWinning == null || PRIORITY.compare(lastSeat, weakestWinning) > 0) weakestWinning = lastSeat;
+            }
+            Quotient nextSeat = new Quotient(entry.getKey(), votes, 1L + (long) seats * divisorStep);
+            if (strongestLosing == null || PRIORITY.compare(nextSeat, strongestLosing) < 0) strongestLosing = nextSeat;
+        }
+        if (allocated != totalSeats) return false;
+        return weakestWinning == null || strongestLosing == null || PRIORITY.compare(weakestWinning, strongestLosing) < 0;
+    }
+}
@@ -0,0 +1,53 @@
+// 文件名: LargestRemainderHareMethod.java
+// 结构位置: top/chickenshout/townypolitical/elections/seats/LargestRemainderHareMethod.java
+package top.chickenshout.townypolitical.elections.seats;
+
+import java.util.*;
+
+/**
+ * 最大余额法 (黑尔数额)。
+ * 黑尔数额为 总票数/总席位，各党先得 floor(得票 × 总席位 / 总票数) 席，
+ * 剩余席位按余额 (得票 × 总席位 mod 总票数，分母相同因此可以直接比较分子) 从大到小分配。
+ */
+public class LargestRemainderHareMethod implements SeatAllocationMethod {
+    static final String NAME = "LARGEST_REMAINDER_HARE";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Map<UUID, Integer> allocate(Map<UUID, Integer> partyVotes, int totalSeats) {
+        Map<UUID, Integer> seatDistribution = new HashMap<>();
+        if (partyVotes.isEmpty() || totalSeats <= 0) return seatDistribution;
+
+        long totalVoteCount = 0L;
+        for (int votes : partyVotes.values()) {
+            totalVoteCount += Math.max(0, votes);
+        }
+        if (totalVoteCount == 0L) return seatDistribution; // 没有有效投票
+
+        Map<UUID, Long> remainders = new HashMap<>();
+        int seatsAutomaticallyAllocated = 0;
+        for (Map.Entry<UUID, Integer> entry : partyVotes.entrySet()) {
+            long scaledVotes = (long) Math.max(0, entry.getValue()) * totalSeats;
+            int seats = (int) (scaledVotes / totalVoteCount);
+            seatDistribution.put(entry.getKey(), seats);
+            remainders.put(entry.getKey(), scaledVotes % totalVoteCount);
+            seatsAutomaticallyAllocated += seats;
+        }
+
+        int remainingSeats = totalSeats - seatsAutomaticallyAllocated; // 一定小于政党数
+        if (remainingSeats > 0) {
+            List<UUID> byRemainder = new ArrayList<>(remainders.keySet());
+            byRemainder.sort(Comparator.<UUID>comparingLong(remainders::get).reversed()
+                    .thenComparing(Comparator.<UUID>comparingInt(partyVotes::get).reversed())
+                    .thenComparing(Comparator.naturalOrder()));
+            for (int i = 0; i < remainingSeats && i < byRemainder.size(); i++) {
+                seatDistribution.merge(byRemainder.get(i), 1, Integer::sum);
+            }
+        }
+        return seatDistribution;
+    }
+}
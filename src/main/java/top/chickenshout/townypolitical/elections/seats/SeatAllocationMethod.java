@@ -0,0 +1,62 @@
+// 文件名: SeatAllocationMethod.java
+// 结构位置: top/chickenshout/townypolitical/elections/seats/SeatAllocationMethod.java
+package top.chickenshout.townypolitical.elections.seats;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 议会席位分配方法。
+ * 由 elections.parliament.seat_allocation_method 选择，可选值见 {@link #byName(String)}。
+ * <p>
+ * 所有实现都只使用整数运算 (比较时交叉相乘)，不使用 double 余额；
+ * 商或余额相同时依次按总得票数 (多者优先) 和政党UUID排序，因此相同输入总是得到相同结果。
+ */
+public interface SeatAllocationMethod {
+
+    /**
+     * @return 配置中使用的方法名，例如 "D_HONDT"
+     */
+    String getName();
+
+    /**
+     * 计算席位分布。
+     *
+     * @param partyVotes 已通过代表门槛的政党及其得票数
+     * @param totalSeats 议会总席位数
+     * @return 每个政党分得的席位数 (输入中的每个政党都会出现，未得席位的为0)；没有有效票或席位时返回空Map
+     */
+    Map<UUID, Integer> allocate(Map<UUID, Integer> partyVotes, int totalSeats);
+
+    /**
+     * 判断一个已有的分配在新的得票下是否仍然是本方法的结果，用于在得票变化时跳过完整的重新分配。
+     * 默认实现总是返回 false (总是重新分配)。
+     *
+     * @param partyVotes 新的得票 (与 allocation 的政党集合相同时才可能有效)
+     * @param totalSeats 议会总席位数
+     * @param allocation 之前由 {@link #allocate(Map, int)} 计算出的分配
+     * @return 如果 allocate(partyVotes, totalSeats) 一定会得到相同的 allocation
+     */
+    default boolean isStillValid(Map<UUID, Integer> partyVotes, int totalSeats, Map<UUID, Integer> allocation) {
+        return false;
+    }
+
+    /**
+     * 按配置名称查找分配方法 (不区分大小写)。
+     * 支持 "LARGEST_REMAINDER_HARE" (最大余额法/黑尔数额)、"D_HONDT" (顿特最高均数法) 和 "SAINTE_LAGUE" (圣拉古法)。
+     */
+    static Optional<SeatAllocationMethod> byName(String name) {
+        if (name == null) return Optional.empty();
+        switch (name.trim().toUpperCase()) {
+            case LargestRemainderHareMethod.NAME:
+                return Optional.of(new LargestRemainderHareMethod());
+            case HighestAveragesMethod.D_HONDT_NAME:
+                return Optional.of(HighestAveragesMethod.dHondt());
+            case HighestAveragesMethod.SAINTE_LAGUE_NAME:
+                return Optional.of(HighestAveragesMethod.sainteLague());
+            default:
+                return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+// 文件名: SeatProjection.java
+// 结构位置: top/chickenshout/townypolitical/elections/seats/SeatProjection.java
+package top.chickenshout.townypolitical.elections.seats;
+
+import top.chickenshout.townypolitical.elections.Election;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 议会选举投票期间的实时席位预测。
+ * <p>
+ * 每张政党选票只调用一次 {@link #onVote()} (累加一个计数)，不做任何计算。
+ * 查看预测时，只有在上次计算后有新选票、且距上次计算已超过刷新间隔时才重新计算；
+ * 重新计算时先检查代表门槛筛选出的政党集合是否变化，以及当前分配在新得票下是否仍然成立
+ * ({@link SeatAllocationMethod#isStillValid(Map, int, Map)})，只有跨过分配边界时才重新分配席位。
+ * 其余情况直接返回缓存的预测。
+ */
+public class SeatProjection {
+
+    /**
+     * 某一时刻的席位预测 (不可变)。
+     */
+    public static final class View {
+        private final Map<UUID, Integer> seats;
+        private final Map<UUID, Integer> partyVotes;
+        private final long totalVotes;
+        private final long computedAt;
+
+        private View(Map<UUID, Integer> seats, Map<UUID, Integer> partyVotes, long totalVotes, long computedAt) {
+            this.seats = seats;
+            this.partyVotes = partyVotes;
+            this.totalVotes = totalVotes;
+            this.computedAt = computedAt;
+        }
+
+        /**
+         * @return 预测的席位分布 (只包含通过代表门槛的政党)
+         */
+        public Map<UUID, Integer> getSeats() {
+            return seats;
+        }
+
+        /**
+         * @return 计算时各参选政党的得票
+         */
+        public Map<UUID, Integer> getPartyVotes() {
+            return partyVotes;
+        }
+
+        public long getTotalVotes() {
+            return totalVotes;
+        }
+
+        /**
+         * @return 计算时间 (System.currentTimeMillis() 口径)
+         */
+        public long getComputedAt() {
+            return computedAt;
+        }
+    }
+
+    private final SeatAllocationMethod method;
+    private final int totalSeats;
+    private final double thresholdPercent;
+    private final long refreshIntervalMillis;
+
+    private final LongAdder pendingVotes = new LongAdder(); // 上次计算之后的新选票数
+    private volatile View current;
+
+    public SeatProjection(SeatAllocationMethod method, int totalSeats, double thresholdPercent, long refreshIntervalMillis) {
+        this.method = method;
+        this.totalSeats = totalSeats;
+        this.thresholdPercent = thresholdPercent;
+        this.refreshIntervalMillis = Math.max(0L, refreshIntervalMillis);
+    }
+
+    /**
+     * 记录一张新的政党选票 (由 ElectionManager 在投票成功后调用)。
+     */
+    public void onVote() {
+        pendingVotes.increment();
+    }
+
+    /**
+     * 获取当前预测。没有新选票或未到刷新间隔时返回缓存的预测。
+     */
+    public View get(Election election) {
+        View cached = current;
+        if (cached != null && (pendingVotes.sum() == 0L || System.currentTimeMillis() - cached.getComputedAt() < refreshIntervalMillis)) {
+            return cached;
+        }
+        synchronized (this) {
+            cached = current;
+            if (cached != null && pendingVotes.sum() == 0L) {
+                return cached; // 其他线程刚刚完成了计算
+            }
+            pendingVotes.reset(); // 之后到达的选票会让下一次查看重新计算
+            Map<UUID, Integer> partyVotes = election.getAllPartyVotes(); // 选举按版本缓存的快照
+            Map<UUID, Integer> eligibleVotes = applyRepresentationThreshold(partyVotes, thresholdPercent);
+            long totalVotes = 0L;
+            for (int votes : partyVotes.values()) {
+                totalVotes += votes;
+            }
+
+            Map<UUID, Integer> seats;
+            if (cached != null && cached.getSeats().keySet().equals(eligibleVotes.keySet())
+                    && method.isStillValid(eligibleVotes, totalSeats, cached.getSeats())) {
+                seats = cached.getSeats(); // 没有跨过分配边界，沿用原分配
+            } else {
+                seats = Collections.unmodifiableMap(method.allocate(eligibleVotes, totalSeats));
+            }
+            View rebuilt = new View(seats, partyVotes, totalVotes, System.currentTimeMillis());
+            current = rebuilt;
+            return rebuilt;
+        }
+    }
+
+    /**
+     * 按代表门槛筛选政党：得票占总票数的百分比不低于 thresholdPercent 的政党才参与席位分配。
+     * 最终结果判定与实时预测使用同一规则。
+     *
+     * @return 通过门槛的政党及其得票；没有有效票时为空
+     */
+    public static Map<UUID, Integer> applyRepresentationThreshold(Map<UUID, Integer> partyVotes, double thresholdPercent) {
+        long totalVotes = 0L;
+        for (int votes : partyVotes.values()) {
+            totalVotes += votes;
+        }
+        Map<UUID, Integer> eligible = new HashMap<>();
+        if (totalVotes == 0L) return eligible;
+        for (Map.Entry<UUID, Integer> entry : partyVotes.entrySet()) {
+            double percentage = (double) entry.getValue() * 100.0 / totalVotes;
+            if (percentage >= thresholdPercent) {
+                eligible.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return eligible;
+    }
+}
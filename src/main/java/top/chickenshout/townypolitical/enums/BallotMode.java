@@ -0,0 +1,46 @@
+// 文件名: BallotMode.java
+// 结构位置: top/chickenshout/townypolitical/enums/BallotMode.java
+package top.chickenshout.townypolitical.enums;
+
+import java.util.Optional;
+
+/**
+ * 单席位选举 (总统选举、党魁选举) 的投票方式。
+ * 投票方式在选举开始时确定并随选举保存，选举进行中修改配置不会影响已开始的选举。
+ */
+public enum BallotMode {
+    PLURALITY("相对多数制", "每位选民投一票，得票最多者当选"),
+    RANKED("排序复选制", "选民按偏好为候选人排序，以即时决选 (instant-runoff) 逐轮淘汰得票最少者，直到有人获得过半数");
+
+    private final String displayName;
+    private final String description;
+
+    BallotMode(String displayName, String description) {
+        this.displayName = displayName;
+        this.description = description;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 根据枚举名 (例如 "RANKED") 查找投票方式 (忽略大小写)。
+     * @param name 枚举的名称字符串
+     * @return 对应的 BallotMode Optional，如果找不到则为空
+     */
+    public static Optional<BallotMode> fromString(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(BallotMode.valueOf(name.trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
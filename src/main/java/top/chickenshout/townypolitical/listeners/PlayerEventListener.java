@@ -9,6 +9,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import top.chickenshout.townypolitical.TownyPolitical;
+import top.chickenshout.townypolitical.managers.NationManager;
 import top.chickenshout.townypolitical.managers.PartyManager;
 // import top.chickenshout.townypolitical.managers.SomeOtherManager; // If needed for other player events
 
@@ -20,11 +21,13 @@ public class PlayerEventListener implements Listener {
 
     private final TownyPolitical plugin;
     private final PartyManager partyManager;
+    private final NationManager nationManager;
     // private final SomeOtherManager someOtherManager;
 
     public PlayerEventListener(TownyPolitical plugin) {
         this.plugin = plugin;
         this.partyManager = plugin.getPartyManager();
+        this.nationManager = plugin.getNationManager();
         // this.someOtherManager = plugin.getSomeOtherManager();
 
         if (this.partyManager == null) {
@@ -50,6 +53,7 @@ public class PlayerEventListener implements Listener {
         if (partyManager != null) { // Double check, though constructor should prevent null
             partyManager.onPlayerJoinServer(player);
         }
+        nationManager.getCitizenshipIndex().playerJoined(player.getUniqueId()); // 更新在线公民索引
 
         // 未来可扩展：
         // - 检查是否有待处理的政党邀请或选举通知，并发送给玩家。
@@ -69,8 +73,9 @@ public class PlayerEventListener implements Listener {
         if (partyManager != null) {
             partyManager.onPlayerQuitServer(player);
         }
+        nationManager.getCitizenshipIndex().playerQuit(player.getUniqueId());
 
         // 未来可扩展：
         // - 清理与该玩家会话相关的缓存（例如，GUI打开状态等）。
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
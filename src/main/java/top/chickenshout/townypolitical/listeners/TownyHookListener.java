@@ -4,6 +4,8 @@ package top.chickenshout.townypolitical.listeners;
 
 import com.palmergames.bukkit.towny.TownyAPI;
 import com.palmergames.bukkit.towny.event.DeleteNationEvent;
+import com.palmergames.bukkit.towny.event.NationAddTownEvent;
+import com.palmergames.bukkit.towny.event.NationRemoveTownEvent;
 import com.palmergames.bukkit.towny.event.NewNationEvent;
 import com.palmergames.bukkit.towny.event.RenameNationEvent;
 // 使用你提供的更准确的居民事件
@@ -51,6 +53,7 @@ public class TownyHookListener implements Listener {
         if (nation != null) {
             plugin.getLogger().info("[TownyHook] New nation created: " + nation.getName() + " (UUID: " + nation.getUUID() + ")");
             nationManager.onNationCreate(nation);
+            nationManager.getCitizenshipIndex().nationCreated(nation);
             electionManager.scheduleNextElectionForNation(nation.getUUID());
         } else {
             plugin.getLogger().warning("[TownyHook] NewNationEvent triggered with a null nation object.");
@@ -64,6 +67,7 @@ public class TownyHookListener implements Listener {
         if (nationUUID != null) {
             plugin.getLogger().info("[TownyHook] Nation deleted: " + nationName + " (UUID: " + nationUUID + ")");
             nationManager.onNationDelete(nationUUID);
+            nationManager.getCitizenshipIndex().nationDeleted(nationUUID);
             electionManager.onNationDeleted(nationUUID);
         } else {
             plugin.getLogger().warning("[TownyHook] DeleteNationEvent triggered with a null nation UUID for nation name: " + nationName);
@@ -90,11 +94,13 @@ public class TownyHookListener implements Listener {
     public void onTownAddResident(TownAddResidentEvent event) {
         Resident resident = event.getResident();
         Town town = event.getTown();
+        nationManager.getCitizenshipIndex().residentJoinedTown(resident, town);
         try {
             if (town.hasNation()) {
                 Nation nation = town.getNation();
                 plugin.getLogger().info("[TownyHook] Player " + resident.getName() + " added to town " + town.getName() +
                         ", becoming a citizen of nation " + nation.getName() + ". Political eligibility might change.");
+                nationManager.invalidateParliamentRoster(nation.getUUID()); // 公民身份影响议员资格
                 // 如果需要，可以在此通知 ElectionManager 或其他模块公民身份的变化
                 // electionManager.onCitizenAddedToNation(resident, nation);
             } else {
@@ -114,12 +120,14 @@ public class TownyHookListener implements Listener {
     public void onTownRemoveResident(TownRemoveResidentEvent event) {
         Resident resident = event.getResident();
         Town town = event.getTown(); // 在此事件中，town 对象仍然有效，代表玩家离开的那个城镇
+        nationManager.getCitizenshipIndex().residentLeftTown(resident);
         try {
             // 检查该城镇在玩家被移除时是否属于一个国家
             if (town.hasNation()) {
                 Nation nation = town.getNation(); // 获取该城镇当前所属的国家
                 plugin.getLogger().info("[TownyHook] Player " + resident.getName() + " removed from town " + town.getName() +
                         ", potentially losing citizenship of nation " + nation.getName() + ". Political eligibility might change.");
+                nationManager.invalidateParliamentRoster(nation.getUUID()); // 公民身份影响议员资格
                 // electionManager.onCitizenRemovedFromNation(resident, nation);
             } else {
                 plugin.getLogger().finer("[TownyHook] Player " + resident.getName() + " removed from town " + town.getName() + " (town was not in a nation).");
@@ -131,4 +139,32 @@ public class TownyHookListener implements Listener {
             plugin.getLogger().log(Level.SEVERE, "[TownyHook] Critical error: Town object became null during TownRemoveResidentEvent for resident " + resident.getName(), npe);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 当一个城镇加入国家时触发。该城镇的所有居民都成为该国公民。
+     * @param event NationAddTownEvent 事件对象
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onNationAddTown(NationAddTownEvent event) {
+        Nation nation = event.getNation();
+        if (nation != null) {
+            plugin.getLogger().finer("[TownyHook] Town " + event.getTown().getName() + " joined nation " + nation.getName() + ".");
+            nationManager.getCitizenshipIndex().townJoinedNation(event.getTown(), nation);
+            nationManager.invalidateParliamentRoster(nation.getUUID());
+        }
+    }
+
+    /**
+     * 当一个城镇离开国家时触发。该城镇的所有居民都失去该国公民身份。
+     * @param event NationRemoveTownEvent 事件对象
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onNationRemoveTown(NationRemoveTownEvent event) {
+        Nation nation = event.getNation();
+        if (nation != null) {
+            plugin.getLogger().finer("[TownyHook] Town " + event.getTown().getName() + " left nation " + nation.getName() + ".");
+            nationManager.getCitizenshipIndex().townLeftNation(event.getTown(), nation);
+            nationManager.invalidateParliamentRoster(nation.getUUID());
+        }
+    }
+}
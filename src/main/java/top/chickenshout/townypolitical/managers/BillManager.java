@@ -8,10 +8,8 @@ import com.palmergames.bukkit.towny.object.Resident;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
 import top.chickenshout.townypolitical.TownyPolitical;
 import top.chickenshout.townypolitical.data.Bill;
 import top.chickenshout.townypolitical.data.NationPolitics; // 需要导入
@@ -21,12 +19,12 @@ import top.chickenshout.townypolitical.enums.BillStatus;
 import top.chickenshout.townypolitical.enums.ElectionType;
 import top.chickenshout.townypolitical.enums.GovernmentType; // 需要导入
 import top.chickenshout.townypolitical.enums.VoteChoice;
+import top.chickenshout.townypolitical.persistence.StorageCategory;
+import top.chickenshout.townypolitical.persistence.StorageProvider;
+import top.chickenshout.townypolitical.scheduling.DeadlineScheduler;
 import top.chickenshout.townypolitical.utils.MessageManager;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
@@ -42,11 +40,11 @@ public class BillManager {
     private final Map<UUID, Bill> billsById;
     // <NationUUID, List<BillUUID>> - 方便按国家查找法案
     private final Map<UUID, List<UUID>> nationBillsIndex;
-    // <BillUUID, BukkitTask> - 存储法案投票结束任务
-    private final Map<UUID, BukkitTask> scheduledVoteEndTasks;
+    // 法案投票截止时间，键为 "bill_" + BillUUID
+    private final DeadlineScheduler deadlines;
+    private static final String VOTE_END_KEY_PREFIX = "bill_";
 
-    private final File billsDataFolder;
-    private static final String BILL_FILE_EXTENSION = ".yml";
+    private final StorageProvider storage;
 
     public BillManager(TownyPolitical plugin) {
         this.plugin = plugin;
@@ -56,15 +54,10 @@ public class BillManager {
 
         this.billsById = new ConcurrentHashMap<>();
         this.nationBillsIndex = new ConcurrentHashMap<>();
-        this.scheduledVoteEndTasks = new ConcurrentHashMap<>();
+        this.deadlines = plugin.getDeadlineScheduler();
 
-        this.billsDataFolder = new File(plugin.getDataFolder(), "bills");
-        if (!billsDataFolder.exists()) {
-            if (!billsDataFolder.mkdirs()) {
-                plugin.getLogger().severe("Could not create bills data folder!");
-            }
-        }
-        loadBills();
+        this.storage = plugin.getStorageProvider();
+        // 法案数据由 TownyPolitical 在启动时并行解析后通过 installBills 安装
     }
 
     // --- 法案创建与提交流程 ---
@@ -222,12 +215,11 @@ public class BillManager {
         }
 
 
-        BukkitTask voteEndTask = Bukkit.getScheduler().runTaskLater(plugin, () -> finishParliamentaryVote(bill.getBillId()), votingDurationSeconds * 20L);
-        scheduledVoteEndTasks.put(bill.getBillId(), voteEndTask);
+        deadlines.schedule(VOTE_END_KEY_PREFIX + bill.getBillId(), bill.getVotingEndTimestamp(), () -> finishParliamentaryVote(bill.getBillId()));
     }
 
     private void finishParliamentaryVote(UUID billId) {
-        scheduledVoteEndTasks.remove(billId);
+        deadlines.cancel(VOTE_END_KEY_PREFIX + billId); // 提前结束时 (例如加载时已过期) 清除尚未到期的截止时间
         Bill bill = billsById.get(billId);
         if (bill == null || bill.getStatus() != BillStatus.VOTING) {
             plugin.getLogger().warning("finishParliamentaryVote: Bill " + billId + " not found or not in voting status.");
@@ -246,8 +238,7 @@ public class BillManager {
         int nayVotes = bill.getNayVotes();
         int abstainVotes = bill.getAbstainVotes(); // 获取弃权票
 
-        List<Resident> mps = getParliamentMembers(nation);
-        int totalPossibleVoters = mps.size();
+        int totalPossibleVoters = nationManager.getParliamentRoster(nation).size();
         if (totalPossibleVoters == 0) { // 如果没有明确议员，则看实际投票人数
             boolean fallbackToAllCitizens = plugin.getConfig().getBoolean("bills.parliament_vote_fallback_all_citizens", true);
             if (fallbackToAllCitizens) {
@@ -333,8 +324,8 @@ public class BillManager {
         // 简化：假设国家的所有公民都能对“议会”法案投票（虽然这不完全符合现实议会制）
         // 更真实的：只有该国的“议员”能投票。
         Nation nation = TownyAPI.getInstance().getNation(bill.getNationId());
-        Resident resident = TownyAPI.getInstance().getResident(voter.getUniqueId());
-        if (nation == null || resident == null || !resident.hasNation() || !resident.getNationOrNull().equals(nation)) {
+        boolean isCitizen = nation != null && nationManager.getCitizenshipIndex().isCitizenOf(voter.getUniqueId(), nation.getUUID());
+        if (!isCitizen) {
             messageManager.sendMessage(voter, "bill-vote-fail-not-eligible-citizen", "nation_name", nation != null ? nation.getName() : "该国");
             return false;
         }
@@ -346,20 +337,20 @@ public class BillManager {
                 politics.getGovernmentType() == GovernmentType.CONSTITUTIONAL_MONARCHY ||
                 politics.getGovernmentType() == GovernmentType.SEMI_PRESIDENTIAL_REPUBLIC)) {
             // 对于需要议会投票的政体
-            List<Resident> mps = getParliamentMembers(nation);
+            Set<UUID> mps = nationManager.getParliamentRoster(nation); // 缓存的议员名册，O(1) 判断
             if (!mps.isEmpty()) { // 如果有明确的议员列表
-                if (mps.stream().anyMatch(mp -> mp.getUUID().equals(voter.getUniqueId()))) {
+                if (mps.contains(voter.getUniqueId())) {
                     isEligibleToVote = true;
                 } else {
                     messageManager.sendMessage(voter, "bill-vote-fail-not-mp", "nation_name", nation.getName());
                     return false;
                 }
             } else {
-                // 如果 getParliamentMembers 返回空（例如没有选举结果），是否允许所有公民投票？
+                // 如果议员名册为空（例如没有选举结果），是否允许所有公民投票？
                 // 这取决于你的设计决策。为了简化，如果配置允许，可以让所有公民投票。
                 boolean fallbackToAllCitizens = plugin.getConfig().getBoolean("bills.parliament_vote_fallback_all_citizens", true);
                 if (fallbackToAllCitizens) {
-                    if (resident.hasNation() && resident.getNationOrNull().equals(nation)) {
+                    if (isCitizen) {
                         isEligibleToVote = true;
                     } else {
                         messageManager.sendMessage(voter, "bill-vote-fail-not-eligible-citizen", "nation_name", nation.getName());
@@ -375,7 +366,7 @@ public class BillManager {
             // 但如果逻辑走到了这里，说明 proposeBill 那里可能没有正确处理直接颁布。
             // 或者这是管理员强制开启的投票。
             // 默认允许国家公民投票 (如果逻辑允许到这里)
-            if (resident.hasNation() && resident.getNationOrNull().equals(nation)) {
+            if (isCitizen) {
                 isEligibleToVote = true;
             } else {
                 messageManager.sendMessage(voter, "bill-vote-fail-not-eligible-citizen", "nation_name", nation.getName());
@@ -420,17 +411,23 @@ public class BillManager {
 
     // --- 数据持久化 ---
     public void loadBills() {
+        installBills(storage.loadAll(StorageCategory.BILLS));
+    }
+
+    /**
+     * 用已解析的法案文档替换内存中的全部法案，并恢复投票结束任务。必须在主线程调用。
+     * @param billDocuments <文档ID, 已解析的文档>
+     */
+    public void installBills(Map<String, YamlConfiguration> billDocuments) {
         billsById.clear();
         nationBillsIndex.clear();
-        scheduledVoteEndTasks.values().forEach(BukkitTask::cancel);
-        scheduledVoteEndTasks.clear();
+        deadlines.cancelAll(VOTE_END_KEY_PREFIX); // 下面按法案的投票截止时间重新登记
 
-        if (!billsDataFolder.exists() || !billsDataFolder.isDirectory()) return;
-        File[] billFiles = billsDataFolder.listFiles((dir, name) -> name.toLowerCase().endsWith(BILL_FILE_EXTENSION));
-        if (billFiles == null || billFiles.length == 0) return;
+        if (billDocuments.isEmpty()) return;
 
-        for (File billFile : billFiles) {
-            YamlConfiguration config = YamlConfiguration.loadConfiguration(billFile);
+        for (Map.Entry<String, YamlConfiguration> document : billDocuments.entrySet()) {
+            String documentId = document.getKey();
+            YamlConfiguration config = document.getValue();
             try {
                 UUID billId = UUID.fromString(config.getString("billId"));
                 UUID nationId = UUID.fromString(config.getString("nationId"));
@@ -455,22 +452,21 @@ public class BillManager {
                     }
                 }
 
+                bill.markClean(); // 刚从存储加载，与磁盘一致
                 billsById.put(billId, bill);
                 nationBillsIndex.computeIfAbsent(nationId, k -> new ArrayList<>()).add(billId);
 
                 // 恢复投票结束任务
                 if (bill.getStatus() == BillStatus.VOTING && bill.getVotingEndTimestamp() > System.currentTimeMillis()) {
-                    long delayTicks = (bill.getVotingEndTimestamp() - System.currentTimeMillis()) / 50L;
-                    BukkitTask task = Bukkit.getScheduler().runTaskLater(plugin, () -> finishParliamentaryVote(billId), Math.max(1, delayTicks));
-                    scheduledVoteEndTasks.put(billId, task);
+                    deadlines.schedule(VOTE_END_KEY_PREFIX + billId, bill.getVotingEndTimestamp(), () -> finishParliamentaryVote(billId));
                 } else if (bill.getStatus() == BillStatus.VOTING && bill.getVotingEndTimestamp() <= System.currentTimeMillis()){
                     // 投票时间已过，立即处理
                     finishParliamentaryVote(billId);
                 }
 
             } catch (IllegalArgumentException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to load bill from file " + billFile.getName() + ": " + e.getMessage());
-                moveCorruptedFile(billFile, "bill_load_error_");
+                plugin.getLogger().log(Level.WARNING, "Failed to load bill from data " + documentId + ": " + e.getMessage());
+                storage.quarantine(StorageCategory.BILLS, documentId, "bill_load_error_");
             }
         }
         plugin.getLogger().info("Loaded " + billsById.size() + " bills.");
@@ -478,7 +474,16 @@ public class BillManager {
 
     public void saveBill(Bill bill) {
         if (bill == null) return;
-        File billFile = new File(billsDataFolder, bill.getBillId().toString() + BILL_FILE_EXTENSION);
+        long version = bill.getVersion();
+        try {
+            storage.save(StorageCategory.BILLS, bill.getBillId().toString(), serializeBill(bill));
+            bill.markSaved(version);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save bill: " + bill.getTitle(), e);
+        }
+    }
+
+    private YamlConfiguration serializeBill(Bill bill) {
         YamlConfiguration config = new YamlConfiguration();
 
         config.set("billId", bill.getBillId().toString());
@@ -496,120 +501,58 @@ public class BillManager {
             ConfigurationSection votesSection = config.createSection("votes");
             bill.getVotes().forEach((voterId, choice) -> votesSection.set(voterId.toString(), choice.name()));
         }
-        try {
-            config.save(billFile);
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not save bill: " + bill.getTitle(), e);
-        }
+        return config;
     }
 
-    private void moveCorruptedFile(File file, String prefix) {
-        // (与NationManager中类似)
-        if (file == null || !file.exists()) return;
-        File corruptedFolder = new File(billsDataFolder.getParentFile(), "corrupted_data");
-        if (!corruptedFolder.exists()) corruptedFolder.mkdirs();
-        File newFile = new File(corruptedFolder, prefix + file.getName() + "_" + System.currentTimeMillis() + ".yml_disabled");
+    public void shutdown() {
+        // 只保存自上次保存以来有变化的法案
+        Map<String, YamlConfiguration> documents = new LinkedHashMap<>();
+        Map<Bill, Long> versions = new HashMap<>();
+        for (Bill bill : billsById.values()) {
+            if (!bill.isDirty()) continue;
+            versions.put(bill, bill.getVersion());
+            documents.put(bill.getBillId().toString(), serializeBill(bill));
+        }
+        plugin.getLogger().info("Saving " + documents.size() + " changed bills (of " + billsById.size() + ")...");
         try {
-            Files.move(file.toPath(), newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            plugin.getLogger().warning("Moved corrupted file " + file.getName() + " to " + newFile.getPath());
-        } catch (IOException ex) {
-            plugin.getLogger().log(Level.SEVERE, "Could not move corrupted file " + file.getName(), ex);
+            if (!documents.isEmpty()) {
+                storage.saveAll(StorageCategory.BILLS, documents); // 批量写入
+                versions.forEach(Bill::markSaved);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save all bills.", e);
         }
-    }
-
-    public void shutdown() {
-        plugin.getLogger().info("Saving all " + billsById.size() + " bills...");
-        billsById.values().forEach(this::saveBill);
-        scheduledVoteEndTasks.values().forEach(BukkitTask::cancel);
-        scheduledVoteEndTasks.clear();
+        // 投票截止时间保留在 DeadlineScheduler 中，由它在关闭时保存
         plugin.getLogger().info("BillManager shutdown complete.");
     }
 
     // --- 辅助方法 ---
     private void broadcastToNation(Nation nation, String messageKey, Object... placeholders) {
         if (nation == null) return;
-        String message = messageManager.getMessage(messageKey, placeholders);
-        String prefixedMessage = messageManager.getFormattedPrefix() + message;
-        for (Resident resident : nation.getResidents()) {
-            if (resident.isOnline()) {
-                Player player = Bukkit.getPlayer(resident.getUUID());
-                if (player != null) {
-                    player.sendMessage(prefixedMessage);
-                }
-            }
-        }
-        plugin.getLogger().info("[Bill Broadcast to " + nation.getName() + "] " + message);
+        plugin.getBroadcastService().broadcast("Bill Broadcast to " + nation.getName(),
+                nationManager.getCitizenshipIndex().getOnlineCitizens(nation.getUUID()), messageKey, placeholders); // 只发给在线公民
     }
 
     public Collection<Bill> getAllBills() {
         return Collections.unmodifiableCollection(billsById.values());
     }
 
-// ... (在 broadcastToNation 方法之后)
-
     /**
-     * 获取有资格对特定国家法案进行投票的议员列表。
-     * 这通常基于最近一次议会选举的结果。
+     * 获取有资格对特定国家法案进行投票的议员列表 (用于通知)。
+     * 名册由 NationManager 缓存，见 {@link NationManager#getParliamentRoster(Nation)}。
      * @param nation 目标国家
      * @return 符合资格的议员的 Resident 对象列表 (如果无法确定则为空列表)
      */
     private List<Resident> getParliamentMembers(Nation nation) {
-        if (nation == null) return Collections.emptyList();
-        List<Resident> parliamentMembers = new ArrayList<>();
-
-        // 依赖 ElectionManager 提供最近议会选举的结果和席位分配
-        ElectionManager em = plugin.getElectionManager();
-        if (em == null) {
-            plugin.getLogger().warning("[BillManager] Cannot get parliament members: ElectionManager is null.");
-            return Collections.emptyList();
-        }
-
-        Optional<Election> latestParliamentElectionOpt = em.getLatestFinishedElection(nation.getUUID(), ElectionType.PARLIAMENTARY);
-        if (latestParliamentElectionOpt.isEmpty()) {
-            plugin.getLogger().finer("[BillManager] No finished parliamentary election found for " + nation.getName() + " to determine MPs.");
-            // 如果没有选举结果，可以考虑一个备用逻辑，例如国家所有官员都是议员，或者只有特定政党的领袖/管理员是。
-            // 简化：如果没有选举结果，则没有明确的议员。
-            return Collections.emptyList();
-        }
-
-        Election latestElection = latestParliamentElectionOpt.get();
-        Map<UUID, Integer> seatDistribution = latestElection.getPartySeatDistribution();
-
-        if (seatDistribution.isEmpty()) {
-            plugin.getLogger().finer("[BillManager] Latest parliamentary election for " + nation.getName() + " has no seat distribution.");
-            return Collections.emptyList();
-        }
-
-        // 从拥有席位的政党中获取代表 (例如，每个席位对应一个代表，或者政党领袖/管理员代表)
-        // 这是一个简化的逻辑：假设政党领袖是该党在议会的主要代表。
-        // 更复杂的可能需要按比例从党员中选出，或者每个政党指定其议员。
-        for (Map.Entry<UUID, Integer> entry : seatDistribution.entrySet()) {
-            if (entry.getValue() > 0) { // 政党至少有一个席位
-                Party party = partyManager.getParty(entry.getKey());
-                if (party != null) {
-                    // 简化1: 只考虑政党领袖作为议员
-                    party.getLeader().ifPresent(leaderMember -> {
-                        Resident resident = TownyAPI.getInstance().getResident(leaderMember.getPlayerId());
-                        if (resident != null && resident.hasNation() && resident.getNationOrNull().equals(nation)) { // 确保议员仍是该国公民
-                            parliamentMembers.add(resident);
-                        }
-                    });
-                    // 简化2: 考虑政党领袖和管理员
-                    // party.getLeader().ifPresent(leaderMember -> { /* ... */ });
-                    // party.getAdmins().forEach(adminMember -> {
-                    //     Resident resident = TownyAPI.getInstance().getResident(adminMember.getPlayerId());
-                    //     if (resident != null && resident.hasNation() && resident.getNationOrNull().equals(nation)) {
-                    //        if (!parliamentMembers.stream().anyMatch(r -> r.getUUID().equals(resident.getUUID()))){ //避免重复添加
-                    //             parliamentMembers.add(resident);
-                    //        }
-                    //     }
-                    // });
-                }
+        Set<UUID> roster = nationManager.getParliamentRoster(nation);
+        if (roster.isEmpty()) return Collections.emptyList();
+        List<Resident> parliamentMembers = new ArrayList<>(roster.size());
+        for (UUID mpId : roster) {
+            Resident resident = TownyAPI.getInstance().getResident(mpId);
+            if (resident != null) {
+                parliamentMembers.add(resident);
             }
         }
-        if (parliamentMembers.isEmpty()){
-            plugin.getLogger().finer("[BillManager] No specific MPs identified for " + nation.getName() + " based on party leaders with seats. Bill voting might be open to all citizens if fallback is used.");
-        }
         return parliamentMembers;
     }
-}
\ No newline at end of file
+}
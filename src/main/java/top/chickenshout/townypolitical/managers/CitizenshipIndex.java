@@ -0,0 +1,159 @@
+// 文件名: CitizenshipIndex.java
+// 结构位置: top/chickenshout/townypolitical/managers/CitizenshipIndex.java
+package top.chickenshout.townypolitical.managers;
+
+import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.object.Nation;
+import com.palmergames.bukkit.towny.object.Resident;
+import com.palmergames.bukkit.towny.object.Town;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import top.chickenshout.townypolitical.TownyPolitical;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 公民身份索引：玩家 → 所属国家，国家 → 在线公民。
+ * 启动时从 Towny 完整构建一次，之后由 TownyHookListener (居民加入/离开城镇、城镇加入/离开国家、国家创建/删除)
+ * 和 PlayerEventListener (玩家上线/下线) 增量维护，资格检查和国家广播不再需要遍历 Towny 的对象图。
+ * 对于索引中还没有的玩家，会向 Towny 查询一次并缓存结果。
+ */
+public class CitizenshipIndex {
+    private static final UUID NO_NATION = new UUID(0L, 0L); // 缓存“没有国家”，避免重复查询 Towny
+
+    private final TownyPolitical plugin;
+    // <PlayerUUID, NationUUID 或 NO_NATION>
+    private final Map<UUID, UUID> nationByPlayer = new ConcurrentHashMap<>();
+    // <NationUUID, 在线公民UUID集合>
+    private final Map<UUID, Set<UUID>> onlineCitizensByNation = new ConcurrentHashMap<>();
+    private final Set<UUID> onlinePlayers = ConcurrentHashMap.newKeySet();
+
+    public CitizenshipIndex(TownyPolitical plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 丢弃现有索引并从 Towny 的全部国家和当前在线玩家重新构建。必须在主线程调用。
+     */
+    public void rebuild() {
+        nationByPlayer.clear();
+        onlineCitizensByNation.clear();
+        onlinePlayers.clear();
+        int citizens = 0;
+        List<Nation> nations = TownyAPI.getInstance().getNations();
+        if (nations != null) {
+            for (Nation nation : nations) {
+                for (Resident resident : nation.getResidents()) {
+                    nationByPlayer.put(resident.getUUID(), nation.getUUID());
+                    citizens++;
+                }
+            }
+        }
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            playerJoined(player.getUniqueId());
+        }
+        plugin.getLogger().info("[CitizenshipIndex] Indexed " + citizens + " citizens of " + (nations != null ? nations.size() : 0)
+                + " nations (" + onlinePlayers.size() + " players online).");
+    }
+
+    // --- 查询 ---
+
+    /**
+     * @return 玩家所属国家的UUID；不属于任何国家时返回 null
+     */
+    public UUID getNationId(UUID playerId) {
+        if (playerId == null) return null;
+        UUID nationId = nationByPlayer.get(playerId);
+        if (nationId == null) { // 索引中还没有此玩家 (例如刚注册的居民)，向 Towny 查询一次
+            nationId = resolveFromTowny(playerId);
+            nationByPlayer.putIfAbsent(playerId, nationId);
+        }
+        return NO_NATION.equals(nationId) ? null : nationId;
+    }
+
+    public boolean isCitizenOf(UUID playerId, UUID nationId) {
+        return nationId != null && nationId.equals(getNationId(playerId));
+    }
+
+    /**
+     * @return 指定国家当前在线公民的UUID集合 (只读)
+     */
+    public Set<UUID> getOnlineCitizens(UUID nationId) {
+        Set<UUID> citizens = onlineCitizensByNation.get(nationId);
+        return citizens == null ? Collections.emptySet() : Collections.unmodifiableSet(citizens);
+    }
+
+    // --- 事件驱动的维护 ---
+
+    public void playerJoined(UUID playerId) {
+        onlinePlayers.add(playerId);
+        setNation(playerId, resolveFromTowny(playerId)); // 上线时以 Towny 为准刷新一次，修正离线期间可能错过的变化
+    }
+
+    public void playerQuit(UUID playerId) {
+        onlinePlayers.remove(playerId);
+        UUID nationId = nationByPlayer.get(playerId);
+        if (nationId != null) {
+            removeOnline(nationId, playerId);
+        }
+    }
+
+    public void residentJoinedTown(Resident resident, Town town) {
+        Nation nation = town.getNationOrNull();
+        setNation(resident.getUUID(), nation != null ? nation.getUUID() : NO_NATION);
+    }
+
+    public void residentLeftTown(Resident resident) {
+        setNation(resident.getUUID(), NO_NATION);
+    }
+
+    public void townJoinedNation(Town town, Nation nation) {
+        for (Resident resident : town.getResidents()) {
+            setNation(resident.getUUID(), nation.getUUID());
+        }
+    }
+
+    public void townLeftNation(Town town, Nation nation) {
+        for (Resident resident : town.getResidents()) {
+            if (nation.getUUID().equals(nationByPlayer.get(resident.getUUID()))) {
+                setNation(resident.getUUID(), NO_NATION);
+            }
+        }
+    }
+
+    public void nationCreated(Nation nation) {
+        for (Resident resident : nation.getResidents()) {
+            setNation(resident.getUUID(), nation.getUUID());
+        }
+    }
+
+    public void nationDeleted(UUID nationId) {
+        nationByPlayer.replaceAll((playerId, current) -> nationId.equals(current) ? NO_NATION : current);
+        onlineCitizensByNation.remove(nationId);
+    }
+
+    private void setNation(UUID playerId, UUID nationId) {
+        UUID previous = nationByPlayer.put(playerId, nationId);
+        if (!onlinePlayers.contains(playerId)) return;
+        if (previous != null && !previous.equals(nationId)) {
+            removeOnline(previous, playerId);
+        }
+        if (!NO_NATION.equals(nationId)) {
+            onlineCitizensByNation.computeIfAbsent(nationId, k -> ConcurrentHashMap.newKeySet()).add(playerId);
+        }
+    }
+
+    private void removeOnline(UUID nationId, UUID playerId) {
+        Set<UUID> citizens = onlineCitizensByNation.get(nationId);
+        if (citizens != null) {
+            citizens.remove(playerId);
+        }
+    }
+
+    private UUID resolveFromTowny(UUID playerId) {
+        Resident resident = TownyAPI.getInstance().getResident(playerId);
+        Nation nation = resident != null ? resident.getNationOrNull() : null;
+        return nation != null ? nation.getUUID() : NO_NATION;
+    }
+}
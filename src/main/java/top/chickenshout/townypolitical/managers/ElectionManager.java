@@ -10,29 +10,42 @@ import com.palmergames.bukkit.towny.object.Resident;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 import top.chickenshout.townypolitical.TownyPolitical;
 import top.chickenshout.townypolitical.data.Party;
 import top.chickenshout.townypolitical.data.PartyMember;
 import top.chickenshout.townypolitical.data.NationPolitics;
 import top.chickenshout.townypolitical.elections.Candidate;
 import top.chickenshout.townypolitical.elections.Election;
+import top.chickenshout.townypolitical.elections.ElectionArchive;
+import top.chickenshout.townypolitical.elections.ElectionCalendarEntry;
+import top.chickenshout.townypolitical.elections.ElectionFinishPipeline;
+import top.chickenshout.townypolitical.elections.ElectionIndex;
+import top.chickenshout.townypolitical.elections.ElectionResult;
+import top.chickenshout.townypolitical.elections.InstantRunoffTally;
+import top.chickenshout.townypolitical.elections.seats.SeatAllocationMethod;
+import top.chickenshout.townypolitical.elections.seats.SeatProjection;
+import top.chickenshout.townypolitical.enums.BallotMode;
 import top.chickenshout.townypolitical.enums.ElectionStatus;
 import top.chickenshout.townypolitical.enums.ElectionType;
 import top.chickenshout.townypolitical.enums.GovernmentType;
+import top.chickenshout.townypolitical.persistence.StorageCategory;
+import top.chickenshout.townypolitical.persistence.StorageProvider;
+import top.chickenshout.townypolitical.persistence.VoteJournal;
+import top.chickenshout.townypolitical.persistence.WriteBehindQueue;
+import top.chickenshout.townypolitical.scheduling.DeadlineScheduler;
+import top.chickenshout.townypolitical.scheduling.TransitionRateLimiter;
+import top.chickenshout.townypolitical.utils.CompactUuidSet;
 import top.chickenshout.townypolitical.utils.MessageManager;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
@@ -44,15 +57,30 @@ public class ElectionManager {
 
     // <ElectionUUID, Election> - 主存储，所有活动和最近结束的选举
     private final Map<UUID, Election> electionsById;
-    // <TaskKey (String, e.g., contextId_type), BukkitTask> - 存储周期性调度任务
-    private final Map<String, BukkitTask> scheduledCycleTasks;
-    // <ElectionUUID, BukkitTask> - 存储选举阶段推进任务 (登记结束->投票，投票结束->计票，以及结果公示后的归档任务)
-    private final Map<String, BukkitTask> scheduledPhaseTasks;
-
-
+    // electionsById 的二级索引：(上下文, 类型) → 进行中选举、上下文 → 选举、政党 → 参与的选举、最近完成的选举
+    private final ElectionIndex electionIndex;
+    // 周期性选举 ("cycle_" + contextId_type) 和选举阶段推进/归档 ("election_" + electionId[_archive]) 的截止时间
+    private final DeadlineScheduler deadlines;
+    private static final String CYCLE_KEY_PREFIX = "cycle_";
+    private static final String PHASE_KEY_PREFIX = "election_";
+    // 最近结果记录在写入队列中的键前缀 ("result_" + 上下文ID_类型)
+    private static final String RESULT_KEY_PREFIX = "result_";
+    // 周期选举启动和阶段推进的每分钟上限 (elections.scheduling.max_transitions_per_minute)
+    private final TransitionRateLimiter transitionLimiter = new TransitionRateLimiter();
+    // 选举状态的延迟写入队列 (合并频繁的保存，在专用I/O线程上写盘)
+    private final WriteBehindQueue saveQueue;
+    // 投票追加日志 (每票一条定长记录，完整快照只在阶段变化或每N票时写入)
+    private final VoteJournal voteJournal;
+    // 投票中的议会选举的实时席位预测 <ElectionUUID, SeatProjection>，首次查看时创建
+    private final Map<UUID, SeatProjection> seatProjections = new ConcurrentHashMap<>();
+    // 到期选举的结束流水线：异步计票，按每 tick 时间预算在全局线程上应用结果
+    private final ElectionFinishPipeline<TallyOutcome> finishPipeline;
+    // 已归档选举的紧凑索引 (elections/archive.idx) 和完整选举的 LRU 缓存
+    private final ElectionArchive archive;
+
+    private final StorageProvider storage;
+    // 投票日志所在目录 (elections/active)，选举快照本身通过 StorageProvider 存取
     private final File activeElectionsDataFolder;
-    private final File archivedElectionsDataFolder;
-    private static final String ELECTION_FILE_EXTENSION = ".yml";
 
     public ElectionManager(TownyPolitical plugin) {
 
@@ -62,8 +90,12 @@ public class ElectionManager {
         this.nationManager = plugin.getNationManager();
 
         this.electionsById = new ConcurrentHashMap<>();
-        this.scheduledCycleTasks = new ConcurrentHashMap<>();
-        this.scheduledPhaseTasks = new ConcurrentHashMap<>();
+        this.electionIndex = new ElectionIndex();
+        this.deadlines = plugin.getDeadlineScheduler();
+        this.storage = plugin.getStorageProvider();
+        this.saveQueue = new WriteBehindQueue(plugin.getLogger(), "ElectionIO",
+                plugin.getConfig().getLong("elections.persistence.write_behind_delay_ms", 2000L),
+                plugin.getConfig().getLong("elections.persistence.shutdown_flush_timeout_ms", 30000L));
 
         File baseElectionsFolder = new File(plugin.getDataFolder(), "elections");
         if (!baseElectionsFolder.exists()) {
@@ -79,15 +111,16 @@ public class ElectionManager {
             }
         }
 
-        this.archivedElectionsDataFolder = new File(baseElectionsFolder, "archived");
-        if (!archivedElectionsDataFolder.exists()) {
-            if (!archivedElectionsDataFolder.mkdirs()) {
-                plugin.getLogger().severe("Could not create archived elections data folder!");
-            }
+        this.voteJournal = new VoteJournal(plugin.getLogger(), activeElectionsDataFolder);
+        this.finishPipeline = new ElectionFinishPipeline<>(plugin, plugin.getTaskScheduler(), this::completeFinishedElection);
+        this.archive = new ElectionArchive(plugin.getLogger(), new File(baseElectionsFolder, "archive.idx"), storage,
+                this::parseElectionDocument, plugin.getConfig().getInt("elections.archive.cache_size", 64));
+        if (!archive.load()) {
+            plugin.getLogger().info("[ElectionManager] Election archive index not found. It will be rebuilt from archived elections in the background.");
+            saveQueue.submit("archive_index_rebuild", archive::rebuild); // 与归档移动在同一个 I/O 线程上串行执行
         }
-
-        loadActiveElections(); // 加载进行中的选举并恢复其状态和任务
-        scheduleNextElectionsForAllValidContexts(); // 为所有国家和政党（如果配置）安排周期性选举
+        // 进行中的选举由 TownyPolitical 在启动时并行解析后通过 installActiveElections 安装，
+        // 之后再调用 scheduleNextElectionsForAllValidContexts 安排周期性选举
     }
 
     /**
@@ -145,11 +178,7 @@ public class ElectionManager {
 
         for (ElectionType typeToSchedule : typesToSchedule) {
             String taskKey = nationUUID.toString() + "_" + typeToSchedule.name();
-            boolean isActiveOrPending = electionsById.values().stream().anyMatch(e ->
-                    e.getContextId().equals(nationUUID) &&
-                            e.getType() == typeToSchedule &&
-                            (e.getStatus() != ElectionStatus.FINISHED && e.getStatus() != ElectionStatus.CANCELLED)
-            );
+            boolean isActiveOrPending = getActiveElection(nationUUID, typeToSchedule) != null;
 
             if (isActiveOrPending) {
                 plugin.getLogger().finer("[ElectionManager] Nation " + nation.getName() + " already has an active/pending " + typeToSchedule.getDisplayName() + ". Cancelling any duplicate cycle task with key: " + taskKey);
@@ -168,40 +197,32 @@ public class ElectionManager {
             long currentTime = System.currentTimeMillis();
             long nextScheduledTimeMillis;
 
-            if (lastCompletionTime == 0L) {
-                nextScheduledTimeMillis = currentTime + (electionIntervalTicks * 50L);
+            long firstCycleDueAt = getCycleDueAt(taskKey);
+            if (lastCompletionTime == 0L && firstCycleDueAt > 0L) {
+                nextScheduledTimeMillis = firstCycleDueAt; // 沿用已登记 (或上次运行保存) 的首个周期，重启不会一再推后
+            } else if (lastCompletionTime == 0L) {
+                nextScheduledTimeMillis = alignToCycleSlot(currentTime + (electionIntervalTicks * 50L), nationUUID, typeToSchedule);
                 plugin.getLogger().info("[ElectionManager] No previous " + typeToSchedule.getDisplayName() + " completion time for " + nation.getName() + ". Scheduling first cycle.");
             } else {
-                nextScheduledTimeMillis = lastCompletionTime + (electionIntervalTicks * 50L);
+                nextScheduledTimeMillis = alignToCycleSlot(lastCompletionTime + (electionIntervalTicks * 50L), nationUUID, typeToSchedule);
             }
 
-            long delayMillis = nextScheduledTimeMillis - currentTime;
             final ElectionType finalType = typeToSchedule; // For lambda
-
-            if (delayMillis <= 0) { // 选举已到期或过期
-                plugin.getLogger().info("[ElectionManager] " + finalType.getDisplayName() + " for " + nation.getName() + " is due or overdue. Attempting to start it.");
-                Election createdElection = startNationElection(nationUUID, finalType, true);
-                if (createdElection == null) {
-                    plugin.getLogger().warning("[ElectionManager] Failed to start overdue scheduled " + finalType.getDisplayName() + " for " + nation.getName() + ". It might be re-attempted on next global scan or event.");
-                }
-                cancelScheduledCycleTask(taskKey); // 此周期的任务已尝试执行
-                continue;
+            if (nextScheduledTimeMillis <= currentTime && firstCycleDueAt > currentTime) {
+                nextScheduledTimeMillis = firstCycleDueAt; // 上次到期时未能开始，已推后重试 (见 retryNationCycleLater)
+            } else if (nextScheduledTimeMillis <= currentTime) { // 选举已到期或过期：尽快开始，但仍受每分钟上限约束
+                plugin.getLogger().info("[ElectionManager] " + finalType.getDisplayName() + " for " + nation.getName() + " is due or overdue. Starting it at the next free slot.");
+                nextScheduledTimeMillis = currentTime;
             }
 
-            long delayTicks = delayMillis / 50L;
-            cancelScheduledCycleTask(taskKey); // 清除旧任务，安排新任务
+            final String nationName = nation.getName();
+            long startAt = scheduleCycleTask(taskKey, nextScheduledTimeMillis, () -> { // 替换同键的旧截止时间
+                plugin.getLogger().info("[ElectionManager] Scheduled cycle task now running for " + finalType.getDisplayName() + " in " + nationName + " (TaskKey: " + taskKey + ")");
+                startNationElection(nationUUID, finalType, true); // 启动选举
+            });
+            long delayTicks = Math.max(0L, startAt - currentTime) / 50L;
             plugin.getLogger().info("[ElectionManager] Scheduling next " + finalType.getDisplayName() + " for nation " + nation.getName() + " in approx. " +
                     String.format("%.2f hours (%.2f minutes)", delayTicks / 72000.0, delayTicks / 1200.0) + ". TaskKey: " + taskKey);
-
-            BukkitTask task = new BukkitRunnable() {
-                @Override
-                public void run() {
-                    plugin.getLogger().info("[ElectionManager] Scheduled cycle task now running for " + finalType.getDisplayName() + " in " + nation.getName() + " (TaskKey: " + taskKey + ")");
-                    scheduledCycleTasks.remove(taskKey); // 任务已执行，从map中移除
-                    startNationElection(nationUUID, finalType, true); // 启动选举
-                }
-            }.runTaskLater(plugin, Math.max(1, delayTicks)); // 确保至少延迟1 tick
-            scheduledCycleTasks.put(taskKey, task);
         }
     }
 
@@ -223,11 +244,7 @@ public class ElectionManager {
         }
 
         String taskKey = partyId.toString() + "_" + ElectionType.PARTY_LEADER.name();
-        boolean isActiveOrPending = electionsById.values().stream().anyMatch(e ->
-                e.getContextId().equals(partyId) &&
-                        e.getType() == ElectionType.PARTY_LEADER &&
-                        (e.getStatus() != ElectionStatus.FINISHED && e.getStatus() != ElectionStatus.CANCELLED)
-        );
+        boolean isActiveOrPending = getActiveElection(partyId, ElectionType.PARTY_LEADER) != null;
 
         if (isActiveOrPending) {
             plugin.getLogger().finer("[ElectionManager] Party " + party.getName() + " already has an active/pending leader election. Cancelling any duplicate cycle task.");
@@ -245,30 +262,26 @@ public class ElectionManager {
         long intervalTicks = intervalDays * 24 * 60 * 60 * 20;
         long lastCompletionTime = party.getLastLeaderElectionTime();
         long currentTime = System.currentTimeMillis();
-        long nextScheduledTimeMillis = (lastCompletionTime == 0L) ? (currentTime + intervalTicks * 50L) : (lastCompletionTime + intervalTicks * 50L);
-        long delayMillis = nextScheduledTimeMillis - currentTime;
+        long firstCycleDueAt = getCycleDueAt(taskKey);
+        long nextScheduledTimeMillis;
+        if (lastCompletionTime == 0L) { // 首个周期：沿用已登记 (或上次运行保存) 的时间，重启不会一再推后
+            nextScheduledTimeMillis = firstCycleDueAt > 0L ? firstCycleDueAt : alignToCycleSlot(currentTime + intervalTicks * 50L, partyId, ElectionType.PARTY_LEADER);
+        } else {
+            nextScheduledTimeMillis = alignToCycleSlot(lastCompletionTime + intervalTicks * 50L, partyId, ElectionType.PARTY_LEADER);
+        }
 
-        if (delayMillis <= 0) {
-            plugin.getLogger().info("[ElectionManager] Party Leader election for " + party.getName() + " is due. Attempting to start.");
-            startPartyLeaderElection(partyId, true);
-            cancelScheduledCycleTask(taskKey);
-            return;
+        if (nextScheduledTimeMillis <= currentTime) { // 已到期：尽快开始，但仍受每分钟上限约束
+            plugin.getLogger().info("[ElectionManager] Party Leader election for " + party.getName() + " is due. Starting it at the next free slot.");
+            nextScheduledTimeMillis = currentTime;
         }
 
-        long delayTicks = delayMillis / 50L;
-        cancelScheduledCycleTask(taskKey);
+        long startAt = scheduleCycleTask(taskKey, nextScheduledTimeMillis, () -> {
+            plugin.getLogger().info("[ElectionManager] Scheduled cycle task now running for party leader election in " + party.getName() + " (TaskKey: " + taskKey + ")");
+            startPartyLeaderElection(partyId, true);
+        });
+        long delayTicks = Math.max(0L, startAt - currentTime) / 50L;
         plugin.getLogger().info("[ElectionManager] Scheduling next leader election for party " + party.getName() + " in approx. " +
                 String.format("%.2f hours (%.2f minutes)", delayTicks / 72000.0, delayTicks / 1200.0) + ". TaskKey: " + taskKey);
-
-        BukkitTask task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                plugin.getLogger().info("[ElectionManager] Scheduled cycle task now running for party leader election in " + party.getName() + " (TaskKey: " + taskKey + ")");
-                scheduledCycleTasks.remove(taskKey);
-                startPartyLeaderElection(partyId, true);
-            }
-        }.runTaskLater(plugin, Math.max(1, delayTicks));
-        scheduledCycleTasks.put(taskKey, task);
     }
 
     /**
@@ -320,8 +333,7 @@ public class ElectionManager {
                 plugin.getLogger().info("[ElectionManager] Not enough parties (" + partyManager.getAllParties().size() + "/" + minParties + ") to start parliamentary election in " + nation.getName());
                 if (!isScheduledCall)
                     messageManager.sendMessage(Bukkit.getConsoleSender(), "election-start-fail-not-enough-parties", "nation", nation.getName(), "min_parties", String.valueOf(minParties));
-                // 重新安排到下一个周期
-                scheduleNextElectionForNation(nationUUID);
+                if (isScheduledCall) retryNationCycleLater(nationUUID, electionType, govType);
                 return null;
             }
         }
@@ -330,6 +342,9 @@ public class ElectionManager {
         UUID electionId = UUID.randomUUID();
         Election election = new Election(electionId, nationUUID, electionType);
         election.setNationGovernmentTypeCache(govType); // 缓存启动时的政体
+        if (electionType == ElectionType.PRESIDENTIAL) {
+            election.setBallotMode(getConfiguredBallotMode(electionType)); // 投票方式在开始时确定
+        }
 
         long registrationDurationTicks = getConfiguredDurationTicks("registration_duration_seconds", 24 * 3600); // 默认24小时
         long votingDurationTicks = getConfiguredDurationTicks("voting_duration_seconds", 48 * 3600);     // 默认48小时
@@ -340,7 +355,7 @@ public class ElectionManager {
         election.setEndTime(election.getRegistrationEndTime() + votingDurationTicks * 50L); // 投票截止时间
         election.setStatus(ElectionStatus.REGISTRATION);
 
-        electionsById.put(electionId, election);
+        registerElection(election);
         saveElectionState(election); // 保存初始状态
 
         String electionStartKey = electionType == ElectionType.PARLIAMENTARY ? "election-registration-start-parliament" : "election-registration-start-presidential";
@@ -348,20 +363,34 @@ public class ElectionManager {
         plugin.getLogger().info("[ElectionManager] " + electionType.getDisplayName() + " registration started for nation: " + nation.getName() + " (ID: " + electionId + ")");
 
         // 安排任务：登记截止后推进到投票阶段
-        cancelScheduledPhaseTask(electionId.toString()); // 清除可能存在的旧同ID阶段任务
-        BukkitTask phaseTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                plugin.getLogger().info("[ElectionManager] Phase task running: advancing election " + electionId + " to voting.");
-                scheduledPhaseTasks.remove(electionId); // 任务已执行
-                advanceElectionToVoting(electionId);
-            }
-        }.runTaskLater(plugin, Math.max(1, registrationDurationTicks));
-        scheduledPhaseTasks.put(electionId.toString(), phaseTask);
+        schedulePhaseTask(electionId.toString(), election.getRegistrationEndTime(), () -> {
+            plugin.getLogger().info("[ElectionManager] Phase task running: advancing election " + electionId + " to voting.");
+            advanceElectionToVoting(electionId);
+        });
 
         return election;
     }
 
+    /**
+     * 周期选举到期但未能开始时，从现在起推后一个完整的选举间隔再试。
+     * 上次完成时间没有变化，按它重新计算仍是“已过期”，如果立即重排就会每秒重试一次并占满每分钟的配额；
+     * 本次未能发生的转换也不再占用配额。
+     */
+    private void retryNationCycleLater(UUID nationUUID, ElectionType electionType, GovernmentType govType) {
+        String taskKey = nationUUID.toString() + "_" + electionType.name();
+        transitionLimiter.refund(CYCLE_KEY_PREFIX + taskKey);
+        long intervalTicks = getConfiguredElectionIntervalTicks(govType, electionType);
+        if (intervalTicks <= 0) {
+            cancelScheduledCycleTask(taskKey);
+            return;
+        }
+        long retryAt = scheduleCycleTask(taskKey, System.currentTimeMillis() + intervalTicks * 50L, () -> {
+            plugin.getLogger().info("[ElectionManager] Retrying " + electionType.getDisplayName() + " cycle for nation " + nationUUID + " (TaskKey: " + taskKey + ")");
+            startNationElection(nationUUID, electionType, true);
+        });
+        plugin.getLogger().info("[ElectionManager] " + electionType.getDisplayName() + " for nation " + nationUUID + " could not start; retrying after one interval at " + new Date(retryAt) + ".");
+    }
+
     /**
      * 启动一个政党的党魁选举。
      *
@@ -397,6 +426,7 @@ public class ElectionManager {
 
         UUID electionId = UUID.randomUUID();
         Election election = new Election(electionId, partyId, ElectionType.PARTY_LEADER);
+        election.setBallotMode(getConfiguredBallotMode(ElectionType.PARTY_LEADER));
 
         long registrationDurationTicks = getConfiguredDurationTicksForParty("registration_duration_seconds", 12 * 3600); // 默认12小时
         long votingDurationTicks = getConfiguredDurationTicksForParty("voting_duration_seconds", 24 * 3600);     // 默认24小时
@@ -407,28 +437,22 @@ public class ElectionManager {
         election.setEndTime(election.getRegistrationEndTime() + votingDurationTicks * 50L);
         election.setStatus(ElectionStatus.REGISTRATION);
 
-        electionsById.put(electionId, election);
+        registerElection(election);
         saveElectionState(election);
 
         broadcastToPartyMembers(party, "election-registration-start-party-leader", "party_name", party.getName());
         plugin.getLogger().info("[ElectionManager] Party Leader election registration started for party: " + party.getName() + " (ID: " + electionId + ")");
 
-        cancelScheduledPhaseTask(electionId.toString());
-        BukkitTask phaseTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                plugin.getLogger().info("[ElectionManager] Phase task running: advancing party leader election " + electionId + " to voting.");
-                scheduledPhaseTasks.remove(electionId);
-                advanceElectionToVoting(electionId);
-            }
-        }.runTaskLater(plugin, Math.max(1, registrationDurationTicks));
-        scheduledPhaseTasks.put(electionId.toString(), phaseTask);
+        schedulePhaseTask(electionId.toString(), election.getRegistrationEndTime(), () -> {
+            plugin.getLogger().info("[ElectionManager] Phase task running: advancing party leader election " + electionId + " to voting.");
+            advanceElectionToVoting(electionId);
+        });
         return election;
     }
 
     /**
      * 将指定ID的选举从登记阶段推进到投票阶段。
-     * 由 scheduledPhaseTasks 中的任务调用。
+     * 由 DeadlineScheduler 中登记的阶段截止时间调用。
      *
      * @param electionId 选举的UUID
      */
@@ -436,7 +460,7 @@ public class ElectionManager {
         Election election = electionsById.get(electionId);
         if (election == null) {
             plugin.getLogger().warning("[ElectionManager] advanceElectionToVoting: Election with ID " + electionId + " not found in active map.");
-            scheduledPhaseTasks.remove(electionId); // 清理无效任务引用
+            cancelScheduledPhaseTask(electionId.toString()); // 清理无效的截止时间
             return;
         }
         if (election.getStatus() != ElectionStatus.REGISTRATION) {
@@ -448,16 +472,7 @@ public class ElectionManager {
         // 确保当前时间确实晚于或等于登记截止时间
         if (System.currentTimeMillis() < election.getRegistrationEndTime()) {
             plugin.getLogger().warning("[ElectionManager] advanceElectionToVoting: Attempted to advance election " + electionId + " to voting prematurely. Current time: " + System.currentTimeMillis() + ", Reg End: " + election.getRegistrationEndTime() + ". Rescheduling.");
-            cancelScheduledPhaseTask(electionId.toString()); // 取消当前（可能错误的）任务
-            long newDelayTicks = Math.max(1, (election.getRegistrationEndTime() - System.currentTimeMillis()) / 50L);
-            BukkitTask phaseTask = new BukkitRunnable() {
-                @Override
-                public void run() {
-                    scheduledPhaseTasks.remove(electionId);
-                    advanceElectionToVoting(electionId);
-                }
-            }.runTaskLater(plugin, newDelayTicks);
-            scheduledPhaseTasks.put(electionId.toString(), phaseTask);
+            schedulePhaseTask(electionId.toString(), election.getRegistrationEndTime(), () -> advanceElectionToVoting(electionId)); // 替换当前（可能错误的）截止时间
             return;
         }
 
@@ -498,28 +513,19 @@ public class ElectionManager {
         broadcastToContext(election, votingStartKey, "context_name", getContextName(election.getContextId(), election.getType()));
         plugin.getLogger().info("[ElectionManager] " + election.getType().getDisplayName() + " voting started for: " + getContextName(election.getContextId(), election.getType()) + " (ID: " + electionId + ")");
 
-        long votingDurationRemainingTicks = (election.getEndTime() - System.currentTimeMillis()) / 50L;
-        if (votingDurationRemainingTicks <= 0) { // 投票时间已过或刚好到期
+        if (election.getEndTime() <= System.currentTimeMillis()) { // 投票时间已过或刚好到期
             plugin.getLogger().info("[ElectionManager] Voting duration for election " + electionId + " has already passed. Finishing immediately.");
+            cancelScheduledPhaseTask(electionId.toString());
             finishElection(electionId);
             return;
         }
 
-        cancelScheduledPhaseTask(electionId.toString()); // 清除旧的（可能是登记结束）任务
-        BukkitTask phaseTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                plugin.getLogger().info("[ElectionManager] Phase task running: finishing election " + electionId + ".");
-                scheduledPhaseTasks.remove(electionId);
-                finishElection(electionId);
-            }
-        }.runTaskLater(plugin, Math.max(1, votingDurationRemainingTicks));
-        scheduledPhaseTasks.put(electionId.toString(), phaseTask);
+        scheduleFinishTask(electionId, election.getEndTime()); // 替换旧的（登记结束）截止时间
     }
 
     /**
      * 结束指定ID的选举，进行计票、结果判定、宣布结果、更新Towny领袖、归档并安排下一次。
-     * 由 scheduledPhaseTasks 中的任务调用，或管理员命令强制调用（需额外处理）。
+     * 由 DeadlineScheduler 中登记的阶段截止时间调用，或管理员命令强制调用（需额外处理）。
      *
      * @param electionId 选举的UUID
      */
@@ -527,8 +533,8 @@ public class ElectionManager {
         Election election = electionsById.get(electionId);
         if (election == null) {
             plugin.getLogger().warning("[ElectionManager] finishElection: Election with ID " + electionId + " not found.");
-            scheduledPhaseTasks.remove(electionId.toString()); // 清理无效任务引用
-            scheduledPhaseTasks.remove(electionId + "_archive");
+            cancelScheduledPhaseTask(electionId.toString()); // 清理无效的截止时间
+            cancelScheduledPhaseTask(electionId + "_archive");
             return;
         }
 
@@ -541,24 +547,77 @@ public class ElectionManager {
         // 确保当前时间确实晚于或等于投票截止时间 (除非是特殊状态如平票处理后)
         if (election.getStatus() == ElectionStatus.VOTING && System.currentTimeMillis() < election.getEndTime()) {
             plugin.getLogger().warning("[ElectionManager] finishElection: Attempted to finish election " + electionId + " (Voting) prematurely. Rescheduling.");
-            cancelScheduledPhaseTask(electionId.toString()); // 取消当前（可能错误的）任务
-            long newDelayTicks = Math.max(1, (election.getEndTime() - System.currentTimeMillis()) / 50L);
-            BukkitTask phaseTask = new BukkitRunnable() {
-                @Override
-                public void run() {
-                    scheduledPhaseTasks.remove(electionId);
-                    finishElection(electionId);
-                }
-            }.runTaskLater(plugin, newDelayTicks);
-            scheduledPhaseTasks.put(electionId.toString(), phaseTask);
+            scheduleFinishTask(electionId, election.getEndTime()); // 替换当前（可能错误的）截止时间
             return;
         }
 
         plugin.getLogger().info("[ElectionManager] Finishing " + election.getType().getDisplayName() + " (ID: " + election.getElectionId() + ") for context: " + getContextName(election.getContextId(), election.getType()));
-        election.setStatus(ElectionStatus.COUNTING); // 进入计票状态
-        // saveElectionState(election); // 可选：保存计票中状态，如果计票复杂且耗时
+        election.setStatus(ElectionStatus.COUNTING); // 进入计票状态，不再接受投票
+        // 计票在异步线程上进行，结果和 Towny 副作用由流水线按每 tick 的时间预算应用 (见 completeFinishedElection)
+        finishPipeline.submit(election, prepareTally(election));
+    }
+
+    /**
+     * 计票阶段的结果 (在异步线程上预先计算)。字段为 null 表示该部分未预先计算，应用时现场计算。
+     */
+    private static final class TallyOutcome {
+        final Map<UUID, Integer> seatDistribution;
+        final String allocationMethodName;
+        final InstantRunoffTally.Result runoff;
+
+        TallyOutcome(Map<UUID, Integer> seatDistribution, String allocationMethodName, InstantRunoffTally.Result runoff) {
+            this.seatDistribution = seatDistribution;
+            this.allocationMethodName = allocationMethodName;
+            this.runoff = runoff;
+        }
+    }
+
+    /**
+     * 在全局线程上取好计票所需的配置，返回可以在异步线程上执行的计票动作。
+     * 只做纯计算：议会选举的席位分配、排序复选制选举的即时决选。
+     */
+    private Supplier<TallyOutcome> prepareTally(Election election) {
+        if (election.getType() == ElectionType.PARLIAMENTARY) {
+            GovernmentType govType = election.getNationGovernmentTypeCache().orElse(null);
+            if (govType == null) {
+                return () -> null; // 政体缓存缺失，应用时需要查询 Towny，留给 determineElectionResults 处理
+            }
+            SeatAllocationMethod allocationMethod = resolveSeatAllocationMethod();
+            int totalSeats = getConfiguredTotalParliamentSeats(election.getContextId(), govType);
+            double thresholdPercent = plugin.getConfig().getDouble("elections.parliament.representation_threshold_percent", 0.0);
+            return () -> {
+                Map<UUID, Integer> eligiblePartyVotes = SeatProjection.applyRepresentationThreshold(election.getAllPartyVotes(), thresholdPercent);
+                Map<UUID, Integer> seats = eligiblePartyVotes.isEmpty() ? new HashMap<>() : allocationMethod.allocate(eligiblePartyVotes, totalSeats);
+                return new TallyOutcome(seats, allocationMethod.getName(), null);
+            };
+        }
+        if (election.getBallotMode() == BallotMode.RANKED) {
+            return () -> {
+                List<UUID> candidateIds = election.getCandidates().stream()
+                        .sorted(Comparator.comparingInt(Candidate::getVotes).reversed())
+                        .map(Candidate::getPlayerUUID)
+                        .collect(Collectors.toList());
+                Map<List<UUID>, Long> rankedBallots = election.getRankedBallots();
+                if (candidateIds.isEmpty() || rankedBallots.isEmpty()) return null;
+                return new TallyOutcome(null, null, InstantRunoffTally.tally(candidateIds, rankedBallots));
+            };
+        }
+        return () -> null; // 相对多数制只需取最高票，无需预先计算
+    }
+
+    /**
+     * 结束流水线的应用阶段 (全局线程)：写入结果、同步 Towny、广播，安排归档和下一次选举。
+     *
+     * @param tally 预先计算的计票结果；为 null 时由 determineElectionResults 现场计算
+     */
+    private void completeFinishedElection(Election election, TallyOutcome tally) {
+        UUID electionId = election.getElectionId();
+        if (election.getStatus() != ElectionStatus.COUNTING || electionsById.get(electionId) != election) {
+            plugin.getLogger().info("[ElectionManager] Election " + electionId + " left COUNTING before its results were applied (current: " + election.getStatus() + "). Skipping.");
+            return;
+        }
 
-        determineElectionResults(election); // **核心：计算结果, 更新内部winner字段, 更新NationPolitics/Party的上次完成时间, 同步Towny King**
+        determineElectionResults(election, tally); // **核心：计算结果, 更新内部winner字段, 更新NationPolitics/Party的上次完成时间, 同步Towny King**
 
         // 如果 determineElectionResults 中因为平票等原因将状态设置为 AWAITING_TIE_RESOLUTION，则不继续
         if (election.getStatus() == ElectionStatus.AWAITING_TIE_RESOLUTION) {
@@ -569,31 +628,23 @@ public class ElectionManager {
         }
 
         election.setStatus(ElectionStatus.FINISHED); // 最终状态
+        electionIndex.statusChanged(election); // 记录为该上下文最近一次的结果
+        saveLatestResult(election); // 持久化最近结果，归档和重启后议员名册仍可直接使用
+        if (election.getType() == ElectionType.PARLIAMENTARY) {
+            nationManager.invalidateParliamentRoster(election.getContextId()); // 新的席位分配
+        } else if (election.getType() == ElectionType.PARTY_LEADER) {
+            nationManager.invalidateParliamentRostersForParty(election.getContextId()); // 党魁可能作为该党在各国议会的代表
+        }
         saveElectionState(election); // 保存包含最终结果和状态的选举数据
 
         // 结果公示期后归档
-        long displayDurationTicks = plugin.getConfig().getLong("elections.results_display_duration_seconds", 43200) * 20L;
-        final String archiveTaskKey = electionId.toString() + "_archive";
-        cancelScheduledPhaseTask(archiveTaskKey); // 清除可能存在的旧归档任务
-
-        if (displayDurationTicks > 0) {
-            BukkitTask archiveTask = new BukkitRunnable() {
-                @Override
-                public void run() {
-                    scheduledPhaseTasks.remove(archiveTaskKey);
-                    Election currentElectionState = electionsById.get(electionId); // 重新获取以防状态改变
-                    if (currentElectionState != null && currentElectionState.getStatus() == ElectionStatus.FINISHED) {
-                        archiveElection(currentElectionState);
-                        electionsById.remove(electionId); // 从活跃列表移除
-                    } else {
-                        plugin.getLogger().warning("[ElectionManager] Archive task ran for election " + electionId + " but its state was not FINISHED. Archival skipped.");
-                    }
-                }
-            }.runTaskLater(plugin, displayDurationTicks);
-            scheduledPhaseTasks.put(archiveTaskKey, archiveTask);
+        long displayDurationMillis = plugin.getConfig().getLong("elections.results_display_duration_seconds", 43200) * 1000L;
+        if (displayDurationMillis > 0) {
+            scheduleArchiveTask(electionId, System.currentTimeMillis() + displayDurationMillis); // 替换可能存在的旧归档截止时间
         } else { // 无公示期，立即归档
+            cancelScheduledPhaseTask(electionId + "_archive");
             archiveElection(election);
-            electionsById.remove(electionId);
+            unregisterElection(election);
         }
 
         // 安排下一次选举 (对于国家级周期性选举或配置了自动周期的党内选举)
@@ -631,6 +682,7 @@ public class ElectionManager {
         cancelScheduledPhaseTask(election.getElectionId() + "_archive"); // 取消可能的归档任务
 
         election.setStatus(ElectionStatus.CANCELLED);
+        electionIndex.statusChanged(election);
         updateLastCompletionTime(election); // 取消的选举也更新时间戳 (或不更新，取决于是否想它尽快重试)
         // 当前 updateLastCompletionTime 实现是 status == FINISHED 才更新，所以取消的不更新。
         // 如果希望取消后也算一个周期，需要调整 updateLastCompletionTime
@@ -638,7 +690,7 @@ public class ElectionManager {
 
         // 决定是否立即归档或保留在活跃列表一段时间
         // archiveElection(election); // 可选：也归档取消的选举
-        electionsById.remove(election.getElectionId()); // 立即从活跃列表移除
+        unregisterElection(election); // 立即从活跃列表移除
 
         broadcastToContext(election, "election-cancelled",
                 "context_name", contextName,
@@ -661,7 +713,8 @@ public class ElectionManager {
      *
      * @param election 需要判定结果的选举对象 (其状态应为 COUNTING)
      */
-    private void determineElectionResults(Election election) {
+    private void determineElectionResults(Election election, TallyOutcome tally) {
+        seatProjections.remove(election.getElectionId()); // 投票已结束，不再需要预测
         GovernmentType govTypeForNationElection = election.getNationGovernmentTypeCache().orElse(null);
         if (election.getType() != ElectionType.PARTY_LEADER && govTypeForNationElection == null) {
             // 对于国家选举，政体缓存是必需的，因为选举规则依赖它
@@ -729,7 +782,11 @@ public class ElectionManager {
             switch (election.getType()) {
                 case PRESIDENTIAL:
                 case PARTY_LEADER:
-                    handleSingleWinnerElection(election, candidates);
+                    if (election.getBallotMode() == BallotMode.RANKED) {
+                        handleRankedChoiceElection(election, candidates, tally != null ? tally.runoff : null);
+                    } else {
+                        handleSingleWinnerElection(election, candidates);
+                    }
                     break;
                 case PARLIAMENTARY:
                     // Map<UUID, Integer> partyTotalVotes = new HashMap<>(); // 旧的，从 Candidate 汇总
@@ -746,30 +803,28 @@ public class ElectionManager {
                         election.setWinnerPartyUUID(null);
                         election.setPartySeatDistribution(new HashMap<>());
                     } else {
-                        // ... 后续的席位计算逻辑 (calculateSeatsLargestRemainderHare) 的输入已经是 Map<UUID, Integer>，所以这里应该能继续工作 ...
-                        // 确保 calculateSeatsLargestRemainderHare 的输入是 partyTotalVotes
+                        // 席位分配方法的输入是通过代表门槛的 partyTotalVotes
 
                         int totalParliamentSeats = getConfiguredTotalParliamentSeats(election.getContextId(), govTypeForNationElection);
                         double representationThresholdPercent = plugin.getConfig().getDouble("elections.parliament.representation_threshold_percent", 0.0);
 
-                        // 计算总有效票数时，应该基于 partyTotalVotes
-                        long totalVotesCastInElection = partyTotalVotes.values().stream().mapToLong(Integer::intValue).sum();
-
-                        Map<UUID, Integer> eligiblePartyVotes = partyTotalVotes.entrySet().stream()
-                                .filter(entry -> {
-                                    if (totalVotesCastInElection == 0 && entry.getValue() > 0) return true;
-                                    if (totalVotesCastInElection == 0) return false;
-                                    double percentage = (double) entry.getValue() * 100.0 / totalVotesCastInElection;
-                                    return percentage >= representationThresholdPercent;
-                                })
-                                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                        // 与实时席位预测使用同一门槛规则
+                        Map<UUID, Integer> eligiblePartyVotes = SeatProjection.applyRepresentationThreshold(partyTotalVotes, representationThresholdPercent);
 
                         if (eligiblePartyVotes.isEmpty()) { // 修改这里的判断条件
                             plugin.getLogger().info("No parties met the representation threshold or no votes were cast in parliamentary election: " + election.getElectionId());
                             election.setWinnerPartyUUID(null);
                             election.setPartySeatDistribution(new HashMap<>());
                         } else {
-                            Map<UUID, Integer> seatDistribution = calculateSeatsLargestRemainderHare(eligiblePartyVotes, totalParliamentSeats);
+                            Map<UUID, Integer> seatDistribution;
+                            if (tally != null && tally.seatDistribution != null) { // 已在结束流水线的异步阶段分配
+                                seatDistribution = tally.seatDistribution;
+                                plugin.getLogger().fine("Allocated " + totalParliamentSeats + " seats with " + tally.allocationMethodName + " (off-thread) in election " + election.getElectionId());
+                            } else {
+                                SeatAllocationMethod allocationMethod = resolveSeatAllocationMethod();
+                                seatDistribution = allocationMethod.allocate(eligiblePartyVotes, totalParliamentSeats);
+                                plugin.getLogger().fine("Allocated " + totalParliamentSeats + " seats with " + allocationMethod.getName() + " in election " + election.getElectionId());
+                            }
                             election.setPartySeatDistribution(seatDistribution);
 
                             UUID majorityPartyUUID = seatDistribution.entrySet().stream()
@@ -819,17 +874,19 @@ public class ElectionManager {
         if (!isPlayerEligibleToVote(voter, election)) { // isPlayerEligibleToVote 内部会发消息
             return false;
         }
-        if (election.getVoters().contains(voter.getUniqueId())) {
+        if (election.hasVoted(voter.getUniqueId())) {
             messageManager.sendMessage(voter, "election-vote-fail-already-voted");
             return false;
         }
-        if (!election.getParticipatingParties().contains(partyToVoteFor.getPartyId())) {
+        if (!election.isParticipating(partyToVoteFor.getPartyId())) {
             messageManager.sendMessage(voter, "election-vote-fail-party-not-participating", "party_name", partyToVoteFor.getName()); // 新消息
             return false;
         }
 
         if (election.recordVoteForParty(voter.getUniqueId(), partyToVoteFor.getPartyId())) {
-            saveElectionState(election); // 实时保存
+            SeatProjection projection = seatProjections.get(election.getElectionId());
+            if (projection != null) projection.onVote(); // 只累加计数，查看预测时才按需重新计算
+            journalVote(election, VoteJournal.KIND_PARTY, voter.getUniqueId(), partyToVoteFor.getPartyId()); // 追加日志，O(1) 写盘
             messageManager.sendMessage(voter, "election-vote-success-party", "party_name", partyToVoteFor.getName()); // 新消息
             plugin.getLogger().finer("Player " + voter.getName() + " voted for party " + partyToVoteFor.getName() + " in election " + election.getElectionId());
             return true;
@@ -858,96 +915,163 @@ public class ElectionManager {
             election.setWinnerPlayerUUID(leadingCandidates.get(0).getPlayerUUID());
             plugin.getLogger().info("Winner of " + election.getType() + " election " + election.getElectionId() + " is " + leadingCandidates.get(0).getResolvedPlayerName());
         } else { // 平票 (leadingCandidates.size() > 1)
-            plugin.getLogger().info("Tie detected in " + election.getType() + " election " + election.getElectionId() + " between: " +
-                    leadingCandidates.stream().map(Candidate::getResolvedPlayerName).collect(Collectors.joining(", ")));
-
-            String tieBreakingMethod = plugin.getConfig().getString("elections.tie_breaking_method", "RANDOM").toUpperCase();
-            UUID winnerUUID = null;
-            switch (tieBreakingMethod) {
-                case "RE_ELECTION":
-                    plugin.getLogger().warning("RE_ELECTION tie-breaking not yet implemented for election " + election.getElectionId() + ". Setting status to AWAITING_TIE_RESOLUTION.");
-                    election.setStatus(ElectionStatus.AWAITING_TIE_RESOLUTION); // 标记需要处理
-                    // TODO: Implement re-election logic (create new election with these candidates)
-                    // For now, no winner is set, and the election finish process will pause.
-                    break;
-                case "ADMIN_DECIDES":
-                    plugin.getLogger().warning("ADMIN_DECIDES tie-breaking required for election " + election.getElectionId() + ". Setting status to AWAITING_TIE_RESOLUTION.");
-                    election.setStatus(ElectionStatus.AWAITING_TIE_RESOLUTION);
-                    broadcastToAdmins("election-tie-admin-decision-needed",
-                            "election_id", election.getElectionId().toString(),
-                            "type", election.getType().getDisplayName(),
-                            "context", getContextName(election.getContextId(), election.getType()),
-                            "candidates", leadingCandidates.stream().map(Candidate::getResolvedPlayerName).collect(Collectors.joining(", "))
-                    );
-                    // TODO: Need admin command to set winner for an AWAITING_TIE_RESOLUTION election.
-                    break;
-                case "RANDOM":
-                default:
-                    winnerUUID = leadingCandidates.get(new Random().nextInt(leadingCandidates.size())).getPlayerUUID();
-                    election.setWinnerPlayerUUID(winnerUUID);
-                    plugin.getLogger().info("Randomly selected " + Bukkit.getOfflinePlayer(winnerUUID).getName() + " as winner for election " + election.getElectionId() + " due to tie.");
-                    break;
+            resolveTie(election, leadingCandidates);
+        }
+    }
+
+    /**
+     * 排序复选制选举的计票：对按排序合并的选票执行即时决选。
+     * 逐轮淘汰后仍无法区分的平票才交给 elections.tie_breaking_method 处理。
+     *
+     * @param precomputed 结束流水线异步阶段的决选结果；为 null 时现场计算
+     */
+    private void handleRankedChoiceElection(Election election, List<Candidate> sortedCandidates, InstantRunoffTally.Result precomputed) {
+        InstantRunoffTally.Result result = precomputed;
+        if (result == null) {
+            Map<List<UUID>, Long> rankedBallots = election.getRankedBallots();
+            if (sortedCandidates.isEmpty() || rankedBallots.isEmpty()) {
+                handleSingleWinnerElection(election, sortedCandidates); // 无候选人或无选票时与相对多数制相同
+                return;
             }
+            List<UUID> candidateIds = sortedCandidates.stream().map(Candidate::getPlayerUUID).collect(Collectors.toList());
+            result = InstantRunoffTally.tally(candidateIds, rankedBallots);
+        }
+        plugin.getLogger().info("Instant-runoff tally for " + election.getType() + " election " + election.getElectionId() + ": "
+                + result.getRounds().size() + " round(s), " + result.getExhaustedBallots() + " exhausted ballot(s).");
+        for (int i = 0; i < result.getRounds().size(); i++) {
+            plugin.getLogger().fine("  Round " + (i + 1) + ": " + result.getRounds().get(i));
+        }
+
+        if (result.getWinner().isPresent()) {
+            UUID winnerUUID = result.getWinner().get();
+            election.setWinnerPlayerUUID(winnerUUID);
+            String winnerName = election.getCandidate(winnerUUID).map(Candidate::getResolvedPlayerName).orElse(winnerUUID.toString());
+            plugin.getLogger().info("Winner of " + election.getType() + " election " + election.getElectionId() + " after instant-runoff is " + winnerName);
+        } else if (!result.getTiedCandidates().isEmpty()) {
+            List<Candidate> tiedCandidates = result.getTiedCandidates().stream()
+                    .map(election::getCandidate)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .collect(Collectors.toList());
+            resolveTie(election, tiedCandidates);
+        } else {
+            election.setWinnerPlayerUUID(null);
+            plugin.getLogger().info("No valid ranked ballots remained in election " + election.getElectionId() + ". No winner determined.");
         }
     }
 
-    private Map<UUID, Integer> calculateSeatsLargestRemainderHare(Map<UUID, Integer> partyVotes, int totalSeats) {
-        Map<UUID, Integer> seatDistribution = new HashMap<>();
-        if (partyVotes.isEmpty() || totalSeats <= 0) {
-            plugin.getLogger().finer("Cannot calculate seats: partyVotes empty or totalSeats zero/negative.");
-            return seatDistribution;
+    /**
+     * 按 elections.tie_breaking_method 处理单席位选举的平票。
+     */
+    private void resolveTie(Election election, List<Candidate> leadingCandidates) {
+        plugin.getLogger().info("Tie detected in " + election.getType() + " election " + election.getElectionId() + " between: " +
+                leadingCandidates.stream().map(Candidate::getResolvedPlayerName).collect(Collectors.joining(", ")));
+
+        String tieBreakingMethod = plugin.getConfig().getString("elections.tie_breaking_method", "RANDOM").toUpperCase();
+        UUID winnerUUID = null;
+        switch (tieBreakingMethod) {
+            case "RE_ELECTION":
+                plugin.getLogger().warning("RE_ELECTION tie-breaking not yet implemented for election " + election.getElectionId() + ". Setting status to AWAITING_TIE_RESOLUTION.");
+                election.setStatus(ElectionStatus.AWAITING_TIE_RESOLUTION); // 标记需要处理
+                // TODO: Implement re-election logic (create new election with these candidates)
+                // For now, no winner is set, and the election finish process will pause.
+                break;
+            case "ADMIN_DECIDES":
+                plugin.getLogger().warning("ADMIN_DECIDES tie-breaking required for election " + election.getElectionId() + ". Setting status to AWAITING_TIE_RESOLUTION.");
+                election.setStatus(ElectionStatus.AWAITING_TIE_RESOLUTION);
+                broadcastToAdmins("election-tie-admin-decision-needed",
+                        "election_id", election.getElectionId().toString(),
+                        "type", election.getType().getDisplayName(),
+                        "context", getContextName(election.getContextId(), election.getType()),
+                        "candidates", leadingCandidates.stream().map(Candidate::getResolvedPlayerName).collect(Collectors.joining(", "))
+                );
+                // TODO: Need admin command to set winner for an AWAITING_TIE_RESOLUTION election.
+                break;
+            case "RANDOM":
+            default:
+                winnerUUID = leadingCandidates.get(new Random().nextInt(leadingCandidates.size())).getPlayerUUID();
+                election.setWinnerPlayerUUID(winnerUUID);
+                plugin.getLogger().info("Randomly selected " + Bukkit.getOfflinePlayer(winnerUUID).getName() + " as winner for election " + election.getElectionId() + " due to tie.");
+                break;
         }
+    }
 
-        long totalVoteCount = partyVotes.values().stream().mapToLong(Integer::intValue).sum();
-        if (totalVoteCount == 0) {
-            plugin.getLogger().finer("Cannot calculate seats: totalVoteCount is zero.");
-            return seatDistribution; // 没有有效投票
+    /**
+     * 获取投票中的议会选举的实时席位预测。
+     * 预测按 elections.parliament.projection_refresh_ms 节流，并且只在得票跨过分配边界时重新分配席位。
+     *
+     * @return 预测；如果选举不是处于投票阶段的议会选举则为空
+     */
+    public Optional<SeatProjection.View> getSeatProjection(Election election) {
+        if (election == null || election.getType() != ElectionType.PARLIAMENTARY || election.getStatus() != ElectionStatus.VOTING) {
+            return Optional.empty();
         }
+        SeatProjection projection = seatProjections.computeIfAbsent(election.getElectionId(), id -> new SeatProjection(
+                resolveSeatAllocationMethod(),
+                getConfiguredTotalParliamentSeats(election.getContextId(), election.getNationGovernmentTypeCache().orElse(null)),
+                plugin.getConfig().getDouble("elections.parliament.representation_threshold_percent", 0.0),
+                plugin.getConfig().getLong("elections.parliament.projection_refresh_ms", 5000L)));
+        return Optional.of(projection.get(election));
+    }
 
-        double quota = (double) totalVoteCount / totalSeats;
-        if (quota <= 0) { // Avoid division by zero or issues if totalSeats is > totalVoteCount leading to tiny quota
-            plugin.getLogger().warning("Quota is zero or negative in seat calculation. Total votes: " + totalVoteCount + ", Total seats: " + totalSeats + ". Cannot allocate seats proportionally.");
-            // Fallback: give all seats to the party with most votes if quota is invalid? Or return empty.
-            // For now, return empty if quota is not sensible.
-            if (totalSeats > 0 && !partyVotes.isEmpty()) { // Attempt to give to highest vote if quota fails
-                UUID topParty = partyVotes.entrySet().stream().max(Map.Entry.comparingByValue()).get().getKey();
-                seatDistribution.put(topParty, totalSeats);
-                plugin.getLogger().warning("Due to invalid quota, all " + totalSeats + " seats awarded to party with most votes: " + topParty);
-                return seatDistribution;
-            }
-            return seatDistribution;
-        }
-
-        Map<UUID, Double> partyRemainders = new HashMap<>();
-        int seatsAutomaticallyAllocated = 0;
-
-        for (Map.Entry<UUID, Integer> entry : partyVotes.entrySet()) {
-            UUID partyId = entry.getKey();
-            int votes = entry.getValue();
-            int seats = (int) (votes / quota);
-            seatDistribution.put(partyId, seats);
-            partyRemainders.put(partyId, votes - (seats * quota)); // Remainder based on votes
-            seatsAutomaticallyAllocated += seats;
-        }
-
-        int remainingSeats = totalSeats - seatsAutomaticallyAllocated;
-        if (remainingSeats > 0 && !partyRemainders.isEmpty()) {
-            List<Map.Entry<UUID, Double>> sortedRemainders = partyRemainders.entrySet().stream()
-                    .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed()
-                            .thenComparing((e1, e2) -> {
-                                if (e1.getValue().equals(e2.getValue())) {
-                                    return partyVotes.get(e2.getKey()).compareTo(partyVotes.get(e1.getKey())); // Tie-break by total votes
-                                }
-                                return 0;
-                            }))
-                    .collect(Collectors.toList());
+    /**
+     * @return 选举结束流水线 (用于查看队列深度和延迟)
+     */
+    public ElectionFinishPipeline<?> getFinishPipeline() {
+        return finishPipeline;
+    }
 
-            for (int i = 0; i < remainingSeats && i < sortedRemainders.size(); i++) {
-                UUID partyIdToGetSeat = sortedRemainders.get(i).getKey();
-                seatDistribution.merge(partyIdToGetSeat, 1, Integer::sum);
+    /**
+     * 根据已登记的截止时间生成选举日程 (周期选举的开始、各阶段推进和归档)，按时间排序。
+     *
+     * @param horizonMillis 从现在起向后查看的时长
+     */
+    public List<ElectionCalendarEntry> getElectionCalendar(long horizonMillis) {
+        long until = System.currentTimeMillis() + horizonMillis;
+        List<ElectionCalendarEntry> calendar = new ArrayList<>();
+        for (Map.Entry<String, Long> deadline : deadlines.getUpcoming(CYCLE_KEY_PREFIX, until)) {
+            String taskKey = deadline.getKey().substring(CYCLE_KEY_PREFIX.length()); // 上下文ID_类型
+            int separator = taskKey.indexOf('_');
+            if (separator < 0) continue;
+            Optional<ElectionType> type = ElectionType.fromString(taskKey.substring(separator + 1));
+            try {
+                UUID contextId = UUID.fromString(taskKey.substring(0, separator));
+                type.ifPresent(t -> calendar.add(new ElectionCalendarEntry(deadline.getValue(), ElectionCalendarEntry.Event.CYCLE_START, contextId, t)));
+            } catch (IllegalArgumentException ignored) { /* 不是本插件格式的键 */ }
+        }
+        for (Map.Entry<String, Long> deadline : deadlines.getUpcoming(PHASE_KEY_PREFIX, until)) {
+            String taskKey = deadline.getKey().substring(PHASE_KEY_PREFIX.length()); // 选举ID[_archive]
+            boolean archive = taskKey.endsWith("_archive");
+            Election election;
+            try {
+                election = electionsById.get(UUID.fromString(archive ? taskKey.substring(0, taskKey.length() - "_archive".length()) : taskKey));
+            } catch (IllegalArgumentException e) {
+                continue;
             }
-        }
-        return seatDistribution;
+            if (election == null) continue;
+            ElectionCalendarEntry.Event event;
+            if (archive) event = ElectionCalendarEntry.Event.ARCHIVE;
+            else if (election.getStatus() == ElectionStatus.PENDING_START) event = ElectionCalendarEntry.Event.REGISTRATION_START;
+            else if (election.getStatus() == ElectionStatus.REGISTRATION) event = ElectionCalendarEntry.Event.VOTING_START;
+            else if (election.getStatus() == ElectionStatus.VOTING) event = ElectionCalendarEntry.Event.VOTING_END;
+            else continue;
+            calendar.add(new ElectionCalendarEntry(deadline.getValue(), event, election.getContextId(), election.getType()));
+        }
+        calendar.sort(Comparator.comparingLong(ElectionCalendarEntry::getDueAt));
+        return calendar;
+    }
+
+    /**
+     * 按 elections.parliament.seat_allocation_method 选择席位分配方法，未配置或无法识别时使用最大余额法 (黑尔数额)。
+     */
+    private SeatAllocationMethod resolveSeatAllocationMethod() {
+        String configured = plugin.getConfig().getString("elections.parliament.seat_allocation_method", "LARGEST_REMAINDER_HARE");
+        Optional<SeatAllocationMethod> method = SeatAllocationMethod.byName(configured);
+        if (!method.isPresent()) {
+            plugin.getLogger().warning("[ElectionManager] Unknown seat_allocation_method '" + configured + "', falling back to LARGEST_REMAINDER_HARE.");
+            return SeatAllocationMethod.byName("LARGEST_REMAINDER_HARE").get();
+        }
+        return method.get();
     }
 
     /**
@@ -1116,17 +1240,8 @@ public class ElectionManager {
      */
     private void broadcastToNation(Nation nation, String messageKey, Object... placeholders) {
         if (nation == null) return;
-        String message = messageManager.getMessage(messageKey, placeholders); // 获取已处理占位符的消息体
-        String prefixedMessage = messageManager.getFormattedPrefix() + message; // 添加前缀
-        for (Resident resident : nation.getResidents()) {
-            if (resident.isOnline()) {
-                Player player = Bukkit.getPlayer(resident.getUUID());
-                if (player != null) {
-                    player.sendMessage(prefixedMessage);
-                }
-            }
-        }
-        plugin.getLogger().info("[Nation Broadcast to " + nation.getName() + "] " + message); // 控制台日志记录不带前缀的消息体
+        plugin.getBroadcastService().broadcast("Nation Broadcast to " + nation.getName(),
+                nationManager.getCitizenshipIndex().getOnlineCitizens(nation.getUUID()), messageKey, placeholders); // 只发给在线公民
     }
 
     /**
@@ -1138,16 +1253,8 @@ public class ElectionManager {
      */
     private void broadcastToPartyMembers(Party party, String messageKey, Object... placeholders) {
         if (party == null) return;
-        String message = messageManager.getMessage(messageKey, placeholders);
-        String prefixedMessage = messageManager.getFormattedPrefix() + message;
-        for (UUID memberId : party.getOfficialMemberIds()) {
-            OfflinePlayer offlineP = Bukkit.getOfflinePlayer(memberId);
-            if (offlineP.isOnline()) {
-                Player p = offlineP.getPlayer();
-                if (p != null) p.sendMessage(prefixedMessage);
-            }
-        }
-        plugin.getLogger().info("[Party Broadcast to " + party.getName() + "] " + message);
+        plugin.getBroadcastService().broadcast("Party Broadcast to " + party.getName(),
+                partyManager.getOnlineMembers(party.getPartyId()), messageKey, placeholders); // 只发给在线成员
     }
 
     /**
@@ -1157,46 +1264,139 @@ public class ElectionManager {
      * @param placeholders 占位符
      */
     private void broadcastToAdmins(String messageKey, Object... placeholders) {
-        String message = messageManager.getMessage(messageKey, placeholders);
-        String prefixedMessage = messageManager.getFormattedPrefix() + message;
-        plugin.getServer().getOnlinePlayers().stream()
-                .filter(p -> p.hasPermission("townypolitical.admin.notifications"))
-                .forEach(p -> p.sendMessage(prefixedMessage));
-        plugin.getLogger().info("[Admin Notification] " + message);
+        List<Player> admins = new ArrayList<>();
+        for (Player p : plugin.getServer().getOnlinePlayers()) {
+            if (p.hasPermission("townypolitical.admin.notifications")) admins.add(p);
+        }
+        plugin.getBroadcastService().broadcastToPlayers("Admin Notification", admins, messageKey, placeholders);
     }
 
     // --- Helpers & Utils ---
 
+    /**
+     * 登记 (或替换) 一个周期性选举的启动时间。
+     *
+     * @param taskKey 任务的唯一键 (例如 contextId + "_" + typeName)
+     */
+    private long scheduleCycleTask(String taskKey, long dueAtMillis, Runnable action) {
+        long dueAt = reserveTransitionSlot(CYCLE_KEY_PREFIX + taskKey, dueAtMillis);
+        deadlines.schedule(CYCLE_KEY_PREFIX + taskKey, dueAt, action);
+        return dueAt;
+    }
+
+    /**
+     * @return 周期性选举已登记 (或上次运行保存) 的启动时间；没有则返回 0
+     */
+    private long getCycleDueAt(String taskKey) {
+        return deadlines.getDueAt(CYCLE_KEY_PREFIX + taskKey);
+    }
+
     /**
      * 取消一个周期性选举调度任务。
      *
      * @param taskKey 任务的唯一键 (例如 contextId + "_" + typeName)
      */
     private void cancelScheduledCycleTask(String taskKey) {
-        BukkitTask existingTask = scheduledCycleTasks.remove(taskKey);
-        if (existingTask != null) {
-            try {
-                if (!existingTask.isCancelled()) existingTask.cancel();
-            } catch (Exception e) {
-                plugin.getLogger().finer("Minor error cancelling cycle task " + taskKey + ": " + e.getMessage());
-            }
-        }
+        transitionLimiter.release(CYCLE_KEY_PREFIX + taskKey);
+        deadlines.cancel(CYCLE_KEY_PREFIX + taskKey);
     }
 
     /**
-     * 取消一个选举的阶段性推进任务（包括可能的归档任务）。
+     * 登记 (或替换) 一个选举的阶段推进截止时间。
+     *
+     * 时间受每分钟上限约束，可能被顺延；投票截止使用 {@link #scheduleFinishTask(UUID, long)}。
      *
+     * @param taskKey 选举ID，归档任务为 选举ID + "_archive"
+     * @return 实际登记的时间
+     */
+    private long schedulePhaseTask(String taskKey, long dueAtMillis, Runnable action) {
+        long dueAt = reserveTransitionSlot(PHASE_KEY_PREFIX + taskKey, dueAtMillis);
+        deadlines.schedule(PHASE_KEY_PREFIX + taskKey, dueAt, action);
+        return dueAt;
+    }
+
+    /**
+     * 登记投票截止 (结束选举) 的时间。公布的截止时间不受每分钟上限顺延，结束时的负载由结束流水线分摊。
+     */
+    private void scheduleFinishTask(UUID electionId, long endTime) {
+        String key = PHASE_KEY_PREFIX + electionId;
+        transitionLimiter.release(key); // 释放登记结束时预约的位置
+        deadlines.schedule(key, endTime, () -> {
+            plugin.getLogger().info("[ElectionManager] Phase task running: finishing election " + electionId + ".");
+            finishElection(electionId);
+        });
+    }
+
+    /**
+     * 按 elections.scheduling.max_transitions_per_minute 为一个截止时间预约时间。
+     */
+    private long reserveTransitionSlot(String deadlineKey, long desiredAt) {
+        int maxPerMinute = plugin.getConfig().getInt("elections.scheduling.max_transitions_per_minute", 10);
+        long reservedAt = transitionLimiter.reserve(deadlineKey, desiredAt, maxPerMinute);
+        if (reservedAt - desiredAt >= 60_000L) {
+            plugin.getLogger().fine("[ElectionManager] Deadline " + deadlineKey + " deferred by " + (reservedAt - desiredAt) / 1000L + " seconds (max " + maxPerMinute + " transitions per minute).");
+        }
+        return reservedAt;
+    }
+
+    /**
+     * 把周期选举的基准时间 (上次完成时间 + 间隔) 推后到该上下文固定的错开位置：
+     * 返回不早于 baseMillis、且在 cycle_jitter_minutes 长的时间网格中相位等于 {@link #getCycleJitterMillis} 的第一个时间。
+     * 偏移以固定网格为锚点，推后的量不超过一个窗口，也不会像“基准 + 抖动”那样随着完成时间逐个周期累加。
+     */
+    private long alignToCycleSlot(long baseMillis, UUID contextId, ElectionType type) {
+        long windowMillis = plugin.getConfig().getLong("elections.scheduling.cycle_jitter_minutes", 60L) * 60_000L;
+        if (windowMillis <= 0) return baseMillis;
+        return baseMillis + Math.floorMod(getCycleJitterMillis(contextId, type) - baseMillis, windowMillis);
+    }
+
+    /**
+     * 周期选举启动时间的确定性抖动：由上下文ID和选举类型散列得到 [0, elections.scheduling.cycle_jitter_minutes) 内的偏移。
+     * 同一上下文每次得到相同的偏移 (重启后不变)，使用相同间隔的不同上下文则被错开。
+     */
+    private long getCycleJitterMillis(UUID contextId, ElectionType type) {
+        long windowMillis = plugin.getConfig().getLong("elections.scheduling.cycle_jitter_minutes", 60L) * 60_000L;
+        if (windowMillis <= 0) return 0L;
+        long h = contextId.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ contextId.getLeastSignificantBits() ^ type.name().hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return Math.floorMod(h, windowMillis);
+    }
+
+    /**
+     * 取消一个选举的阶段性推进任务（或以 "_archive" 结尾的归档任务）。
      */
     private void cancelScheduledPhaseTask(String taskKey) {
         if (taskKey == null) return;
-        BukkitTask phaseTask = scheduledPhaseTasks.remove(taskKey); // 使用 String key 移除
-        if (phaseTask != null) {
-            try {
-                if (!phaseTask.isCancelled()) phaseTask.cancel();
-            } catch (Exception e) { /* ignore */ }
-        }
-        // 如果归档任务也用同一个 map 但不同 key 格式（如加后缀），那么这里也应该尝试移除它
-        // 但我们已经在 cancelElection 和 finishElection 中单独处理了归档任务的取消
+        transitionLimiter.release(PHASE_KEY_PREFIX + taskKey);
+        deadlines.cancel(PHASE_KEY_PREFIX + taskKey);
+    }
+
+    /**
+     * 安排已完成选举在公示期结束后归档。
+     */
+    private void scheduleArchiveTask(UUID electionId, long dueAtMillis) {
+        schedulePhaseTask(electionId + "_archive", dueAtMillis, () -> {
+            Election currentElectionState = electionsById.get(electionId); // 重新获取以防状态改变
+            if (currentElectionState != null && currentElectionState.getStatus() == ElectionStatus.FINISHED) {
+                archiveElection(currentElectionState);
+                unregisterElection(currentElectionState); // 从活跃列表移除
+            } else {
+                plugin.getLogger().warning("[ElectionManager] Archive task ran for election " + electionId + " but its state was not FINISHED. Archival skipped.");
+            }
+        });
+    }
+
+    private void registerElection(Election election) {
+        electionsById.put(election.getElectionId(), election);
+        electionIndex.add(election);
+    }
+
+    private void unregisterElection(Election election) {
+        electionsById.remove(election.getElectionId());
+        seatProjections.remove(election.getElectionId());
+        electionIndex.remove(election);
     }
 
     /**
@@ -1218,12 +1418,7 @@ public class ElectionManager {
      */
     public Election getActiveElection(UUID contextUUID, ElectionType type) {
         if (contextUUID == null || type == null) return null;
-        return electionsById.values().stream()
-                .filter(e -> e.getContextId().equals(contextUUID) &&
-                        e.getType() == type &&
-                        e.getStatus() != ElectionStatus.FINISHED &&
-                        e.getStatus() != ElectionStatus.CANCELLED)
-                .findFirst().orElse(null);
+        return electionIndex.getActive(contextUUID, type);
     }
 
     /**
@@ -1234,9 +1429,8 @@ public class ElectionManager {
      */
     public List<Election> getAllActiveElectionsForContext(UUID contextUUID) {
         if (contextUUID == null) return Collections.emptyList();
-        return electionsById.values().stream()
-                .filter(e -> e.getContextId().equals(contextUUID) &&
-                        e.getStatus() != ElectionStatus.FINISHED &&
+        return electionIndex.getByContext(contextUUID).stream()
+                .filter(e -> e.getStatus() != ElectionStatus.FINISHED &&
                         e.getStatus() != ElectionStatus.CANCELLED)
                 .collect(Collectors.toList());
     }
@@ -1287,6 +1481,17 @@ public class ElectionManager {
         return plugin.getConfig().getLong("party.leader_election." + pathSuffixFromPartyLeaderNode, defaultValueSeconds) * 20L;
     }
 
+    /**
+     * 单席位选举的投票方式：elections.ballot_mode.presidential / elections.ballot_mode.party_leader，默认为 PLURALITY。
+     */
+    private BallotMode getConfiguredBallotMode(ElectionType electionType) {
+        String configured = plugin.getConfig().getString("elections.ballot_mode." + electionType.name().toLowerCase(), "PLURALITY");
+        return BallotMode.fromString(configured).orElseGet(() -> {
+            plugin.getLogger().warning("[ElectionManager] Unknown ballot_mode '" + configured + "' for " + electionType + ", using PLURALITY.");
+            return BallotMode.PLURALITY;
+        });
+    }
+
     private int getConfiguredTotalParliamentSeats(UUID nationUUID, GovernmentType govType) {
         // 未来可以为不同国家或政体类型配置不同席位数
         // String nationSpecificPath = "nations." + nationUUID.toString() + ".parliament_seats";
@@ -1300,117 +1505,239 @@ public class ElectionManager {
      * 同时会尝试恢复这些选举未完成的阶段性调度任务。
      */
     public void loadActiveElections() {
-        electionsById.clear(); // 清空内存中的旧数据
-        plugin.getLogger().info("[ElectionManager] Loading active elections data from disk...");
-        if (!activeElectionsDataFolder.exists() || !activeElectionsDataFolder.isDirectory()) {
-            plugin.getLogger().warning("[ElectionManager] Active elections data folder not found. No elections loaded.");
-            return;
+        plugin.getLogger().info("[ElectionManager] Loading active elections data from storage (" + storage.getName() + ")...");
+        installActiveElections(storage.loadAll(StorageCategory.ELECTIONS_ACTIVE));
+        installLatestResults(storage.loadAll(StorageCategory.ELECTION_RESULTS));
+    }
+
+    /**
+     * 装回持久化的最近结果记录。必须在 {@link #installActiveElections(Map)} 之后调用 (它会清空索引)。
+     * 内存中已完成的选举如果更新，则保留内存中的结果。
+     * @param resultDocuments <文档ID, 已解析的文档>
+     */
+    public void installLatestResults(Map<String, YamlConfiguration> resultDocuments) {
+        int installed = 0;
+        for (Map.Entry<String, YamlConfiguration> document : resultDocuments.entrySet()) {
+            try {
+                if (electionIndex.recordResult(ElectionResult.fromYaml(document.getValue()))) installed++;
+            } catch (IllegalArgumentException | NullPointerException e) {
+                plugin.getLogger().log(Level.WARNING, "[ElectionManager] Skipping invalid election result record " + document.getKey(), e);
+                storage.quarantine(StorageCategory.ELECTION_RESULTS, document.getKey(), "result_load_error_");
+            }
+        }
+        plugin.getLogger().info("[ElectionManager] Loaded " + installed + " latest election results (of " + resultDocuments.size() + " records).");
+    }
+
+    /**
+     * 如果该选举是其上下文和类型的最近结果，经由写入队列持久化其结果记录。
+     */
+    private void saveLatestResult(Election election) {
+        ElectionResult result = electionIndex.getLatestResult(election.getContextId(), election.getType());
+        if (result == null || !result.getElectionId().equals(election.getElectionId())) return;
+        final String documentId = result.getDocumentId();
+        final YamlConfiguration document = result.toYaml(); // 在调用方线程上生成快照
+        saveQueue.submit(RESULT_KEY_PREFIX + documentId, () -> {
+            try {
+                storage.save(StorageCategory.ELECTION_RESULTS, documentId, document);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not save latest election result " + documentId, e);
+            }
+        });
+    }
+
+    private void deleteLatestResults(Collection<ElectionResult> results) {
+        for (ElectionResult result : results) {
+            final String documentId = result.getDocumentId();
+            saveQueue.submit(RESULT_KEY_PREFIX + documentId, () -> storage.delete(StorageCategory.ELECTION_RESULTS, documentId));
         }
+    }
 
-        File[] electionFiles = activeElectionsDataFolder.listFiles((dir, name) -> name.toLowerCase().endsWith(ELECTION_FILE_EXTENSION));
-        if (electionFiles == null || electionFiles.length == 0) {
-            plugin.getLogger().info("[ElectionManager] No active election files found to load.");
+    /**
+     * 用已解析的选举文档恢复进行中的选举 (重放投票日志、恢复阶段任务、归档已结束的选举)。必须在主线程调用。
+     * @param electionDocuments <文档ID, 已解析的文档>
+     */
+    public void installActiveElections(Map<String, YamlConfiguration> electionDocuments) {
+        electionsById.clear(); // 清空内存中的旧数据
+        electionIndex.clear();
+        if (electionDocuments.isEmpty()) {
+            plugin.getLogger().info("[ElectionManager] No active election data found to load.");
             return;
         }
 
         int loadedCount = 0;
-        for (File electionFile : electionFiles) {
-            YamlConfiguration config = new YamlConfiguration();
+        for (Map.Entry<String, YamlConfiguration> document : electionDocuments.entrySet()) {
+            String documentId = document.getKey();
+            YamlConfiguration config = document.getValue();
             try {
-                config.load(electionFile); // 从文件加载数据
-
-                UUID electionId = UUID.fromString(config.getString("electionId"));
-                UUID contextId = UUID.fromString(config.getString("contextId"));
-                ElectionType type = ElectionType.fromString(config.getString("type"))
-                        .orElseThrow(() -> new IllegalArgumentException("Invalid ElectionType in file " + electionFile.getName()));
-
-                Election election = new Election(electionId, contextId, type); // 使用包含ID的构造
 
-                election.setStatus(ElectionStatus.fromString(config.getString("status", "NONE"))
-                        .orElse(ElectionStatus.NONE));
-                if (config.contains("nationGovernmentTypeCache")) {
-                    GovernmentType.fromString(config.getString("nationGovernmentTypeCache"))
-                            .ifPresent(election::setNationGovernmentTypeCache);
-                }
-                election.setStartTime(config.getLong("startTime"));
-                election.setEndTime(config.getLong("endTime"));
-                election.setRegistrationEndTime(config.getLong("registrationEndTime"));
-
-                if (config.isConfigurationSection("candidates")) {
-                    ConfigurationSection candidatesSection = config.getConfigurationSection("candidates");
-                    for (String candidateUuidStr : candidatesSection.getKeys(false)) {
-                        try {
-                            UUID playerUUID = UUID.fromString(candidateUuidStr);
-                            UUID partyUUID = config.contains("candidates." + candidateUuidStr + ".partyUUID") ?
-                                    UUID.fromString(config.getString("candidates." + candidateUuidStr + ".partyUUID")) : null;
-                            Candidate candidate = new Candidate(playerUUID, partyUUID);
-                            candidate.setVotes(config.getInt("candidates." + candidateUuidStr + ".votes"));
-                            if (config.contains("candidates." + candidateUuidStr + ".playerNameCache")) {
-                                candidate.setPlayerNameCache(config.getString("candidates." + candidateUuidStr + ".playerNameCache"));
-                            }
-                            if (config.contains("candidates." + candidateUuidStr + ".partyNameCache")) {
-                                candidate.setPartyNameCache(config.getString("candidates." + candidateUuidStr + ".partyNameCache"));
-                            }
-                            election.addCandidate(candidate);
-                        } catch (IllegalArgumentException e) {
-                            plugin.getLogger().warning("[ElectionManager] Skipping invalid candidate entry in " + electionFile.getName() + ": " + e.getMessage());
+                Election election = parseElectionDocument(documentId, config);
+                UUID electionId = election.getElectionId();
+                UUID contextId = election.getContextId();
+                ElectionType type = election.getType();
+
+                election.markClean(); // 与快照一致；下面重放的日志选票会使其重新变脏
+                // 在快照之上重放投票日志的尾部 (快照之后追加、尚未被压缩的选票)
+                List<VoteJournal.Record> journalTail = voteJournal.readFrom(electionId, config.getInt("journalSegment", 0));
+                int replayedVotes = 0;
+                if (election.getStatus() == ElectionStatus.VOTING) {
+                    for (VoteJournal.Record record : journalTail) {
+                        boolean applied;
+                        if (record.getKind() == VoteJournal.KIND_PARTY) {
+                            applied = election.recordVoteForParty(record.getVoter(), record.getTarget());
+                        } else if (record.getKind() == VoteJournal.KIND_RANKED) {
+                            applied = election.recordRankedVote(record.getVoter(), record.getRanking());
+                        } else {
+                            applied = election.recordVote(record.getVoter(), record.getTarget());
                         }
+                        if (applied) replayedVotes++;
                     }
                 }
 
-                if (config.isList("voters")) {
-                    config.getStringList("voters").forEach(voterUuidStr -> {
-                        try {
-                            election.getVotersInternal().add(UUID.fromString(voterUuidStr));
-                        } // 需要一个内部访问voters的方法
-                        catch (IllegalArgumentException e) {
-                            plugin.getLogger().warning("[ElectionManager] Skipping invalid voter UUID in " + electionFile.getName());
-                        }
-                    });
+                // 已完成且结果公示期尚未结束的选举 (归档截止时间在上次运行时已保存)：继续公示，到期后归档
+                long archiveDueAt = deadlines.getDueAt(PHASE_KEY_PREFIX + electionId + "_archive");
+                if (election.getStatus() == ElectionStatus.FINISHED && archiveDueAt > System.currentTimeMillis()) {
+                    registerElection(election);
+                    loadedCount++;
+                    scheduleArchiveTask(electionId, archiveDueAt);
+                    plugin.getLogger().info("[ElectionManager] Loaded finished " + type + " (ID: " + electionId + ") for " + getContextName(contextId, type) + "; results remain on display until archival.");
+                    continue;
                 }
 
-                if (config.contains("winnerPlayerUUID"))
-                    election.setWinnerPlayerUUID(UUID.fromString(config.getString("winnerPlayerUUID")));
-                if (config.contains("winnerPartyUUID"))
-                    election.setWinnerPartyUUID(UUID.fromString(config.getString("winnerPartyUUID")));
-
-                if (config.isConfigurationSection("partySeatDistribution")) {
-                    Map<UUID, Integer> seatDist = new HashMap<>();
-                    ConfigurationSection seatSection = config.getConfigurationSection("partySeatDistribution");
-                    for (String partyUuidStr : seatSection.getKeys(false)) {
-                        try {
-                            seatDist.put(UUID.fromString(partyUuidStr), seatSection.getInt(partyUuidStr));
-                        } catch (IllegalArgumentException e) {
-                            plugin.getLogger().warning("[ElectionManager] Skipping invalid party UUID in seat distribution for " + electionFile.getName());
-                        }
-                    }
-                    election.setPartySeatDistribution(seatDist); // Election的setter会处理clear和putAll
-                }
-                if (type == ElectionType.PARLIAMENTARY) { if (config.isList("participatingParties")) { config.getStringList("participatingParties").forEach(partyUuidStr -> { try { election.getParticipatingPartiesInternal().add(UUID.fromString(partyUuidStr));  } catch (IllegalArgumentException e) { /* log */ } }); } if (config.isConfigurationSection("partyVotesCount")) { ConfigurationSection partyVotesSection = config.getConfigurationSection("partyVotesCount"); for (String partyUuidStr : partyVotesSection.getKeys(false)) { try { UUID partyUUID = UUID.fromString(partyUuidStr); int votes = partyVotesSection.getInt(partyUuidStr); election.getPartyVotesCountInternal().put(partyUUID, new AtomicInteger(votes));} catch (IllegalArgumentException e) { /* log */ } } } }
-
                 // 如果选举已经结束或取消，则归档并跳过添加到 activeElections
                 if (election.getStatus() == ElectionStatus.FINISHED || election.getStatus() == ElectionStatus.CANCELLED) {
-                    archiveElectionFile(electionFile, election.getElectionId().toString() + "_" + election.getType().name() + ELECTION_FILE_EXTENSION);
+                    voteJournal.release(electionId);
+                    voteJournal.deleteAll(electionId);
+                    String archiveId = election.getElectionId().toString() + "_" + election.getType().name();
+                    archiveElectionDocument(documentId, archiveId, ElectionArchive.Entry.of(election, archiveId));
                     plugin.getLogger().info("[ElectionManager] Archived previously concluded " + election.getType() + " (ID: " + election.getElectionId() + ") for " + getContextName(election.getContextId(), election.getType()));
                     continue; // 不加入活跃列表，也不恢复任务
                 }
 
-                electionsById.put(electionId, election); // 使用 electionId 作为 key
+                registerElection(election); // 使用 electionId 作为 key，并建立索引
                 loadedCount++;
                 plugin.getLogger().info("[ElectionManager] Loaded active " + type + " (ID: " + electionId + ") for " + getContextName(contextId, type) + " with status " + election.getStatus());
+                if (!journalTail.isEmpty()) {
+                    plugin.getLogger().info("[ElectionManager] Replayed " + replayedVotes + "/" + journalTail.size() + " journaled votes for election " + electionId + ". Compacting into snapshot.");
+                    saveElectionState(election); // 压缩：写入包含重放选票的新快照，并删除旧日志段
+                }
 
                 resumeScheduledTasksForElection(election); // 恢复此选举的阶段性任务
 
-            } catch (IOException | InvalidConfigurationException | IllegalArgumentException e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to load election from file: " + electionFile.getName(), e);
-                moveCorruptedFile(electionFile, "election_load_error_");
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to load election from data: " + documentId, e);
+                storage.quarantine(StorageCategory.ELECTIONS_ACTIVE, documentId, "election_load_error_");
             }
         }
         plugin.getLogger().info("[ElectionManager] Successfully loaded " + loadedCount + " active elections.");
     }
 
     /**
-     * 保存指定选举的当前状态到磁盘文件。
+     * 把一个选举文档 (进行中或已归档) 解析为选举对象，不注册、不恢复任务。
+     * @throws IllegalArgumentException 如果文档缺少必需字段或字段格式错误
+     */
+    private Election parseElectionDocument(String documentId, YamlConfiguration config) {
+        UUID electionId = UUID.fromString(config.getString("electionId"));
+        UUID contextId = UUID.fromString(config.getString("contextId"));
+        ElectionType type = ElectionType.fromString(config.getString("type"))
+                .orElseThrow(() -> new IllegalArgumentException("Invalid ElectionType in election data " + documentId));
+
+        Election election = new Election(electionId, contextId, type); // 使用包含ID的构造
+
+        election.setStatus(ElectionStatus.fromString(config.getString("status", "NONE"))
+                .orElse(ElectionStatus.NONE));
+        if (config.contains("nationGovernmentTypeCache")) {
+            GovernmentType.fromString(config.getString("nationGovernmentTypeCache"))
+                    .ifPresent(election::setNationGovernmentTypeCache);
+        }
+        election.setStartTime(config.getLong("startTime"));
+        election.setEndTime(config.getLong("endTime"));
+        election.setRegistrationEndTime(config.getLong("registrationEndTime"));
+        BallotMode.fromString(config.getString("ballotMode")).ifPresent(election::setBallotMode);
+
+        if (config.isConfigurationSection("candidates")) {
+            ConfigurationSection candidatesSection = config.getConfigurationSection("candidates");
+            for (String candidateUuidStr : candidatesSection.getKeys(false)) {
+                try {
+                    UUID playerUUID = UUID.fromString(candidateUuidStr);
+                    UUID partyUUID = config.contains("candidates." + candidateUuidStr + ".partyUUID") ?
+                            UUID.fromString(config.getString("candidates." + candidateUuidStr + ".partyUUID")) : null;
+                    Candidate candidate = new Candidate(playerUUID, partyUUID);
+                    candidate.setVotes(config.getInt("candidates." + candidateUuidStr + ".votes"));
+                    if (config.contains("candidates." + candidateUuidStr + ".playerNameCache")) {
+                        candidate.setPlayerNameCache(config.getString("candidates." + candidateUuidStr + ".playerNameCache"));
+                    }
+                    if (config.contains("candidates." + candidateUuidStr + ".partyNameCache")) {
+                        candidate.setPartyNameCache(config.getString("candidates." + candidateUuidStr + ".partyNameCache"));
+                    }
+                    election.addCandidate(candidate);
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("[ElectionManager] Skipping invalid candidate entry in " + documentId + ": " + e.getMessage());
+                }
+            }
+        }
+
+        if (config.isString("voters_packed")) {
+            try {
+                election.getVotersInternal().addAllFromBytes(Base64.getDecoder().decode(config.getString("voters_packed")));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("[ElectionManager] Skipping corrupt packed voter block in " + documentId + ": " + e.getMessage());
+            }
+        }
+        if (config.isList("voters")) { // 旧格式：逐个 UUID 字符串
+            config.getStringList("voters").forEach(voterUuidStr -> {
+                try {
+                    election.getVotersInternal().add(UUID.fromString(voterUuidStr));
+                } // 需要一个内部访问voters的方法
+                catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("[ElectionManager] Skipping invalid voter UUID in " + documentId);
+                }
+            });
+        }
+
+        if (config.isConfigurationSection("rankedBallots")) {
+            ConfigurationSection rankedSection = config.getConfigurationSection("rankedBallots");
+            for (String groupKey : rankedSection.getKeys(false)) {
+                try {
+                    List<UUID> ranking = rankedSection.getStringList(groupKey + ".ranking").stream()
+                            .map(UUID::fromString)
+                            .collect(Collectors.toUnmodifiableList());
+                    long count = rankedSection.getLong(groupKey + ".count");
+                    if (!ranking.isEmpty() && count > 0) {
+                        election.getRankedBallotsInternal().computeIfAbsent(ranking, k -> new LongAdder()).add(count);
+                    }
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("[ElectionManager] Skipping invalid ranked ballot group in " + documentId);
+                }
+            }
+        }
+
+        if (config.contains("winnerPlayerUUID"))
+            election.setWinnerPlayerUUID(UUID.fromString(config.getString("winnerPlayerUUID")));
+        if (config.contains("winnerPartyUUID"))
+            election.setWinnerPartyUUID(UUID.fromString(config.getString("winnerPartyUUID")));
+
+        if (config.isConfigurationSection("partySeatDistribution")) {
+            Map<UUID, Integer> seatDist = new HashMap<>();
+            ConfigurationSection seatSection = config.getConfigurationSection("partySeatDistribution");
+            for (String partyUuidStr : seatSection.getKeys(false)) {
+                try {
+                    seatDist.put(UUID.fromString(partyUuidStr), seatSection.getInt(partyUuidStr));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("[ElectionManager] Skipping invalid party UUID in seat distribution for " + documentId);
+                }
+            }
+            election.setPartySeatDistribution(seatDist); // Election的setter会处理clear和putAll
+        }
+        if (type == ElectionType.PARLIAMENTARY) { if (config.isList("participatingParties")) { config.getStringList("participatingParties").forEach(partyUuidStr -> { try { election.getParticipatingPartiesInternal().add(UUID.fromString(partyUuidStr));  } catch (IllegalArgumentException e) { /* log */ } }); } if (config.isConfigurationSection("partyVotesCount")) { ConfigurationSection partyVotesSection = config.getConfigurationSection("partyVotesCount"); for (String partyUuidStr : partyVotesSection.getKeys(false)) { try { UUID partyUUID = UUID.fromString(partyUuidStr); int votes = partyVotesSection.getInt(partyUuidStr); LongAdder tally = new LongAdder(); tally.add(votes); election.getPartyVotesCountInternal().put(partyUUID, tally);} catch (IllegalArgumentException e) { /* log */ } } } }
+        return election;
+    }
+
+    /**
+     * 保存指定选举的当前状态。
+     * 调用线程 (主线程) 上只复制候选人等小型字段，投票者集合以写时复制快照的形式取得 (与投票人数无关)，
+     * 投票者的打包、编码和实际写盘都由延迟写入队列在 I/O 线程上完成；
+     * 同一选举在刷新间隔内的多次保存会被合并为一次写入。
+     * 每次保存都会切换投票日志段，快照落盘后删除已被快照包含的旧日志段。
      *
      * @param election 要保存的选举对象
      */
@@ -1419,7 +1746,60 @@ public class ElectionManager {
             plugin.getLogger().warning("[ElectionManager] Attempted to save a null election state.");
             return;
         }
-        File electionFile = new File(activeElectionsDataFolder, election.getElectionId().toString() + ELECTION_FILE_EXTENSION);
+        final UUID electionId = election.getElectionId();
+        final ElectionStatus status = election.getStatus();
+        final long version = election.getVersion(); // 快照对应的版本；之后的修改会让选举保持为脏
+        final Election.VoteCounts voteCounts = election.captureVoteCounts(); // 同理，之后的投票会让选举保持为脏
+        final YamlConfiguration snapshot = buildElectionSnapshot(election);
+        final CompactUuidSet.Snapshot voters = election.getVotersInternal().snapshot(); // 与上面的计票在同一时刻取得
+        final int journalSegment = voteJournal.roll(electionId); // 此后的投票写入新段
+        snapshot.set("journalSegment", journalSegment);
+        saveQueue.submit(electionId.toString(), () -> {
+            setPackedVoters(snapshot, voters);
+            if (writeElectionSnapshot(snapshot, electionId, status)) {
+                election.markSaved(version, voteCounts);
+                voteJournal.deleteSegmentsBefore(electionId, journalSegment); // 旧段已包含在快照中
+            }
+        });
+    }
+
+    private boolean writeElectionSnapshot(YamlConfiguration snapshot, UUID electionId, ElectionStatus status) {
+        try {
+            storage.save(StorageCategory.ELECTIONS_ACTIVE, electionId.toString(), snapshot);
+            plugin.getLogger().finer("Saved election state for ID: " + electionId + ", Status: " + status);
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save election state for ID: " + electionId, e);
+            return false;
+        }
+    }
+
+    /**
+     * 将一张选票追加到投票日志。每累计 journal_snapshot_interval 条记录 (或日志写入失败时) 写一次完整快照。
+     */
+    private void journalVote(Election election, byte kind, UUID voterId, UUID targetId) {
+        snapshotIfJournalFull(election, voteJournal.append(election.getElectionId(), kind, voterId, targetId));
+    }
+
+    /**
+     * 将一张排序选票追加到投票日志，快照规则与 {@link #journalVote(Election, byte, UUID, UUID)} 相同。
+     */
+    private void journalRankedVote(Election election, UUID voterId, List<UUID> ranking) {
+        snapshotIfJournalFull(election, voteJournal.appendRanked(election.getElectionId(), voterId, ranking));
+    }
+
+    private void snapshotIfJournalFull(Election election, int records) {
+        if (records < 0 || records >= plugin.getConfig().getInt("elections.persistence.journal_snapshot_interval", 500)) {
+            saveElectionState(election);
+        }
+    }
+
+    /**
+     * 将选举的当前状态复制为一个独立的 YamlConfiguration 快照。
+     * 快照只包含字符串和数值，之后不再引用 Election 对象，可以安全地交给 I/O 线程序列化。
+     * 投票者集合不在这里复制，由调用方另取 {@link CompactUuidSet#snapshot()} 并在 I/O 线程上用 {@link #setPackedVoters} 写入。
+     */
+    private YamlConfiguration buildElectionSnapshot(Election election) {
         YamlConfiguration config = new YamlConfiguration();
 
         config.set("electionId", election.getElectionId().toString());
@@ -1430,6 +1810,9 @@ public class ElectionManager {
         config.set("startTime", election.getStartTime());
         config.set("endTime", election.getEndTime());
         config.set("registrationEndTime", election.getRegistrationEndTime());
+        if (election.getBallotMode() != BallotMode.PLURALITY) {
+            config.set("ballotMode", election.getBallotMode().name());
+        }
 
         if (!election.getCandidates().isEmpty()) {
             for (Candidate candidate : election.getCandidates()) {
@@ -1447,9 +1830,15 @@ public class ElectionManager {
             }
         }
 
-        // 直接获取 voters set 来保存，因为 Election.getVoters() 返回的是副本
-        if (!election.getVotersInternal().isEmpty()) { // 需要 Election.getVotersInternal()
-            config.set("voters", election.getVotersInternal().stream().map(UUID::toString).collect(Collectors.toList()));
+        // 排序选票按排序合并保存：每组一个排序和张数
+        if (!election.getRankedBallotsInternal().isEmpty()) {
+            ConfigurationSection rankedSection = config.createSection("rankedBallots");
+            int groupIndex = 0;
+            for (Map.Entry<List<UUID>, LongAdder> group : election.getRankedBallotsInternal().entrySet()) {
+                String groupKey = "g" + groupIndex++;
+                rankedSection.set(groupKey + ".ranking", group.getKey().stream().map(UUID::toString).collect(Collectors.toList()));
+                rankedSection.set(groupKey + ".count", group.getValue().sum());
+            }
         }
 
         if (election.getType() == ElectionType.PARLIAMENTARY) {
@@ -1458,7 +1847,7 @@ public class ElectionManager {
                 config.set("participatingParties", election.getParticipatingPartiesInternal().stream().map(UUID::toString).collect(Collectors.toList()));
             } if (election.getPartyVotesCountInternal() != null && !election.getPartyVotesCountInternal().isEmpty()) {
                 // 使用 internal getter
-                ConfigurationSection partyVotesSection = config.createSection("partyVotesCount"); election.getPartyVotesCountInternal().forEach((partyUUID, count) -> partyVotesSection.set(partyUUID.toString(), count.get()));
+                ConfigurationSection partyVotesSection = config.createSection("partyVotesCount"); election.getPartyVotesCountInternal().forEach((partyUUID, count) -> partyVotesSection.set(partyUUID.toString(), count.intValue()));
             }
         }
 
@@ -1475,13 +1864,16 @@ public class ElectionManager {
             election.getPartySeatDistributionInternal().forEach((partyUUID, seats) ->
                     config.set("partySeatDistribution." + partyUUID.toString(), seats));
         }
+        return config;
+    }
 
-
-        try {
-            config.save(electionFile);
-            plugin.getLogger().finer("Saved election state for ID: " + election.getElectionId() + ", Status: " + election.getStatus());
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not save election state for ID: " + election.getElectionId(), e);
+    /**
+     * 把投票者快照以紧凑二进制块 (每人 16 字节) 的 Base64 写入选举快照，而不是逐个 UUID 字符串。
+     * 打包和编码与投票人数成正比，应在 I/O 线程上调用。
+     */
+    private static void setPackedVoters(YamlConfiguration config, CompactUuidSet.Snapshot voters) {
+        if (!voters.isEmpty()) {
+            config.set("voters_packed", Base64.getEncoder().encodeToString(voters.toBytes()));
         }
     }
 
@@ -1497,30 +1889,33 @@ public class ElectionManager {
             return;
         }
         plugin.getLogger().info("Archiving " + election.getType() + " (ID: " + election.getElectionId() + ") for " + getContextName(election.getContextId(), election.getType()));
-        // 确保最后状态已保存到活跃文件夹
-        saveElectionState(election);
-        // 从活跃文件夹移动到归档文件夹
-        File activeFile = new File(activeElectionsDataFolder, election.getElectionId().toString() + ELECTION_FILE_EXTENSION);
-        if (activeFile.exists()) {
-            // 文件名可以加上时间戳或类型以更好地区分归档文件
-            String archiveFileName = election.getElectionId().toString() + "_" + election.getType().name().toLowerCase() + "_" + election.getStatus().name().toLowerCase() + "_" + System.currentTimeMillis() + ELECTION_FILE_EXTENSION;
-            archiveElectionFile(activeFile, archiveFileName);
-        } else {
-            plugin.getLogger().warning("archiveElection: Active file for election " + election.getElectionId() + " not found. Cannot archive.");
-        }
+        // 最终状态的写入和文件移动作为同一个任务放入写入队列，保证移动发生在最后一次写入之后
+        final UUID electionId = election.getElectionId();
+        final ElectionStatus status = election.getStatus();
+        final YamlConfiguration snapshot = buildElectionSnapshot(election);
+        final CompactUuidSet.Snapshot voters = election.getVotersInternal().snapshot();
+        // 文件名可以加上时间戳或类型以更好地区分归档文件
+        final String archiveId = electionId.toString() + "_" + election.getType().name().toLowerCase() + "_" + status.name().toLowerCase() + "_" + System.currentTimeMillis();
+        final ElectionArchive.Entry archiveEntry = ElectionArchive.Entry.of(election, archiveId);
+        voteJournal.release(electionId);
+        saveQueue.submit(electionId.toString(), () -> {
+            setPackedVoters(snapshot, voters);
+            if (writeElectionSnapshot(snapshot, electionId, status)) {
+                archiveElectionDocument(electionId.toString(), archiveId, archiveEntry);
+            } else {
+                plugin.getLogger().warning("archiveElection: Final state for election " + electionId + " could not be saved. Cannot archive.");
+            }
+            voteJournal.deleteAll(electionId); // 最终快照已包含全部选票
+        });
     }
 
-    private void archiveElectionFile(File electionFileToMove, String archiveFileName) {
-        if (electionFileToMove == null || !electionFileToMove.exists()) return;
-        File targetArchiveFile = new File(archivedElectionsDataFolder, archiveFileName);
+    private void archiveElectionDocument(String activeId, String archiveId, ElectionArchive.Entry archiveEntry) {
         try {
-            Files.move(electionFileToMove.toPath(), targetArchiveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            plugin.getLogger().info("Archived election file: " + electionFileToMove.getName() + " to " + targetArchiveFile.getName());
+            storage.move(StorageCategory.ELECTIONS_ACTIVE, activeId, StorageCategory.ELECTIONS_ARCHIVED, archiveId);
+            archive.add(archiveEntry); // 移动成功后才记入归档索引
+            plugin.getLogger().info("Archived election data: " + activeId + " to " + archiveId);
         } catch (IOException e) {
-            plugin.getLogger().log(Level.WARNING, "Could not archive election file: " + electionFileToMove.getName() + ". It might be reloaded as active if not manually removed.", e);
-            // 如果移动失败，可以考虑重命名以防止被重新加载为活跃，或者记录更严重的错误
-            // boolean renamed = electionFileToMove.renameTo(new File(electionFileToMove.getParentFile(), electionFileToMove.getName() + ".archival_failed"));
-            // if (!renamed) plugin.getLogger().severe("FAILED TO EVEN RENAME UNARCHIVED FILE: " + electionFileToMove.getName());
+            plugin.getLogger().log(Level.WARNING, "Could not archive election data: " + activeId + ". It might be reloaded as active if not manually removed.", e);
         }
     }
 
@@ -1539,69 +1934,49 @@ public class ElectionManager {
         if (election.getStatus() == ElectionStatus.REGISTRATION) {
             if (currentTime < election.getRegistrationEndTime()) {
                 long delayTicks = (election.getRegistrationEndTime() - currentTime) / 50L;
-                BukkitTask phaseTask = new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        scheduledPhaseTasks.remove(election.getElectionId());
-                        advanceElectionToVoting(election.getElectionId());
-                    }
-                }.runTaskLater(plugin, Math.max(1, delayTicks));
-                scheduledPhaseTasks.put(election.getElectionId().toString(), phaseTask);
+                schedulePhaseTask(election.getElectionId().toString(), election.getRegistrationEndTime(),
+                        () -> advanceElectionToVoting(election.getElectionId()));
                 plugin.getLogger().info("Rescheduled task to advance election " + election.getElectionId() + " to VOTING stage in " + delayTicks + " ticks.");
-            } else { // 登记时间已过，立即尝试推进
-                plugin.getLogger().info("Registration time for loaded election " + election.getElectionId() + " has passed. Advancing to voting now.");
-                advanceElectionToVoting(election.getElectionId());
+            } else { // 登记时间已过，尽快推进 (受每分钟上限约束，重启后大量过期的选举不会在同一刻一起进入投票)
+                long advanceAt = schedulePhaseTask(election.getElectionId().toString(), currentTime,
+                        () -> advanceElectionToVoting(election.getElectionId()));
+                plugin.getLogger().info("Registration time for loaded election " + election.getElectionId() + " has passed. Advancing to voting in " + Math.max(0L, advanceAt - currentTime) / 1000L + " seconds.");
             }
         } else if (election.getStatus() == ElectionStatus.VOTING) {
             if (currentTime < election.getEndTime()) {
                 long delayTicks = (election.getEndTime() - currentTime) / 50L;
-                BukkitTask phaseTask = new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        scheduledPhaseTasks.remove(election.getElectionId());
-                        finishElection(election.getElectionId());
-                    }
-                }.runTaskLater(plugin, Math.max(1, delayTicks));
-                scheduledPhaseTasks.put(election.getElectionId().toString(), phaseTask);
+                scheduleFinishTask(election.getElectionId(), election.getEndTime());
                 plugin.getLogger().info("Rescheduled task to FINISH election " + election.getElectionId() + " in " + delayTicks + " ticks.");
             } else { // 投票时间已过，立即尝试结束
                 plugin.getLogger().info("Voting time for loaded election " + election.getElectionId() + " has passed. Finishing now.");
                 finishElection(election.getElectionId());
             }
+        } else if (election.getStatus() == ElectionStatus.COUNTING) { // 上次运行在计票中途停止 (例如崩溃)，重新结束
+            plugin.getLogger().info("Loaded election " + election.getElectionId() + " was interrupted while COUNTING. Finishing again now.");
+            election.setStatus(ElectionStatus.VOTING);
+            finishElection(election.getElectionId());
         } else if (election.getStatus() == ElectionStatus.AWAITING_TIE_RESOLUTION) {
             plugin.getLogger().info("Loaded election " + election.getElectionId() + " is AWAITING_TIE_RESOLUTION. No phase task resumed, requires admin action.");
         } else if (election.getStatus() == ElectionStatus.PENDING_START) {
             if (currentTime < election.getStartTime()) {
                 long delayTicks = (election.getStartTime() - currentTime) / 50L;
-                BukkitTask phaseTask = new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        scheduledPhaseTasks.remove(election.getElectionId());
-                        // 当到达开始时间，通常是进入登记阶段
-                        Election current = electionsById.get(election.getElectionId());
-                        if (current != null && current.getStatus() == ElectionStatus.PENDING_START) {
-                            current.setStatus(ElectionStatus.REGISTRATION);
-                            saveElectionState(current);
-                            // 通知等逻辑（如果需要）
-                            plugin.getLogger().info("Election " + current.getElectionId() + " has now started (REGISTRATION).");
-                            // 安排下一个阶段任务
-                            long regDurationTicks = (current.getRegistrationEndTime() - System.currentTimeMillis()) / 50L;
-                            if (regDurationTicks > 0) {
-                                BukkitTask regEndTask = new BukkitRunnable() {
-                                    @Override
-                                    public void run() {
-                                        scheduledPhaseTasks.remove(current.getElectionId());
-                                        advanceElectionToVoting(current.getElectionId());
-                                    }
-                                }.runTaskLater(plugin, regDurationTicks);
-                                scheduledPhaseTasks.put(current.getElectionId().toString(), regEndTask);
-                            } else {
-                                advanceElectionToVoting(current.getElectionId()); // 登记时间也过了
-                            }
+                schedulePhaseTask(election.getElectionId().toString(), election.getStartTime(), () -> {
+                    // 当到达开始时间，通常是进入登记阶段
+                    Election current = electionsById.get(election.getElectionId());
+                    if (current != null && current.getStatus() == ElectionStatus.PENDING_START) {
+                        current.setStatus(ElectionStatus.REGISTRATION);
+                        saveElectionState(current);
+                        // 通知等逻辑（如果需要）
+                        plugin.getLogger().info("Election " + current.getElectionId() + " has now started (REGISTRATION).");
+                        // 安排下一个阶段任务
+                        if (current.getRegistrationEndTime() > System.currentTimeMillis()) {
+                            schedulePhaseTask(current.getElectionId().toString(), current.getRegistrationEndTime(),
+                                    () -> advanceElectionToVoting(current.getElectionId()));
+                        } else {
+                            advanceElectionToVoting(current.getElectionId()); // 登记时间也过了
                         }
                     }
-                }.runTaskLater(plugin, Math.max(1, delayTicks));
-                scheduledPhaseTasks.put(election.getElectionId().toString(), phaseTask);
+                });
                 plugin.getLogger().info("Rescheduled task for PENDING_START election " + election.getElectionId() + " to begin registration in " + delayTicks + " ticks.");
             } else { // 开始时间已过
                 plugin.getLogger().info("Start time for PENDING_START election " + election.getElectionId() + " has passed. Setting to REGISTRATION and advancing.");
@@ -1612,25 +1987,6 @@ public class ElectionManager {
         }
     }
 
-    private void moveCorruptedFile(File file, String prefix) {
-        if (file == null || !file.exists()) return;
-        File corruptedFolder = new File(activeElectionsDataFolder.getParentFile(), "corrupted_data"); // 在 elections/corrupted_data
-        if (!corruptedFolder.exists()) {
-            if (!corruptedFolder.mkdirs()) {
-                plugin.getLogger().severe("Could not create corrupted_data folder for elections!");
-                return;
-            }
-        }
-        File newFile = new File(corruptedFolder, prefix + file.getName() + "_" + System.currentTimeMillis() + ".yml_CORRUPTED");
-        try {
-            Files.move(file.toPath(), newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            plugin.getLogger().warning("Moved corrupted election file " + file.getName() + " to " + newFile.getPath());
-        } catch (IOException ex) {
-            plugin.getLogger().log(Level.SEVERE, "Could not move corrupted election file " + file.getName() + " after load failure.", ex);
-        }
-    }
-
-
     // --- Event Handlers (called by other managers or listeners) ---
 
     /**
@@ -1696,24 +2052,25 @@ public class ElectionManager {
         cancelScheduledCycleTask(nationUUID.toString() + "_" + ElectionType.PRESIDENTIAL.name());
 
         // 2. 取消并移除所有与该国相关的活跃选举
-        List<Election> electionsToRemove = electionsById.values().stream()
-                .filter(e -> e.getContextId().equals(nationUUID) &&
-                        (e.getType() == ElectionType.PARLIAMENTARY || e.getType() == ElectionType.PRESIDENTIAL))
+        List<Election> electionsToRemove = electionIndex.getByContext(nationUUID).stream()
+                .filter(e -> e.getType() == ElectionType.PARLIAMENTARY || e.getType() == ElectionType.PRESIDENTIAL)
                 .collect(Collectors.toList());
 
         for (Election election : electionsToRemove) {
             plugin.getLogger().info("Cancelling and removing election " + election.getElectionId() + " (Type: " + election.getType() + ") due to nation deletion.");
             cancelScheduledPhaseTask(election.getElectionId().toString()); // 取消阶段任务
             cancelScheduledPhaseTask(election.getElectionId() + "_archive"); // 取消归档任务
-            electionsById.remove(election.getElectionId()); // 从内存移除
-            // 删除对应的活跃选举文件
-            File electionFile = new File(activeElectionsDataFolder, election.getElectionId().toString() + ELECTION_FILE_EXTENSION);
-            if (electionFile.exists()) {
-                if (!electionFile.delete()) {
-                    plugin.getLogger().warning("Could not delete active election data file: " + electionFile.getName() + " for deleted nation.");
+            unregisterElection(election); // 从内存移除
+            // 删除对应的活跃选举文件 (经由写入队列，以免尚未写出的快照在删除后又把文件写回来)
+            voteJournal.release(election.getElectionId());
+            saveQueue.submit(election.getElectionId().toString(), () -> {
+                if (!storage.delete(StorageCategory.ELECTIONS_ACTIVE, election.getElectionId().toString())) {
+                    plugin.getLogger().warning("Could not delete active election data " + election.getElectionId() + " for deleted nation.");
                 }
-            }
+                voteJournal.deleteAll(election.getElectionId());
+            });
         }
+        deleteLatestResults(electionIndex.forgetContext(nationUUID)); // 国家已不存在，不再保留其最近选举结果
     }
 
     /**
@@ -1733,8 +2090,8 @@ public class ElectionManager {
         // 2. 处理与该党相关的活跃选举 (通常是党魁选举，或者作为候选人党派的选举)
         List<Election> electionsToModify = new ArrayList<>();
         // 查找该党作为上下文的选举（党魁选举）
-        electionsById.values().stream()
-                .filter(e -> e.getContextId().equals(partyId) && e.getType() == ElectionType.PARTY_LEADER)
+        electionIndex.getByContext(partyId).stream()
+                .filter(e -> e.getType() == ElectionType.PARTY_LEADER)
                 .forEach(electionsToModify::add);
 
         for (Election election : electionsToModify) {
@@ -1742,8 +2099,8 @@ public class ElectionManager {
             cancelElection(election, "政党已解散"); // cancelElection 会处理移除和归档
         }
 
-        // 从所有其他类型的活跃选举中移除该党的候选人
-        for (Election election : electionsById.values()) { // 遍历所有活跃选举
+        // 从该党参与的其他活跃选举中移除该党的候选人
+        for (Election election : electionIndex.getByParty(partyId)) { // 只遍历该党参与的选举
             boolean changed = false;
             List<UUID> candidatesToRemove = new ArrayList<>();
             for (Candidate candidate : election.getCandidates()) {
@@ -1771,29 +2128,48 @@ public class ElectionManager {
                 }
             }
         }
+        deleteLatestResults(electionIndex.forgetContext(partyId)); // 政党已不存在，丢弃其党魁选举结果和参与记录
     }
 
     /**
      * 插件关闭时调用，用于保存数据和清理任务。
      */
     public void shutdown() {
-        for (String taskKey : new HashSet<>(scheduledPhaseTasks.keySet())) { // Key 是 String
-            cancelScheduledPhaseTask(taskKey); // 现在接受 String key
+        // 阶段和周期截止时间保留在 DeadlineScheduler 中，由它在关闭时保存，重新加载/重启后按保存的时间重新登记
+
+        // 结束流水线中已计完票的选举立即应用；仍在计票的恢复为投票状态，重启后 (已过截止时间) 重新结束
+        List<Election> unfinished = finishPipeline.shutdown();
+        for (Election election : unfinished) {
+            if (election.getStatus() == ElectionStatus.COUNTING) {
+                election.setStatus(ElectionStatus.VOTING);
+            }
+        }
+        if (!unfinished.isEmpty()) {
+            plugin.getLogger().info("[ElectionManager] " + unfinished.size() + " elections were still being counted; they will be finished after restart.");
         }
-        scheduledPhaseTasks.clear();
 
-        // 3. 保存所有当前活跃的选举状态
-        plugin.getLogger().info("[ElectionManager] Saving all active election states (" + electionsById.size() + ")...");
+        // 3. 保存自上次快照以来有变化的活跃选举
+        int changed = 0;
         for (Election election : electionsById.values()) {
-            saveElectionState(election);
+            if (election.isDirty()) {
+                saveElectionState(election);
+                changed++;
+            }
         }
+        plugin.getLogger().info("[ElectionManager] Saving " + changed + " changed active election states (of " + electionsById.size() + ")...");
+        // 阻塞直到写入队列中的所有快照都已落盘
+        plugin.getLogger().info("[ElectionManager] Flushing " + saveQueue.getPendingCount() + " pending election writes...");
+        saveQueue.shutdown();
+        voteJournal.closeAll();
         plugin.getLogger().info("[ElectionManager] ElectionManager shutdown complete.");
     }
 
     /**
      * 获取特定上下文（如国家或政党）特定类型的最新一次已完成的选举。
-     * 首先检查内存中当前标记为 FINISHED 的选举（可能在结果公示期）。
-     * TODO: 未来可以扩展为查询已归档的选举数据文件。
+     * 按最近结果记录的选举ID查找：结果公示期内的选举直接取内存中的对象，已归档的只查归档的 LRU 缓存。
+     * 不读取任何文件，可在主线程调用；缓存未命中时为空，此时应使用
+     * {@link #loadLatestFinishedElection(UUID, ElectionType, Consumer)} 在异步线程上加载。
+     * 只需要席位分配或获胜者时应使用 {@link #getLatestResult(UUID, ElectionType)}。
      *
      * @param contextUUID 上下文ID (如 Nation UUID 或 Party UUID)
      * @param type        选举类型
@@ -1804,20 +2180,88 @@ public class ElectionManager {
             return Optional.empty();
         }
 
-        // 从当前内存中的 electionsById 查找符合条件的已完成选举
-        // 这些选举可能还未被完全归档（例如在结果公示期）
-        return electionsById.values().stream()
-                .filter(e -> e.getContextId().equals(contextUUID) &&
-                        e.getType() == type &&
-                        e.getStatus() == ElectionStatus.FINISHED)
-                .max(Comparator.comparingLong(Election::getEndTime)); // 按结束时间取最新的
+        ElectionResult result = electionIndex.getLatestResult(contextUUID, type);
+        if (result == null) {
+            return Optional.empty();
+        }
+        Election inMemory = electionsById.get(result.getElectionId());
+        return inMemory != null ? Optional.of(inMemory) : archive.getCached(result.getElectionId());
+    }
 
+    /**
+     * 与 {@link #getLatestFinishedElection(UUID, ElectionType)} 相同，但缓存未命中时在异步线程上读取归档文件，
+     * 读完后在全局线程上回调。内存或缓存中已有时直接在当前线程回调。
+     *
+     * @param callback 接收结果；找不到或归档文件无法读取时为空
+     */
+    public void loadLatestFinishedElection(UUID contextUUID, ElectionType type, Consumer<Optional<Election>> callback) {
+        Optional<Election> available = getLatestFinishedElection(contextUUID, type);
+        ElectionResult result = contextUUID == null || type == null ? null : electionIndex.getLatestResult(contextUUID, type);
+        if (available.isPresent() || result == null) {
+            callback.accept(available);
+            return;
+        }
+        final UUID electionId = result.getElectionId();
+        plugin.getTaskScheduler().runAsync(() -> {
+            Optional<Election> loaded = archive.load(electionId);
+            plugin.getTaskScheduler().runGlobal(() -> callback.accept(loaded));
+        });
+    }
+
+    /**
+     * 分页查询某个上下文的已归档选举，按结束时间从新到旧。只读取内存中的归档索引。
+     *
+     * @param contextUUID 上下文ID (如 Nation UUID 或 Party UUID)
+     * @param type        选举类型；为 null 表示全部类型
+     * @param offset      跳过的条数
+     * @param limit       最多返回的条数
+     * @return 归档索引记录 (获胜者、结束时间等摘要)；需要完整数据时用 {@link #loadArchivedElection(UUID)}
+     */
+    public List<ElectionArchive.Entry> getElectionHistory(UUID contextUUID, ElectionType type, int offset, int limit) {
+        if (contextUUID == null) {
+            return Collections.emptyList();
+        }
+        return archive.query(contextUUID, type, offset, limit);
+    }
 
-        // 需要在 Election.java 中添加以下方法来允许 ElectionManager 修改内部集合（或提供更细致的API）
-        // public Set<UUID> getVotersInternal() { return this.voters; }
-        // public Map<UUID, Integer> getPartySeatDistributionInternal() { return this.partySeatDistribution; }
-        // 这样做是为了在 loadActiveElections 时可以直接填充集合，而不是通过 addVoter/setPartySeatDistribution
-        // 这稍微破坏了 Election 的封装，但简化了加载逻辑。或者，Election 提供批量添加方法。
+    /**
+     * @param type 选举类型；为 null 表示全部类型
+     * @return 该上下文已归档的选举数量
+     */
+    public int countElectionHistory(UUID contextUUID, ElectionType type) {
+        if (contextUUID == null) {
+            return 0;
+        }
+        return archive.count(contextUUID, type);
+    }
+
+    /**
+     * 加载一个已归档选举的完整数据 (候选人、票数、席位分配)。
+     * 缓存未命中时会同步读取归档文件，不宜在循环中对大量选举调用。
+     *
+     * @param electionId 选举ID
+     * @return 选举对象；不在归档索引中或文件无法读取时为空
+     */
+    public Optional<Election> loadArchivedElection(UUID electionId) {
+        if (electionId == null) {
+            return Optional.empty();
+        }
+        return archive.load(electionId);
+    }
+
+    /**
+     * 获取特定上下文特定类型最近一次已完成选举的结果记录 (席位分配、获胜者、结束时间)。
+     * 记录在选举完成时持久化，选举归档或服务器重启后仍可查到，直到对应的国家/政党被删除。
+     *
+     * @param contextUUID 上下文ID (如 Nation UUID 或 Party UUID)
+     * @param type        选举类型
+     * @return 结果记录 Optional，如果该上下文从未完成过此类选举则为空
+     */
+    public Optional<ElectionResult> getLatestResult(UUID contextUUID, ElectionType type) {
+        if (contextUUID == null || type == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(electionIndex.getLatestResult(contextUUID, type));
     }
 
     // --- 候选人与投票逻辑 ---
@@ -1886,6 +2330,7 @@ public class ElectionManager {
         }
 
         if (election.addCandidate(candidate)) {
+            electionIndex.addParty(election, partyUUID);
             saveElectionState(election); // 保存选举状态的变更
             messageManager.sendMessage(player, "election-candidate-register-success",
                     "election_type", election.getType().getDisplayName(),
@@ -1924,6 +2369,7 @@ public class ElectionManager {
         // 可以在此添加其他资格检查，例如政党是否活跃，是否有足够成员等。
 
         if (election.addParticipatingParty(party.getPartyId())) {
+            electionIndex.addParty(election, party.getPartyId());
             saveElectionState(election);
             messageManager.sendMessage(initiator, "election-parliament-register-success", "party_name", party.getName(), "nation_name", nation.getName()); // 新消息
             plugin.getLogger().info("Party " + party.getName() + " registered for parliamentary election in " + nation.getName() + " (Election ID: " + election.getElectionId() + ")");
@@ -1935,7 +2381,7 @@ public class ElectionManager {
     }
 
     /**
-     * 玩家为指定选举中的候选人投票。
+     * 玩家为指定选举中的候选人投票。只适用于相对多数制选举，排序复选制选举应使用 {@link #castRankedVote}。
      * @param voter 投票的玩家
      * @param election 目标选举
      * @param candidateToVoteFor 玩家选择投票的候选人
@@ -1952,6 +2398,11 @@ public class ElectionManager {
             messageManager.sendMessage(voter, "election-vote-fail-closed");
             return false;
         }
+        // 排序复选制只按排序选票计票，单选票会被忽略
+        if (election.getBallotMode() != BallotMode.PLURALITY) {
+            messageManager.sendMessage(voter, "election-vote-fail-ranking-required");
+            return false;
+        }
 
         // 2. 检查玩家投票资格
         if (!isPlayerEligibleToVote(voter, election)) {
@@ -1960,7 +2411,7 @@ public class ElectionManager {
         }
 
         // 3. 检查玩家是否已经投过票
-        if (election.getVoters().contains(voter.getUniqueId())) { // Election.getVoters() 返回的是副本，所以这里用 contains 没问题
+        if (election.hasVoted(voter.getUniqueId())) {
             messageManager.sendMessage(voter, "election-vote-fail-already-voted");
             return false;
         }
@@ -1973,7 +2424,7 @@ public class ElectionManager {
 
         // 5. 记录投票
         if (election.recordVote(voter.getUniqueId(), candidateToVoteFor.getPlayerUUID())) {
-            saveElectionState(election); // 实时保存投票进度（如果票数很多，可以考虑批量或定时保存以优化性能）
+            journalVote(election, VoteJournal.KIND_CANDIDATE, voter.getUniqueId(), candidateToVoteFor.getPlayerUUID()); // 追加日志，O(1) 写盘
             messageManager.sendMessage(voter, "election-vote-success", "candidate_name", candidateToVoteFor.getResolvedPlayerName());
             plugin.getLogger().finer("Player " + voter.getName() + " voted for " + candidateToVoteFor.getResolvedPlayerName() + " in election " + election.getElectionId());
             return true;
@@ -1984,6 +2435,56 @@ public class ElectionManager {
         }
     }
 
+    /**
+     * 玩家在排序复选制选举中提交排序选票。
+     * 排序选票与普通选票一样追加到投票日志 (变长记录)，每次投票的写盘开销与投票总数无关。
+     *
+     * @param voter 投票的玩家
+     * @param election 目标选举 (投票方式必须为 RANKED)
+     * @param ranking 按偏好排列的候选人，第一偏好在前
+     * @return 如果投票成功记录返回 true，否则返回 false (并通过 MessageManager 发送失败原因)。
+     */
+    public boolean castRankedVote(Player voter, Election election, List<Candidate> ranking) {
+        if (voter == null || election == null || ranking == null || ranking.isEmpty()) {
+            plugin.getLogger().warning("[ElectionManager] castRankedVote called with null or empty parameters.");
+            return false;
+        }
+        if (election.getStatus() != ElectionStatus.VOTING) {
+            messageManager.sendMessage(voter, "election-vote-fail-closed");
+            return false;
+        }
+        if (!isPlayerEligibleToVote(voter, election)) {
+            return false;
+        }
+        if (election.hasVoted(voter.getUniqueId())) {
+            messageManager.sendMessage(voter, "election-vote-fail-already-voted");
+            return false;
+        }
+        List<UUID> rankingIds = new ArrayList<>(ranking.size());
+        for (Candidate candidate : ranking) {
+            if (!election.getCandidate(candidate.getPlayerUUID()).isPresent()) {
+                messageManager.sendMessage(voter, "election-vote-fail-invalid-candidate", "candidate_name", candidate.getResolvedPlayerName());
+                return false;
+            }
+            if (rankingIds.contains(candidate.getPlayerUUID())) {
+                messageManager.sendMessage(voter, "election-vote-fail-ranking-duplicate", "candidate_name", candidate.getResolvedPlayerName());
+                return false;
+            }
+            rankingIds.add(candidate.getPlayerUUID());
+        }
+
+        if (election.recordRankedVote(voter.getUniqueId(), rankingIds)) {
+            journalRankedVote(election, voter.getUniqueId(), rankingIds); // 追加日志，开销只与排序长度有关
+            String rankingText = ranking.stream().map(Candidate::getResolvedPlayerName).collect(Collectors.joining(" > "));
+            messageManager.sendMessage(voter, "election-vote-success-ranked", "ranking", rankingText);
+            plugin.getLogger().finer("Player " + voter.getName() + " submitted ranked ballot [" + rankingText + "] in election " + election.getElectionId());
+            return true;
+        } else {
+            messageManager.sendMessage(voter, "error-generic-party-action", "details", "投票失败，未知原因。");
+            return false;
+        }
+    }
+
     // --- (isPlayerEligibleToRun 和 isPlayerEligibleToVote 方法保持之前的实现) ---
     private boolean isPlayerEligibleToRun(Player player, Election election) {
         // ... (确保这里有对政党成员、国家公民等条件的检查，并发送对应消息)
@@ -1994,8 +2495,7 @@ public class ElectionManager {
                 messageManager.sendMessage(player, "election-candidate-register-fail-nation-nonexistent"); // 需要新消息键
                 return false;
             }
-            Resident resident = TownyAPI.getInstance().getResident(player.getUniqueId());
-            if (resident == null || !resident.hasNation() || !resident.getNationOrNull().equals(nation)) {
+            if (!nationManager.getCitizenshipIndex().isCitizenOf(player.getUniqueId(), nation.getUUID())) {
                 messageManager.sendMessage(player, "election-candidate-register-fail-not-citizen", "nation_name", nation.getName());
                 return false;
             }
@@ -2019,8 +2519,7 @@ public class ElectionManager {
                 messageManager.sendMessage(player, "election-vote-fail-nation-nonexistent"); // 需要新消息键
                 return false;
             }
-            Resident resident = TownyAPI.getInstance().getResident(player.getUniqueId());
-            if (resident == null || !resident.hasNation() || !resident.getNationOrNull().equals(nation)) {
+            if (!nationManager.getCitizenshipIndex().isCitizenOf(player.getUniqueId(), nation.getUUID())) {
                 messageManager.sendMessage(player, "election-vote-fail-not-citizen", "nation_name", nation.getName());
                 return false;
             }
@@ -2034,4 +2533,4 @@ public class ElectionManager {
         // 其他条件，例如是否被禁止投票等。
         return true;
     }
-}
\ No newline at end of file
+}
@@ -13,19 +13,19 @@ import com.palmergames.bukkit.towny.object.economy.Account; // Towny 银行账
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import top.chickenshout.townypolitical.TownyPolitical;
 import top.chickenshout.townypolitical.data.NationPolitics;
+import top.chickenshout.townypolitical.data.Party;
+import top.chickenshout.townypolitical.elections.ElectionResult;
 import top.chickenshout.townypolitical.economy.EconomyService;
 import top.chickenshout.townypolitical.enums.ElectionType;
 import top.chickenshout.townypolitical.enums.GovernmentType;
+import top.chickenshout.townypolitical.persistence.StorageCategory;
+import top.chickenshout.townypolitical.persistence.StorageProvider;
 import top.chickenshout.townypolitical.utils.MessageManager;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
@@ -39,8 +39,11 @@ public class NationManager {
     private final EconomyService economyService;
 
     private final Map<UUID, NationPolitics> nationPoliticsMap;
-    private final File nationsDataFolder;
-    private static final String NATION_POLITICS_FILE_EXTENSION = ".yml";
+    // <NationUUID, 议员UUID集合> 议员名册缓存，首次查询时构建；选举结束、任免议员、政体变更、居民变动等情况下失效
+    private final Map<UUID, Set<UUID>> parliamentRosterCache;
+    // 玩家 → 国家、国家 → 在线公民，由 Towny 事件和玩家上下线维护
+    private final CitizenshipIndex citizenshipIndex;
+    private final StorageProvider storage;
 
     public NationManager(TownyPolitical plugin) {
         this.plugin = plugin;
@@ -48,14 +51,11 @@ public class NationManager {
         this.economyService = plugin.getEconomyService();
 
         this.nationPoliticsMap = new ConcurrentHashMap<>();
+        this.parliamentRosterCache = new ConcurrentHashMap<>();
+        this.citizenshipIndex = new CitizenshipIndex(plugin); // 在 Towny 就绪后由 TownyPolitical 调用 rebuild()
 
-        this.nationsDataFolder = new File(plugin.getDataFolder(), "nations_politics");
-        if (!nationsDataFolder.exists()) {
-            if (!nationsDataFolder.mkdirs()) {
-                plugin.getLogger().severe("Could not create nations_politics data folder!");
-            }
-        }
-        loadNationPoliticsData();
+        this.storage = plugin.getStorageProvider();
+        // 国家政治数据由 TownyPolitical 在启动时并行解析后通过 installNationPoliticsData 安装
     }
 
     public NationPolitics getNationPolitics(UUID nationUUID) {
@@ -136,6 +136,7 @@ public class NationManager {
 
         GovernmentType oldGovType = politics.getGovernmentType();
         politics.setGovernmentType(newGovType);
+        invalidateParliamentRoster(nation.getUUID()); // 政体变更可能清空席位
         politics.clearAllElectionCompletionTimes();
         politics.setPrimeMinisterUUID(null);
         if (newGovType != GovernmentType.CONSTITUTIONAL_MONARCHY) {
@@ -175,27 +176,143 @@ public class NationManager {
         return true;
     }
 
+    // --- 议员名册 ---
+
+    /**
+     * 获取一个国家的议员名册。
+     * 每个拥有席位的政党：如果党魁已任命议员，取前 N 名仍为本党正式成员的议员 (N 为席位数)；否则以党魁作为该党代表。
+     * 名册中只包含仍为该国公民的玩家。结果会被缓存，直到 {@link #invalidateParliamentRoster(UUID)} 被调用。
+     * @param nation 目标国家
+     * @return 议员UUID的不可修改集合 (无法确定议员时为空集合)
+     */
+    public Set<UUID> getParliamentRoster(Nation nation) {
+        if (nation == null) return Collections.emptySet();
+        // 构建和放入是同一个原子操作：同一国家的失效 (remove/clear) 会等待构建完成后再移除，不会留下过期的名册
+        return parliamentRosterCache.computeIfAbsent(nation.getUUID(), k -> buildParliamentRoster(nation));
+    }
+
+    /**
+     * @return 玩家是否是该国议员名册中的一员
+     */
+    public boolean isParliamentMember(Nation nation, UUID playerId) {
+        return playerId != null && getParliamentRoster(nation).contains(playerId);
+    }
+
+    /**
+     * 丢弃一个国家的议员名册缓存，下次查询时重建。
+     */
+    public void invalidateParliamentRoster(UUID nationUUID) {
+        if (nationUUID != null) {
+            parliamentRosterCache.remove(nationUUID);
+        }
+    }
+
+    /**
+     * 丢弃所有国家的议员名册缓存。
+     */
+    public void invalidateAllParliamentRosters() {
+        parliamentRosterCache.clear();
+    }
+
+    /**
+     * 丢弃该政党拥有议席的国家的名册缓存 (政党成员加入、离开、被开除、领袖更换或政党解散时)。
+     * 只检查已缓存的名册，开销与缓存的国家数量成正比。
+     */
+    public void invalidateParliamentRostersForParty(UUID partyId) {
+        if (partyId == null) return;
+        for (UUID nationUUID : parliamentRosterCache.keySet()) {
+            Integer seats = getSeatDistribution(nationUUID).get(partyId);
+            if (seats != null && seats > 0) {
+                parliamentRosterCache.remove(nationUUID);
+            }
+        }
+    }
+
+    /**
+     * 优先使用最近一次议会选举的结果记录 (持久化，归档和重启后仍可用)，其次使用 NationPolitics 中保存的席位。
+     */
+    private Map<UUID, Integer> getSeatDistribution(UUID nationUUID) {
+        Optional<ElectionResult> latestParliamentResult = plugin.getElectionManager().getLatestResult(nationUUID, ElectionType.PARLIAMENTARY);
+        if (latestParliamentResult.isPresent() && !latestParliamentResult.get().getPartySeatDistribution().isEmpty()) {
+            return latestParliamentResult.get().getPartySeatDistribution();
+        }
+        NationPolitics politics = nationPoliticsMap.get(nationUUID);
+        return politics != null ? politics.getParliamentarySeatsWonByPartyInternal() : Collections.emptyMap();
+    }
+
+    private Set<UUID> buildParliamentRoster(Nation nation) {
+        NationPolitics politics = nationPoliticsMap.get(nation.getUUID());
+        Map<UUID, Integer> seatDistribution = getSeatDistribution(nation.getUUID());
+        if (seatDistribution.isEmpty()) {
+            plugin.getLogger().finer("[NationManager] No parliamentary seat distribution found for " + nation.getName() + " to determine MPs.");
+            return Collections.emptySet();
+        }
+
+        PartyManager partyManager = plugin.getPartyManager();
+        Set<UUID> roster = new HashSet<>();
+        for (Map.Entry<UUID, Integer> entry : seatDistribution.entrySet()) {
+            int seats = entry.getValue() == null ? 0 : entry.getValue();
+            if (seats <= 0) continue;
+            Party party = partyManager.getParty(entry.getKey());
+            if (party == null) continue;
+
+            List<UUID> appointed = politics != null
+                    ? politics.getParliamentaryMembersByPartyInternal().getOrDefault(party.getPartyId(), Collections.emptyList())
+                    : Collections.emptyList();
+            if (appointed.isEmpty()) {
+                // 尚未任命议员时，以党魁作为该党在议会的代表
+                party.getLeader().ifPresent(leader -> {
+                    if (isCitizenOf(leader.getPlayerId(), nation)) roster.add(leader.getPlayerId());
+                });
+                continue;
+            }
+            int filled = 0;
+            for (UUID mpId : appointed) {
+                if (filled >= seats) break;
+                if (party.isOfficialMember(mpId) && isCitizenOf(mpId, nation)) { // 确保议员仍是本党成员和该国公民
+                    roster.add(mpId);
+                    filled++;
+                }
+            }
+        }
+        if (roster.isEmpty()) {
+            plugin.getLogger().finer("[NationManager] No specific MPs identified for " + nation.getName() + ". Bill voting might be open to all citizens if fallback is used.");
+        }
+        return Collections.unmodifiableSet(roster);
+    }
+
+    private boolean isCitizenOf(UUID playerId, Nation nation) {
+        return citizenshipIndex.isCitizenOf(playerId, nation.getUUID());
+    }
+
+    public CitizenshipIndex getCitizenshipIndex() {
+        return citizenshipIndex;
+    }
+
     public Collection<NationPolitics> getAllNationPolitics() {
         return Collections.unmodifiableCollection(nationPoliticsMap.values());
     }
 
     public void loadNationPoliticsData() {
-        nationPoliticsMap.clear();
-        if (!nationsDataFolder.exists()) {
-            plugin.getLogger().info("Nations_politics data folder not found. No nation politics data loaded.");
-            return;
-        }
+        installNationPoliticsData(storage.loadAll(StorageCategory.NATION_POLITICS));
+    }
 
-        File[] nationFiles = nationsDataFolder.listFiles((dir, name) -> name.toLowerCase().endsWith(NATION_POLITICS_FILE_EXTENSION));
-        if (nationFiles == null || nationFiles.length == 0) {
-            plugin.getLogger().info("No nation politics data files found.");
+    /**
+     * 用已解析的国家政治文档替换内存中的全部数据。必须在主线程调用。
+     * @param nationDocuments <文档ID, 已解析的文档>
+     */
+    public void installNationPoliticsData(Map<String, YamlConfiguration> nationDocuments) {
+        nationPoliticsMap.clear();
+        parliamentRosterCache.clear();
+        if (nationDocuments.isEmpty()) {
+            plugin.getLogger().info("No nation politics data found.");
             return;
         }
 
-        for (File nationFile : nationFiles) {
-            YamlConfiguration nationConfig = new YamlConfiguration();
+        for (Map.Entry<String, YamlConfiguration> document : nationDocuments.entrySet()) {
+            String documentId = document.getKey();
+            YamlConfiguration nationConfig = document.getValue();
             try {
-                nationConfig.load(nationFile); // Ensure this is used for loading
                 UUID nationUUID = UUID.fromString(nationConfig.getString("nationUUID"));
                 GovernmentType governmentType = GovernmentType.fromString(nationConfig.getString("governmentType", GovernmentType.PARLIAMENTARY_REPUBLIC.name()))
                         .orElse(GovernmentType.PARLIAMENTARY_REPUBLIC);
@@ -211,15 +328,15 @@ public class NationManager {
                                 politics.setLastElectionCompletionTime(electionType, timesSection.getLong(typeStr));
                             }
                         } catch (IllegalArgumentException e) {
-                            plugin.getLogger().warning("Skipping invalid ElectionType '" + typeStr + "' in lastElectionCompletionTimes for nation " + nationUUID + " from file " + nationFile.getName());
+                            plugin.getLogger().warning("Skipping invalid ElectionType '" + typeStr + "' in lastElectionCompletionTimes for nation " + nationUUID + " from data " + documentId);
                         }
                     }
                 }
                 if (nationConfig.contains("titularMonarchUUID") && nationConfig.getString("titularMonarchUUID") != null  && !nationConfig.getString("titularMonarchUUID").isEmpty()) {
-                    try { politics.setTitularMonarchUUID(UUID.fromString(nationConfig.getString("titularMonarchUUID"))); } catch (IllegalArgumentException e) {  plugin.getLogger().warning("Skipping invalid titularMonarchUUID for nation " + nationUUID + " from file " + nationFile.getName());}
+                    try { politics.setTitularMonarchUUID(UUID.fromString(nationConfig.getString("titularMonarchUUID"))); } catch (IllegalArgumentException e) {  plugin.getLogger().warning("Skipping invalid titularMonarchUUID for nation " + nationUUID + " from data " + documentId);}
                 }
                 if (nationConfig.contains("primeMinisterUUID") && nationConfig.getString("primeMinisterUUID") != null && !nationConfig.getString("primeMinisterUUID").isEmpty()) {
-                    try { politics.setPrimeMinisterUUID(UUID.fromString(nationConfig.getString("primeMinisterUUID"))); } catch (IllegalArgumentException e) {  plugin.getLogger().warning("Skipping invalid primeMinisterUUID for nation " + nationUUID + " from file " + nationFile.getName());}
+                    try { politics.setPrimeMinisterUUID(UUID.fromString(nationConfig.getString("primeMinisterUUID"))); } catch (IllegalArgumentException e) {  plugin.getLogger().warning("Skipping invalid primeMinisterUUID for nation " + nationUUID + " from data " + documentId);}
                 }
 
                 if (nationConfig.isConfigurationSection("parliamentarySeatsWon")) { // 旧的席位分配结果
@@ -242,15 +359,16 @@ public class NationManager {
                                     .collect(Collectors.toList());
                             politics.getParliamentaryMembersByPartyInternal().put(partyUUID, mpList); // 直接放入
                         } catch (IllegalArgumentException e) {
-                            plugin.getLogger().warning("Skipping invalid parliamentary member entry for party " + partyUuidStr + " in nation " + nationUUID + " from file " + nationFile.getName());
+                            plugin.getLogger().warning("Skipping invalid parliamentary member entry for party " + partyUuidStr + " in nation " + nationUUID + " from data " + documentId);
                         }
                     }
                 }
 
+                politics.markClean(); // 刚从存储加载，与磁盘一致
                 nationPoliticsMap.put(nationUUID, politics);
-            } catch (IOException | InvalidConfigurationException | IllegalArgumentException e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to load nation politics from file: " + nationFile.getName(), e);
-                moveCorruptedFile(nationFile, "nation_politics_");
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to load nation politics from data: " + documentId, e);
+                storage.quarantine(StorageCategory.NATION_POLITICS, documentId, "nation_politics_");
             }
         }
         plugin.getLogger().info("Loaded politics data for " + nationPoliticsMap.size() + " nations.");
@@ -267,7 +385,16 @@ public class NationManager {
 
     public void saveNationPolitics(NationPolitics politics) {
         if (politics == null) return;
-        File nationFile = new File(nationsDataFolder, politics.getNationUUID().toString() + NATION_POLITICS_FILE_EXTENSION);
+        long version = politics.getVersion();
+        try {
+            storage.save(StorageCategory.NATION_POLITICS, politics.getNationUUID().toString(), serializeNationPolitics(politics));
+            politics.markSaved(version);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save nation politics data for UUID: " + politics.getNationUUID(), e);
+        }
+    }
+
+    private YamlConfiguration serializeNationPolitics(NationPolitics politics) {
         YamlConfiguration nationConfig = new YamlConfiguration();
 
         nationConfig.set("nationUUID", politics.getNationUUID().toString());
@@ -306,34 +433,29 @@ public class NationManager {
         } else {
             nationConfig.set("parliamentaryMembers", null); // 确保移除旧数据
         }
-
-        try {
-            nationConfig.save(nationFile);
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not save nation politics data for UUID: " + politics.getNationUUID(), e);
-        }
-    }
-
-    private void moveCorruptedFile(File file, String prefix) {
-        if (file == null || !file.exists()) return;
-        File corruptedFolder = new File(nationsDataFolder.getParentFile(), "corrupted_data");
-        if (!corruptedFolder.exists()) corruptedFolder.mkdirs();
-        File newFile = new File(corruptedFolder, prefix + file.getName() + "_" + System.currentTimeMillis() + ".yml_disabled");
-        try {
-            Files.move(file.toPath(), newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            plugin.getLogger().warning("Moved corrupted file " + file.getName() + " to " + newFile.getPath());
-        } catch (IOException ex) {
-            plugin.getLogger().log(Level.SEVERE, "Could not move corrupted file " + file.getName(), ex);
-        }
+        return nationConfig;
     }
 
-
+    /**
+     * 保存自上次保存以来有变化的国家政治数据。未修改的国家不会被重写。
+     */
     public void saveAllNationPoliticsData() {
-        plugin.getLogger().info("Saving politics data for all " + nationPoliticsMap.size() + " nations...");
+        Map<String, YamlConfiguration> documents = new LinkedHashMap<>();
+        Map<NationPolitics, Long> versions = new HashMap<>();
         for (NationPolitics politics : nationPoliticsMap.values()) {
-            saveNationPolitics(politics);
+            if (!politics.isDirty()) continue;
+            versions.put(politics, politics.getVersion());
+            documents.put(politics.getNationUUID().toString(), serializeNationPolitics(politics));
+        }
+        plugin.getLogger().info("Saving politics data for " + documents.size() + " changed nations (of " + nationPoliticsMap.size() + ")...");
+        if (documents.isEmpty()) return;
+        try {
+            storage.saveAll(StorageCategory.NATION_POLITICS, documents); // 批量写入
+            versions.forEach(NationPolitics::markSaved);
+            plugin.getLogger().info("All changed nation politics data saved.");
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save all nation politics data.", e);
         }
-        plugin.getLogger().info("All nation politics data saved.");
     }
 
     public void onNationCreate(Nation nation) {
@@ -346,14 +468,12 @@ public class NationManager {
         if (nationUUID == null) return;
         plugin.getLogger().info("Towny nation with UUID " + nationUUID + " deleted. Removing political data...");
         NationPolitics removed = nationPoliticsMap.remove(nationUUID);
+        invalidateParliamentRoster(nationUUID);
         if (removed != null) {
-            File nationFile = new File(nationsDataFolder, nationUUID.toString() + NATION_POLITICS_FILE_EXTENSION);
-            if (nationFile.exists()) {
-                if (!nationFile.delete()) {
-                    plugin.getLogger().warning("Could not delete nation politics data file: " + nationFile.getName());
-                } else {
-                    plugin.getLogger().info("Successfully deleted nation politics data file for: " + nationUUID);
-                }
+            if (!storage.delete(StorageCategory.NATION_POLITICS, nationUUID.toString())) {
+                plugin.getLogger().warning("Could not delete nation politics data for: " + nationUUID);
+            } else {
+                plugin.getLogger().info("Successfully deleted nation politics data for: " + nationUUID);
             }
         }
         ElectionManager em = plugin.getElectionManager(); // <--- 动态获取
@@ -366,6 +486,7 @@ public class NationManager {
 
     public void reloadNationConfigAndData() {
         loadNationPoliticsData();
+        citizenshipIndex.rebuild();
         plugin.getLogger().info("Nation politics data reloaded.");
     }
 
@@ -382,4 +503,4 @@ public class NationManager {
         }
         return baseCost;
     }
-}
\ No newline at end of file
+}
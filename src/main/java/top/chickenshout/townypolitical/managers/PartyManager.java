@@ -8,7 +8,6 @@ import com.palmergames.bukkit.towny.object.Resident;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import top.chickenshout.townypolitical.TownyPolitical;
@@ -19,11 +18,10 @@ import top.chickenshout.townypolitical.economy.EconomyService;
 import top.chickenshout.townypolitical.enums.PartyRole;
 import top.chickenshout.townypolitical.utils.MessageManager;
 import top.chickenshout.townypolitical.managers.NationManager;
+import top.chickenshout.townypolitical.persistence.StorageCategory;
+import top.chickenshout.townypolitical.persistence.StorageProvider;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
@@ -41,9 +39,10 @@ public class PartyManager {
     private final Map<String, UUID> partyNameToId;
     // <PlayerUUID, PartyUUID> for quick player's party lookup (only official members)
     private final Map<UUID, UUID> playerToPartyId;
+    // <PartyUUID, 在线正式成员UUID集合> 由上下线和成员变动维护，供政党广播使用
+    private final Map<UUID, Set<UUID>> onlineMembersByParty;
 
-    private final File partiesDataFolder;
-    private static final String PARTY_FILE_EXTENSION = ".yml";
+    private final StorageProvider storage;
     // 默认中文、字母、数字、下划线，长度3-16。实际规则从config读取。
     private Pattern validPartyNamePattern;
     private int partyNameMinLength;
@@ -65,15 +64,11 @@ public class PartyManager {
         this.partiesById = new ConcurrentHashMap<>();
         this.partyNameToId = new ConcurrentHashMap<>();
         this.playerToPartyId = new ConcurrentHashMap<>();
+        this.onlineMembersByParty = new ConcurrentHashMap<>();
 
-        this.partiesDataFolder = new File(plugin.getDataFolder(), "parties");
-        if (!partiesDataFolder.exists()) {
-            if (!partiesDataFolder.mkdirs()) {
-                plugin.getLogger().severe("Could not create parties data folder!");
-            }
-        }
+        this.storage = plugin.getStorageProvider();
         loadConfigurableNameRules();
-        loadParties();
+        // 政党数据由 TownyPolitical 在启动时并行解析后通过 installParties 安装
     }
 
     private void loadConfigurableNameRules() {
@@ -128,7 +123,7 @@ public class PartyManager {
 
         partiesById.put(partyId, party);
         partyNameToId.put(trimmedName.toLowerCase(), partyId);
-        playerToPartyId.put(founder.getUniqueId(), partyId);
+        trackMember(founder.getUniqueId(), partyId);
 
         saveParty(party);
         messageManager.sendMessage(founder, "party-created", "party_name", party.getName());
@@ -147,8 +142,10 @@ public class PartyManager {
         }
 
         String partyName = party.getName();
-        party.getAllPartyPersonnel().forEach(pm -> playerToPartyId.remove(pm.getPlayerId()));
+        party.getAllPartyPersonnel().forEach(pm -> untrackMember(pm.getPlayerId()));
         partiesById.remove(party.getPartyId());
+        onlineMembersByParty.remove(party.getPartyId());
+        getNationManager().invalidateParliamentRostersForParty(party.getPartyId()); // 该党的议席代表不再有效
         partyNameToId.remove(partyName.toLowerCase());
         deletePartyDataFile(party.getPartyId());
 
@@ -208,7 +205,7 @@ public class PartyManager {
 
 
         if (party.addPlayerAsMember(targetPlayer.getUniqueId())) {
-            playerToPartyId.put(targetPlayer.getUniqueId(), party.getPartyId());
+            trackMember(targetPlayer.getUniqueId(), party.getPartyId());
             if (targetPlayer.getName() != null) { // Cache name on add
                 party.getMember(targetPlayer.getUniqueId()).ifPresent(pm -> pm.setNameCache(targetPlayer.getName()));
             }
@@ -294,7 +291,7 @@ public class PartyManager {
         }
 
         if (party.promoteApplicantToMember(applicantPlayer.getUniqueId())) {
-            playerToPartyId.put(applicantPlayer.getUniqueId(), party.getPartyId());
+            trackMember(applicantPlayer.getUniqueId(), party.getPartyId());
             if (applicantPlayer.getName() != null) {
                 party.getMember(applicantPlayer.getUniqueId()).ifPresent(pm -> pm.setNameCache(applicantPlayer.getName()));
             }
@@ -351,7 +348,8 @@ public class PartyManager {
         }
 
         party.removePlayer(player.getUniqueId());
-        playerToPartyId.remove(player.getUniqueId());
+        untrackMember(player.getUniqueId());
+        getNationManager().invalidateParliamentRostersForParty(party.getPartyId()); // 离党的议员不再代表该党
         saveParty(party);
         messageManager.sendMessage(player, "party-leave-success", "party_name", party.getName());
         // 通知领袖/管理员有成员离开 (可选)
@@ -385,7 +383,8 @@ public class PartyManager {
         }
 
         party.removePlayer(targetPlayer.getUniqueId());
-        playerToPartyId.remove(targetPlayer.getUniqueId());
+        untrackMember(targetPlayer.getUniqueId());
+        getNationManager().invalidateParliamentRostersForParty(party.getPartyId()); // 被开除的议员不再代表该党
         saveParty(party);
         messageManager.sendMessage(kicker, "party-kick-success", "player", targetPlayer.getName());
         if (targetPlayer.isOnline() && targetPlayer.getPlayer() != null) {
@@ -516,6 +515,7 @@ public class PartyManager {
         try {
             if (party.setLeader(newLeaderPlayer.getUniqueId())) {
                 saveParty(party);
+                getNationManager().invalidateParliamentRostersForParty(party.getPartyId()); // 党魁可能作为该党在各国议会的代表
                 messageManager.sendMessage(currentLeaderPlayer, "party-transfer-leader-success-own", "new_leader", newLeaderPlayer.getName());
                 if (newLeaderPlayer.isOnline() && newLeaderPlayer.getPlayer() != null) {
                     messageManager.sendMessage(newLeaderPlayer.getPlayer(), "party-transfer-leader-notification-new", "party_name", party.getName(), "old_leader", currentLeaderPlayer.getName());
@@ -575,7 +575,7 @@ public class PartyManager {
         List<String> notNationCitizens = new ArrayList<>(); // 可选检查
 
         for (String playerName : mpCandidateNames) {
-            OfflinePlayer mpPlayer = Bukkit.getOfflinePlayer(playerName); // 注意：这可能导致主线程卡顿
+            OfflinePlayer mpPlayer = resolvePartyMemberByName(party, playerName); // 非本党成员才会回退到 Bukkit 按名称查询
             if (!mpPlayer.hasPlayedBefore() && !mpPlayer.isOnline()) {
                 invalidPlayerNames.add(playerName);
                 continue;
@@ -586,9 +586,8 @@ public class PartyManager {
                 continue;
             }
             // 可选：检查是否为该国公民
-            Resident mpResident = TownyAPI.getInstance().getResident(mpPlayer.getUniqueId());
             boolean checkCitizenship = plugin.getConfig().getBoolean("bills.mp_must_be_citizen", true); // 新配置项
-            if (checkCitizenship && (mpResident == null || !mpResident.hasNation() || !mpResident.getNationOrNull().equals(nation))) {
+            if (checkCitizenship && !getNationManager().getCitizenshipIndex().isCitizenOf(mpPlayer.getUniqueId(), nation.getUUID())) {
                 notNationCitizens.add(playerName);
                 continue;
             }
@@ -616,6 +615,7 @@ public class PartyManager {
 
         // 更新 NationPolitics
         nationPolitics.setParliamentaryMembersForParty(party.getPartyId(), newMpUUIDs);
+        getNationManager().invalidateParliamentRoster(nation.getUUID());
         getNationManager().saveNationPolitics(nationPolitics);
 
         messageManager.sendMessage(initiator, "party-setmps-success", // 新消息
@@ -669,7 +669,7 @@ public class PartyManager {
             return false;
         }
 
-        OfflinePlayer mpPlayer = Bukkit.getOfflinePlayer(mpCandidateName);
+        OfflinePlayer mpPlayer = resolvePartyMemberByName(party, mpCandidateName);
         if (!mpPlayer.hasPlayedBefore() && !mpPlayer.isOnline()) {
             messageManager.sendMessage(initiator, "party-addmp-fail-player-not-found", "player", mpCandidateName); // 新消息
             return false;
@@ -680,9 +680,8 @@ public class PartyManager {
             return false;
         }
 
-        Resident mpResident = TownyAPI.getInstance().getResident(mpPlayer.getUniqueId());
         boolean checkCitizenship = plugin.getConfig().getBoolean("bills.mp_must_be_citizen", true);
-        if (checkCitizenship && (mpResident == null || !mpResident.hasNation() || !mpResident.getNationOrNull().equals(nation))) {
+        if (checkCitizenship && !getNationManager().getCitizenshipIndex().isCitizenOf(mpPlayer.getUniqueId(), nation.getUUID())) {
             messageManager.sendMessage(initiator, "party-addmp-fail-not-citizen", "player", mpCandidateName, "nation_name", nation.getName()); // 新消息
             return false;
         }
@@ -694,6 +693,7 @@ public class PartyManager {
 
         currentMps.add(mpPlayer.getUniqueId());
         nationPolitics.setParliamentaryMembersForParty(party.getPartyId(), currentMps); // setParliamentaryMembersForParty 会处理 new ArrayList
+        getNationManager().invalidateParliamentRoster(nation.getUUID());
         getNationManager().saveNationPolitics(nationPolitics);
 
         messageManager.sendMessage(initiator, "party-addmp-success", "player", mpPlayer.getName(), "nation_name", nation.getName()); // 新消息
@@ -727,7 +727,7 @@ public class PartyManager {
             return false;
         }
 
-        OfflinePlayer mpPlayer = Bukkit.getOfflinePlayer(mpCandidateName);
+        OfflinePlayer mpPlayer = resolvePartyMemberByName(party, mpCandidateName);
         if (!mpPlayer.hasPlayedBefore() && !mpPlayer.isOnline() && nationPolitics.getParliamentaryMembersForParty(party.getPartyId()).stream().noneMatch(id -> id.equals(mpPlayer.getUniqueId()))) {
             // 如果玩家不存在，并且他也不在当前议员列表里（通过UUID匹配，因为名字可能对不上）
             messageManager.sendMessage(initiator, "party-removemp-fail-player-not-found-or-not-mp", "player", mpCandidateName); // 新消息
@@ -740,6 +740,7 @@ public class PartyManager {
 
         if (removed) {
             nationPolitics.setParliamentaryMembersForParty(party.getPartyId(), currentMps);
+            getNationManager().invalidateParliamentRoster(nation.getUUID());
             getNationManager().saveNationPolitics(nationPolitics);
             messageManager.sendMessage(initiator, "party-removemp-success", "player", mpPlayer.getName() != null ? mpPlayer.getName() : mpCandidateName, "nation_name", nation.getName()); // 新消息
             // TODO: 通知被移除的议员
@@ -770,6 +771,75 @@ public class PartyManager {
         return partyId != null ? partiesById.get(partyId) : null;
     }
 
+    /**
+     * 按名称 (不区分大小写) 查找任一政党的正式成员。
+     * 使用各政党自己的名称索引 ({@link Party#getMemberByName(String)})，开销与政党数量成正比。
+     * @param playerName 玩家名称
+     * @return 玩家UUID，如果没有该名称的政党成员则为 null
+     */
+    public UUID getPartyMemberIdByName(String playerName) {
+        if (playerName == null || playerName.trim().isEmpty()) return null;
+        for (Party party : partiesById.values()) {
+            Optional<PartyMember> member = party.getMemberByName(playerName);
+            if (member.isPresent() && member.get().getRole() != PartyRole.APPLICANT) {
+                return member.get().getPlayerId();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析以名称指定的目标玩家：先在指定政党中查找成员，再查所有政党成员的名称索引，
+     * 只有不在任何政党中的名称才回退到可能阻塞的 Bukkit 按名称查询。
+     * @param party 优先查找的政党，可以为 null
+     */
+    public OfflinePlayer resolvePartyMemberByName(Party party, String playerName) {
+        if (party != null) {
+            Optional<PartyMember> member = party.getMemberByName(playerName);
+            if (member.isPresent()) return member.get().getOfflinePlayer();
+        }
+        UUID memberId = getPartyMemberIdByName(playerName);
+        return memberId != null ? Bukkit.getOfflinePlayer(memberId) : Bukkit.getOfflinePlayer(playerName);
+    }
+
+    /**
+     * 获取政党当前在线的正式成员。
+     * @param partyId 政党ID
+     * @return 在线成员UUID的只读集合
+     */
+    public Set<UUID> getOnlineMembers(UUID partyId) {
+        Set<UUID> online = partyId == null ? null : onlineMembersByParty.get(partyId);
+        return online == null ? Collections.emptySet() : Collections.unmodifiableSet(online);
+    }
+
+    private void trackMember(UUID playerId, UUID partyId) {
+        UUID previousPartyId = playerToPartyId.put(playerId, partyId);
+        if (previousPartyId != null && !previousPartyId.equals(partyId)) {
+            removeOnlineMember(previousPartyId, playerId);
+        }
+        if (Bukkit.getPlayer(playerId) != null) {
+            onlineMembersByParty.computeIfAbsent(partyId, k -> ConcurrentHashMap.newKeySet()).add(playerId);
+        }
+        NationManager nationManager = getNationManager();
+        if (nationManager != null) { // 启动加载政党时 NationManager 可能尚未创建 (此时也没有缓存的名册)
+            nationManager.invalidateParliamentRostersForParty(partyId); // 重新入党的议员重新代表该党
+        }
+    }
+
+    private void untrackMember(UUID playerId) {
+        UUID partyId = playerToPartyId.remove(playerId);
+        if (partyId != null) {
+            removeOnlineMember(partyId, playerId);
+        }
+    }
+
+    private void removeOnlineMember(UUID partyId, UUID playerId) {
+        Set<UUID> online = onlineMembersByParty.get(partyId);
+        if (online != null) {
+            online.remove(playerId);
+        }
+    }
+
     public Collection<Party> getAllParties() {
         return Collections.unmodifiableCollection(partiesById.values());
     }
@@ -790,45 +860,52 @@ public class PartyManager {
         // 更新玩家名称缓存（如果他在某个党派中）
         Party party = getPartyByMember(player.getUniqueId());
         if (party != null) {
-            party.getMember(player.getUniqueId()).ifPresent(pm -> pm.setNameCache(player.getName()));
+            party.getMember(player.getUniqueId()).ifPresent(pm -> pm.setNameCache(player.getName())); // 玩家可能已改名，同时刷新政党内的名称索引
+            onlineMembersByParty.computeIfAbsent(party.getPartyId(), k -> ConcurrentHashMap.newKeySet()).add(player.getUniqueId());
         }
         // 其他逻辑，例如发送未读政党消息等
     }
 
     public void onPlayerQuitServer(Player player) {
-        // 清理会话特定数据（如果未来有）
+        UUID partyId = playerToPartyId.get(player.getUniqueId());
+        if (partyId != null) {
+            removeOnlineMember(partyId, player.getUniqueId());
+        }
     }
 
 
-    // --- Data Persistence (YAML per party) ---
+    // --- Data Persistence (one document per party, via StorageProvider) ---
     public void loadParties() {
+        installParties(storage.loadAll(StorageCategory.PARTIES));
+    }
+
+    /**
+     * 用已解析的政党文档替换内存中的全部政党数据。必须在主线程调用。
+     * @param partyDocuments <文档ID, 已解析的文档>
+     */
+    public void installParties(Map<String, YamlConfiguration> partyDocuments) {
         partiesById.clear();
         partyNameToId.clear();
         playerToPartyId.clear();
+        onlineMembersByParty.clear(); // 重新加载时 trackMember 会重新登记在线成员
 
-        if (!partiesDataFolder.exists()) {
-            plugin.getLogger().info("Parties data folder does not exist. No parties loaded.");
+        if (partyDocuments.isEmpty()) {
+            plugin.getLogger().info("No party data found.");
             return;
         }
 
-        File[] partyFiles = partiesDataFolder.listFiles((dir, name) -> name.toLowerCase().endsWith(PARTY_FILE_EXTENSION));
-        if (partyFiles == null || partyFiles.length == 0) {
-            plugin.getLogger().info("No party data files found.");
-            return;
-        }
-
-        for (File partyFile : partyFiles) {
-            YamlConfiguration partyConfig = new YamlConfiguration();
+        for (Map.Entry<String, YamlConfiguration> document : partyDocuments.entrySet()) {
+            String documentId = document.getKey();
+            YamlConfiguration partyConfig = document.getValue();
             try {
-                partyConfig.load(partyFile); // 使用 try-with-resources or ensure stream is closed
                 UUID partyId = UUID.fromString(partyConfig.getString("id"));
                 String name = partyConfig.getString("name");
                 // long creationTimestamp = partyConfig.getLong("creationTimestamp"); // Party constructor handles this
 
                 ConfigurationSection membersSection = partyConfig.getConfigurationSection("members");
                 if (membersSection == null || name == null || name.isEmpty()) {
-                    plugin.getLogger().warning("Party file " + partyFile.getName() + " is corrupted (missing name or members section). Skipping.");
-                    moveCorruptedFile(partyFile, "corrupted_load_party_");
+                    plugin.getLogger().warning("Party data " + documentId + " is corrupted (missing name or members section). Skipping.");
+                    storage.quarantine(StorageCategory.PARTIES, documentId, "corrupted_load_party_");
                     continue;
                 }
 
@@ -849,13 +926,13 @@ public class PartyManager {
                             leaderId = memberUuid;
                         }
                     } catch (IllegalArgumentException e) {
-                        plugin.getLogger().warning("Invalid UUID or Role in party file " + partyFile.getName() + " for member " + uuidStr + ". Skipping member.");
+                        plugin.getLogger().warning("Invalid UUID or Role in party data " + documentId + " for member " + uuidStr + ". Skipping member.");
                     }
                 }
 
                 if (leaderId == null) {
-                    plugin.getLogger().warning("Party file " + partyFile.getName() + " has no leader defined. Skipping party.");
-                    moveCorruptedFile(partyFile, "no_leader_");
+                    plugin.getLogger().warning("Party data " + documentId + " has no leader defined. Skipping party.");
+                    storage.quarantine(StorageCategory.PARTIES, documentId, "no_leader_");
                     continue;
                 }
 
@@ -864,26 +941,27 @@ public class PartyManager {
 
                 for (Map.Entry<UUID, PartyRole> entry : tempMemberRoles.entrySet()) {
                     party.addPlayerWithRoleInternal(entry.getKey(), entry.getValue()); // Use internal method
-                    if (entry.getValue() != PartyRole.APPLICANT) {
-                        playerToPartyId.put(entry.getKey(), partyId);
-                    }
                     // Set name cache after adding member
-                    if (tempMemberNameCache.containsKey(entry.getKey())) {
-                        party.getMember(entry.getKey()).ifPresent(pm -> pm.setNameCache(tempMemberNameCache.get(entry.getKey())));
-                    } else { // If no cache, try to populate it from Bukkit (for online players or recently seen)
-                        OfflinePlayer op = Bukkit.getOfflinePlayer(entry.getKey());
-                        if (op.getName() != null) {
-                            party.getMember(entry.getKey()).ifPresent(pm -> pm.setNameCache(op.getName()));
-                        }
+                    String memberName = tempMemberNameCache.get(entry.getKey());
+                    if (memberName == null) { // If no cache, try to populate it from Bukkit (for online players or recently seen)
+                        memberName = Bukkit.getOfflinePlayer(entry.getKey()).getName();
+                    }
+                    if (memberName != null) {
+                        String cachedName = memberName;
+                        party.getMember(entry.getKey()).ifPresent(pm -> pm.setNameCache(cachedName));
+                    }
+                    if (entry.getValue() != PartyRole.APPLICANT) {
+                        trackMember(entry.getKey(), partyId);
                     }
                 }
 
+                party.markClean(); // 刚从存储加载，与磁盘一致
                 partiesById.put(partyId, party);
                 partyNameToId.put(name.toLowerCase(), partyId);
 
-            } catch (IOException | InvalidConfigurationException | IllegalArgumentException e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to load party from file: " + partyFile.getName(), e);
-                moveCorruptedFile(partyFile, "corrupted_exception_");
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to load party from data: " + documentId, e);
+                storage.quarantine(StorageCategory.PARTIES, documentId, "corrupted_exception_");
             }
         }
         plugin.getLogger().info("Loaded " + partiesById.size() + " parties.");
@@ -891,7 +969,16 @@ public class PartyManager {
 
     public void saveParty(Party party) {
         if (party == null) return;
-        File partyFile = new File(partiesDataFolder, party.getPartyId().toString() + PARTY_FILE_EXTENSION);
+        long version = party.getVersion(); // 先记下版本，序列化之后的修改会让政党保持为脏
+        try {
+            storage.save(StorageCategory.PARTIES, party.getPartyId().toString(), serializeParty(party));
+            party.markSaved(version);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save party: " + party.getName() + " (ID: " + party.getPartyId() + ")", e);
+        }
+    }
+
+    private YamlConfiguration serializeParty(Party party) {
         YamlConfiguration partyConfig = new YamlConfiguration();
 
         partyConfig.set("id", party.getPartyId().toString());
@@ -905,43 +992,35 @@ public class PartyManager {
             membersSection.set(path + ".role", member.getRole().name());
             membersSection.set(path + ".nameCache", member.getName()); // Save the (potentially cached) name
         }
-
-        try {
-            partyConfig.save(partyFile);
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not save party: " + party.getName() + " (ID: " + party.getPartyId() + ")", e);
-        }
-    }
-
-    private void moveCorruptedFile(File file, String prefix) {
-        if (file == null || !file.exists()) return;
-        File corruptedFolder = new File(partiesDataFolder.getParentFile(), "corrupted_data");
-        if (!corruptedFolder.exists()) corruptedFolder.mkdirs();
-        File newFile = new File(corruptedFolder, prefix + file.getName() + "_" + System.currentTimeMillis() + ".yml_disabled");
-        try {
-            Files.move(file.toPath(), newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            plugin.getLogger().warning("Moved corrupted file " + file.getName() + " to " + newFile.getPath());
-        } catch (IOException ex) {
-            plugin.getLogger().log(Level.SEVERE, "Could not move corrupted file " + file.getName(), ex);
-        }
+        return partyConfig;
     }
 
-
+    /**
+     * 保存自上次保存以来有变化的政党。未修改的政党不会被重写。
+     */
     public void saveAllParties() {
-        plugin.getLogger().info("Saving all parties (" + partiesById.size() + ")...");
+        Map<String, YamlConfiguration> documents = new LinkedHashMap<>();
+        Map<Party, Long> versions = new HashMap<>();
         for (Party party : partiesById.values()) {
-            saveParty(party);
+            if (!party.isDirty()) continue;
+            versions.put(party, party.getVersion());
+            documents.put(party.getPartyId().toString(), serializeParty(party));
+        }
+        plugin.getLogger().info("Saving " + documents.size() + " changed parties (of " + partiesById.size() + ")...");
+        if (documents.isEmpty()) return;
+        try {
+            storage.saveAll(StorageCategory.PARTIES, documents); // 批量写入
+            versions.forEach(Party::markSaved);
+            plugin.getLogger().info("All changed parties saved.");
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save all parties.", e);
         }
-        plugin.getLogger().info("All parties saved.");
     }
 
     private void deletePartyDataFile(UUID partyId) {
         if (partyId == null) return;
-        File partyFile = new File(partiesDataFolder, partyId.toString() + PARTY_FILE_EXTENSION);
-        if (partyFile.exists()) {
-            if (!partyFile.delete()) {
-                plugin.getLogger().warning("Could not delete party data file: " + partyFile.getName());
-            }
+        if (!storage.delete(StorageCategory.PARTIES, partyId.toString())) {
+            plugin.getLogger().warning("Could not delete party data: " + partyId);
         }
     }
 
@@ -954,4 +1033,4 @@ public class PartyManager {
     public void shutdown() {
         saveAllParties();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+// 文件名: DirtyTracker.java
+// 结构位置: top/chickenshout/townypolitical/persistence/DirtyTracker.java
+package top.chickenshout.townypolitical.persistence;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实体的版本号/脏标记。
+ * 实体的每个会影响持久化数据的修改都应调用 {@link #markDirty()} 递增版本号；
+ * 保存时先用 {@link #getVersion()} 记下序列化时的版本，写入成功后再调用 {@link #markSaved(long)}。
+ * 若写入期间实体又被修改，版本号会大于已保存的版本，实体仍保持为脏，下次保存时会再次写入。
+ *
+ * 子对象 (例如 PartyMember 之于 Party，Candidate 之于 Election) 可以挂到父对象的跟踪器上，
+ * 子对象变脏时父对象也随之变脏。
+ */
+public final class DirtyTracker {
+    private final AtomicLong version = new AtomicLong(1L);     // 新建的实体尚未保存过，默认为脏
+    private final AtomicLong savedVersion = new AtomicLong(0L);
+    private volatile DirtyTracker parent;
+
+    /**
+     * 标记实体已被修改。
+     * @return 修改后的版本号
+     */
+    public long markDirty() {
+        long newVersion = version.incrementAndGet();
+        DirtyTracker currentParent = parent;
+        if (currentParent != null) {
+            currentParent.markDirty();
+        }
+        return newVersion;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public boolean isDirty() {
+        return version.get() > savedVersion.get();
+    }
+
+    /**
+     * 记录某个版本已成功写入存储。可以在任意线程上调用；较旧的版本不会覆盖较新的记录。
+     * @param persistedVersion 序列化时通过 {@link #getVersion()} 取得的版本号
+     */
+    public void markSaved(long persistedVersion) {
+        savedVersion.accumulateAndGet(persistedVersion, Math::max);
+    }
+
+    /**
+     * 将当前版本视为已保存 (例如刚从存储加载完成时)。
+     */
+    public void markClean() {
+        markSaved(version.get());
+    }
+
+    /**
+     * 把此跟踪器挂到父对象的跟踪器上。传入 null 表示解除关联。
+     */
+    public void setParent(DirtyTracker parent) {
+        this.parent = parent;
+    }
+}
@@ -0,0 +1,326 @@
+// 文件名: SqliteStorageProvider.java
+// 结构位置: top/chickenshout/townypolitical/persistence/SqliteStorageProvider.java
+package top.chickenshout.townypolitical.persistence;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * 基于嵌入式 SQLite 单文件数据库的存储后端。
+ * 使用服务端 (Spigot/Paper) 自带的 SQLite JDBC 驱动，无需额外依赖。
+ *
+ * 所有文档存放在同一张表中，主键为 (category, id)；文档内容仍以 YAML 文本保存，保证与 YAML 存储格式一致。
+ * 上下文/类型/时间字段被提取为独立列并建立联合索引，用于按国家/政党查找选举或法案。
+ * 批量保存在单个事务中以 JDBC batch 方式写入。
+ */
+public class SqliteStorageProvider implements StorageProvider {
+    private static final String DRIVER_CLASS = "org.sqlite.JDBC";
+
+    private final JavaPlugin plugin;
+    private final File databaseFile;
+    private Connection connection;
+
+    public SqliteStorageProvider(JavaPlugin plugin, File databaseFile) {
+        if (plugin == null || databaseFile == null) {
+            throw new IllegalArgumentException("Plugin instance and database file cannot be null for SqliteStorageProvider.");
+        }
+        this.plugin = plugin;
+        this.databaseFile = databaseFile;
+    }
+
+    @Override
+    public synchronized boolean initialize() {
+        try {
+            Class.forName(DRIVER_CLASS);
+        } catch (ClassNotFoundException e) {
+            plugin.getLogger().severe("SQLite JDBC driver (" + DRIVER_CLASS + ") not found on this server. SQLite storage is unavailable.");
+            return false;
+        }
+        File parent = databaseFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            plugin.getLogger().severe("Could not create folder for SQLite database: " + parent.getPath());
+            return false;
+        }
+        try {
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS tp_documents (" +
+                        "category TEXT NOT NULL, " +
+                        "id TEXT NOT NULL, " +
+                        "context_id TEXT, " +
+                        "doc_type TEXT, " +
+                        "doc_time INTEGER NOT NULL DEFAULT 0, " +
+                        "data TEXT NOT NULL, " +
+                        "updated_at INTEGER NOT NULL, " +
+                        "PRIMARY KEY (category, id))");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_tp_documents_context " +
+                        "ON tp_documents (category, context_id, doc_type, doc_time)");
+                statement.execute("CREATE TABLE IF NOT EXISTS tp_corrupted_documents (" +
+                        "category TEXT NOT NULL, " +
+                        "id TEXT NOT NULL, " +
+                        "reason TEXT, " +
+                        "data TEXT, " +
+                        "moved_at INTEGER NOT NULL)");
+            }
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not open SQLite database " + databaseFile.getPath(), e);
+            close();
+            return false;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "SQLite (" + databaseFile.getName() + ")";
+    }
+
+    /**
+     * @return 数据库中是否还没有任何文档 (用于首次启用时从 YAML 导入)
+     */
+    public synchronized boolean isEmpty() {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT 1 FROM tp_documents LIMIT 1")) {
+            return !rs.next();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not query SQLite database state.", e);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized Map<String, YamlConfiguration> loadAll(StorageCategory category) {
+        Map<String, YamlConfiguration> documents = new LinkedHashMap<>();
+        List<String> unreadable = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement("SELECT id, data FROM tp_documents WHERE category = ?")) {
+            ps.setString(1, category.name());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String id = rs.getString(1);
+                    YamlConfiguration document = parse(category, id, rs.getString(2));
+                    if (document != null) {
+                        documents.put(id, document);
+                    } else {
+                        unreadable.add(id);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load " + category.name() + " documents from SQLite.", e);
+        }
+        for (String id : unreadable) {
+            quarantine(category, id, "load_error_");
+        }
+        return documents;
+    }
+
+    @Override
+    public synchronized Map<String, String> loadAllRaw(StorageCategory category) {
+        Map<String, String> documents = new LinkedHashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement("SELECT id, data FROM tp_documents WHERE category = ?")) {
+            ps.setString(1, category.name());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    documents.put(rs.getString(1), rs.getString(2));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load " + category.name() + " documents from SQLite.", e);
+        }
+        return documents;
+    }
+
+    @Override
+    public synchronized YamlConfiguration load(StorageCategory category, String id) {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT data FROM tp_documents WHERE category = ? AND id = ?")) {
+            ps.setString(1, category.name());
+            ps.setString(2, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? parse(category, id, rs.getString(1)) : null;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not load " + category.name() + " document " + id + " from SQLite.", e);
+            return null;
+        }
+    }
+
+    private YamlConfiguration parse(StorageCategory category, String id, String data) {
+        YamlConfiguration document = new YamlConfiguration();
+        try {
+            document.loadFromString(data);
+            return document;
+        } catch (InvalidConfigurationException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to parse " + category.name() + " document " + id + " from SQLite.", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void save(StorageCategory category, String id, YamlConfiguration document) throws IOException {
+        saveAll(category, Collections.singletonMap(id, document));
+    }
+
+    @Override
+    public synchronized void saveAll(StorageCategory category, Map<String, YamlConfiguration> documents) throws IOException {
+        if (documents.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT OR REPLACE INTO tp_documents (category, id, context_id, doc_type, doc_time, data, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (Map.Entry<String, YamlConfiguration> entry : documents.entrySet()) {
+                    StorageIndexEntry index = YamlStorageProvider.toIndexEntry(category, entry.getKey(), entry.getValue());
+                    ps.setString(1, category.name());
+                    ps.setString(2, entry.getKey());
+                    ps.setString(3, index.getContextId());
+                    ps.setString(4, index.getType());
+                    ps.setLong(5, index.getTime());
+                    ps.setString(6, entry.getValue().saveToString());
+                    ps.setLong(7, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw new IOException("Could not save " + documents.size() + " " + category.name() + " documents to SQLite.", e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+
+    @Override
+    public synchronized boolean delete(StorageCategory category, String id) {
+        try (PreparedStatement ps = connection.prepareStatement("DELETE FROM tp_documents WHERE category = ? AND id = ?")) {
+            ps.setString(1, category.name());
+            ps.setString(2, id);
+            ps.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not delete " + category.name() + " document " + id + " from SQLite.", e);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void move(StorageCategory from, String id, StorageCategory to, String newId) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+            // 先删除目标位置上可能存在的同名文档 (与 YAML 的 REPLACE_EXISTING 行为一致)
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM tp_documents WHERE category = ? AND id = ?")) {
+                delete.setString(1, to.name());
+                delete.setString(2, newId);
+                delete.executeUpdate();
+            }
+            int moved;
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE tp_documents SET category = ?, id = ?, updated_at = ? WHERE category = ? AND id = ?")) {
+                update.setString(1, to.name());
+                update.setString(2, newId);
+                update.setLong(3, System.currentTimeMillis());
+                update.setString(4, from.name());
+                update.setString(5, id);
+                moved = update.executeUpdate();
+            }
+            if (moved == 0) {
+                rollbackQuietly();
+                throw new IOException(from.name() + " document " + id + " does not exist.");
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw new IOException("Could not move " + from.name() + " document " + id + " to " + to.name() + ".", e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+
+    @Override
+    public synchronized void quarantine(StorageCategory category, String id, String reasonPrefix) {
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement copy = connection.prepareStatement(
+                    "INSERT INTO tp_corrupted_documents (category, id, reason, data, moved_at) " +
+                            "SELECT category, id, ?, data, ? FROM tp_documents WHERE category = ? AND id = ?");
+                 PreparedStatement delete = connection.prepareStatement("DELETE FROM tp_documents WHERE category = ? AND id = ?")) {
+                copy.setString(1, reasonPrefix);
+                copy.setLong(2, System.currentTimeMillis());
+                copy.setString(3, category.name());
+                copy.setString(4, id);
+                copy.executeUpdate();
+                delete.setString(1, category.name());
+                delete.setString(2, id);
+                delete.executeUpdate();
+            }
+            connection.commit();
+            plugin.getLogger().warning("Moved corrupted " + category.name() + " document " + id + " to table tp_corrupted_documents.");
+        } catch (SQLException e) {
+            rollbackQuietly();
+            plugin.getLogger().log(Level.SEVERE, "Could not quarantine corrupted " + category.name() + " document " + id, e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+
+    @Override
+    public synchronized List<StorageIndexEntry> queryIndex(StorageCategory category, String contextId, String type, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id, context_id, doc_type, doc_time FROM tp_documents WHERE category = ?");
+        if (contextId != null) sql.append(" AND context_id = ?");
+        if (type != null) sql.append(" AND doc_type = ? COLLATE NOCASE"); // 与 YamlStorageProvider 一致，类型不区分大小写
+        sql.append(" ORDER BY doc_time DESC");
+        if (limit > 0) sql.append(" LIMIT ").append(limit);
+
+        List<StorageIndexEntry> entries = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            ps.setString(index++, category.name());
+            if (contextId != null) ps.setString(index++, contextId);
+            if (type != null) ps.setString(index, type);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new StorageIndexEntry(rs.getString(1), rs.getString(2), rs.getString(3), rs.getLong(4)));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not query " + category.name() + " index from SQLite.", e);
+        }
+        return entries;
+    }
+
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "SQLite rollback failed.", e);
+        }
+    }
+
+    private void restoreAutoCommit() {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not restore SQLite auto-commit mode.", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not close SQLite connection.", e);
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,182 @@
+// 文件名: StartupDataLoader.java
+// 结构位置: top/chickenshout/townypolitical/persistence/StartupDataLoader.java
+package top.chickenshout.townypolitical.persistence;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * 启动时的并行数据加载器。
+ * 在一个有界的 ForkJoinPool 上同时读取所有类别的原始文档，并把每个文档的 YAML 解析拆成独立的子任务并行执行。
+ * 解析结果只是 YamlConfiguration 文档，不会触碰任何管理器；调用方随后在主线程上一次性安装到各管理器中。
+ */
+public class StartupDataLoader {
+
+    /**
+     * 单个类别的加载结果和耗时统计。
+     */
+    public static final class CategoryResult {
+        private final StorageCategory category;
+        private final Map<String, YamlConfiguration> documents;
+        private final List<String> unparsableIds;
+        private final int fileCount;
+        private final long bytes;
+        private final long parseMillis;
+        private long installMillis;
+
+        private CategoryResult(StorageCategory category, Map<String, YamlConfiguration> documents, List<String> unparsableIds,
+                               int fileCount, long bytes, long parseMillis) {
+            this.category = category;
+            this.documents = documents;
+            this.unparsableIds = unparsableIds;
+            this.fileCount = fileCount;
+            this.bytes = bytes;
+            this.parseMillis = parseMillis;
+        }
+
+        private static CategoryResult empty(StorageCategory category) {
+            return new CategoryResult(category, new LinkedHashMap<>(), new ArrayList<>(), 0, 0L, 0L);
+        }
+
+        public StorageCategory getCategory() { return category; }
+        public Map<String, YamlConfiguration> getDocuments() { return documents; }
+        public int getFileCount() { return fileCount; }
+        public long getBytes() { return bytes; }
+        public long getParseMillis() { return parseMillis; }
+        public long getInstallMillis() { return installMillis; }
+
+        /**
+         * 记录把本类别数据安装到管理器所花费的时间 (由调用方在主线程上测量)。
+         */
+        public void setInstallMillis(long installMillis) {
+            this.installMillis = installMillis;
+        }
+    }
+
+    private final JavaPlugin plugin;
+    private final StorageProvider storage;
+    private final int parallelism;
+
+    /**
+     * @param parallelism 解析线程数；小于等于0时使用 min(4, CPU核心数)
+     */
+    public StartupDataLoader(JavaPlugin plugin, StorageProvider storage, int parallelism) {
+        if (plugin == null || storage == null) {
+            throw new IllegalArgumentException("Plugin and storage provider cannot be null for StartupDataLoader.");
+        }
+        this.plugin = plugin;
+        this.storage = storage;
+        this.parallelism = parallelism > 0 ? parallelism : Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * 并行读取并解析给定类别的全部文档，阻塞直到全部完成。
+     * 无法解析的文档会在调用线程上被隔离 (见 {@link StorageProvider#quarantine})。
+     *
+     * @return &lt;类别, 加载结果&gt;
+     */
+    public Map<StorageCategory, CategoryResult> loadAll(StorageCategory... categories) {
+        Map<StorageCategory, CategoryResult> results = new EnumMap<>(StorageCategory.class);
+        ForkJoinPool pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("TownyPolitical-StartupLoader-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        try {
+            Map<StorageCategory, ForkJoinTask<CategoryResult>> tasks = new EnumMap<>(StorageCategory.class);
+            for (StorageCategory category : categories) {
+                tasks.put(category, pool.submit(() -> loadCategory(category)));
+            }
+            for (Map.Entry<StorageCategory, ForkJoinTask<CategoryResult>> entry : tasks.entrySet()) {
+                try {
+                    results.put(entry.getKey(), entry.getValue().join());
+                } catch (RuntimeException e) {
+                    plugin.getLogger().log(Level.SEVERE, "[StartupLoader] Failed to load " + entry.getKey().name() + " data.", e);
+                    results.put(entry.getKey(), CategoryResult.empty(entry.getKey()));
+                }
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 隔离操作会移动文件/数据行，放在调用线程上顺序执行
+        for (CategoryResult result : results.values()) {
+            for (String id : result.unparsableIds) {
+                storage.quarantine(result.category, id, "load_error_");
+            }
+        }
+        return results;
+    }
+
+    private CategoryResult loadCategory(StorageCategory category) {
+        long start = System.nanoTime();
+        Map<String, String> raw = storage.loadAllRaw(category);
+        String[] ids = raw.keySet().toArray(new String[0]);
+        YamlConfiguration[] parsed = new YamlConfiguration[ids.length];
+        long[] sizes = new long[ids.length];
+
+        List<ForkJoinTask<?>> parseTasks = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            final int index = i;
+            parseTasks.add(ForkJoinTask.adapt(() -> {
+                String text = raw.get(ids[index]);
+                sizes[index] = text.getBytes(StandardCharsets.UTF_8).length;
+                YamlConfiguration document = new YamlConfiguration();
+                try {
+                    document.loadFromString(text);
+                    parsed[index] = document;
+                } catch (InvalidConfigurationException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to parse " + category.name() + " document " + ids[index], e);
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(parseTasks);
+
+        Map<String, YamlConfiguration> documents = new LinkedHashMap<>();
+        List<String> unparsable = new ArrayList<>();
+        long bytes = 0L;
+        for (int i = 0; i < ids.length; i++) {
+            bytes += sizes[i];
+            if (parsed[i] != null) {
+                documents.put(ids[i], parsed[i]);
+            } else {
+                unparsable.add(ids[i]);
+            }
+        }
+        long parseMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new CategoryResult(category, documents, unparsable, ids.length, bytes, parseMillis);
+    }
+
+    /**
+     * 输出每个类别的加载统计 (文件数、字节数、解析耗时、安装耗时)。
+     */
+    public void logSummary(Map<StorageCategory, CategoryResult> results, long wallMillis) {
+        int totalFiles = 0;
+        long totalBytes = 0L;
+        long totalInstall = 0L;
+        for (CategoryResult result : results.values()) {
+            plugin.getLogger().info(String.format("[StartupLoader] %-18s %6d files, %9.1f KB, parse %5d ms, install %5d ms",
+                    result.category.name(), result.fileCount, result.bytes / 1024.0, result.parseMillis, result.installMillis));
+            totalFiles += result.fileCount;
+            totalBytes += result.bytes;
+            totalInstall += result.installMillis;
+        }
+        plugin.getLogger().info(String.format("[StartupLoader] Loaded %d files (%.1f KB) from %s with %d threads in %d ms (install %d ms).",
+                totalFiles, totalBytes / 1024.0, storage.getName(), parallelism, wallMillis, totalInstall));
+    }
+}
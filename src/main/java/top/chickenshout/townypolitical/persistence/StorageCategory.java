@@ -0,0 +1,54 @@
+// 文件名: StorageCategory.java
+// 结构位置: top/chickenshout/townypolitical/persistence/StorageCategory.java
+package top.chickenshout.townypolitical.persistence;
+
+/**
+ * 存储的数据类别。
+ * 每个类别对应 YAML 存储下的一个子目录，以及 SQL 存储中 category 列的一个取值。
+ * contextKey / typeKey / timeKey 指定文档中的哪些字段会被提取为可索引的列 (为 null 表示该类别不建立此索引)。
+ */
+public enum StorageCategory {
+    PARTIES("parties", null, null, null, ".yml_disabled"),
+    NATION_POLITICS("nations_politics", null, "governmentType", null, ".yml_disabled"),
+    BILLS("bills", "nationId", "status", "proposalTimestamp", ".yml_disabled"),
+    ELECTIONS_ACTIVE("elections/active", "contextId", "type", "endTime", ".yml_CORRUPTED"),
+    ELECTIONS_ARCHIVED("elections/archived", "contextId", "type", "endTime", ".yml_CORRUPTED"),
+    ELECTION_RESULTS("elections/results", "contextId", "type", "endTime", ".yml_CORRUPTED");
+
+    private final String folderPath;
+    private final String contextKey;
+    private final String typeKey;
+    private final String timeKey;
+    private final String corruptedSuffix;
+
+    StorageCategory(String folderPath, String contextKey, String typeKey, String timeKey, String corruptedSuffix) {
+        this.folderPath = folderPath;
+        this.contextKey = contextKey;
+        this.typeKey = typeKey;
+        this.timeKey = timeKey;
+        this.corruptedSuffix = corruptedSuffix;
+    }
+
+    /**
+     * @return 相对于插件数据目录的文件夹路径 (YAML 存储使用)
+     */
+    public String getFolderPath() {
+        return folderPath;
+    }
+
+    public String getContextKey() {
+        return contextKey;
+    }
+
+    public String getTypeKey() {
+        return typeKey;
+    }
+
+    public String getTimeKey() {
+        return timeKey;
+    }
+
+    public String getCorruptedSuffix() {
+        return corruptedSuffix;
+    }
+}
@@ -0,0 +1,47 @@
+// 文件名: StorageIndexEntry.java
+// 结构位置: top/chickenshout/townypolitical/persistence/StorageIndexEntry.java
+package top.chickenshout.townypolitical.persistence;
+
+/**
+ * 存储索引中的一条记录：文档ID以及从文档中提取出的可索引字段。
+ * 用于在不加载完整文档的情况下按上下文/类型/时间查找文档。
+ */
+public class StorageIndexEntry {
+    private final String id;
+    private final String contextId; // 可能为 null
+    private final String type;      // 可能为 null
+    private final long time;
+
+    public StorageIndexEntry(String id, String contextId, String type, long time) {
+        this.id = id;
+        this.contextId = contextId;
+        this.type = type;
+        this.time = time;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getContextId() {
+        return contextId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageIndexEntry{" +
+                "id='" + id + '\'' +
+                ", contextId='" + contextId + '\'' +
+                ", type='" + type + '\'' +
+                ", time=" + time +
+                '}';
+    }
+}
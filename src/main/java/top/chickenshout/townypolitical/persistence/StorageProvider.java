@@ -0,0 +1,95 @@
+// 文件名: StorageProvider.java
+// 结构位置: top/chickenshout/townypolitical/persistence/StorageProvider.java
+package top.chickenshout.townypolitical.persistence;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 存储后端接口。
+ * 各个管理器 (PartyManager, NationManager, BillManager, ElectionManager) 仍负责把实体序列化为
+ * YamlConfiguration 文档 (保持现有的数据格式)，存储后端只负责文档的读写、删除、归档和索引查询。
+ * 具体实现有 {@link YamlStorageProvider} (每个实体一个 .yml 文件) 和 {@link SqliteStorageProvider} (单文件嵌入式数据库)。
+ *
+ * 实现必须是线程安全的：选举数据会在写入队列的 I/O 线程上保存。
+ */
+public interface StorageProvider {
+
+    /**
+     * 初始化存储后端 (创建目录、打开数据库连接、建表等)。
+     * @return 如果初始化成功返回 true
+     */
+    boolean initialize();
+
+    /**
+     * @return 存储后端名称，用于日志显示
+     */
+    String getName();
+
+    /**
+     * 加载某一类别下的全部文档。
+     * 无法解析的文档会被隔离 (见 {@link #quarantine}) 并跳过。
+     * @return &lt;文档ID, 文档&gt;
+     */
+    Map<String, YamlConfiguration> loadAll(StorageCategory category);
+
+    /**
+     * 读取某一类别下全部文档的原始 YAML 文本，不做解析。
+     * 供 {@link StartupDataLoader} 在多个线程上并行解析使用。无法读取的文档会被记录并跳过。
+     * @return &lt;文档ID, 原始文本&gt;
+     */
+    Map<String, String> loadAllRaw(StorageCategory category);
+
+    /**
+     * 加载单个文档。
+     * @return 文档；如果不存在或无法解析则返回 null
+     */
+    YamlConfiguration load(StorageCategory category, String id);
+
+    /**
+     * 保存 (新建或覆盖) 一个文档。
+     * @throws IOException 如果写入失败
+     */
+    void save(StorageCategory category, String id, YamlConfiguration document) throws IOException;
+
+    /**
+     * 批量保存多个文档。支持事务的实现应在单个事务中完成整批写入。
+     * @throws IOException 如果写入失败
+     */
+    void saveAll(StorageCategory category, Map<String, YamlConfiguration> documents) throws IOException;
+
+    /**
+     * 删除一个文档。文档不存在时静默返回。
+     * @return 如果文档已不存在 (删除成功或本来就没有) 返回 true
+     */
+    boolean delete(StorageCategory category, String id);
+
+    /**
+     * 将文档从一个类别移动到另一个类别 (例如把结束的选举归档)，可同时更换文档ID。
+     * @throws IOException 如果移动失败
+     */
+    void move(StorageCategory from, String id, StorageCategory to, String newId) throws IOException;
+
+    /**
+     * 隔离一个损坏的文档，使其不会在下次加载时再被读取。
+     * @param reasonPrefix 说明原因的前缀 (例如 "bill_load_error_")
+     */
+    void quarantine(StorageCategory category, String id, String reasonPrefix);
+
+    /**
+     * 按索引字段查询文档，结果按时间字段降序排列。
+     * 所有实现的匹配规则必须相同：上下文ID精确匹配 (区分大小写)，类型不区分大小写。
+     * @param contextId 上下文ID，为 null 表示不限
+     * @param type 类型 (不区分大小写)，为 null 表示不限
+     * @param limit 最多返回多少条，小于等于0表示不限
+     */
+    List<StorageIndexEntry> queryIndex(StorageCategory category, String contextId, String type, int limit);
+
+    /**
+     * 关闭存储后端，释放资源。
+     */
+    void close();
+}
@@ -0,0 +1,305 @@
+// 文件名: VoteJournal.java
+// 结构位置: top/chickenshout/townypolitical/persistence/VoteJournal.java
+package top.chickenshout.townypolitical.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 选举投票的追加式日志 (append-only journal)。
+ * 每张选票写入一条记录 (类型 + 投票人UUID + 目标UUID + 时间戳)，磁盘开销与投票总数无关。
+ * 排序选票的记录在投票人之后写入偏好数量和按偏好排列的候选人UUID，长度随排序长度变化。
+ *
+ * 日志按“段”存放：&lt;选举ID&gt;.&lt;段号&gt;.journal。
+ * 每次写入完整快照前调用 {@link #roll(UUID)} 切换到新段，快照中记录新段号；
+ * 快照落盘后再删除更早的段。加载时只需重放快照记录段号及之后的所有段。
+ */
+public class VoteJournal {
+    public static final byte KIND_CANDIDATE = 1; // 目标为候选人 (玩家UUID)
+    public static final byte KIND_PARTY = 2;     // 目标为政党 (议会选举)
+    public static final byte KIND_RANKED = 3;    // 排序选票 (目标为按偏好排列的候选人)
+
+    // 1 (类型) + 16 (投票人) + 16 (目标) + 8 (时间戳)
+    public static final int RECORD_SIZE = 1 + 16 + 16 + 8;
+    // 排序选票：1 (类型) + 16 (投票人) + 1 (偏好数量 n) + n * 16 (候选人) + 8 (时间戳)
+    private static final int RANKED_HEADER_SIZE = 1 + 16 + 1;
+    public static final int MAX_RANKING_LENGTH = 255;
+    private static final String JOURNAL_FILE_EXTENSION = ".journal";
+
+    private final Logger logger;
+    private final File journalFolder;
+    private final Map<UUID, JournalState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 一条日志记录。
+     */
+    public static final class Record {
+        private final byte kind;
+        private final UUID voter;
+        private final UUID target;
+        private final List<UUID> ranking;
+        private final long timestamp;
+
+        public Record(byte kind, UUID voter, UUID target, long timestamp) {
+            this(kind, voter, target, List.of(target), timestamp);
+        }
+
+        private Record(byte kind, UUID voter, UUID target, List<UUID> ranking, long timestamp) {
+            this.kind = kind;
+            this.voter = voter;
+            this.target = target;
+            this.ranking = ranking;
+            this.timestamp = timestamp;
+        }
+
+        public byte getKind() { return kind; }
+        public UUID getVoter() { return voter; }
+        /** @return 投票目标；排序选票为第一偏好 */
+        public UUID getTarget() { return target; }
+        /** @return 排序选票的完整排序 (第一偏好在前)；其他记录只包含目标 */
+        public List<UUID> getRanking() { return ranking; }
+        public long getTimestamp() { return timestamp; }
+    }
+
+    private static final class JournalState {
+        int segment;                 // 当前写入的段号
+        int recordsSinceSnapshot;    // 自上次快照以来追加的记录数
+        FileChannel channel;         // 当前段的文件通道 (惰性打开)
+    }
+
+    public VoteJournal(Logger logger, File journalFolder) {
+        if (logger == null || journalFolder == null) {
+            throw new IllegalArgumentException("Logger and journal folder cannot be null for VoteJournal.");
+        }
+        this.logger = logger;
+        this.journalFolder = journalFolder;
+    }
+
+    /**
+     * 追加一条投票记录到选举的当前日志段。
+     *
+     * @return 自上次快照以来该选举已追加的记录数；写入失败时返回 -1 (调用方应退回到完整快照)
+     */
+    public synchronized int append(UUID electionId, byte kind, UUID voter, UUID target) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.put(kind);
+        buffer.putLong(voter.getMostSignificantBits()).putLong(voter.getLeastSignificantBits());
+        buffer.putLong(target.getMostSignificantBits()).putLong(target.getLeastSignificantBits());
+        buffer.putLong(System.currentTimeMillis());
+        buffer.flip();
+        return write(electionId, buffer);
+    }
+
+    /**
+     * 追加一张排序选票到选举的当前日志段。
+     *
+     * @param ranking 候选人UUID，第一偏好在前；最多 {@link #MAX_RANKING_LENGTH} 个
+     * @return 自上次快照以来该选举已追加的记录数；写入失败或排序过长时返回 -1 (调用方应退回到完整快照)
+     */
+    public synchronized int appendRanked(UUID electionId, UUID voter, List<UUID> ranking) {
+        if (ranking.isEmpty() || ranking.size() > MAX_RANKING_LENGTH) return -1;
+        ByteBuffer buffer = ByteBuffer.allocate(RANKED_HEADER_SIZE + ranking.size() * 16 + 8);
+        buffer.put(KIND_RANKED);
+        buffer.putLong(voter.getMostSignificantBits()).putLong(voter.getLeastSignificantBits());
+        buffer.put((byte) ranking.size());
+        for (UUID candidate : ranking) {
+            buffer.putLong(candidate.getMostSignificantBits()).putLong(candidate.getLeastSignificantBits());
+        }
+        buffer.putLong(System.currentTimeMillis());
+        buffer.flip();
+        return write(electionId, buffer);
+    }
+
+    private int write(UUID electionId, ByteBuffer buffer) { // 调用方持有 this 的锁
+        JournalState state = states.computeIfAbsent(electionId, k -> new JournalState());
+        try {
+            if (state.channel == null) {
+                state.channel = FileChannel.open(segmentFile(electionId, state.segment).toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            while (buffer.hasRemaining()) {
+                state.channel.write(buffer);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "[VoteJournal] Could not append vote record for election " + electionId, e);
+            closeChannel(state);
+            return -1;
+        }
+        return ++state.recordsSinceSnapshot;
+    }
+
+    /**
+     * 关闭当前段并切换到下一个段，供即将写入的完整快照使用。
+     *
+     * @return 新段号；快照应记录此值，加载时从此段开始重放
+     */
+    public synchronized int roll(UUID electionId) {
+        JournalState state = states.computeIfAbsent(electionId, k -> new JournalState());
+        closeChannel(state);
+        state.segment++;
+        state.recordsSinceSnapshot = 0;
+        return state.segment;
+    }
+
+    /**
+     * 读取并返回从指定段号开始的所有日志记录 (按写入顺序)。
+     * 不完整的尾部记录 (例如写入时崩溃) 会被忽略，并把该段截断到最后一条完整记录，
+     * 使之后追加的记录不会接在残缺的字节后面；截断失败时改为从一个新段开始追加。
+     * 同时会把该选举的当前段号推进到已存在的最大段号，避免覆盖旧段。
+     */
+    public synchronized List<Record> readFrom(UUID electionId, int fromSegment) {
+        List<Record> records = new ArrayList<>();
+        int maxSegment = fromSegment;
+        boolean untruncatedTail = false;
+        for (int segment : listSegments(electionId)) {
+            maxSegment = Math.max(maxSegment, segment);
+            if (segment < fromSegment) continue;
+            File file = segmentFile(electionId, segment);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    // 读满为止
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    int length = recordLength(buffer);
+                    if (length < 0 || buffer.remaining() < length) {
+                        if (length == 0) {
+                            logger.warning("[VoteJournal] Unknown record kind " + buffer.get(buffer.position()) + " in " + file.getName() + "; ignoring the rest of the segment.");
+                        } else {
+                            logger.warning("[VoteJournal] Ignoring " + buffer.remaining() + " trailing bytes of a torn record in " + file.getName());
+                        }
+                        break;
+                    }
+                    records.add(readRecord(buffer));
+                }
+                if (buffer.hasRemaining()) { // 去掉残缺或无法识别的尾部
+                    try {
+                        channel.truncate(buffer.position());
+                    } catch (IOException e) {
+                        untruncatedTail = true;
+                        logger.log(Level.WARNING, "[VoteJournal] Could not truncate the torn tail of " + file.getName() + "; new votes will go to a new segment.", e);
+                    }
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "[VoteJournal] Could not read journal segment " + file.getName(), e);
+            }
+        }
+        JournalState state = states.computeIfAbsent(electionId, k -> new JournalState());
+        closeChannel(state);
+        // 尾部未能截断时，新记录写入下一个段，避免与残缺的字节错位
+        state.segment = Math.max(state.segment, untruncatedTail ? maxSegment + 1 : maxSegment);
+        return records;
+    }
+
+    /**
+     * @return 从 buffer 当前位置开始的记录长度；长度还无法确定 (尾部不完整) 时返回 -1，类型无法识别时返回 0
+     */
+    private static int recordLength(ByteBuffer buffer) {
+        int start = buffer.position();
+        byte kind = buffer.get(start);
+        if (kind == KIND_CANDIDATE || kind == KIND_PARTY) return RECORD_SIZE;
+        if (kind != KIND_RANKED) return 0;
+        if (buffer.remaining() < RANKED_HEADER_SIZE) return -1;
+        int count = Byte.toUnsignedInt(buffer.get(start + RANKED_HEADER_SIZE - 1));
+        return RANKED_HEADER_SIZE + count * 16 + 8;
+    }
+
+    private static Record readRecord(ByteBuffer buffer) {
+        byte kind = buffer.get();
+        UUID voter = new UUID(buffer.getLong(), buffer.getLong());
+        if (kind != KIND_RANKED) {
+            UUID target = new UUID(buffer.getLong(), buffer.getLong());
+            return new Record(kind, voter, target, buffer.getLong());
+        }
+        int count = Byte.toUnsignedInt(buffer.get());
+        List<UUID> ranking = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ranking.add(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        long timestamp = buffer.getLong();
+        return new Record(kind, voter, ranking.isEmpty() ? null : ranking.get(0), List.copyOf(ranking), timestamp);
+    }
+
+    /**
+     * 删除段号小于 keepFromSegment 的所有日志段。应在对应快照成功落盘后调用 (可在I/O线程上)。
+     */
+    public synchronized void deleteSegmentsBefore(UUID electionId, int keepFromSegment) {
+        for (int segment : listSegments(electionId)) {
+            if (segment < keepFromSegment) {
+                File file = segmentFile(electionId, segment);
+                if (file.exists() && !file.delete()) {
+                    logger.warning("[VoteJournal] Could not delete compacted journal segment " + file.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * 释放选举的日志状态 (选举归档或删除时调用)。不会删除磁盘上的文件。
+     */
+    public synchronized void release(UUID electionId) {
+        JournalState state = states.remove(electionId);
+        if (state != null) {
+            closeChannel(state);
+        }
+    }
+
+    /**
+     * 删除选举的全部日志段。
+     */
+    public synchronized void deleteAll(UUID electionId) {
+        deleteSegmentsBefore(electionId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 关闭所有打开的日志文件 (插件关闭时调用)。
+     */
+    public synchronized void closeAll() {
+        for (JournalState state : states.values()) {
+            closeChannel(state);
+        }
+        states.clear();
+    }
+
+    private void closeChannel(JournalState state) {
+        if (state.channel == null) return;
+        try {
+            state.channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "[VoteJournal] Could not close journal channel.", e);
+        }
+        state.channel = null;
+    }
+
+    private File segmentFile(UUID electionId, int segment) {
+        return new File(journalFolder, electionId.toString() + "." + segment + JOURNAL_FILE_EXTENSION);
+    }
+
+    private List<Integer> listSegments(UUID electionId) {
+        String prefix = electionId.toString() + ".";
+        File[] files = journalFolder.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(JOURNAL_FILE_EXTENSION));
+        List<Integer> segments = new ArrayList<>();
+        if (files == null) return segments;
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                segments.add(Integer.parseInt(name.substring(prefix.length(), name.length() - JOURNAL_FILE_EXTENSION.length())));
+            } catch (NumberFormatException e) {
+                logger.warning("[VoteJournal] Ignoring unrecognised journal file " + name);
+            }
+        }
+        segments.sort(Integer::compareTo);
+        return segments;
+    }
+}
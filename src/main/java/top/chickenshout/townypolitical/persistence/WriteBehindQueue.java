@@ -0,0 +1,177 @@
+// 文件名: WriteBehindQueue.java
+// 结构位置: top/chickenshout/townypolitical/persistence/WriteBehindQueue.java
+package top.chickenshout.townypolitical.persistence;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 延迟写入 (write-behind) 队列。
+ * 调用方在主线程上构建好不可变的数据快照，并以 key 提交一个写入任务；
+ * 同一 key 在刷新前的多次提交会被合并，只有最后一次的快照会真正写入磁盘。
+ * 所有写入都在单一的专用 I/O 线程上按提交顺序执行，因此同一 key 的写入/删除/移动不会相互交错。
+ * 任务的取出和执行都在写入锁内进行，shutdown 超时后在调用线程上兜底写出时也不会与仍在运行的 I/O 线程交错。
+ */
+public class WriteBehindQueue {
+    private final Logger logger;
+    private final String name;
+    private final long flushDelayMillis;
+    private final long shutdownTimeoutMillis;
+
+    // <Key, 待执行的最新写入任务>
+    private final Map<String, Runnable> pendingWrites = new ConcurrentHashMap<>();
+    // 同一时刻只允许一个线程取出并执行写入任务，保证同一 key 的新快照不会被旧快照覆盖
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private ScheduledThreadPoolExecutor executor; // 惰性创建，shutdown 后可再次使用 (例如 /tp reload)
+
+    /**
+     * @param logger 用于输出写入失败等信息的日志
+     * @param name 队列名称，同时用作 I/O 线程名
+     * @param flushDelayMillis 提交后延迟多久再写入磁盘 (毫秒)。小于等于0表示尽快写入
+     * @param shutdownTimeoutMillis shutdown 时等待队列排空的最长时间 (毫秒)
+     */
+    public WriteBehindQueue(Logger logger, String name, long flushDelayMillis, long shutdownTimeoutMillis) {
+        if (logger == null || name == null) {
+            throw new IllegalArgumentException("Logger and name cannot be null for WriteBehindQueue.");
+        }
+        this.logger = logger;
+        this.name = name;
+        this.flushDelayMillis = Math.max(0L, flushDelayMillis);
+        this.shutdownTimeoutMillis = Math.max(1000L, shutdownTimeoutMillis);
+    }
+
+    /**
+     * 提交一个写入任务。如果同一 key 已有尚未执行的任务，则用新任务替换它 (合并写入)。
+     * 写入任务应只访问调用方事先准备好的快照数据，不得再读取可变的游戏对象。
+     *
+     * @param key 合并写入所用的键 (例如选举ID)
+     * @param writeTask 实际的磁盘操作
+     */
+    public void submit(String key, Runnable writeTask) {
+        if (key == null || writeTask == null) return;
+        Runnable previous = pendingWrites.put(key, writeTask);
+        if (previous == null) { // 只有首次变脏时才需要安排刷新，之后的提交由同一次刷新带走
+            getOrCreateExecutor().schedule(() -> flushKey(key), flushDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return 当前尚未写入磁盘的 key 数量
+     */
+    public int getPendingCount() {
+        return pendingWrites.size();
+    }
+
+    private void flushKey(String key) {
+        writeLock.lock();
+        try {
+            runPending(key);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 取出并执行某个 key 的待写入任务。调用方必须持有 writeLock。
+     */
+    private void runPending(String key) {
+        Runnable task = pendingWrites.remove(key);
+        if (task == null) return; // 已被 drain 带走
+        try {
+            task.run();
+        } catch (Throwable t) {
+            logger.log(Level.SEVERE, "[" + name + "] Write-behind task failed for key " + key, t);
+        }
+    }
+
+    private void drainPending() {
+        for (String key : new ArrayList<>(pendingWrites.keySet())) {
+            flushKey(key);
+        }
+    }
+
+    /**
+     * 在调用线程上写出剩余任务。每个任务都要先取得写入锁，因此不会与仍在执行的 I/O 线程交错；
+     * 如果 I/O 线程卡在某次写入中超过 shutdownTimeoutMillis，则放弃剩余任务而不是无限等待。
+     */
+    private void drainPendingOnCaller() {
+        for (String key : new ArrayList<>(pendingWrites.keySet())) {
+            try {
+                if (!writeLock.tryLock(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    logger.severe("[" + name + "] I/O thread is still busy; " + pendingWrites.size() + " pending writes were not flushed.");
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.severe("[" + name + "] Interrupted while flushing; " + pendingWrites.size() + " pending writes were not flushed.");
+                return;
+            }
+            try {
+                runPending(key);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private synchronized ScheduledThreadPoolExecutor getOrCreateExecutor() {
+        if (executor == null || executor.isShutdown()) {
+            executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "TownyPolitical-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 关闭时不再等待尚未到期的延迟任务，它们的内容会由 drainPending 一次性写出
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            executor.setRemoveOnCancelPolicy(true);
+        }
+        return executor;
+    }
+
+    /**
+     * 立即写出所有待写入的数据，并阻塞直到队列排空、I/O 线程结束。
+     * 之后再次调用 submit 会自动创建新的 I/O 线程。
+     */
+    public void shutdown() {
+        ScheduledThreadPoolExecutor current;
+        synchronized (this) {
+            current = executor;
+            executor = null;
+        }
+        if (current == null || current.isShutdown()) {
+            drainPendingOnCaller(); // 没有 I/O 线程，直接在调用线程上写出
+            return;
+        }
+
+        int pending = pendingWrites.size();
+        Future<?> drain = current.submit(this::drainPending);
+        current.shutdown();
+        try {
+            drain.get(shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (!current.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("[" + name + "] I/O thread did not terminate in time.");
+            }
+        } catch (TimeoutException e) {
+            logger.severe("[" + name + "] Timed out after " + shutdownTimeoutMillis + "ms while flushing " + pending + " pending writes. Remaining: " + pendingWrites.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warning("[" + name + "] Interrupted while flushing pending writes.");
+        } catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "[" + name + "] Failed to flush pending writes.", e.getCause());
+        }
+        // I/O 线程未能完成，最后在调用线程上兜底。不中断 I/O 线程 (中断会让正在进行的文件写入失败)，
+        // 两边按 key 竞争写入锁，每个任务只会被其中一方取出执行
+        if (!pendingWrites.isEmpty()) {
+            drainPendingOnCaller();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+// 文件名: YamlStorageProvider.java
+// 结构位置: top/chickenshout/townypolitical/persistence/YamlStorageProvider.java
+package top.chickenshout.townypolitical.persistence;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * 基于 YAML 文件的存储后端 (默认)。
+ * 每个文档对应 &lt;插件数据目录&gt;/&lt;类别目录&gt;/&lt;文档ID&gt;.yml，与插件此前的数据格式和目录结构完全一致。
+ */
+public class YamlStorageProvider implements StorageProvider {
+    private static final String FILE_EXTENSION = ".yml";
+
+    private final JavaPlugin plugin;
+    private final Map<StorageCategory, File> folders = new EnumMap<>(StorageCategory.class);
+
+    public YamlStorageProvider(JavaPlugin plugin) {
+        if (plugin == null) {
+            throw new IllegalArgumentException("Plugin instance cannot be null for YamlStorageProvider.");
+        }
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean initialize() {
+        for (StorageCategory category : StorageCategory.values()) {
+            File folder = new File(plugin.getDataFolder(), category.getFolderPath());
+            if (!folder.exists() && !folder.mkdirs()) {
+                plugin.getLogger().severe("Could not create data folder: " + folder.getPath());
+                return false;
+            }
+            folders.put(category, folder);
+        }
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "YAML";
+    }
+
+    private File fileFor(StorageCategory category, String id) {
+        return new File(folders.get(category), id + FILE_EXTENSION);
+    }
+
+    @Override
+    public Map<String, YamlConfiguration> loadAll(StorageCategory category) {
+        Map<String, YamlConfiguration> documents = new LinkedHashMap<>();
+        File folder = folders.get(category);
+        if (folder == null || !folder.isDirectory()) return documents;
+        File[] files = folder.listFiles((dir, name) -> name.toLowerCase().endsWith(FILE_EXTENSION));
+        if (files == null) return documents;
+
+        for (File file : files) {
+            String id = file.getName().substring(0, file.getName().length() - FILE_EXTENSION.length());
+            YamlConfiguration document = new YamlConfiguration();
+            try {
+                document.load(file);
+                documents.put(id, document);
+            } catch (IOException | InvalidConfigurationException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to read data file: " + file.getPath(), e);
+                quarantine(category, id, "load_error_");
+            }
+        }
+        return documents;
+    }
+
+    @Override
+    public Map<String, String> loadAllRaw(StorageCategory category) {
+        Map<String, String> documents = new LinkedHashMap<>();
+        File folder = folders.get(category);
+        if (folder == null || !folder.isDirectory()) return documents;
+        File[] files = folder.listFiles((dir, name) -> name.toLowerCase().endsWith(FILE_EXTENSION));
+        if (files == null) return documents;
+
+        for (File file : files) {
+            String id = file.getName().substring(0, file.getName().length() - FILE_EXTENSION.length());
+            try {
+                documents.put(id, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to read data file: " + file.getPath(), e);
+            }
+        }
+        return documents;
+    }
+
+    @Override
+    public YamlConfiguration load(StorageCategory category, String id) {
+        File file = fileFor(category, id);
+        if (!file.exists()) return null;
+        YamlConfiguration document = new YamlConfiguration();
+        try {
+            document.load(file);
+            return document;
+        } catch (IOException | InvalidConfigurationException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read data file: " + file.getPath(), e);
+            return null;
+        }
+    }
+
+    @Override
+    public void save(StorageCategory category, String id, YamlConfiguration document) throws IOException {
+        document.save(fileFor(category, id));
+    }
+
+    @Override
+    public void saveAll(StorageCategory category, Map<String, YamlConfiguration> documents) throws IOException {
+        IOException firstFailure = null;
+        for (Map.Entry<String, YamlConfiguration> entry : documents.entrySet()) {
+            try {
+                save(category, entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not save " + category.name() + " document " + entry.getKey(), e);
+                if (firstFailure == null) firstFailure = e;
+            }
+        }
+        if (firstFailure != null) throw firstFailure; // 其余文档仍会写入，只把第一个错误抛给调用方
+    }
+
+    @Override
+    public boolean delete(StorageCategory category, String id) {
+        File file = fileFor(category, id);
+        if (file.exists() && !file.delete()) {
+            plugin.getLogger().warning("Could not delete data file: " + file.getPath());
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void move(StorageCategory from, String id, StorageCategory to, String newId) throws IOException {
+        File source = fileFor(from, id);
+        if (!source.exists()) {
+            throw new IOException("Data file " + source.getPath() + " does not exist.");
+        }
+        Files.move(source.toPath(), fileFor(to, newId).toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void quarantine(StorageCategory category, String id, String reasonPrefix) {
+        File file = fileFor(category, id);
+        if (!file.exists()) return;
+        File corruptedFolder = new File(folders.get(category).getParentFile(), "corrupted_data");
+        if (!corruptedFolder.exists() && !corruptedFolder.mkdirs()) {
+            plugin.getLogger().severe("Could not create corrupted_data folder: " + corruptedFolder.getPath());
+            return;
+        }
+        File target = new File(corruptedFolder, reasonPrefix + file.getName() + "_" + System.currentTimeMillis() + category.getCorruptedSuffix());
+        try {
+            Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            plugin.getLogger().warning("Moved corrupted file " + file.getName() + " to " + target.getPath());
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Could not move corrupted file " + file.getName(), ex);
+        }
+    }
+
+    /**
+     * YAML 存储没有独立的索引，需要逐个读取文档后过滤 (O(文件数))。大量数据时建议使用 SQLite 存储。
+     */
+    @Override
+    public List<StorageIndexEntry> queryIndex(StorageCategory category, String contextId, String type, int limit) {
+        List<StorageIndexEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, YamlConfiguration> entry : loadAll(category).entrySet()) {
+            StorageIndexEntry indexEntry = toIndexEntry(category, entry.getKey(), entry.getValue());
+            if (contextId != null && !contextId.equals(indexEntry.getContextId())) continue;
+            if (type != null && !type.equalsIgnoreCase(indexEntry.getType())) continue;
+            entries.add(indexEntry);
+        }
+        entries.sort(Comparator.comparingLong(StorageIndexEntry::getTime).reversed());
+        return limit > 0 && entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * 从文档中提取类别定义的索引字段。
+     */
+    static StorageIndexEntry toIndexEntry(StorageCategory category, String id, YamlConfiguration document) {
+        String context = category.getContextKey() != null ? document.getString(category.getContextKey()) : null;
+        String type = category.getTypeKey() != null ? document.getString(category.getTypeKey()) : null;
+        long time = category.getTimeKey() != null ? document.getLong(category.getTimeKey(), 0L) : 0L;
+        return new StorageIndexEntry(id, context, type, time);
+    }
+
+    @Override
+    public void close() {
+        // 文件存储无需释放资源
+    }
+}
@@ -0,0 +1,78 @@
+// 文件名: BukkitTaskScheduler.java
+// 结构位置: top/chickenshout/townypolitical/scheduling/BukkitTaskScheduler.java
+package top.chickenshout.townypolitical.scheduling;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * 基于 BukkitScheduler 的调度实现 (Spigot/Paper)。
+ * 全局任务和实体任务都在服务器主线程上执行。
+ */
+public class BukkitTaskScheduler implements TaskScheduler {
+
+    private final Plugin plugin;
+    private final BukkitScheduler scheduler;
+
+    public BukkitTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = plugin.getServer().getScheduler();
+    }
+
+    @Override
+    public String getName() {
+        return "Bukkit";
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return false;
+    }
+
+    @Override
+    public Task runGlobal(Runnable task) {
+        return wrap(scheduler.runTask(plugin, task));
+    }
+
+    @Override
+    public Task runGlobalLater(Runnable task, long delayTicks) {
+        return wrap(scheduler.runTaskLater(plugin, task, Math.max(1L, delayTicks)));
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(scheduler.runTaskTimer(plugin, task, Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+    }
+
+    @Override
+    public Task runAsync(Runnable task) {
+        return wrap(scheduler.runTaskAsynchronously(plugin, task));
+    }
+
+    @Override
+    public Task runForEntity(Entity entity, Runnable task) {
+        if (entity == null || !entity.isValid()) return null;
+        return wrap(scheduler.runTask(plugin, task)); // 只有一个主线程，实体任务与全局任务相同
+    }
+
+    @Override
+    public void cancelAll() {
+        scheduler.cancelTasks(plugin);
+    }
+
+    private static Task wrap(BukkitTask bukkitTask) {
+        return new Task() {
+            @Override
+            public void cancel() {
+                bukkitTask.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return bukkitTask.isCancelled();
+            }
+        };
+    }
+}
@@ -0,0 +1,231 @@
+// 文件名: DeadlineScheduler.java
+// 结构位置: top/chickenshout/townypolitical/scheduling/DeadlineScheduler.java
+package top.chickenshout.townypolitical.scheduling;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import top.chickenshout.townypolitical.persistence.WriteBehindQueue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * 插件自有的截止时间调度器。
+ * 选举阶段推进、周期性选举启动、结果归档和法案投票截止都以“键 → 绝对时间 (毫秒)”的形式登记在这里，
+ * 由一个周期性的全局任务统一检查并执行到期的动作，不再为每个截止时间单独向调度器注册延迟任务。
+ * <p>
+ * 截止时间按 (到期时间, 登记顺序) 存放在 TreeSet 中，并以键建立 HashMap 索引，登记、替换和取消均为 O(log n)。
+ * 同一个键再次登记会替换旧的截止时间。所有键的到期时间会写入 deadlines.yml，
+ * 重启后管理器可以通过 {@link #getDueAt(String)} 取回之前的到期时间，而不是重新计算。
+ * <p>
+ * 所有方法都是线程安全的 (Folia 上玩家命令和全局任务会在不同线程上登记/取消截止时间)；
+ * 到期的动作在全局线程 (非 Folia 上即主线程) 执行。
+ */
+public class DeadlineScheduler {
+
+    private static final class Deadline {
+        final String key;
+        final long dueAt;
+        final long sequence;
+        final Runnable action;
+
+        Deadline(String key, long dueAt, long sequence, Runnable action) {
+            this.key = key;
+            this.dueAt = dueAt;
+            this.sequence = sequence;
+            this.action = action;
+        }
+    }
+
+    private static final Comparator<Deadline> ORDER = Comparator
+            .comparingLong((Deadline d) -> d.dueAt)
+            .thenComparingLong(d -> d.sequence);
+
+    private final JavaPlugin plugin;
+    private final TaskScheduler taskScheduler;
+    private final File stateFile;
+    private final WriteBehindQueue saveQueue;
+
+    private final TreeSet<Deadline> queue = new TreeSet<>(ORDER);
+    private final Map<String, Deadline> byKey = new HashMap<>();
+    // 从 deadlines.yml 读取、尚未被重新登记的到期时间；第一次保存时丢弃 (启动完成后仍未登记的键已无主)
+    private final Map<String, Long> persistedDueTimes = new HashMap<>();
+    private long nextSequence;
+    private boolean dirty;
+    private TaskScheduler.Task driverTask;
+
+    public DeadlineScheduler(JavaPlugin plugin, TaskScheduler taskScheduler, File stateFile) {
+        this.plugin = plugin;
+        this.taskScheduler = taskScheduler;
+        this.stateFile = stateFile;
+        this.saveQueue = new WriteBehindQueue(plugin.getLogger(), "DeadlineIO", 0L, 10000L);
+    }
+
+    /**
+     * 读取上次保存的到期时间。应在各管理器安装数据之前调用。
+     */
+    public synchronized void load() {
+        persistedDueTimes.clear();
+        if (!stateFile.exists()) return;
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(stateFile);
+        ConfigurationSection section = config.getConfigurationSection("deadlines");
+        if (section == null) return;
+        for (String key : section.getKeys(false)) {
+            long dueAt = section.getLong(key, 0L);
+            if (dueAt > 0L) {
+                persistedDueTimes.put(key, dueAt);
+            }
+        }
+        plugin.getLogger().info("[DeadlineScheduler] Loaded " + persistedDueTimes.size() + " persisted deadlines.");
+    }
+
+    /**
+     * 启动唯一的检查任务。检查间隔由 scheduler.check_interval_ticks 配置。
+     */
+    public void start() {
+        if (driverTask != null) return;
+        long intervalTicks = Math.max(1L, plugin.getConfig().getLong("scheduler.check_interval_ticks", 20L));
+        driverTask = taskScheduler.runGlobalTimer(this::tick, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * 登记 (或替换) 一个截止时间。到期时间已过的动作会在下一次检查时执行。
+     *
+     * @param key 唯一键，例如 "election_&lt;选举ID&gt;"
+     * @param dueAtMillis 到期的绝对时间 (System.currentTimeMillis() 口径)
+     * @param action 到期时在全局线程执行的动作
+     */
+    public synchronized void schedule(String key, long dueAtMillis, Runnable action) {
+        if (key == null || action == null) return;
+        removeKey(key);
+        Deadline deadline = new Deadline(key, dueAtMillis, nextSequence++, action);
+        queue.add(deadline);
+        byKey.put(key, deadline);
+        persistedDueTimes.remove(key);
+        dirty = true;
+    }
+
+    /**
+     * 取消一个截止时间。
+     * @return 如果该键确实有登记的截止时间
+     */
+    public synchronized boolean cancel(String key) {
+        if (key == null) return false;
+        boolean removed = removeKey(key);
+        if (persistedDueTimes.remove(key) != null) removed = true;
+        if (removed) dirty = true;
+        return removed;
+    }
+
+    /**
+     * 取消所有以指定前缀开头的截止时间 (例如重新加载法案前清除全部 "bill_" 键)。
+     * @return 取消的数量
+     */
+    public synchronized int cancelAll(String keyPrefix) {
+        int removed = 0;
+        for (String key : new ArrayList<>(byKey.keySet())) {
+            if (key.startsWith(keyPrefix) && removeKey(key)) removed++;
+        }
+        if (persistedDueTimes.keySet().removeIf(key -> key.startsWith(keyPrefix))) dirty = true;
+        if (removed > 0) dirty = true;
+        return removed;
+    }
+
+    public synchronized boolean isScheduled(String key) {
+        return byKey.containsKey(key);
+    }
+
+    /**
+     * @return 该键当前登记的到期时间；若本次运行尚未登记，则返回上次运行保存的到期时间；都没有则返回 0
+     */
+    public synchronized long getDueAt(String key) {
+        Deadline deadline = byKey.get(key);
+        if (deadline != null) return deadline.dueAt;
+        Long persisted = persistedDueTimes.get(key);
+        return persisted != null ? persisted : 0L;
+    }
+
+    public synchronized int size() {
+        return byKey.size();
+    }
+
+    /**
+     * 列出在指定时间之前到期、键以指定前缀开头的截止时间，按到期时间排序。
+     *
+     * @return 每项为 (键, 到期时间)
+     */
+    public synchronized List<Map.Entry<String, Long>> getUpcoming(String keyPrefix, long untilMillis) {
+        List<Map.Entry<String, Long>> upcoming = new ArrayList<>();
+        for (Deadline deadline : queue) {
+            if (deadline.dueAt >= untilMillis) break; // 按到期时间有序，之后的都更晚
+            if (deadline.key.startsWith(keyPrefix)) {
+                upcoming.add(new AbstractMap.SimpleImmutableEntry<>(deadline.key, deadline.dueAt));
+            }
+        }
+        return upcoming;
+    }
+
+    /**
+     * 停止检查任务并同步写出全部到期时间。登记的动作不会执行，下次启动时由各管理器按保存的时间重新登记。
+     */
+    public void shutdown() {
+        if (driverTask != null) {
+            driverTask.cancel();
+            driverTask = null;
+        }
+        submitSave();
+        saveQueue.shutdown();
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        List<Deadline> due = new ArrayList<>();
+        synchronized (this) {
+            while (!queue.isEmpty() && queue.first().dueAt <= now) {
+                Deadline deadline = queue.pollFirst();
+                byKey.remove(deadline.key);
+                due.add(deadline);
+                dirty = true;
+            }
+        }
+        // 在锁外执行，动作中可以继续登记或取消截止时间
+        for (Deadline deadline : due) {
+            try {
+                deadline.action.run();
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.SEVERE, "[DeadlineScheduler] Deadline action failed for key " + deadline.key, t);
+            }
+        }
+        if (dirty) {
+            submitSave();
+        }
+    }
+
+    private boolean removeKey(String key) {
+        Deadline previous = byKey.remove(key);
+        if (previous == null) return false;
+        queue.remove(previous);
+        return true;
+    }
+
+    private void submitSave() {
+        YamlConfiguration snapshot = new YamlConfiguration();
+        synchronized (this) {
+            persistedDueTimes.clear(); // 启动后第一次保存时，仍未被重新登记的旧键不再保留
+            for (Deadline deadline : queue) {
+                snapshot.set("deadlines." + deadline.key, deadline.dueAt);
+            }
+            dirty = false;
+        }
+        saveQueue.submit("deadlines", () -> {
+            try {
+                snapshot.save(stateFile);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "[DeadlineScheduler] Could not save " + stateFile.getName(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,154 @@
+// 文件名: FoliaTaskScheduler.java
+// 结构位置: top/chickenshout/townypolitical/scheduling/FoliaTaskScheduler.java
+package top.chickenshout.townypolitical.scheduling;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+/**
+ * 基于 Folia 区域调度器的实现：全局任务交给 GlobalRegionScheduler，异步任务交给 AsyncScheduler，
+ * 实体任务交给实体自己的 EntityScheduler (随实体跨区域移动)。
+ * 编译时依赖的 API 版本不一定包含这些调度器，因此通过反射调用；方法在构造时解析一次。
+ */
+public class FoliaTaskScheduler implements TaskScheduler {
+
+    private static final String FOLIA_MARKER_CLASS = "io.papermc.paper.threadedregions.RegionizedServer";
+    private static final String SCHEDULER_PACKAGE = "io.papermc.paper.threadedregions.scheduler.";
+
+    private final Plugin plugin;
+    private final Object globalScheduler;
+    private final Object asyncScheduler;
+
+    private final Method globalRun;
+    private final Method globalRunDelayed;
+    private final Method globalRunAtFixedRate;
+    private final Method globalCancelTasks;
+    private final Method asyncRunNow;
+    private final Method asyncCancelTasks;
+    private final Method entityGetScheduler;
+    private final Method entityRun;
+    private final Method taskCancel;
+    private final Method taskIsCancelled;
+
+    /**
+     * @return 当前服务器是否为 Folia (存在区域化服务器实现类)
+     */
+    public static boolean isSupported() {
+        try {
+            Class.forName(FOLIA_MARKER_CLASS);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @throws ReflectiveOperationException 如果服务器缺少所需的 Folia 调度器 API
+     */
+    public FoliaTaskScheduler(Plugin plugin) throws ReflectiveOperationException {
+        this.plugin = plugin;
+        Server server = plugin.getServer();
+        this.globalScheduler = Server.class.getMethod("getGlobalRegionScheduler").invoke(server);
+        this.asyncScheduler = Server.class.getMethod("getAsyncScheduler").invoke(server);
+
+        Class<?> globalType = Class.forName(SCHEDULER_PACKAGE + "GlobalRegionScheduler");
+        this.globalRun = globalType.getMethod("run", Plugin.class, Consumer.class);
+        this.globalRunDelayed = globalType.getMethod("runDelayed", Plugin.class, Consumer.class, long.class);
+        this.globalRunAtFixedRate = globalType.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+        this.globalCancelTasks = globalType.getMethod("cancelTasks", Plugin.class);
+
+        Class<?> asyncType = Class.forName(SCHEDULER_PACKAGE + "AsyncScheduler");
+        this.asyncRunNow = asyncType.getMethod("runNow", Plugin.class, Consumer.class);
+        this.asyncCancelTasks = asyncType.getMethod("cancelTasks", Plugin.class);
+
+        this.entityGetScheduler = Entity.class.getMethod("getScheduler");
+        Class<?> entityType = Class.forName(SCHEDULER_PACKAGE + "EntityScheduler");
+        this.entityRun = entityType.getMethod("run", Plugin.class, Consumer.class, Runnable.class);
+
+        Class<?> taskType = Class.forName(SCHEDULER_PACKAGE + "ScheduledTask");
+        this.taskCancel = taskType.getMethod("cancel");
+        this.taskIsCancelled = taskType.getMethod("isCancelled");
+    }
+
+    @Override
+    public String getName() {
+        return "Folia";
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return true;
+    }
+
+    @Override
+    public Task runGlobal(Runnable task) {
+        return wrap(invoke(globalRun, globalScheduler, plugin, asConsumer(task)));
+    }
+
+    @Override
+    public Task runGlobalLater(Runnable task, long delayTicks) {
+        return wrap(invoke(globalRunDelayed, globalScheduler, plugin, asConsumer(task), Math.max(1L, delayTicks)));
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(invoke(globalRunAtFixedRate, globalScheduler, plugin, asConsumer(task), Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+    }
+
+    @Override
+    public Task runAsync(Runnable task) {
+        return wrap(invoke(asyncRunNow, asyncScheduler, plugin, asConsumer(task)));
+    }
+
+    @Override
+    public Task runForEntity(Entity entity, Runnable task) {
+        if (entity == null) return null;
+        Object entityScheduler = invoke(entityGetScheduler, entity);
+        // 实体在任务执行前被移除时 (retired 回调) 不做任何事；返回 null 表示实体已不存在
+        Object scheduledTask = invoke(entityRun, entityScheduler, plugin, asConsumer(task), null);
+        return scheduledTask == null ? null : wrap(scheduledTask);
+    }
+
+    @Override
+    public void cancelAll() {
+        invoke(globalCancelTasks, globalScheduler, plugin);
+        invoke(asyncCancelTasks, asyncScheduler, plugin);
+        // 实体调度器的任务在插件禁用时由 Folia 自动丢弃
+    }
+
+    private static Consumer<Object> asConsumer(Runnable task) {
+        return scheduledTask -> task.run();
+    }
+
+    private Task wrap(Object scheduledTask) {
+        return new Task() {
+            @Override
+            public void cancel() {
+                invoke(taskCancel, scheduledTask);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return Boolean.TRUE.equals(invoke(taskIsCancelled, scheduledTask));
+            }
+        };
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Folia scheduler call " + method.getName() + " failed.", cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Folia scheduler method " + method.getName() + " is not accessible.", e);
+        }
+    }
+}
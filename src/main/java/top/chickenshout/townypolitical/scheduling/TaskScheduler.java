@@ -0,0 +1,74 @@
+// 文件名: TaskScheduler.java
+// 结构位置: top/chickenshout/townypolitical/scheduling/TaskScheduler.java
+package top.chickenshout.townypolitical.scheduling;
+
+import org.bukkit.entity.Entity;
+
+/**
+ * 任务调度门面。
+ * 插件内所有延迟/周期任务都通过这里提交，不再直接使用 BukkitRunnable 或 Bukkit.getScheduler()。
+ * 任务按执行位置分为三类：
+ * <ul>
+ *     <li>全局：不属于任何区域的插件逻辑 (截止时间检查、选举阶段推进、广播分批)</li>
+ *     <li>异步：不访问游戏对象的后台工作</li>
+ *     <li>实体：必须在某个玩家/实体所在区域线程上执行的操作</li>
+ * </ul>
+ * 具体实现有 {@link BukkitTaskScheduler} (Spigot/Paper，全局和实体任务都在主线程) 和
+ * {@link FoliaTaskScheduler} (Folia 的 GlobalRegionScheduler、AsyncScheduler 和实体调度器)。
+ * 在 Folia 上，全局任务与玩家命令、事件处理在不同线程上并发执行，被它们共同访问的管理器状态必须是线程安全的。
+ */
+public interface TaskScheduler {
+
+    /**
+     * 已提交任务的句柄。
+     */
+    interface Task {
+        void cancel();
+
+        boolean isCancelled();
+    }
+
+    /**
+     * @return 调度实现名称，用于日志显示
+     */
+    String getName();
+
+    /**
+     * @return 是否运行在 Folia 的区域多线程模型上
+     */
+    boolean isRegionThreaded();
+
+    /**
+     * 尽快在全局线程 (非 Folia 上即主线程) 执行任务。
+     */
+    Task runGlobal(Runnable task);
+
+    /**
+     * 在全局线程上延迟执行任务。
+     * @param delayTicks 延迟 (tick)，小于 1 时按 1 处理
+     */
+    Task runGlobalLater(Runnable task, long delayTicks);
+
+    /**
+     * 在全局线程上周期性执行任务。
+     * @param delayTicks 首次执行前的延迟 (tick)，小于 1 时按 1 处理
+     * @param periodTicks 执行间隔 (tick)，小于 1 时按 1 处理
+     */
+    Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * 在异步线程上执行任务。任务不得访问游戏对象。
+     */
+    Task runAsync(Runnable task);
+
+    /**
+     * 在拥有该实体 (例如玩家) 的线程上执行任务。
+     * @return 任务句柄；如果实体已被移除 (例如玩家已下线) 而无法安排，返回 null
+     */
+    Task runForEntity(Entity entity, Runnable task);
+
+    /**
+     * 取消本插件通过此调度器提交的全部任务 (插件关闭时调用)。
+     */
+    void cancelAll();
+}
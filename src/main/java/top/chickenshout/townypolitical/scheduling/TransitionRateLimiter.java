@@ -0,0 +1,72 @@
+// 文件名: TransitionRateLimiter.java
+// 结构位置: top/chickenshout/townypolitical/scheduling/TransitionRateLimiter.java
+package top.chickenshout.townypolitical.scheduling;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按分钟限制截止时间数量的预约表。
+ * 每个截止时间在登记前先预约一个时间：如果期望时间所在的那一分钟已满，就顺延到下一分钟
+ * (同一分钟内从期望时间起，跨分钟则从该分钟开头起)，直到找到有空位的分钟。
+ * 预约按键记录，同一个键再次预约或被取消时释放原来的位置 (已经过去的预约不再释放，仍计入当时的那一分钟)。
+ * 早于当前分钟的计数和按键记录在下一次预约时丢弃，内存占用只与尚未到期的预约数量有关。
+ * <p>
+ * 预约只保存在内存中；重启后各管理器重新登记截止时间时会重新预约。所有方法都是线程安全的。
+ */
+public class TransitionRateLimiter {
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final TreeMap<Long, Integer> countsByMinute = new TreeMap<>(); // 分钟序号 → 已预约数量
+    private final Map<String, Long> reservedAtByKey = new HashMap<>();
+
+    /**
+     * 为一个键预约时间。
+     *
+     * @param key          截止时间的键
+     * @param desiredAt    期望的时间 (毫秒)
+     * @param maxPerMinute 每分钟上限；0 或负数表示不限制
+     * @return 实际预约到的时间，不早于 desiredAt
+     */
+    public synchronized long reserve(String key, long desiredAt, int maxPerMinute) {
+        long now = System.currentTimeMillis();
+        release(key, now);
+        long currentMinute = now / MINUTE_MILLIS;
+        countsByMinute.headMap(currentMinute).clear(); // 丢弃已经过去的分钟
+        reservedAtByKey.values().removeIf(at -> at < currentMinute * MINUTE_MILLIS); // 以及已经触发的键
+
+        long minute = desiredAt / MINUTE_MILLIS;
+        if (maxPerMinute > 0) {
+            while (countsByMinute.getOrDefault(minute, 0) >= maxPerMinute) {
+                minute++;
+            }
+        }
+        long reservedAt = Math.max(desiredAt, minute * MINUTE_MILLIS);
+        countsByMinute.merge(minute, 1, Integer::sum);
+        reservedAtByKey.put(key, reservedAt);
+        return reservedAt;
+    }
+
+    /**
+     * 释放一个键尚未到期的预约 (截止时间被取消时调用)。
+     */
+    public synchronized void release(String key) {
+        release(key, System.currentTimeMillis());
+    }
+
+    /**
+     * 退还一个键的预约，即使预约时间已经过去 (到期的转换未能发生时调用，例如条件不满足而没有开始选举)。
+     */
+    public synchronized void refund(String key) {
+        release(key, Long.MIN_VALUE);
+    }
+
+    private void release(String key, long now) {
+        Long previous = reservedAtByKey.remove(key);
+        if (previous == null || previous < now) return; // 已经发生的转换仍计入当时的分钟
+        long minute = previous / MINUTE_MILLIS;
+        countsByMinute.computeIfPresent(minute, (m, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -0,0 +1,108 @@
+// 文件名: BroadcastService.java
+// 结构位置: top/chickenshout/townypolitical/utils/BroadcastService.java
+package top.chickenshout.townypolitical.utils;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import top.chickenshout.townypolitical.scheduling.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * 统一的广播发送服务。
+ * 每条广播只渲染一次消息并只构建一次聊天组件，然后对所有接收者复用，
+ * 避免 player.sendMessage(String) 在每个接收者上都重新解析一次传统颜色代码。
+ * 接收者数量超过 broadcast.max_recipients_per_tick 时，剩余部分在后续 tick 的全局任务中分批发送。
+ * 控制台镜像的日志级别由 broadcast.console_log_level 控制。
+ */
+public class BroadcastService {
+
+    private final JavaPlugin plugin;
+    private final MessageManager messageManager;
+    private final TaskScheduler taskScheduler;
+
+    public BroadcastService(JavaPlugin plugin, MessageManager messageManager, TaskScheduler taskScheduler) {
+        this.plugin = plugin;
+        this.messageManager = messageManager;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * 向一组玩家广播一条带前缀的消息。
+     *
+     * @param logLabel     控制台日志中的来源标签，例如 "Nation Broadcast to X"
+     * @param recipientIds 接收者UUID (不在线的会被跳过)；方法会复制一份，调用方之后修改集合不受影响
+     * @param messageKey   消息键
+     * @param placeholders 占位符
+     */
+    public void broadcast(String logLabel, Collection<UUID> recipientIds, String messageKey, Object... placeholders) {
+        String message = messageManager.getMessage(messageKey, placeholders);
+        deliver(new ArrayList<>(recipientIds), toComponents(message));
+        logToConsole(logLabel, message);
+    }
+
+    /**
+     * 向一组在线玩家广播一条带前缀的消息 (例如按权限筛选出的管理员)。
+     */
+    public void broadcastToPlayers(String logLabel, Collection<? extends Player> recipients, String messageKey, Object... placeholders) {
+        List<UUID> recipientIds = new ArrayList<>(recipients.size());
+        for (Player player : recipients) {
+            recipientIds.add(player.getUniqueId());
+        }
+        String message = messageManager.getMessage(messageKey, placeholders);
+        deliver(recipientIds, toComponents(message));
+        logToConsole(logLabel, message);
+    }
+
+    private BaseComponent[] toComponents(String message) {
+        return TextComponent.fromLegacyText(messageManager.getFormattedPrefix() + message); // 整个广播只解析一次
+    }
+
+    private void deliver(List<UUID> recipientIds, BaseComponent[] components) {
+        if (recipientIds.isEmpty()) return;
+        int perTick = plugin.getConfig().getInt("broadcast.max_recipients_per_tick", 0);
+        if (perTick <= 0) {
+            perTick = recipientIds.size();
+        }
+        sendBatch(recipientIds, 0, perTick, components); // 第一批立即发送
+    }
+
+    private void sendBatch(List<UUID> recipientIds, int from, int perTick, BaseComponent[] components) {
+        int end = Math.min(from + perTick, recipientIds.size());
+        sendRange(recipientIds, from, end, components);
+        if (end < recipientIds.size()) { // 其余每 tick 发送一批
+            taskScheduler.runGlobalLater(() -> sendBatch(recipientIds, end, perTick, components), 1L);
+        }
+    }
+
+    private static void sendRange(List<UUID> recipientIds, int from, int to, BaseComponent[] components) {
+        for (int i = from; i < to; i++) {
+            Player player = Bukkit.getPlayer(recipientIds.get(i));
+            if (player != null) {
+                player.spigot().sendMessage(components);
+            }
+        }
+    }
+
+    private void logToConsole(String logLabel, String message) {
+        Level level = parseLevel(plugin.getConfig().getString("broadcast.console_log_level", "FINE"));
+        if (level != Level.OFF && plugin.getLogger().isLoggable(level)) {
+            plugin.getLogger().log(level, "[" + logLabel + "] " + message);
+        }
+    }
+
+    private Level parseLevel(String levelName) {
+        try {
+            return Level.parse(levelName.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Level.FINE;
+        }
+    }
+}
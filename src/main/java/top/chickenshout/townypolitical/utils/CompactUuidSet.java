@@ -0,0 +1,308 @@
+// 文件名: CompactUuidSet.java
+// 结构位置: top/chickenshout/townypolitical/utils/CompactUuidSet.java
+package top.chickenshout.townypolitical.utils;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 紧凑的 UUID 集合 (只增不删，可整体清空)。
+ * 每个 UUID 以两个 long 存放在开放寻址的原始数组中，每个元素约占 16 字节 (加上负载因子留下的空槽)，
+ * 不再为每个元素分配 UUID 对象和 HashMap 条目。
+ * <p>
+ * 集合按哈希高位分成若干条带，每个条带是一张独立的线性探测表并由自己的锁保护，
+ * 不同条带上的插入/查询互不阻塞；{@link #add(UUID)} 的“检查并插入”是原子的。
+ * <p>
+ * {@link #toBytes()} / {@link #fromBytes(byte[])} 以紧凑二进制块 (每个元素 16 字节，大端序) 导出/导入全部元素，
+ * 用于替代逐个 UUID 字符串的列表。
+ * <p>
+ * {@link #snapshot()} 以写时复制的方式取得某一时刻的只读视图：调用方只记录每个条带当前的数组引用，
+ * 之后第一次向该条带插入时才复制数组，导出和编码可以交给其他线程完成。
+ */
+public final class CompactUuidSet {
+
+    private static final int STRIPE_BITS = 4;
+    private static final int STRIPE_COUNT = 1 << STRIPE_BITS;
+    private static final int INITIAL_STRIPE_CAPACITY = 16; // 每个条带的初始槽数 (2 的幂)
+    private static final int BYTES_PER_ELEMENT = 16;
+
+    /**
+     * 单个条带：槽 i 的两个 long 位于 slots[2i] 和 slots[2i + 1]。
+     * 全零 (即 nil UUID) 表示空槽，nil UUID 本身用单独的标志记录。
+     */
+    private static final class Stripe {
+        long[] slots = new long[INITIAL_STRIPE_CAPACITY * 2];
+        int size;
+        boolean containsNil;
+        boolean shared; // slots 已被某个快照引用，写入前需要先复制
+
+        int mask() {
+            return (slots.length >> 1) - 1;
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    public CompactUuidSet() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 添加一个 UUID。
+     * @return 如果集合中原本没有该 UUID 返回 true
+     */
+    public boolean add(UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid");
+        return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    private boolean add(long msb, long lsb) {
+        int hash = hash(msb, lsb);
+        Stripe stripe = stripes[hash >>> (32 - STRIPE_BITS)];
+        synchronized (stripe) {
+            if (msb == 0L && lsb == 0L) {
+                if (stripe.containsNil) return false;
+                stripe.containsNil = true;
+                stripe.size++;
+                return true;
+            }
+            int slot = findSlot(stripe.slots, stripe.mask(), hash, msb, lsb);
+            if (stripe.slots[slot << 1] != 0L || stripe.slots[(slot << 1) + 1] != 0L) {
+                return false; // 已存在
+            }
+            if (stripe.shared) { // 写时复制：快照继续持有旧数组
+                stripe.slots = stripe.slots.clone();
+                stripe.shared = false;
+            }
+            stripe.slots[slot << 1] = msb;
+            stripe.slots[(slot << 1) + 1] = lsb;
+            stripe.size++;
+            if (stripe.size * 4 > (stripe.mask() + 1) * 3) { // 负载因子超过 0.75 时扩容
+                grow(stripe);
+            }
+            return true;
+        }
+    }
+
+    public boolean contains(UUID uuid) {
+        if (uuid == null) return false;
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Stripe stripe = stripes[hash >>> (32 - STRIPE_BITS)];
+        synchronized (stripe) {
+            if (msb == 0L && lsb == 0L) return stripe.containsNil;
+            int slot = findSlot(stripe.slots, stripe.mask(), hash, msb, lsb);
+            return stripe.slots[slot << 1] != 0L || stripe.slots[(slot << 1) + 1] != 0L;
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.size;
+            }
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 清空集合，并把每个条带收缩回初始容量。
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.slots = new long[INITIAL_STRIPE_CAPACITY * 2];
+                stripe.size = 0;
+                stripe.containsNil = false;
+                stripe.shared = false;
+            }
+        }
+    }
+
+    /**
+     * 逐个访问集合中的元素。每个条带在访问期间加锁，因此动作中不要再修改本集合。
+     */
+    public void forEach(Consumer<UUID> action) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.containsNil) action.accept(new UUID(0L, 0L));
+                long[] slots = stripe.slots;
+                for (int i = 0; i < slots.length; i += 2) {
+                    if (slots[i] != 0L || slots[i + 1] != 0L) {
+                        action.accept(new UUID(slots[i], slots[i + 1]));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 包含全部元素的不可变 Set (会为每个元素创建 UUID 对象，只应在确实需要整个集合时调用)
+     */
+    public Set<UUID> toSet() {
+        List<UUID> elements = new ArrayList<>(size());
+        forEach(elements::add);
+        return Set.copyOf(elements);
+    }
+
+    /**
+     * 把全部元素导出为紧凑二进制块：每个元素依次写入高 64 位和低 64 位 (大端序)。
+     */
+    public byte[] toBytes() {
+        long[][] copies = new long[STRIPE_COUNT][];
+        boolean[] nils = new boolean[STRIPE_COUNT];
+        int total = 0;
+        for (int s = 0; s < STRIPE_COUNT; s++) {
+            Stripe stripe = stripes[s];
+            synchronized (stripe) {
+                copies[s] = stripe.slots.clone(); // 原始数组整体复制，锁内只做内存拷贝
+                nils[s] = stripe.containsNil;
+                total += stripe.size;
+            }
+        }
+        return pack(copies, nils, total);
+    }
+
+    /**
+     * 取得集合当前内容的只读快照。只记录各条带的数组引用 (与元素数量无关)，
+     * 数组的复制推迟到之后第一次向该条带插入时进行。
+     */
+    public Snapshot snapshot() {
+        long[][] slots = new long[STRIPE_COUNT][];
+        boolean[] nils = new boolean[STRIPE_COUNT];
+        int total = 0;
+        for (int s = 0; s < STRIPE_COUNT; s++) {
+            Stripe stripe = stripes[s];
+            synchronized (stripe) {
+                slots[s] = stripe.slots;
+                stripe.shared = true;
+                nils[s] = stripe.containsNil;
+                total += stripe.size;
+            }
+        }
+        return new Snapshot(slots, nils, total);
+    }
+
+    /**
+     * 由 {@link #snapshot()} 创建的只读视图。持有的数组不会再被修改，可以在任意线程上导出。
+     */
+    public static final class Snapshot {
+        private final long[][] slots;
+        private final boolean[] nils;
+        private final int size;
+
+        private Snapshot(long[][] slots, boolean[] nils, int size) {
+            this.slots = slots;
+            this.nils = nils;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * @return 与 {@link CompactUuidSet#toBytes()} 格式相同的二进制块
+         */
+        public byte[] toBytes() {
+            return pack(slots, nils, size);
+        }
+    }
+
+    private static byte[] pack(long[][] stripeSlots, boolean[] nils, int total) {
+        ByteBuffer buffer = ByteBuffer.allocate(total * BYTES_PER_ELEMENT);
+        for (int s = 0; s < STRIPE_COUNT; s++) {
+            if (nils[s] && buffer.remaining() >= BYTES_PER_ELEMENT) {
+                buffer.putLong(0L).putLong(0L);
+            }
+            long[] slots = stripeSlots[s];
+            for (int i = 0; i < slots.length && buffer.remaining() >= BYTES_PER_ELEMENT; i += 2) {
+                if (slots[i] != 0L || slots[i + 1] != 0L) {
+                    buffer.putLong(slots[i]).putLong(slots[i + 1]);
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 从 {@link #toBytes()} 生成的二进制块中导入元素 (与现有元素合并)。
+     * @return 导入后新增的元素数量
+     * @throws IllegalArgumentException 如果数据长度不是 16 的整数倍
+     */
+    public int addAllFromBytes(byte[] data) {
+        if (data == null || data.length == 0) return 0;
+        if (data.length % BYTES_PER_ELEMENT != 0) {
+            throw new IllegalArgumentException("Packed UUID block length " + data.length + " is not a multiple of " + BYTES_PER_ELEMENT + ".");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int added = 0;
+        while (buffer.remaining() >= BYTES_PER_ELEMENT) {
+            if (add(buffer.getLong(), buffer.getLong())) added++;
+        }
+        return added;
+    }
+
+    /**
+     * 由 {@link #toBytes()} 生成的二进制块创建集合。
+     */
+    public static CompactUuidSet fromBytes(byte[] data) {
+        CompactUuidSet set = new CompactUuidSet();
+        set.addAllFromBytes(data);
+        return set;
+    }
+
+    private static void grow(Stripe stripe) {
+        long[] old = stripe.slots;
+        long[] resized = new long[old.length * 2];
+        int mask = (resized.length >> 1) - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            long msb = old[i];
+            long lsb = old[i + 1];
+            if (msb != 0L || lsb != 0L) {
+                int slot = findSlot(resized, mask, hash(msb, lsb), msb, lsb);
+                resized[slot << 1] = msb;
+                resized[(slot << 1) + 1] = lsb;
+            }
+        }
+        stripe.slots = resized;
+    }
+
+    /**
+     * 线性探测：返回该 UUID 所在的槽，或者遇到的第一个空槽。
+     */
+    private static int findSlot(long[] slots, int mask, int hash, long msb, long lsb) {
+        int slot = hash & mask;
+        while (true) {
+            long slotMsb = slots[slot << 1];
+            long slotLsb = slots[(slot << 1) + 1];
+            if ((slotMsb == 0L && slotLsb == 0L) || (slotMsb == msb && slotLsb == lsb)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb; // 混合两个半部，再做 murmur3 的最终混淆
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e20f7de53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -18,6 +18,7 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -25,7 +26,8 @@ import java.util.regex.Pattern;
 public class MessageManager {
 
     private final JavaPlugin plugin;
-    private final Map<String, String> messages = new HashMap<>();
+    private final Map<String, String> messages = new ConcurrentHashMap<>(); // 重新加载时可能有其他线程 (Folia 区域线程) 正在读取
+    private volatile Map<String, MessageTemplate> templates = new HashMap<>(); // 加载时预编译，重新加载时整体替换
     private String prefix;
     private FileConfiguration messagesConfig;
     private final File messagesFile;
@@ -96,11 +98,15 @@ public class MessageManager {
 
         // 将所有消息加载到内存的 messages Map 中
         messages.clear();
+        Map<String, MessageTemplate> compiled = new HashMap<>();
         for (String key : messagesConfig.getKeys(true)) { // true表示获取所有深层嵌套的键
             if (messagesConfig.isString(key)) {
-                messages.put(key, messagesConfig.getString(key));
+                String raw = messagesConfig.getString(key);
+                messages.put(key, raw);
+                compiled.put(key, MessageTemplate.compile(raw)); // 颜色转换和占位符切分只在加载时做一次
             }
         }
+        this.templates = compiled;
 
         // 加载并设置插件前缀
         this.prefix = translateColors(getRawMessage("plugin-prefix", "&8[&eTowny&6Political&8] &r")); // 从加载后的messages Map获取
@@ -124,12 +130,12 @@ public class MessageManager {
      * @return 格式化后的消息。如果找不到键，返回一个包含键名的错误提示。
      */
     public String getMessage(String key) {
-        String message = messages.get(key);
-        if (message == null) {
+        MessageTemplate template = templates.get(key);
+        if (template == null) {
             plugin.getLogger().warning("Missing message key: '" + key + "' in messages.yml. Please add it or run /<yourplugin> reload messages.");
             return translateColors("&c[MissingMsg: " + key + "]");
         }
-        return translateColors(message);
+        return template.getText();
     }
 
     /**
@@ -139,24 +145,25 @@ public class MessageManager {
      * @return 格式化并替换占位符后的消息。如果找不到键，返回一个包含键名的错误提示。
      */
     public String getMessage(String key, Object... placeholders) {
-        String messageFormat = messages.get(key);
-        if (messageFormat == null) {
+        MessageTemplate template = templates.get(key);
+        if (template == null) {
             plugin.getLogger().warning("Missing message key: '" + key + "' (with placeholders) in messages.yml.");
             return translateColors("&c[MissingMsg: " + key + "]");
         }
         if (placeholders.length % 2 != 0) {
             plugin.getLogger().warning("Invalid placeholders for message key: '" + key + "'. Must be key-value pairs. Placeholders array length: " + placeholders.length);
-            return translateColors(messageFormat); // 返回未替换的但已颜色化的消息
+            return template.getText(); // 返回未替换的但已颜色化的消息
         }
-        String result = messageFormat;
-        for (int i = 0; i < placeholders.length; i += 2) {
-            if (placeholders[i] == null || placeholders[i+1] == null) {
-                plugin.getLogger().finer("Placeholder key or value is null for message key: '" + key + "' at index " + i);
-                continue;
-            }
-            result = result.replace("%" + placeholders[i].toString() + "%", placeholders[i+1].toString());
-        }
-        return translateColors(result);
+        return template.render(placeholders); // 值为 null 的占位符保持原样
+    }
+
+    /**
+     * 获取预编译的消息模板，供需要对同一消息多次渲染的调用方使用。
+     * @param key 消息的键
+     * @return 模板；找不到键时为 null
+     */
+    public MessageTemplate getTemplate(String key) {
+        return templates.get(key);
     }
 
     /**
@@ -274,4 +281,4 @@ public class MessageManager {
         loadMessages(); // 直接调用 loadMessages 即可，它包含了所有逻辑
         plugin.getLogger().info("Messages reloaded.");
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
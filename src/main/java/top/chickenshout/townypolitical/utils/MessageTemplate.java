@@ -0,0 +1,103 @@
+// 文件名: MessageTemplate.java
+// 结构位置: top/chickenshout/townypolitical/utils/MessageTemplate.java
+package top.chickenshout.townypolitical.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的消息模板。
+ * 加载 messages.yml 时每条消息只编译一次：颜色代码已转换，文本被拆分为字面量片段和 %占位符% 槽位，
+ * 渲染时一次遍历写入预估好容量的 StringBuilder，不再对每个占位符做一次 String.replace 和正则颜色转换。
+ */
+public final class MessageTemplate {
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("%([A-Za-z0-9_.\\-]+)%");
+    private static final int ESTIMATED_VALUE_LENGTH = 16;
+
+    private final String text;         // 完整的已着色文本 (占位符保持原样)，没有槽位时直接返回
+    private final String[] literals;   // literals.length == slotNames.length + 1
+    private final String[] slotNames;
+    private final int literalLength;
+
+    private MessageTemplate(String text, String[] literals, String[] slotNames) {
+        this.text = text;
+        this.literals = literals;
+        this.slotNames = slotNames;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * 编译一条原始消息。
+     * @param rawMessage messages.yml 中的原始文本 (含 &amp; 颜色代码)
+     * @return 编译后的模板
+     */
+    public static MessageTemplate compile(String rawMessage) {
+        // 占位符 %name% 中不含颜色代码，先整体转换颜色再切分，与旧实现 (先替换后转换) 对字面量的结果一致
+        String colored = MessageManager.translateColors(rawMessage);
+        List<String> literals = new ArrayList<>();
+        List<String> slotNames = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(colored);
+        int last = 0;
+        while (matcher.find()) {
+            literals.add(colored.substring(last, matcher.start()));
+            slotNames.add(matcher.group(1));
+            last = matcher.end();
+        }
+        literals.add(colored.substring(last));
+        return new MessageTemplate(colored, literals.toArray(new String[0]), slotNames.toArray(new String[0]));
+    }
+
+    public boolean hasPlaceholders() {
+        return slotNames.length > 0;
+    }
+
+    /**
+     * @return 不替换任何占位符的已着色文本
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 渲染模板。
+     * @param placeholders 成对出现的占位符名称和值，例如 "player", playerName；值中的颜色代码也会被转换
+     * @return 渲染后的文本；没有提供值的占位符保持 %name% 原样
+     */
+    public String render(Object... placeholders) {
+        if (slotNames.length == 0 || placeholders == null || placeholders.length == 0) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(literalLength + slotNames.length * ESTIMATED_VALUE_LENGTH);
+        for (int slot = 0; slot < slotNames.length; slot++) {
+            builder.append(literals[slot]);
+            String value = findValue(slotNames[slot], placeholders);
+            if (value != null) {
+                builder.append(value);
+            } else {
+                builder.append('%').append(slotNames[slot]).append('%');
+            }
+        }
+        builder.append(literals[slotNames.length]);
+        return builder.toString();
+    }
+
+    private static String findValue(String slotName, Object[] placeholders) {
+        for (int i = 0; i + 1 < placeholders.length; i += 2) {
+            Object name = placeholders[i];
+            Object value = placeholders[i + 1];
+            if (name == null || value == null) continue;
+            if (slotName.equals(name.toString())) {
+                String valueText = value.toString();
+                // 旧实现在替换后才转换颜色，值中的颜色代码同样会生效；只在确实含有 & 时才付出转换的开销
+                return valueText.indexOf('&') >= 0 ? MessageManager.translateColors(valueText) : valueText;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,165 @@
+// 文件名: ElectionFinishPipelineTest.java
+// 结构位置: top/chickenshout/townypolitical/elections/ElectionFinishPipelineTest.java
+package top.chickenshout.townypolitical.elections;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.chickenshout.townypolitical.enums.ElectionStatus;
+import top.chickenshout.townypolitical.enums.ElectionType;
+import top.chickenshout.townypolitical.scheduling.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ElectionFinishPipelineTest {
+
+    private ManualTaskScheduler scheduler;
+    private ElectionFinishPipeline<String> pipeline;
+
+    @BeforeEach
+    void setUp() {
+        JavaPlugin plugin = mock(JavaPlugin.class);
+        when(plugin.getConfig()).thenReturn(new YamlConfiguration());
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("ElectionFinishPipelineTest"));
+        scheduler = new ManualTaskScheduler();
+        // 与 ElectionManager.completeFinishedElection 一样，应用阶段把选举置为 FINISHED
+        pipeline = new ElectionFinishPipeline<>(plugin, scheduler, (election, tally) -> election.setStatus(ElectionStatus.FINISHED));
+    }
+
+    @Test
+    void finishSubmittedAfterShutdownReachesFinished() {
+        Election before = countingElection();
+        pipeline.submit(before, () -> "tally");
+        scheduler.runAll();
+        assertEquals(ElectionStatus.FINISHED, before.getStatus());
+
+        assertTrue(pipeline.shutdown().isEmpty());
+
+        // /tp reload 之后继续使用同一个 ElectionManager 和流水线
+        Election afterReload = countingElection();
+        pipeline.submit(afterReload, () -> "tally");
+        scheduler.runAll();
+        assertEquals(ElectionStatus.FINISHED, afterReload.getStatus());
+        assertEquals(0, pipeline.getQueueDepth());
+        assertEquals(2L, pipeline.getFinishedCount());
+    }
+
+    @Test
+    void tallyCompletingAfterShutdownIsNotApplied() {
+        Election election = countingElection();
+        pipeline.submit(election, () -> "tally");
+
+        List<Election> unfinished = pipeline.shutdown();
+        assertEquals(List.of(election), unfinished);
+        assertEquals(0, pipeline.getQueueDepth());
+
+        scheduler.runAll(); // 关闭前开始的计票在关闭后才完成
+        assertEquals(ElectionStatus.COUNTING, election.getStatus());
+        assertEquals(0L, pipeline.getFinishedCount());
+
+        pipeline.submit(election, () -> "tally"); // 重新加载后再次结束
+        scheduler.runAll();
+        assertEquals(ElectionStatus.FINISHED, election.getStatus());
+        assertEquals(1L, pipeline.getFinishedCount());
+    }
+
+    private static Election countingElection() {
+        Election election = new Election(UUID.randomUUID(), UUID.randomUUID(), ElectionType.PRESIDENTIAL);
+        election.setStatus(ElectionStatus.COUNTING);
+        return election;
+    }
+
+    /**
+     * 由测试手动推进的调度器：异步任务排队执行，全局定时任务每次 runAll 执行到没有新工作为止。
+     */
+    private static final class ManualTaskScheduler implements TaskScheduler {
+        private final List<Runnable> asyncTasks = new ArrayList<>();
+        private final List<ManualTask> timers = new ArrayList<>();
+
+        void runAll() {
+            while (!asyncTasks.isEmpty()) {
+                asyncTasks.remove(0).run();
+            }
+            for (int tick = 0; tick < 100 && timers.stream().anyMatch(task -> !task.cancelled); tick++) {
+                for (ManualTask timer : new ArrayList<>(timers)) {
+                    if (!timer.cancelled) timer.runnable.run();
+                }
+            }
+            timers.removeIf(task -> task.cancelled);
+        }
+
+        @Override
+        public String getName() {
+            return "Manual";
+        }
+
+        @Override
+        public boolean isRegionThreaded() {
+            return false;
+        }
+
+        @Override
+        public Task runGlobal(Runnable task) {
+            task.run();
+            return new ManualTask(task);
+        }
+
+        @Override
+        public Task runGlobalLater(Runnable task, long delayTicks) {
+            return runGlobal(task);
+        }
+
+        @Override
+        public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+            ManualTask timer = new ManualTask(task);
+            timers.add(timer);
+            return timer;
+        }
+
+        @Override
+        public Task runAsync(Runnable task) {
+            asyncTasks.add(task);
+            return new ManualTask(task);
+        }
+
+        @Override
+        public Task runForEntity(Entity entity, Runnable task) {
+            return runGlobal(task);
+        }
+
+        @Override
+        public void cancelAll() {
+            timers.forEach(ManualTask::cancel);
+            asyncTasks.clear();
+        }
+    }
+
+    private static final class ManualTask implements TaskScheduler.Task {
+        private final Runnable runnable;
+        private boolean cancelled;
+
+        ManualTask(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
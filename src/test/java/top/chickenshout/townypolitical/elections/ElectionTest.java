@@ -0,0 +1,104 @@
+// 文件名: ElectionTest.java
+// 结构位置: top/chickenshout/townypolitical/elections/ElectionTest.java
+package top.chickenshout.townypolitical.elections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.chickenshout.townypolitical.enums.BallotMode;
+import top.chickenshout.townypolitical.enums.ElectionStatus;
+import top.chickenshout.townypolitical.enums.ElectionType;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElectionTest {
+
+    private Election election;
+    private UUID alice;
+    private UUID bob;
+
+    @BeforeEach
+    void setUp() {
+        election = new Election(UUID.randomUUID(), UUID.randomUUID(), ElectionType.PRESIDENTIAL);
+        alice = UUID.randomUUID();
+        bob = UUID.randomUUID();
+        election.addCandidate(new Candidate(alice, null));
+        election.addCandidate(new Candidate(bob, null));
+        election.setStatus(ElectionStatus.VOTING);
+    }
+
+    @Test
+    void pluralityVoteIsCountedOncePerVoter() {
+        UUID voter = UUID.randomUUID();
+        assertTrue(election.recordVote(voter, alice));
+        assertFalse(election.recordVote(voter, bob));
+        assertEquals(1, election.getCandidate(alice).orElseThrow().getVotes());
+        assertEquals(0, election.getCandidate(bob).orElseThrow().getVotes());
+    }
+
+    @Test
+    void rankedElectionRejectsPluralityVotes() {
+        election.setBallotMode(BallotMode.RANKED);
+        UUID voter = UUID.randomUUID();
+
+        assertFalse(election.recordVote(voter, alice));
+        assertFalse(election.hasVoted(voter));
+        assertTrue(election.recordRankedVote(voter, List.of(alice, bob))); // 仍可提交排序选票
+    }
+
+    @Test
+    void pluralityElectionRejectsRankedVotes() {
+        assertFalse(election.recordRankedVote(UUID.randomUUID(), List.of(alice, bob)));
+    }
+
+    @Test
+    void votesMarkDirtyWithoutBumpingVersion() {
+        election.markClean();
+        long version = election.getVersion();
+        assertFalse(election.isDirty());
+
+        election.recordVote(UUID.randomUUID(), alice);
+        assertEquals(version, election.getVersion());
+        assertTrue(election.isDirty());
+
+        election.markSaved(election.getVersion(), election.captureVoteCounts());
+        assertFalse(election.isDirty());
+    }
+
+    @Test
+    void voteAfterCaptureKeepsElectionDirty() {
+        election.recordVote(UUID.randomUUID(), alice);
+        long version = election.getVersion();
+        Election.VoteCounts counts = election.captureVoteCounts();
+        election.recordVote(UUID.randomUUID(), alice); // 序列化期间的投票
+
+        election.markSaved(version, counts);
+        assertTrue(election.isDirty());
+        election.markSaved(election.getVersion(), election.captureVoteCounts());
+        assertFalse(election.isDirty());
+    }
+
+    @Test
+    void partyVotesRefreshSnapshotAndDirtyState() {
+        Election parliament = new Election(UUID.randomUUID(), UUID.randomUUID(), ElectionType.PARLIAMENTARY);
+        UUID party = UUID.randomUUID();
+        parliament.addParticipatingParty(party);
+        parliament.setStatus(ElectionStatus.VOTING);
+        parliament.markClean();
+        Election.Snapshot before = parliament.getSnapshot();
+
+        assertTrue(parliament.recordVoteForParty(UUID.randomUUID(), party));
+        assertTrue(parliament.isDirty());
+        Election.Snapshot after = parliament.getSnapshot();
+        assertEquals(1, after.getVoterCount());
+        assertEquals(Integer.valueOf(1), after.getPartyVotes().get(party));
+        assertEquals(0, before.getVoterCount());
+
+        parliament.markSaved(parliament.getVersion(), parliament.captureVoteCounts());
+        assertFalse(parliament.isDirty());
+    }
+}
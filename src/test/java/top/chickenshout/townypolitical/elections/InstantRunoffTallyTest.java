@@ -0,0 +1,123 @@
+// 文件名: InstantRunoffTallyTest.java
+// 结构位置: top/chickenshout/townypolitical/elections/InstantRunoffTallyTest.java
+package top.chickenshout.townypolitical.elections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstantRunoffTallyTest {
+
+    private static final UUID A = new UUID(0L, 1L);
+    private static final UUID B = new UUID(0L, 2L);
+    private static final UUID C = new UUID(0L, 3L);
+    private static final UUID D = new UUID(0L, 4L);
+    private static final UUID E = new UUID(0L, 5L);
+
+    @Test
+    void firstRoundMajorityWinsImmediately() {
+        Map<List<UUID>, Long> ballots = new LinkedHashMap<>();
+        ballots.put(List.of(A), 3L);
+        ballots.put(List.of(B, A), 1L);
+        ballots.put(List.of(C, B), 1L);
+
+        InstantRunoffTally.Result result = InstantRunoffTally.tally(List.of(A, B, C), ballots);
+        assertEquals(A, result.getWinner().orElseThrow());
+        assertEquals(1, result.getRounds().size());
+    }
+
+    @Test
+    void eliminatedCandidateTransfersToNextPreference() {
+        Map<List<UUID>, Long> ballots = new LinkedHashMap<>();
+        ballots.put(List.of(A), 4L);
+        ballots.put(List.of(B, C), 3L);
+        ballots.put(List.of(C, B), 2L);
+
+        InstantRunoffTally.Result result = InstantRunoffTally.tally(List.of(A, B, C), ballots);
+        assertEquals(B, result.getWinner().orElseThrow());
+        assertEquals(2, result.getRounds().size());
+        assertEquals(Map.of(A, 4L, B, 5L), result.getRounds().get(1));
+        assertEquals(0L, result.getExhaustedBallots());
+    }
+
+    @Test
+    void transfersSkipEliminatedCandidatesAndExhaustBallots() {
+        Map<List<UUID>, Long> ballots = new LinkedHashMap<>();
+        ballots.put(List.of(A), 5L);
+        ballots.put(List.of(B), 3L);
+        ballots.put(List.of(C, D), 2L); // D 已先被淘汰，C 被淘汰后这些选票失效
+        ballots.put(List.of(D, B), 1L);
+
+        InstantRunoffTally.Result result = InstantRunoffTally.tally(List.of(A, B, C, D), ballots);
+        assertEquals(A, result.getWinner().orElseThrow());
+        assertEquals(3, result.getRounds().size());
+        assertEquals(Map.of(A, 5L, B, 4L, C, 2L), result.getRounds().get(1));
+        assertEquals(2L, result.getExhaustedBallots()); // 第三轮 A 以 5/9 过半数当选
+    }
+
+    @Test
+    void lowestTallyTieIsBrokenByFewestFirstPreferences() {
+        Map<List<UUID>, Long> ballots = new LinkedHashMap<>();
+        ballots.put(List.of(A), 6L);
+        ballots.put(List.of(B), 4L);
+        ballots.put(List.of(C, B), 3L);
+        ballots.put(List.of(D, C), 2L);
+        ballots.put(List.of(E, C), 1L);
+
+        InstantRunoffTally.Result result = InstantRunoffTally.tally(List.of(A, B, C, D, E), ballots);
+        // 第四轮 A 与 C 各 6 票，C 的第一偏好票 (3) 少于 A (6)，淘汰 C
+        assertEquals(Map.of(A, 6L, C, 6L), result.getRounds().get(3));
+        assertEquals(A, result.getWinner().orElseThrow());
+    }
+
+    @Test
+    void candidatesTiedOnTalliesAndFirstPreferencesAreEliminatedTogether() {
+        Map<List<UUID>, Long> ballots = new LinkedHashMap<>();
+        ballots.put(List.of(A), 5L);
+        ballots.put(List.of(B), 4L);
+        ballots.put(List.of(C, B), 1L);
+        ballots.put(List.of(D, B), 1L);
+
+        InstantRunoffTally.Result result = InstantRunoffTally.tally(List.of(A, B, C, D), ballots);
+        // C 和 D 无法区分，同时淘汰，两张选票都转给 B
+        assertEquals(2, result.getRounds().size());
+        assertEquals(Map.of(A, 5L, B, 6L), result.getRounds().get(1));
+        assertEquals(B, result.getWinner().orElseThrow());
+    }
+
+    @Test
+    void indistinguishableFinalistsAreReportedAsTie() {
+        Map<List<UUID>, Long> ballots = new LinkedHashMap<>();
+        ballots.put(List.of(A), 2L);
+        ballots.put(List.of(B), 2L);
+
+        InstantRunoffTally.Result result = InstantRunoffTally.tally(List.of(A, B), ballots);
+        assertTrue(result.getWinner().isEmpty());
+        assertEquals(List.of(A, B), result.getTiedCandidates());
+    }
+
+    @Test
+    void unknownAndDuplicateCandidatesInRankingsAreIgnored() {
+        UUID withdrawn = UUID.randomUUID();
+        Map<List<UUID>, Long> ballots = new LinkedHashMap<>();
+        ballots.put(List.of(withdrawn, B, B, A), 3L);
+        ballots.put(List.of(A), 2L);
+
+        InstantRunoffTally.Result result = InstantRunoffTally.tally(List.of(A, B), ballots);
+        assertEquals(B, result.getWinner().orElseThrow());
+        assertEquals(Map.of(A, 2L, B, 3L), result.getRounds().get(0));
+    }
+
+    @Test
+    void noBallotsMeansNoWinnerAndNoTie() {
+        InstantRunoffTally.Result result = InstantRunoffTally.tally(List.of(A, B), Map.of());
+        assertTrue(result.getWinner().isEmpty());
+        assertTrue(result.getTiedCandidates().isEmpty());
+    }
+}
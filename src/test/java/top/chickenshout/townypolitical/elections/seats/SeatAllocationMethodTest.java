@@ -0,0 +1,123 @@
+// 文件名: SeatAllocationMethodTest.java
+// 结构位置: top/chickenshout/townypolitical/elections/seats/SeatAllocationMethodTest.java
+package top.chickenshout.townypolitical.elections.seats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatAllocationMethodTest {
+
+    private static final UUID A = new UUID(0L, 1L);
+    private static final UUID B = new UUID(0L, 2L);
+    private static final UUID C = new UUID(0L, 3L);
+    private static final UUID D = new UUID(0L, 4L);
+
+    private static Map<UUID, Integer> votes(int a, int b, int c, int d) {
+        Map<UUID, Integer> votes = new LinkedHashMap<>();
+        votes.put(A, a);
+        votes.put(B, b);
+        votes.put(C, c);
+        votes.put(D, d);
+        return votes;
+    }
+
+    private static Map<UUID, Integer> seats(int a, int b, int c, int d) {
+        return Map.of(A, a, B, b, C, c, D, d);
+    }
+
+    @Test
+    void dHondtAllocatesByHighestQuotients() {
+        SeatAllocationMethod method = HighestAveragesMethod.dHondt();
+        assertEquals(seats(3, 3, 1, 0), method.allocate(votes(100000, 80000, 30000, 20000), 7));
+        assertEquals(seats(4, 3, 1, 0), method.allocate(votes(100000, 80000, 30000, 20000), 8));
+    }
+
+    @Test
+    void sainteLagueFavoursSmallerPartiesMoreThanDHondt() {
+        SeatAllocationMethod method = HighestAveragesMethod.sainteLague();
+        // 第七席 A 与 D 的商同为 20000，总票数多的 A 优先
+        assertEquals(seats(3, 2, 1, 1), method.allocate(votes(100000, 80000, 30000, 20000), 7));
+    }
+
+    @Test
+    void hareAllocatesRemainingSeatsByLargestRemainder() {
+        SeatAllocationMethod method = new LargestRemainderHareMethod();
+        assertEquals(seats(3, 2, 1, 1), method.allocate(votes(100000, 80000, 30000, 20000), 7));
+    }
+
+    @Test
+    void equalRemaindersAreBrokenByVotesThenPartyId() {
+        SeatAllocationMethod method = new LargestRemainderHareMethod();
+        Map<UUID, Integer> tied = new LinkedHashMap<>();
+        tied.put(B, 1);
+        tied.put(A, 1);
+        assertEquals(Map.of(A, 1, B, 0), method.allocate(tied, 1));
+    }
+
+    @Test
+    void zeroVotePartiesGetNoSeatsAndNoVotesMeansNoAllocation() {
+        for (SeatAllocationMethod method : allMethods()) {
+            Map<UUID, Integer> result = method.allocate(votes(10, 5, 0, 0), 3);
+            assertEquals(0, result.get(C).intValue(), method.getName());
+            assertEquals(3, result.values().stream().mapToInt(Integer::intValue).sum(), method.getName());
+            assertTrue(method.allocate(votes(0, 0, 0, 0), 3).isEmpty(), method.getName());
+            assertTrue(method.allocate(votes(10, 5, 0, 0), 0).isEmpty(), method.getName());
+        }
+    }
+
+    @Test
+    void byNameIsCaseInsensitive() {
+        assertEquals("D_HONDT", SeatAllocationMethod.byName("d_hondt").orElseThrow().getName());
+        assertEquals("SAINTE_LAGUE", SeatAllocationMethod.byName(" Sainte_Lague ").orElseThrow().getName());
+        assertEquals("LARGEST_REMAINDER_HARE", SeatAllocationMethod.byName("largest_remainder_hare").orElseThrow().getName());
+        assertTrue(SeatAllocationMethod.byName("unknown").isEmpty());
+    }
+
+    @Test
+    void isStillValidDetectsCrossedBoundaries() {
+        SeatAllocationMethod method = HighestAveragesMethod.dHondt();
+        Map<UUID, Integer> allocation = method.allocate(votes(100000, 80000, 30000, 20000), 7);
+        assertTrue(method.isStillValid(votes(100000, 80000, 30000, 20000), 7, allocation));
+        assertTrue(method.isStillValid(votes(100100, 80000, 30000, 20000), 7, allocation));
+        // C 的第一席商 30000 被 D 超过
+        assertFalse(method.isStillValid(votes(100000, 80000, 30000, 31000), 7, allocation));
+        assertFalse(method.isStillValid(votes(100000, 80000, 30000, 20000), 8, allocation));
+    }
+
+    @Test
+    void isStillValidNeverDisagreesWithAllocate() {
+        Random random = new Random(42L);
+        for (HighestAveragesMethod method : List.of(HighestAveragesMethod.dHondt(), HighestAveragesMethod.sainteLague())) {
+            for (int trial = 0; trial < 2000; trial++) {
+                int totalSeats = 1 + random.nextInt(20);
+                Map<UUID, Integer> before = new HashMap<>();
+                for (int p = 0; p < 2 + random.nextInt(5); p++) {
+                    before.put(new UUID(1L, p), random.nextInt(200));
+                }
+                Map<UUID, Integer> allocation = method.allocate(before, totalSeats);
+                if (allocation.isEmpty()) continue;
+                assertTrue(method.isStillValid(before, totalSeats, allocation), method.getName());
+
+                Map<UUID, Integer> after = new HashMap<>(before);
+                after.replaceAll((party, count) -> count + random.nextInt(10)); // 投票期间票数只增不减
+                if (method.isStillValid(after, totalSeats, allocation)) {
+                    assertEquals(method.allocate(after, totalSeats), allocation, method.getName() + " " + after);
+                }
+            }
+        }
+    }
+
+    private static List<SeatAllocationMethod> allMethods() {
+        return List.of(HighestAveragesMethod.dHondt(), HighestAveragesMethod.sainteLague(), new LargestRemainderHareMethod());
+    }
+}
@@ -0,0 +1,106 @@
+// 文件名: VoteJournalTest.java
+// 结构位置: top/chickenshout/townypolitical/persistence/VoteJournalTest.java
+package top.chickenshout.townypolitical.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VoteJournalTest {
+
+    @TempDir
+    Path journalFolder;
+
+    private VoteJournal journal;
+    private final UUID electionId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        journal = new VoteJournal(Logger.getLogger("VoteJournalTest"), journalFolder.toFile());
+    }
+
+    @Test
+    void recordsRoundTripInOrder() {
+        UUID voterA = UUID.randomUUID();
+        UUID voterB = UUID.randomUUID();
+        UUID voterC = UUID.randomUUID();
+        UUID candidate = UUID.randomUUID();
+        UUID party = UUID.randomUUID();
+        List<UUID> ranking = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        assertEquals(1, journal.append(electionId, VoteJournal.KIND_CANDIDATE, voterA, candidate));
+        assertEquals(2, journal.appendRanked(electionId, voterB, ranking));
+        assertEquals(3, journal.append(electionId, VoteJournal.KIND_PARTY, voterC, party));
+        journal.closeAll();
+
+        List<VoteJournal.Record> records = journal.readFrom(electionId, 0);
+        assertEquals(3, records.size());
+        assertRecord(records.get(0), VoteJournal.KIND_CANDIDATE, voterA, candidate);
+        assertRecord(records.get(1), VoteJournal.KIND_RANKED, voterB, ranking.get(0));
+        assertEquals(ranking, records.get(1).getRanking());
+        assertRecord(records.get(2), VoteJournal.KIND_PARTY, voterC, party);
+    }
+
+    @Test
+    void replayStartsAtTheSnapshotSegment() {
+        UUID beforeSnapshot = UUID.randomUUID();
+        UUID afterSnapshot = UUID.randomUUID();
+        UUID candidate = UUID.randomUUID();
+
+        journal.append(electionId, VoteJournal.KIND_CANDIDATE, beforeSnapshot, candidate);
+        int snapshotSegment = journal.roll(electionId);
+        journal.append(electionId, VoteJournal.KIND_CANDIDATE, afterSnapshot, candidate);
+        journal.deleteSegmentsBefore(electionId, snapshotSegment);
+        journal.closeAll();
+
+        List<VoteJournal.Record> records = journal.readFrom(electionId, snapshotSegment);
+        assertEquals(1, records.size());
+        assertEquals(afterSnapshot, records.get(0).getVoter());
+    }
+
+    @Test
+    void tornTailIsTruncatedSoLaterAppendsStayAligned() throws IOException {
+        UUID candidate = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        journal.append(electionId, VoteJournal.KIND_CANDIDATE, first, candidate);
+        journal.appendRanked(electionId, UUID.randomUUID(), List.of(candidate, UUID.randomUUID()));
+        journal.closeAll();
+
+        File segment = new File(journalFolder.toFile(), electionId + ".0.journal");
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 5); // 模拟写入排序选票时崩溃
+        }
+
+        List<VoteJournal.Record> afterCrash = journal.readFrom(electionId, 0);
+        assertEquals(1, afterCrash.size());
+        assertEquals(VoteJournal.RECORD_SIZE, segment.length());
+
+        UUID afterRestart = UUID.randomUUID();
+        UUID ranked = UUID.randomUUID();
+        journal.append(electionId, VoteJournal.KIND_CANDIDATE, afterRestart, candidate);
+        journal.appendRanked(electionId, ranked, List.of(candidate));
+        journal.closeAll();
+
+        List<VoteJournal.Record> records = journal.readFrom(electionId, 0);
+        assertEquals(3, records.size());
+        assertEquals(first, records.get(0).getVoter());
+        assertRecord(records.get(1), VoteJournal.KIND_CANDIDATE, afterRestart, candidate);
+        assertRecord(records.get(2), VoteJournal.KIND_RANKED, ranked, candidate);
+    }
+
+    private static void assertRecord(VoteJournal.Record record, byte kind, UUID voter, UUID target) {
+        assertEquals(kind, record.getKind());
+        assertEquals(voter, record.getVoter());
+        assertEquals(target, record.getTarget());
+    }
+}
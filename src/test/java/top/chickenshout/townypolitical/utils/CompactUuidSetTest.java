@@ -0,0 +1,89 @@
+// 文件名: CompactUuidSetTest.java
+// 结构位置: top/chickenshout/townypolitical/utils/CompactUuidSetTest.java
+package top.chickenshout.townypolitical.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactUuidSetTest {
+
+    @Test
+    void addIsIdempotentAndContainsMatchesHashSet() {
+        CompactUuidSet set = new CompactUuidSet();
+        Set<UUID> expected = new HashSet<>();
+        Random random = new Random(7L);
+        for (int i = 0; i < 5000; i++) { // 远超初始容量，覆盖各条带的扩容
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            assertEquals(expected.add(uuid), set.add(uuid));
+        }
+        for (UUID uuid : expected) {
+            assertFalse(set.add(uuid));
+            assertTrue(set.contains(uuid));
+        }
+        assertFalse(set.contains(UUID.randomUUID()));
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, set.toSet());
+    }
+
+    @Test
+    void nilUuidIsStoredSeparatelyFromEmptySlots() {
+        CompactUuidSet set = new CompactUuidSet();
+        UUID nil = new UUID(0L, 0L);
+        assertFalse(set.contains(nil));
+        assertTrue(set.add(nil));
+        assertFalse(set.add(nil));
+        assertTrue(set.contains(nil));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        CompactUuidSet set = new CompactUuidSet();
+        set.add(new UUID(0L, 0L));
+        for (int i = 0; i < 100; i++) {
+            set.add(UUID.randomUUID());
+        }
+        byte[] packed = set.toBytes();
+        assertEquals(set.size() * 16, packed.length);
+        assertEquals(set.toSet(), CompactUuidSet.fromBytes(packed).toSet());
+        assertThrows(IllegalArgumentException.class, () -> new CompactUuidSet().addAllFromBytes(new byte[15]));
+    }
+
+    @Test
+    void snapshotIsUnaffectedByLaterAdds() {
+        CompactUuidSet set = new CompactUuidSet();
+        for (int i = 0; i < 50; i++) {
+            set.add(UUID.randomUUID());
+        }
+        Set<UUID> atSnapshot = set.toSet();
+        CompactUuidSet.Snapshot snapshot = set.snapshot();
+
+        for (int i = 0; i < 500; i++) { // 写时复制：之后的插入 (包括扩容) 不影响快照
+            set.add(UUID.randomUUID());
+        }
+        set.clear();
+
+        assertEquals(atSnapshot.size(), snapshot.size());
+        assertEquals(atSnapshot, CompactUuidSet.fromBytes(snapshot.toBytes()).toSet());
+    }
+
+    @Test
+    void clearEmptiesTheSet() {
+        CompactUuidSet set = new CompactUuidSet();
+        UUID uuid = UUID.randomUUID();
+        set.add(uuid);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(uuid));
+        assertTrue(set.add(uuid));
+    }
+}